@@ -1,14 +1,9 @@
 package com.atlassian.jgitflow.core;
 
-import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
 import org.apache.maven.shared.release.versions.VersionInfo;
 import org.apache.maven.shared.release.versions.VersionParseException;
-import org.codehaus.plexus.util.StringUtils;
 
-import java.util.Arrays;
 import java.util.List;
-import java.util.Locale;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class BaseVersionInfo implements VersionInfo {
@@ -29,24 +24,13 @@ public class BaseVersionInfo implements VersionInfo {
 
     protected String buildSeparator;
 
-    private static final int DIGITS_INDEX = 1;
-
-    private static final int ANNOTATION_SEPARATOR_INDEX = 2;
-
-    private static final int ANNOTATION_INDEX = 3;
-
-    private static final int ANNOTATION_REV_SEPARATOR_INDEX = 4;
-
-    private static final int ANNOTATION_REVISION_INDEX = 5;
-
-    private static final int BUILD_SEPARATOR_INDEX = 6;
-
-    private static final int BUILD_SPECIFIER_INDEX = 7;
-
-    private static final String SNAPSHOT_IDENTIFIER = "SNAPSHOT";
+    private ParsedVersion parsed;
 
     protected static final String DIGIT_SEPARATOR_STRING = ".";
 
+    /*
+     * The version grammar. Parsing is done by ParsedVersion, which accepts exactly what these patterns match
+     */
     public static final Pattern STANDARD_PATTERN = Pattern.compile(
             "^((?:\\d+\\.)*\\d+)"      // digit(s) and '.' repeated - followed by digit (version digits 1.22.0, etc)
                     + "([-_])?"                // optional - or _  (annotation separator)
@@ -78,54 +62,20 @@ public class BaseVersionInfo implements VersionInfo {
     {
         strVersion = version;
 
-        // FIX for non-digit release numbers, e.g. trunk-SNAPSHOT or just SNAPSHOT
-        Matcher matcher = ALTERNATE_PATTERN.matcher(strVersion);
-        // TODO: hack because it didn't support "SNAPSHOT"
-        if (matcher.matches())
-        {
-            annotation = null;
-            digits = null;
-            buildSpecifier = version;
-            buildSeparator = null;
-            return;
-        }
-
-        Matcher m = STANDARD_PATTERN.matcher(strVersion);
-        if (m.matches())
-        {
-            digits = parseDigits(m.group(DIGITS_INDEX));
-            if (!SNAPSHOT_IDENTIFIER.equals(m.group(ANNOTATION_INDEX)))
-            {
-                annotationSeparator = m.group(ANNOTATION_SEPARATOR_INDEX);
-                annotation = nullIfEmpty(m.group(ANNOTATION_INDEX));
-
-                if (StringUtils.isNotEmpty(m.group(ANNOTATION_REV_SEPARATOR_INDEX))
-                        && StringUtils.isEmpty(m.group(ANNOTATION_REVISION_INDEX)))
-                {
-                    // The build separator was picked up as the annotation revision separator
-                    buildSeparator = m.group(ANNOTATION_REV_SEPARATOR_INDEX);
-                    buildSpecifier = nullIfEmpty(m.group(BUILD_SPECIFIER_INDEX));
-                }
-                else
-                {
-                    annotationRevSeparator = m.group(ANNOTATION_REV_SEPARATOR_INDEX);
-                    annotationRevision = nullIfEmpty(m.group(ANNOTATION_REVISION_INDEX));
-
-                    buildSeparator = m.group(BUILD_SEPARATOR_INDEX);
-                    buildSpecifier = nullIfEmpty(m.group(BUILD_SPECIFIER_INDEX));
-                }
-            }
-            else
-            {
-                // Annotation was "SNAPSHOT" so populate the build specifier with that data
-                buildSeparator = m.group(ANNOTATION_SEPARATOR_INDEX);
-                buildSpecifier = nullIfEmpty(m.group(ANNOTATION_INDEX));
-            }
-        }
-        else
+        ParsedVersion parsed = ParsedVersion.of(version);
+        if (!parsed.isValid())
         {
             throw new VersionParseException("Unable to parse the version string: \"" + version + "\"");
         }
+
+        this.parsed = parsed;
+        digits = parsed.getDigits();
+        annotationSeparator = parsed.getAnnotationSeparator();
+        annotation = parsed.getAnnotation();
+        annotationRevSeparator = parsed.getAnnotationRevSeparator();
+        annotationRevision = parsed.getAnnotationRevision();
+        buildSeparator = parsed.getBuildSeparator();
+        buildSpecifier = parsed.getBuildSpecifier();
     }
 
     protected BaseVersionInfo() {
@@ -159,11 +109,7 @@ public class BaseVersionInfo implements VersionInfo {
         else
         {
             // TODO: this is a workaround for a bug in DefaultArtifactVersion - fix there - it should not consider case in comparing the qualifier
-            // NOTE: The combination of upper-casing and lower-casing is an approximation of String.equalsIgnoreCase()
-            String thisVersion = strVersion.toUpperCase(Locale.ENGLISH).toLowerCase(Locale.ENGLISH);
-            String thatVersion = that.strVersion.toUpperCase(Locale.ENGLISH).toLowerCase(Locale.ENGLISH);
-
-            result = new DefaultArtifactVersion(thisVersion).compareTo(new DefaultArtifactVersion(thatVersion));
+            result = getParsed().getComparable().compareTo(that.getParsed().getComparable());
         }
         return result;
     }
@@ -185,24 +131,20 @@ public class BaseVersionInfo implements VersionInfo {
         return strVersion;
     }
 
-    /**
-     * Splits the string on "." and returns a list
-     * containing each digit.
-     *
-     * @param strDigits
-     */
-    private List<String> parseDigits(String strDigits)
-    {
-        return Arrays.asList(StringUtils.split(strDigits, DIGIT_SEPARATOR_STRING));
-    }
-
     //--------------------------------------------------
     // Getters & Setters
     //--------------------------------------------------
 
-    private static String nullIfEmpty(String s)
+    /**
+     * Versions built from their parts rather than parsed get their parse the first time they're compared
+     */
+    private ParsedVersion getParsed()
     {
-        return StringUtils.isEmpty(s) ? null : s;
+        if (null == parsed)
+        {
+            parsed = ParsedVersion.of(strVersion);
+        }
+        return parsed;
     }
 
     @Override
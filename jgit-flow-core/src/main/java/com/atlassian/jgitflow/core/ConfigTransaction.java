@@ -0,0 +1,271 @@
+package com.atlassian.jgitflow.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import com.atlassian.jgitflow.core.exception.JGitFlowIOException;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Strings;
+
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.StoredConfig;
+
+/**
+ * A batch of edits to the repository config which is written with a single save.
+ * <p>
+ * Edits are made to the repository's config straight away so git commands run before the commit see them, but
+ * nothing is written until {@link #commit()}. Saving replaces the file atomically through its lock file and leaves
+ * the in memory config matching it, so the config isn't read back afterwards. Values which are already set are
+ * skipped, and a transaction without changes doesn't write anything.
+ * </p>
+ * <p>
+ * Transactions are started with {@link GitFlowConfiguration#beginTransaction()}:
+ * </p>
+ * <pre>
+ * ConfigTransaction tx = gfConfig.beginTransaction();
+ * try
+ * {
+ *     tx.setDevelop("develop").setUpstream("develop", "origin");
+ *     tx.commit();
+ * }
+ * finally
+ * {
+ *     tx.rollback();
+ * }
+ * </pre>
+ */
+public class ConfigTransaction
+{
+    private final StoredConfig config;
+    private final GitFlowConfiguration gfConfig;
+    private final List<Edit> edits;
+    private boolean dirty;
+    private boolean done;
+
+    ConfigTransaction(StoredConfig config, GitFlowConfiguration gfConfig)
+    {
+        this.config = config;
+        this.gfConfig = gfConfig;
+        this.edits = new ArrayList<Edit>();
+    }
+
+    /**
+     * Sets a value, unless it's already set to it
+     *
+     * @return {@code this}
+     */
+    public ConfigTransaction setString(String section, String subsection, String name, String value)
+    {
+        checkOpen();
+
+        if (!Objects.equal(value, config.getString(section, subsection, name)))
+        {
+            edits.add(new Edit(section, subsection, name, config.getStringList(section, subsection, name)));
+            config.setString(section, subsection, name, value);
+            dirty = true;
+
+            if (JGitFlowConstants.SECTION.equals(section))
+            {
+                gfConfig.invalidate();
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Sets a value only if it has no value yet
+     *
+     * @return {@code this}
+     */
+    public ConfigTransaction setStringIfAbsent(String section, String subsection, String name, String value)
+    {
+        if (Strings.isNullOrEmpty(config.getString(section, subsection, name)))
+        {
+            setString(section, subsection, name, value);
+        }
+
+        return this;
+    }
+
+    /**
+     * Removes a whole subsection, e.g. the settings of a deleted branch
+     *
+     * @return {@code this}
+     */
+    public ConfigTransaction removeSection(String section, String subsection)
+    {
+        checkOpen();
+
+        Set<String> names = config.getNames(section, subsection);
+        if (!names.isEmpty())
+        {
+            for (String name : names)
+            {
+                edits.add(new Edit(section, subsection, name, config.getStringList(section, subsection, name)));
+            }
+
+            config.unsetSection(section, subsection);
+            dirty = true;
+
+            if (JGitFlowConstants.SECTION.equals(section))
+            {
+                gfConfig.invalidate();
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Sets the name of the develop branch
+     *
+     * @return {@code this}
+     */
+    public ConfigTransaction setDevelop(String branchName)
+    {
+        return setString(JGitFlowConstants.SECTION, ConfigConstants.CONFIG_BRANCH_SECTION, JGitFlowConstants.DEVELOP_KEY, branchName);
+    }
+
+    /**
+     * Sets the name of the master branch
+     *
+     * @return {@code this}
+     */
+    public ConfigTransaction setMaster(String branchName)
+    {
+        return setString(JGitFlowConstants.SECTION, ConfigConstants.CONFIG_BRANCH_SECTION, Constants.MASTER, branchName);
+    }
+
+    /**
+     * Sets the value for a given prefix. Names which aren't git flow prefixes are ignored.
+     *
+     * @return {@code this}
+     */
+    public ConfigTransaction setPrefix(String prefixName, String prefixValue)
+    {
+        if (gfConfig.getPrefixNames().contains(prefixName))
+        {
+            setString(JGitFlowConstants.SECTION, JGitFlowConstants.PREFIX_SUB, prefixName, prefixValue);
+        }
+
+        return this;
+    }
+
+    /**
+     * Makes a local branch track the branch with the same name on the given remote
+     *
+     * @return {@code this}
+     */
+    public ConfigTransaction setUpstream(String branchName, String remoteName)
+    {
+        setString(ConfigConstants.CONFIG_BRANCH_SECTION, branchName, ConfigConstants.CONFIG_KEY_REMOTE, remoteName);
+        return setString(ConfigConstants.CONFIG_BRANCH_SECTION, branchName, ConfigConstants.CONFIG_KEY_MERGE, Constants.R_HEADS + branchName);
+    }
+
+    /**
+     * @return the config the edits are made to
+     */
+    public StoredConfig getConfig()
+    {
+        return config;
+    }
+
+    /**
+     * @return if any value was changed
+     */
+    public boolean isDirty()
+    {
+        return dirty;
+    }
+
+    /**
+     * Writes the edits, if there are any
+     *
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
+     */
+    public void commit() throws JGitFlowIOException
+    {
+        checkOpen();
+
+        if (dirty)
+        {
+            try
+            {
+                config.save();
+            }
+            catch (Exception e)
+            {
+                rollback();
+                throw new JGitFlowIOException(e);
+            }
+        }
+
+        done = true;
+    }
+
+    /**
+     * Puts back the values the edits replaced if the transaction wasn't committed. Does nothing after a commit, so
+     * it's safe to call from a finally block.
+     */
+    public void rollback()
+    {
+        if (done)
+        {
+            return;
+        }
+
+        done = true;
+
+        if (dirty)
+        {
+            //newest first, so a value edited twice ends up with what it had before the first edit
+            for (int i = edits.size() - 1; i >= 0; i--)
+            {
+                edits.get(i).undo(config);
+            }
+
+            gfConfig.invalidate();
+        }
+    }
+
+    private void checkOpen()
+    {
+        if (done)
+        {
+            throw new IllegalStateException("config transaction is already finished");
+        }
+    }
+
+    private static final class Edit
+    {
+        private final String section;
+        private final String subsection;
+        private final String name;
+        private final String[] previous;
+
+        private Edit(String section, String subsection, String name, String[] previous)
+        {
+            this.section = section;
+            this.subsection = subsection;
+            this.name = name;
+            this.previous = previous;
+        }
+
+        private void undo(StoredConfig config)
+        {
+            if (previous.length == 0)
+            {
+                config.unset(section, subsection, name);
+            }
+            else
+            {
+                config.setStringList(section, subsection, name, Arrays.asList(previous));
+            }
+        }
+    }
+}
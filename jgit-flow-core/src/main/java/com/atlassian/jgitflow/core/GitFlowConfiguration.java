@@ -1,17 +1,27 @@
 package com.atlassian.jgitflow.core;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.atlassian.jgitflow.core.exception.JGitFlowGitAPIException;
 import com.atlassian.jgitflow.core.exception.JGitFlowIOException;
-import com.atlassian.jgitflow.core.util.GitHelper;
+
+import com.google.common.base.Strings;
 
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.internal.storage.file.FileSnapshot;
 import org.eclipse.jgit.lib.ConfigConstants;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.storage.file.FileBasedConfig;
 
 /**
  * Represents the configuration for a git flow project
@@ -21,6 +31,11 @@ import org.eclipse.jgit.lib.StoredConfig;
  * <p>
  * for example: JGitFlow.getOrInit(new File(&quot;some dir&quot;));
  * </p>
+ * <p>
+ * The git flow settings are read once into an immutable snapshot which is only rebuilt when the config file changes
+ * on disk or is edited through a {@link ConfigTransaction}. Settings changed on the repository config without saving it are not seen
+ * until then.
+ * </p>
  */
 public class GitFlowConfiguration
 {
@@ -32,6 +47,7 @@ public class GitFlowConfiguration
             , JGitFlowConstants.PREFIXES.VERSIONTAG.configKey());
 
     private final Git git;
+    private volatile Snapshot snapshot;
 
     /**
      * Create a new configuration instance
@@ -48,7 +64,7 @@ public class GitFlowConfiguration
      */
     public String getDevelop()
     {
-        return git.getRepository().getConfig().getString(JGitFlowConstants.SECTION, ConfigConstants.CONFIG_BRANCH_SECTION, JGitFlowConstants.DEVELOP_KEY);
+        return snapshot().develop;
     }
 
     /**
@@ -69,17 +85,7 @@ public class GitFlowConfiguration
      */
     public void setMaster(String branchName) throws JGitFlowIOException
     {
-        StoredConfig config = git.getRepository().getConfig();
-        config.setString(JGitFlowConstants.SECTION, ConfigConstants.CONFIG_BRANCH_SECTION, Constants.MASTER, branchName);
-        try
-        {
-            config.save();
-            config.load();
-        }
-        catch (Exception e)
-        {
-            throw new JGitFlowIOException(e);
-        }
+        beginTransaction().setMaster(branchName).commit();
     }
 
     /**
@@ -90,17 +96,7 @@ public class GitFlowConfiguration
      */
     public void setDevelop(String branchName) throws JGitFlowIOException
     {
-        StoredConfig config = git.getRepository().getConfig();
-        config.setString(JGitFlowConstants.SECTION, ConfigConstants.CONFIG_BRANCH_SECTION, JGitFlowConstants.DEVELOP_KEY, branchName);
-        try
-        {
-            config.save();
-            config.load();
-        }
-        catch (Exception e)
-        {
-            throw new JGitFlowIOException(e);
-        }
+        beginTransaction().setDevelop(branchName).commit();
     }
 
     /**
@@ -118,7 +114,21 @@ public class GitFlowConfiguration
      */
     public boolean hasDevelopConfigured() throws JGitFlowGitAPIException
     {
-        return GitHelper.localBranchExists(git, git.getRepository().getConfig().getString(JGitFlowConstants.SECTION, ConfigConstants.CONFIG_BRANCH_SECTION, JGitFlowConstants.DEVELOP_KEY));
+        String develop = getDevelop();
+        if (Strings.isNullOrEmpty(develop))
+        {
+            return false;
+        }
+
+        //look the one ref up rather than listing every branch
+        try
+        {
+            return null != git.getRepository().getRef(Constants.R_HEADS + develop);
+        }
+        catch (IOException e)
+        {
+            throw new JGitFlowGitAPIException(e);
+        }
     }
 
     /**
@@ -126,9 +136,7 @@ public class GitFlowConfiguration
      */
     public boolean hasPrefixesConfigured()
     {
-        Set<String> entries = git.getRepository().getConfig().getNames(JGitFlowConstants.SECTION, JGitFlowConstants.PREFIX_SUB);
-
-        return entries.containsAll(getPrefixNames());
+        return snapshot().prefixes.keySet().containsAll(getPrefixNames());
     }
 
     /**
@@ -145,10 +153,7 @@ public class GitFlowConfiguration
      */
     public boolean hasPrefixConfigured(String prefixName)
     {
-        Set<String> entries = git.getRepository().getConfig().getNames(JGitFlowConstants.SECTION, JGitFlowConstants.PREFIX_SUB);
-
-        return entries.contains(prefixName);
-
+        return snapshot().prefixes.containsKey(prefixName);
     }
 
     /**
@@ -157,7 +162,7 @@ public class GitFlowConfiguration
      */
     public String getPrefixValue(String prefixName)
     {
-        String val = git.getRepository().getConfig().getString(JGitFlowConstants.SECTION, JGitFlowConstants.PREFIX_SUB, prefixName);
+        String val = snapshot().prefixes.get(prefixName);
 
         return (null != val) ? val : "";
     }
@@ -171,44 +176,34 @@ public class GitFlowConfiguration
      */
     public void setPrefix(String prefixName, String prefixValue) throws JGitFlowIOException
     {
-        StoredConfig config = git.getRepository().getConfig();
-        if (getPrefixNames().contains(prefixName))
-        {
-            config.setString(JGitFlowConstants.SECTION, JGitFlowConstants.PREFIX_SUB, prefixName, prefixValue);
-            try
-            {
-                config.save();
-                config.load();
-            }
-            catch (Exception e)
-            {
-                throw new JGitFlowIOException(e);
-            }
-        }
+        beginTransaction().setPrefix(prefixName, prefixValue).commit();
+    }
 
+    /**
+     * Starts a batch of config edits which is written with a single save
+     *
+     * @return the new transaction
+     */
+    public ConfigTransaction beginTransaction()
+    {
+        return new ConfigTransaction(git.getRepository().getConfig(), this);
     }
 
+    /**
+     * @param branchName
+     * @return the longest configured prefix the branch name starts with, or an empty string
+     */
     public String getPrefixForBranch(String branchName)
     {
-        String branchPrefix = "";
+        String prefixName = snapshot().prefixNameFor(branchName);
 
-        for (String prefixName : getPrefixNames())
-        {
-            if (hasPrefixConfigured(prefixName))
-            {
-                String prefix = getPrefixValue(prefixName);
-
-                if (branchName.startsWith(prefix))
-                {
-                    branchPrefix = prefix;
-                    break;
-                }
-            }
-        }
-
-        return branchPrefix;
+        return (null != prefixName) ? getPrefixValue(prefixName) : "";
     }
 
+    /**
+     * @param branchName
+     * @return the type of the branch, by the longest configured prefix it starts with
+     */
     public BranchType getTypeForBranch(String branchName)
     {
         if (getMaster().equals(branchName))
@@ -216,33 +211,139 @@ public class GitFlowConfiguration
             return BranchType.MASTER;
         }
 
-        if (getDevelop().equals(branchName))
+        Snapshot current = snapshot();
+        if (branchName.equals(current.develop))
         {
             return BranchType.DEVELOP;
         }
 
-        String branchPrefix = "";
+        return current.typeFor(branchName);
+    }
+
+    /**
+     * Drops the snapshot so the next read picks up edits that were made in memory
+     */
+    void invalidate()
+    {
+        snapshot = null;
+    }
+
+    private Snapshot snapshot()
+    {
+        //the repository reloads its config when the file changed, it's only read again here when that happened
+        StoredConfig config = git.getRepository().getConfig();
+        Snapshot current = snapshot;
 
-        for (String prefixName : getPrefixNames())
+        if (null == current || current.isStale(config))
         {
-            if (hasPrefixConfigured(prefixName))
+            current = new Snapshot(config);
+            snapshot = current;
+        }
+
+        return current;
+    }
+
+    /**
+     * The git flow settings as they were when the config was read, with the prefixes indexed by value so a branch
+     * is classified with one lookup per distinct prefix length.
+     */
+    private static final class Snapshot
+    {
+        private final StoredConfig config;
+        private final File file;
+        private final FileSnapshot fileSnapshot;
+        private final String develop;
+        private final Map<String, String> prefixes;
+        private final Map<String, String> namesByPrefix;
+        private final int[] prefixLengths;
+
+        private Snapshot(StoredConfig config)
+        {
+            this.config = config;
+            this.file = (config instanceof FileBasedConfig) ? ((FileBasedConfig) config).getFile() : null;
+
+            //taken before reading so a change made while we read marks this snapshot stale
+            this.fileSnapshot = (null != file) ? FileSnapshot.save(file) : null;
+
+            this.develop = config.getString(JGitFlowConstants.SECTION, ConfigConstants.CONFIG_BRANCH_SECTION, JGitFlowConstants.DEVELOP_KEY);
+
+            this.prefixes = new HashMap<String, String>();
+            this.namesByPrefix = new HashMap<String, String>();
+            Set<Integer> lengths = new HashSet<Integer>();
+
+            Set<String> configured = config.getNames(JGitFlowConstants.SECTION, JGitFlowConstants.PREFIX_SUB);
+            for (String prefixName : PREFIX_NAMES)
             {
-                String prefix = getPrefixValue(prefixName);
+                if (!configured.contains(prefixName))
+                {
+                    continue;
+                }
+
+                String value = config.getString(JGitFlowConstants.SECTION, JGitFlowConstants.PREFIX_SUB, prefixName);
+                value = (null != value) ? value : "";
+                prefixes.put(prefixName, value);
 
-                if (branchName.startsWith(prefix))
+                //two prefixes with the same value classify as the one listed first
+                if (!namesByPrefix.containsKey(value))
                 {
-                    try
-                    {
-                        return BranchType.valueOf(prefixName.toUpperCase());
-                    }
-                    catch (IllegalArgumentException e)
+                    namesByPrefix.put(value, prefixName);
+                    lengths.add(value.length());
+                }
+            }
+
+            List<Integer> sorted = new ArrayList<Integer>(lengths);
+            Collections.sort(sorted, Collections.reverseOrder());
+            this.prefixLengths = new int[sorted.size()];
+            for (int i = 0; i < prefixLengths.length; i++)
+            {
+                prefixLengths[i] = sorted.get(i);
+            }
+        }
+
+        private boolean isStale(StoredConfig current)
+        {
+            if (current != config)
+            {
+                return true;
+            }
+
+            //nothing to compare against for configs that don't live in a file
+            return null == fileSnapshot || fileSnapshot.isModified(file);
+        }
+
+        private String prefixNameFor(String branchName)
+        {
+            for (int length : prefixLengths)
+            {
+                if (length <= branchName.length())
+                {
+                    String prefixName = namesByPrefix.get(branchName.substring(0, length));
+                    if (null != prefixName)
                     {
-                        return BranchType.UNKNOWN;
+                        return prefixName;
                     }
                 }
             }
+
+            return null;
         }
 
-        return BranchType.UNKNOWN;
+        private BranchType typeFor(String branchName)
+        {
+            String prefixName = prefixNameFor(branchName);
+            if (null == prefixName)
+            {
+                return BranchType.UNKNOWN;
+            }
+
+            try
+            {
+                return BranchType.valueOf(prefixName.toUpperCase());
+            }
+            catch (IllegalArgumentException e)
+            {
+                return BranchType.UNKNOWN;
+            }
+        }
     }
 }
@@ -30,7 +30,7 @@ public class JGitFlow
 {
     private Git git;
     private GitFlowConfiguration gfConfig;
-    private JGitFlowReporter reporter = JGitFlowReporter.get();
+    private JGitFlowReporter reporter;
 
     private JGitFlow()
     {
@@ -40,7 +40,9 @@ public class JGitFlow
     {
         this.git = git;
         this.gfConfig = gfConfig;
+        this.reporter = JGitFlowReporter.acquire(git.getRepository());
 
+        JGitFlowReporter.bind(reporter);
         this.reporter.setGitFlowConfiguration(git, gfConfig);
     }
 
@@ -488,6 +490,16 @@ public class JGitFlow
         return git;
     }
 
+    /**
+     * Returns the reporter writing to the log of this instance's repository
+     *
+     * @return
+     */
+    public JGitFlowReporter getReporter()
+    {
+        return reporter;
+    }
+
     /**
      * Returns the master branch name configured for this instance's git flow project
      *
@@ -563,4 +575,14 @@ public class JGitFlow
         return gfConfig.getTypeForBranch(branchName);
     }
 
+    /**
+     * Flushes and releases the reporter of this instance's repository and closes the repository.
+     * The instance can't be used afterwards.
+     */
+    public void close()
+    {
+        JGitFlowReporter.release(git.getRepository());
+        git.close();
+    }
+
 }
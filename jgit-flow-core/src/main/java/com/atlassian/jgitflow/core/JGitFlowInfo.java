@@ -11,7 +11,7 @@ import org.eclipse.jgit.api.Git;
 public class JGitFlowInfo
 {
     private final Git git;
-    private final JGitFlowReporter reporter = JGitFlowReporter.get();
+    private final JGitFlowReporter reporter;
     private final String masterBranchName;
     private final String developBranchName;
     private final String featureBranchPrefix;
@@ -23,6 +23,7 @@ public class JGitFlowInfo
     public JGitFlowInfo(Git git, GitFlowConfiguration gfConfig)
     {
         this.git = git;
+        this.reporter = JGitFlowReporter.forRepository(git.getRepository());
         this.developBranchName = gfConfig.getDevelop();
         this.featureBranchPrefix = gfConfig.getPrefixValue(JGitFlowConstants.PREFIXES.FEATURE.configKey());
         this.hotfixBranchPrefix = gfConfig.getPrefixValue(JGitFlowConstants.PREFIXES.HOTFIX.configKey());
@@ -9,13 +9,13 @@ import com.atlassian.jgitflow.core.exception.JGitFlowGitAPIException;
 import com.atlassian.jgitflow.core.exception.JGitFlowIOException;
 import com.atlassian.jgitflow.core.exception.SameBranchException;
 import com.atlassian.jgitflow.core.util.GitHelper;
+import com.atlassian.jgitflow.core.util.SelectiveFetch;
 
 import com.google.common.base.Strings;
 
 import org.eclipse.jgit.api.CreateBranchCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.errors.ConfigInvalidException;
 import org.eclipse.jgit.errors.IncorrectObjectTypeException;
 import org.eclipse.jgit.errors.MissingObjectException;
 import org.eclipse.jgit.errors.RepositoryNotFoundException;
@@ -70,6 +70,7 @@ public class JGitFlowInitCommand implements Callable<JGitFlow>
     private boolean alwaysUpdateOrigin;
     private boolean pullMaster;
     private boolean pullDevelop;
+    private boolean fullFetch;
 
     /**
      * Create a new init command instance.
@@ -84,7 +85,8 @@ public class JGitFlowInitCommand implements Callable<JGitFlow>
         this.pullMaster = false;
         this.pullDevelop = false;
         this.allowRemote = true;
-        this.reporter = JGitFlowReporter.get();
+        this.fullFetch = false;
+        this.reporter = JGitFlowReporter.detached();
     }
 
     /**
@@ -124,21 +126,28 @@ public class JGitFlowInitCommand implements Callable<JGitFlow>
             throw new JGitFlowGitAPIException(e);
         }
 
+        //the entries made so far only belong to this command, move them to the log of the repository it opened
         Repository repo = git.getRepository();
+        JGitFlowReporter repoReporter = JGitFlowReporter.forRepository(repo);
+        reporter.handOffTo(repoReporter);
+        this.reporter = repoReporter;
+
         GitFlowConfiguration gfConfig = new GitFlowConfiguration(git);
 
+        //everything init changes in the config is written once, when it's done
+        ConfigTransaction configTx = gfConfig.beginTransaction();
+
         RevWalk walk = null;
         try
         {
             String currentBranch = repo.getBranch();
-            StoredConfig gitConfig = git.getRepository().getConfig();
-            String originUrl = gitConfig.getString(ConfigConstants.CONFIG_REMOTE_SECTION, Constants.DEFAULT_REMOTE_NAME, "url");
+            String originUrl = configTx.getConfig().getString(ConfigConstants.CONFIG_REMOTE_SECTION, Constants.DEFAULT_REMOTE_NAME, "url");
 
-            String finalOriginUrl = setupOriginIfNeeded(git, gitConfig, originUrl);
+            String finalOriginUrl = setupOriginIfNeeded(configTx, originUrl);
 
             if (allowRemote && !Strings.isNullOrEmpty(finalOriginUrl))
             {
-                git.fetch().setRemote(Constants.DEFAULT_REMOTE_NAME).call();
+                fetchOrigin(git, gfConfig, currentBranch);
             }
 
             if (!force && gfConfig.gitFlowIsInitialized())
@@ -162,9 +171,9 @@ public class JGitFlowInitCommand implements Callable<JGitFlow>
             }
 
             reporter.infoText(SHORT_NAME, "setting develop in config to '" + context.getDevelop() + "'");
-            gfConfig.setDevelop(context.getDevelop());
+            configTx.setDevelop(context.getDevelop());
 
-            setupRemotesInConfig(gitConfig, finalOriginUrl);
+            setupRemotesInConfig(configTx, finalOriginUrl);
 
             //Creation of HEAD
             walk = new RevWalk(repo);
@@ -204,11 +213,13 @@ public class JGitFlowInitCommand implements Callable<JGitFlow>
                 if (GitHelper.remoteBranchExists(git, context.getDevelop()))
                 {
                     reporter.debugText(SHORT_NAME, "creating new local '" + context.getDevelop() + "' branch from origin '" + context.getDevelop() + "'");
+                    //the branch command would save the config itself, the tracking goes in with the other edits
                     git.branchCreate()
                        .setName(context.getDevelop())
-                       .setUpstreamMode(CreateBranchCommand.SetupUpstreamMode.SET_UPSTREAM)
+                       .setUpstreamMode(CreateBranchCommand.SetupUpstreamMode.NOTRACK)
                        .setStartPoint("origin/" + context.getDevelop())
                        .call();
+                    configTx.setUpstream(context.getDevelop(), Constants.DEFAULT_REMOTE_NAME);
                 }
             }
 
@@ -229,9 +240,11 @@ public class JGitFlowInitCommand implements Callable<JGitFlow>
                     context.setPrefix(prefixName, gfConfig.getPrefixValue(prefixName));
                 }
 
-                gfConfig.setPrefix(prefixName, context.getPrefix(prefixName));
+                configTx.setPrefix(prefixName, context.getPrefix(prefixName));
             }
 
+            configTx.commit();
+
             if (!Strings.isNullOrEmpty(currentBranch) && !currentBranch.equals(repo.getBranch()) && (GitHelper.localBranchExists(git, currentBranch) || GitHelper.remoteBranchExists(git, currentBranch)))
             {
                 git.checkout().setName(currentBranch).call();
@@ -250,14 +263,10 @@ public class JGitFlowInitCommand implements Callable<JGitFlow>
             reporter.flush();
             throw new JGitFlowGitAPIException(e);
         }
-        catch (ConfigInvalidException e)
-        {
-            reporter.errorText(SHORT_NAME, e.getMessage());
-            reporter.flush();
-            throw new JGitFlowGitAPIException(e);
-        }
         finally
         {
+            configTx.rollback();
+
             if (null != walk)
             {
                 walk.release();
@@ -269,7 +278,7 @@ public class JGitFlowInitCommand implements Callable<JGitFlow>
         return new JGitFlow(git, gfConfig);
     }
 
-    private String setupOriginIfNeeded(Git git, StoredConfig gitConfig, String originUrl) throws IOException, ConfigInvalidException
+    private String setupOriginIfNeeded(ConfigTransaction configTx, String originUrl) throws IOException
     {
         String newOriginUrl = originUrl;
 
@@ -286,53 +295,69 @@ public class JGitFlowInitCommand implements Callable<JGitFlow>
                 newOriginUrl = defaultOriginUrl;
             }
 
-            gitConfig.setString(ConfigConstants.CONFIG_REMOTE_SECTION, Constants.DEFAULT_REMOTE_NAME, "url", newOriginUrl);
-            gitConfig.setString(ConfigConstants.CONFIG_REMOTE_SECTION, Constants.DEFAULT_REMOTE_NAME, "fetch", "+refs/heads/*:refs/remotes/origin/*");
-
-            gitConfig.save();
-
-            gitConfig.load();
+            configTx.setString(ConfigConstants.CONFIG_REMOTE_SECTION, Constants.DEFAULT_REMOTE_NAME, "url", newOriginUrl);
+            configTx.setString(ConfigConstants.CONFIG_REMOTE_SECTION, Constants.DEFAULT_REMOTE_NAME, "fetch", "+refs/heads/*:refs/remotes/origin/*");
         }
 
         return newOriginUrl;
     }
 
-    private void setupRemotesInConfig(StoredConfig gitConfig, String originUrl) throws IOException, ConfigInvalidException
+    /**
+     * Fetches what git flow needs from origin: master, develop, the checked out branch, release and hotfix branches
+     * and new version tags. Feature branches are left alone unless a full fetch was asked for.
+     */
+    private void fetchOrigin(Git git, GitFlowConfiguration gfConfig, String currentBranch) throws GitAPIException, JGitFlowIOException, JGitFlowGitAPIException
     {
-        if (!Strings.isNullOrEmpty(originUrl))
+        if (fullFetch)
         {
-            if (Strings.isNullOrEmpty(gitConfig.getString(ConfigConstants.CONFIG_BRANCH_SECTION, context.getMaster(), "remote")))
-            {
-                gitConfig.setString(ConfigConstants.CONFIG_BRANCH_SECTION, context.getMaster(), "remote", Constants.DEFAULT_REMOTE_NAME);
-            }
-
-            if (Strings.isNullOrEmpty(gitConfig.getString(ConfigConstants.CONFIG_BRANCH_SECTION, context.getMaster(), "merge")))
-            {
-                gitConfig.setString(ConfigConstants.CONFIG_BRANCH_SECTION, context.getMaster(), "merge", Constants.R_HEADS + context.getMaster());
-            }
-
-            if (Strings.isNullOrEmpty(gitConfig.getString(ConfigConstants.CONFIG_BRANCH_SECTION, context.getDevelop(), "remote")))
-            {
-                gitConfig.setString(ConfigConstants.CONFIG_BRANCH_SECTION, context.getDevelop(), "remote", Constants.DEFAULT_REMOTE_NAME);
-            }
+            git.fetch().setRemote(Constants.DEFAULT_REMOTE_NAME).call();
+            return;
+        }
 
-            if (Strings.isNullOrEmpty(gitConfig.getString(ConfigConstants.CONFIG_BRANCH_SECTION, context.getDevelop(), "merge")))
-            {
-                gitConfig.setString(ConfigConstants.CONFIG_BRANCH_SECTION, context.getDevelop(), "merge", Constants.R_HEADS + context.getDevelop());
-            }
+        SelectiveFetch selectiveFetch = new SelectiveFetch(git, Constants.DEFAULT_REMOTE_NAME)
+                .addBranch(context.getMaster())
+                .addBranch(context.getDevelop())
+                .addBranch(currentBranch)
+                .addBranchPrefix(context.getRelease())
+                .addBranchPrefix(context.getHotfix())
+                .setVersionTagPrefix(context.getVersiontag());
 
-            if (Strings.isNullOrEmpty(gitConfig.getString(ConfigConstants.CONFIG_REMOTE_SECTION, Constants.DEFAULT_REMOTE_NAME, "fetch")))
-            {
-                gitConfig.setString(ConfigConstants.CONFIG_REMOTE_SECTION, Constants.DEFAULT_REMOTE_NAME, "fetch", "+refs/heads/*:refs/remotes/origin/*");
-            }
+        if (gfConfig.gitFlowIsInitialized())
+        {
+            selectiveFetch.addBranch(gfConfig.getDevelop())
+                          .addBranchPrefix(gfConfig.getPrefixValue(JGitFlowConstants.PREFIXES.RELEASE.configKey()))
+                          .addBranchPrefix(gfConfig.getPrefixValue(JGitFlowConstants.PREFIXES.HOTFIX.configKey()))
+                          .setVersionTagPrefix(gfConfig.getPrefixValue(JGitFlowConstants.PREFIXES.VERSIONTAG.configKey()));
+        }
 
-            gitConfig.save();
+        reporter.debugText(SHORT_NAME, "fetched refs: {}", selectiveFetch.call());
+    }
 
-            gitConfig.load();
+    private void setupRemotesInConfig(ConfigTransaction configTx, String originUrl)
+    {
+        if (!Strings.isNullOrEmpty(originUrl))
+        {
+            configTx.setStringIfAbsent(ConfigConstants.CONFIG_BRANCH_SECTION, context.getMaster(), "remote", Constants.DEFAULT_REMOTE_NAME);
+            configTx.setStringIfAbsent(ConfigConstants.CONFIG_BRANCH_SECTION, context.getMaster(), "merge", Constants.R_HEADS + context.getMaster());
+            configTx.setStringIfAbsent(ConfigConstants.CONFIG_BRANCH_SECTION, context.getDevelop(), "remote", Constants.DEFAULT_REMOTE_NAME);
+            configTx.setStringIfAbsent(ConfigConstants.CONFIG_BRANCH_SECTION, context.getDevelop(), "merge", Constants.R_HEADS + context.getDevelop());
+            configTx.setStringIfAbsent(ConfigConstants.CONFIG_REMOTE_SECTION, Constants.DEFAULT_REMOTE_NAME, "fetch", "+refs/heads/*:refs/remotes/origin/*");
         }
     }
 
 
+    /**
+     * Set whether to fetch every branch and tag from origin instead of just the ones git flow works with
+     *
+     * @param fullFetch {@code true} to fetch everything, {@code false}(default) otherwise
+     * @return {@code this}
+     */
+    public JGitFlowInitCommand setFullFetch(boolean fullFetch)
+    {
+        this.fullFetch = fullFetch;
+        return this;
+    }
+
     /**
      * Sets the project root folder
      *
@@ -405,7 +430,7 @@ public class JGitFlowInitCommand implements Callable<JGitFlow>
         Git gitRepo;
         try
         {
-            reporter.debugText(SHORT_NAME, "looking for git folder in " + folder.getAbsolutePath());
+            reporter.debugText(SHORT_NAME, "looking for git folder in {}", folder);
             RepositoryBuilder rb = new RepositoryBuilder()
                     .readEnvironment()
                     .findGitDir(folder);
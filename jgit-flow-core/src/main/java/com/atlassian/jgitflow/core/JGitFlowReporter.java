@@ -4,72 +4,231 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
 import java.util.Date;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.atlassian.jgitflow.core.exception.JGitFlowGitAPIException;
+import com.atlassian.jgitflow.core.report.AsyncReportWriter;
 import com.atlassian.jgitflow.core.report.JGitFlowReportEntry;
+import com.atlassian.jgitflow.core.report.ReportLevel;
 import com.atlassian.jgitflow.core.util.GitHelper;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import com.google.common.io.Files;
 
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.MergeResult;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Repository;
 
 import static com.google.common.collect.Lists.newArrayList;
 
 /**
- * @since version
+ * Records what jgit-flow is doing into the .git/jgitflow.log of a repository.
+ * <p>
+ * There is one reporter per repository, obtained with {@link #forRepository(org.eclipse.jgit.lib.Repository)}.
+ * Indentation and unflushed entries are confined to the calling thread, so concurrent flows never interleave
+ * within a block of entries. {@link #get()} returns the reporter bound to the calling thread, which is the one
+ * of the last {@link JGitFlow} created on that thread.
+ * </p>
+ * <p>
+ * Messages with {@code {}} placeholders are only formatted if their level is enabled. Object ids and commits passed
+ * as arguments are written as their hex name, so callers don't need to call {@code getName()} up front.
+ * </p>
  */
 public class JGitFlowReporter
 {
-    private static JGitFlowReporter INSTANCE;
+    private static final ConcurrentMap<File, JGitFlowReporter> REPORTERS = new ConcurrentHashMap<File, JGitFlowReporter>();
+    private static final ThreadLocal<JGitFlowReporter> BOUND = new ThreadLocal<JGitFlowReporter>();
 
     public static final String EOL = System.getProperty("line.separator");
     public static final String P = EOL.concat(EOL);
     public static final String HR = P.concat(Strings.repeat("-", 80)).concat(P);
     public static final int PAD = 4;
+    public static final int DEFAULT_MAX_RETAINED_ENTRIES = 1000;
+    private static final String LOG_FILE_NAME = "jgitflow.log";
+    private static final String PLACEHOLDER = "{}";
+    private static final String[] PADDING = new String[PAD * 16 + 1];
+
+    static
+    {
+        for (int i = 0; i < PADDING.length; i++)
+        {
+            PADDING[i] = Strings.repeat(" ", i);
+        }
+    }
 
     private boolean wroteHeader;
     private boolean clearLog;
 
     private String header;
-    private File logDir;
+    private volatile File logDir;
     private String startTime;
-    private int indent;
+    private volatile ReportLevel level;
+
+    private final ThreadLocal<Context> context = new ThreadLocal<Context>()
+    {
+        @Override
+        protected Context initialValue()
+        {
+            return new Context();
+        }
+    };
+    private Deque<JGitFlowReportEntry> allEntries;
+    private int maxRetainedEntries;
 
-    private List<JGitFlowReportEntry> entries;
-    private List<JGitFlowReportEntry> allEntries;
+    private boolean async;
+    private AsyncReportWriter asyncWriter;
+    private int users;
 
-    private JGitFlowReporter()
+    private JGitFlowReporter(File logDir)
     {
+        this.logDir = logDir;
         this.wroteHeader = false;
         this.clearLog = false;
-        this.entries = newArrayList();
-        this.allEntries = newArrayList();
+        this.allEntries = new ArrayDeque<JGitFlowReportEntry>();
+        this.maxRetainedEntries = DEFAULT_MAX_RETAINED_ENTRIES;
+        this.async = false;
+        this.level = ReportLevel.DEBUG;
 
         Date now = new Date();
         SimpleDateFormat displayFormat = new SimpleDateFormat("EEE MMM dd yyyy HH:mm:ss zzz");
         this.startTime = displayFormat.format(now);
+    }
 
-        indent = 0;
+    /**
+     * @return the reporter bound to the calling thread, or a shared reporter without a log file if none is bound
+     */
+    public static JGitFlowReporter get()
+    {
+        JGitFlowReporter bound = BOUND.get();
+        if (null != bound)
+        {
+            return bound;
+        }
 
+        return DefaultHolder.INSTANCE;
     }
 
-    public static JGitFlowReporter get()
+    /**
+     * @param repository the repository to report on
+     * @return the reporter writing to the log of the given repository
+     */
+    public static JGitFlowReporter forRepository(Repository repository)
+    {
+        if (null == repository.getDirectory())
+        {
+            return get();
+        }
+
+        File gitDir = repository.getDirectory().getAbsoluteFile();
+        JGitFlowReporter reporter = REPORTERS.get(gitDir);
+
+        if (null == reporter)
+        {
+            JGitFlowReporter created = new JGitFlowReporter(gitDir);
+            reporter = REPORTERS.putIfAbsent(gitDir, created);
+
+            if (null == reporter)
+            {
+                reporter = created;
+            }
+        }
+
+        return reporter;
+    }
+
+    /**
+     * Makes the given reporter the one returned by {@link #get()} on the calling thread
+     *
+     * @param reporter the reporter to bind, or null to unbind
+     * @return the previously bound reporter, or null
+     */
+    public static JGitFlowReporter bind(JGitFlowReporter reporter)
     {
-        if (null == INSTANCE)
+        JGitFlowReporter previous = BOUND.get();
+
+        if (null == reporter)
+        {
+            BOUND.remove();
+        }
+        else
         {
-            INSTANCE = new JGitFlowReporter();
+            BOUND.set(reporter);
         }
 
-        return INSTANCE;
+        return previous;
     }
 
-    public void setGitFlowConfiguration(Git git, GitFlowConfiguration config)
+    /**
+     * Returns the reporter of the given repository and counts the caller as one of its users. Each call has to be
+     * matched by a call to {@link #release(org.eclipse.jgit.lib.Repository)}.
+     *
+     * @param repository the repository to report on
+     * @return the reporter writing to the log of the given repository
+     */
+    static JGitFlowReporter acquire(Repository repository)
+    {
+        synchronized (REPORTERS)
+        {
+            JGitFlowReporter reporter = forRepository(repository);
+            reporter.users++;
+
+            return reporter;
+        }
+    }
+
+    /**
+     * @return a reporter without a log file, for entries made before the repository is known
+     */
+    static JGitFlowReporter detached()
+    {
+        return new JGitFlowReporter(null);
+    }
+
+    /**
+     * Gives up one use of the reporter of the given repository. Once it has no users left it is flushed, closed
+     * and forgotten. {@link JGitFlow#close()} calls this for the reporter of its repository.
+     *
+     * @param repository the repository to release
+     */
+    public static void release(Repository repository)
+    {
+        if (null == repository.getDirectory())
+        {
+            return;
+        }
+
+        File gitDir = repository.getDirectory().getAbsoluteFile();
+        JGitFlowReporter reporter;
+
+        synchronized (REPORTERS)
+        {
+            reporter = REPORTERS.get(gitDir);
+            if (null == reporter || --reporter.users > 0)
+            {
+                return;
+            }
+
+            REPORTERS.remove(gitDir, reporter);
+        }
+
+        reporter.close();
+
+        if (reporter == BOUND.get())
+        {
+            BOUND.remove();
+        }
+    }
+
+    public synchronized void setGitFlowConfiguration(Git git, GitFlowConfiguration config)
     {
         this.logDir = git.getRepository().getDirectory();
         this.header = generateHeader(git, config);
@@ -77,45 +236,119 @@ public class JGitFlowReporter
     }
 
 
+    /**
+     * Sets the lowest level of entries to record. Calls below this level return without formatting their message.
+     *
+     * @param level the lowest level to record, {@link ReportLevel#DEBUG} by default
+     * @return {@code this}
+     */
+    public JGitFlowReporter setLevel(ReportLevel level)
+    {
+        this.level = level;
+
+        return this;
+    }
+
+    public ReportLevel getLevel()
+    {
+        return level;
+    }
+
+    public boolean isEnabled(ReportLevel entryLevel)
+    {
+        return entryLevel.isEnabledFor(level);
+    }
+
+    public boolean isDebugEnabled()
+    {
+        return isEnabled(ReportLevel.DEBUG);
+    }
+
     public JGitFlowReporter debugCommandCall(String shortName)
     {
-        entries.add(new JGitFlowReportEntry(shortName, Strings.repeat(" ", indent) + "## _Command call():_ ", true, false));
-        indent += PAD;
+        if (isDebugEnabled())
+        {
+            add(new JGitFlowReportEntry(shortName, pad() + "## _Command call():_ ", true, false));
+        }
+        indent(PAD);
 
         return this;
     }
 
     public JGitFlowReporter debugText(String shortName, String text)
     {
-        entries.add(new JGitFlowReportEntry(shortName, Strings.repeat(" ", indent) + "_ " + text + " _", true, false));
+        if (isDebugEnabled())
+        {
+            addDebugText(shortName, text);
+        }
 
         return this;
     }
 
-    public JGitFlowReporter errorText(String shortName, String text)
+    /**
+     * Records a debug entry, replacing the {@code {}} placeholder in the pattern with the argument only if debug is enabled
+     */
+    public JGitFlowReporter debugText(String shortName, String pattern, Object arg)
     {
-        entries.add(new JGitFlowReportEntry(shortName, Strings.repeat(" ", indent) + "** " + text + " **", false, true));
+        if (isDebugEnabled())
+        {
+            addDebugText(shortName, format(pattern, arg));
+        }
 
         return this;
     }
 
-    public JGitFlowReporter commandCall(String shortName)
+    /**
+     * Records a debug entry, replacing the {@code {}} placeholders in the pattern with the arguments only if debug is enabled
+     */
+    public JGitFlowReporter debugText(String shortName, String pattern, Object arg1, Object arg2)
     {
-        entries.add(new JGitFlowReportEntry(shortName, Strings.repeat(" ", indent) + "## Command call(): ", false, false));
-        indent += PAD;
+        if (isDebugEnabled())
+        {
+            addDebugText(shortName, format(pattern, arg1, arg2));
+        }
 
         return this;
     }
 
-    public JGitFlowReporter endCommand()
+    /**
+     * Records a debug entry, asking the supplier for the text only if debug is enabled
+     */
+    public JGitFlowReporter debugText(String shortName, Supplier<String> text)
     {
-        indent -= PAD;
+        if (isDebugEnabled())
+        {
+            addDebugText(shortName, text.get());
+        }
+
+        return this;
+    }
 
-        if (indent < 0)
+    public JGitFlowReporter errorText(String shortName, String text)
+    {
+        if (isEnabled(ReportLevel.ERROR))
         {
-            indent = 0;
+            add(new JGitFlowReportEntry(shortName, pad() + "** " + text + " **", false, true));
         }
 
+        return this;
+    }
+
+    public JGitFlowReporter commandCall(String shortName)
+    {
+        if (isEnabled(ReportLevel.INFO))
+        {
+            add(new JGitFlowReportEntry(shortName, pad() + "## Command call(): ", false, false));
+        }
+        indent(PAD);
+
+        return this;
+    }
+
+    public JGitFlowReporter endCommand()
+    {
+        indent(-PAD);
+
         flush();
 
         return this;
@@ -128,16 +361,69 @@ public class JGitFlowReporter
         return this;
     }
 
+    /**
+     * Sets whether flushed entries are written by a background thread through a single open file channel
+     * instead of appending to the log file on every flush.
+     *
+     * @param async {@code true} to write in the background, {@code false}(default) otherwise
+     * @return {@code this}
+     */
+    public synchronized JGitFlowReporter setAsync(boolean async)
+    {
+        if (!async)
+        {
+            closeAsyncWriter();
+        }
+
+        this.async = async;
+
+        return this;
+    }
+
+    public boolean isAsync()
+    {
+        return async;
+    }
+
+    /**
+     * Sets how many of the most recent flushed entries are kept in memory
+     *
+     * @param maxRetainedEntries the number of entries to keep
+     * @return {@code this}
+     */
+    public synchronized JGitFlowReporter setMaxRetainedEntries(int maxRetainedEntries)
+    {
+        this.maxRetainedEntries = Math.max(0, maxRetainedEntries);
+        trimRetainedEntries();
+
+        return this;
+    }
+
+    /**
+     * @return a copy of the most recent flushed entries, oldest first
+     */
+    public synchronized List<JGitFlowReportEntry> getRetainedEntries()
+    {
+        return ImmutableList.copyOf(allEntries);
+    }
+
+    /**
+     * Flushes any pending entries and, in async mode, waits for them to reach the log file and closes it.
+     */
+    public synchronized void close()
+    {
+        flush();
+        closeAsyncWriter();
+    }
+
     public JGitFlowReporter endMethod()
     {
-        indent -= PAD;
+        indent(-PAD);
 
-        if (indent < 0)
+        if (isDebugEnabled())
         {
-            indent = 0;
+            add(new JGitFlowReportEntry("", pad() + "_method END:_ ", true, false));
         }
-
-        entries.add(new JGitFlowReportEntry("", Strings.repeat(" ", indent) + "_method END:_ ", true, false));
         flush();
 
         return this;
@@ -145,29 +431,53 @@ public class JGitFlowReporter
 
     public JGitFlowReporter debugMethod(String shortName, String text)
     {
-        entries.add(new JGitFlowReportEntry(shortName, Strings.repeat(" ", indent) + "_method start:_ " + text, true, false));
-        indent += PAD;
+        if (isDebugEnabled())
+        {
+            add(new JGitFlowReportEntry(shortName, pad() + "_method start:_ " + text, true, false));
+        }
+        indent(PAD);
 
         return this;
     }
 
     public JGitFlowReporter infoText(String shortName, String text)
     {
-        entries.add(new JGitFlowReportEntry(shortName, Strings.repeat(" ", indent) + text, false, false));
+        if (isEnabled(ReportLevel.INFO))
+        {
+            add(new JGitFlowReportEntry(shortName, pad() + text, false, false));
+        }
+
+        return this;
+    }
+
+    /**
+     * Records an info entry, replacing the {@code {}} placeholder in the pattern with the argument only if info is enabled
+     */
+    public JGitFlowReporter infoText(String shortName, String pattern, Object arg)
+    {
+        if (isEnabled(ReportLevel.INFO))
+        {
+            add(new JGitFlowReportEntry(shortName, pad() + format(pattern, arg), false, false));
+        }
 
         return this;
     }
 
     public JGitFlowReporter mergeResult(String shortName, MergeResult mergeResult)
     {
+        if (!isEnabled(ReportLevel.INFO))
+        {
+            return this;
+        }
+
         StringBuilder sb = new StringBuilder();
 
-        sb.append(Strings.repeat(" ", indent))
+        sb.append(pad())
           .append("### Merge Result")
           .append(EOL)
           .append(mergeResult.toString());
 
-        entries.add(new JGitFlowReportEntry(shortName, sb.toString(), false, false));
+        add(new JGitFlowReportEntry(shortName, sb.toString(), false, false));
 
         return this;
     }
@@ -179,49 +489,221 @@ public class JGitFlowReporter
             return;
         }
 
-        File logFile = new File(logDir, "jgitflow.log");
-        Charset utf8 = Charset.forName("UTF-8");
+        File logFile = new File(logDir, LOG_FILE_NAME);
         try
         {
-            if (clearLog && null != logDir && logDir.exists())
+            if (async)
             {
-                if (logFile.exists())
-                {
-                    logFile.delete();
-                }
+                flushAsync(logFile);
+            }
+            else
+            {
+                flushSync(logFile);
+            }
+        }
+        catch (IOException e)
+        {
+            //ignore
+        }
 
-                Files.touch(logFile);
+    }
 
-                clearLog = false;
-            }
+    private void flushSync(File logFile) throws IOException
+    {
+        Charset utf8 = Charset.forName("UTF-8");
 
-            if (!clearLog && null == logDir || !logFile.exists())
+        if (clearLog && null != logDir && logDir.exists())
+        {
+            if (logFile.exists())
             {
-                logDir.mkdirs();
-                Files.touch(logFile);
+                logFile.delete();
             }
 
-            if (!wroteHeader && null != header)
+            Files.touch(logFile);
+
+            clearLog = false;
+        }
+
+        if (!clearLog && null == logDir || !logFile.exists())
+        {
+            logDir.mkdirs();
+            Files.touch(logFile);
+        }
+
+        if (!wroteHeader && null != header)
+        {
+            Files.append(header, logFile, utf8);
+            wroteHeader = true;
+        }
+
+        String content = drainEntries();
+        if (null != content)
+        {
+            Files.append(content, logFile, utf8);
+        }
+    }
+
+    private void flushAsync(File logFile) throws IOException
+    {
+        if (null == asyncWriter || !asyncWriter.getLogFile().equals(logFile))
+        {
+            closeAsyncWriter();
+            logDir.mkdirs();
+            asyncWriter = new AsyncReportWriter(logFile);
+        }
+
+        if (clearLog)
+        {
+            asyncWriter.truncate();
+            clearLog = false;
+        }
+
+        if (!wroteHeader && null != header)
+        {
+            writeAsync(header, logFile);
+            wroteHeader = true;
+        }
+
+        String content = drainEntries();
+        if (null != content)
+        {
+            writeAsync(content, logFile);
+        }
+    }
+
+    private void writeAsync(String content, File logFile) throws IOException
+    {
+        try
+        {
+            asyncWriter.write(content);
+        }
+        catch (IllegalStateException e)
+        {
+            //the shutdown hook closed the writer, append what's left ourselves
+            Files.append(content, logFile, Charset.forName("UTF-8"));
+        }
+    }
+
+    private String drainEntries()
+    {
+        Context ctx = context.get();
+        if (ctx.entries.isEmpty())
+        {
+            if (ctx.indent < 1)
             {
-                Files.append(header, logFile, utf8);
-                wroteHeader = true;
+                context.remove();
             }
 
-            if (!entries.isEmpty())
+            return null;
+        }
+
+        List<JGitFlowReportEntry> entriesToWrite = ctx.entries;
+        ctx.entries = newArrayList();
+
+        //don't keep anything around for pooled threads once they're back at the top level
+        if (ctx.indent < 1)
+        {
+            context.remove();
+        }
+
+        allEntries.addAll(entriesToWrite);
+        trimRetainedEntries();
+
+        return Joiner.on(EOL).join(entriesToWrite) + EOL;
+    }
+
+    private void trimRetainedEntries()
+    {
+        while (allEntries.size() > maxRetainedEntries)
+        {
+            allEntries.removeFirst();
+        }
+    }
+
+    private void addDebugText(String shortName, String text)
+    {
+        add(new JGitFlowReportEntry(shortName, pad() + "_ " + text + " _", true, false));
+    }
+
+    private void add(JGitFlowReportEntry entry)
+    {
+        context.get().entries.add(entry);
+    }
+
+    private void indent(int delta)
+    {
+        Context ctx = context.get();
+        ctx.indent = Math.max(0, ctx.indent + delta);
+    }
+
+    private String pad()
+    {
+        int indent = context.get().indent;
+        if (indent < PADDING.length)
+        {
+            return PADDING[indent];
+        }
+
+        return Strings.repeat(" ", indent);
+    }
+
+    /**
+     * Moves the calling thread's unflushed entries and indentation to another reporter
+     */
+    void handOffTo(JGitFlowReporter target)
+    {
+        if (target == this)
+        {
+            return;
+        }
+
+        Context mine = context.get();
+        Context theirs = target.context.get();
+
+        theirs.entries.addAll(mine.entries);
+        theirs.indent = mine.indent;
+
+        context.remove();
+    }
+
+    private static String format(String pattern, Object... args)
+    {
+        StringBuilder sb = new StringBuilder(pattern.length() + 16 * args.length);
+        int start = 0;
+
+        for (Object arg : args)
+        {
+            int found = pattern.indexOf(PLACEHOLDER, start);
+            if (found < 0)
             {
-                allEntries.addAll(entries);
-                List<JGitFlowReportEntry> entriesToWrite = ImmutableList.copyOf(entries);
-                this.entries = newArrayList();
+                break;
+            }
+
+            sb.append(pattern, start, found);
 
-                String content = Joiner.on(EOL).join(entriesToWrite) + EOL;
-                Files.append(content, logFile, utf8);
+            //commits and object ids are written as their plain hex name
+            if (arg instanceof AnyObjectId)
+            {
+                sb.append(((AnyObjectId) arg).name());
             }
+            else
+            {
+                sb.append(arg);
+            }
+
+            start = found + PLACEHOLDER.length();
         }
-        catch (IOException e)
+
+        return sb.append(pattern, start, pattern.length()).toString();
+    }
+
+    private void closeAsyncWriter()
+    {
+        if (null != asyncWriter)
         {
-            //ignore
+            asyncWriter.close();
+            asyncWriter = null;
         }
-
     }
 
     private String generateHeader(Git git, GitFlowConfiguration config)
@@ -264,4 +746,15 @@ public class JGitFlowReporter
 
         return sb.toString();
     }
+
+    private static class Context
+    {
+        private int indent;
+        private List<JGitFlowReportEntry> entries = newArrayList();
+    }
+
+    private static class DefaultHolder
+    {
+        private static final JGitFlowReporter INSTANCE = new JGitFlowReporter(null);
+    }
 }
@@ -0,0 +1,320 @@
+package com.atlassian.jgitflow.core;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+
+/**
+ * The parts of a version string, split by a hand written single pass tokenizer.
+ * <p>
+ * This accepts exactly what {@link BaseVersionInfo#ALTERNATE_PATTERN} and {@link BaseVersionInfo#STANDARD_PATTERN}
+ * accept and splits it the same way, without running either regex. Parsed versions are interned by
+ * {@link #of(String)}, so parsing the same string again, and comparing versions, allocates nothing.
+ * </p>
+ */
+public final class ParsedVersion
+{
+    public static final int DEFAULT_MAX_CACHED = 4096;
+
+    private static final String SNAPSHOT_IDENTIFIER = "SNAPSHOT";
+
+    private static final Map<String, ParsedVersion> CACHE = new LinkedHashMap<String, ParsedVersion>(256, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ParsedVersion> eldest)
+        {
+            return size() > DEFAULT_MAX_CACHED;
+        }
+    };
+
+    private final String version;
+    private final boolean valid;
+    private final List<String> digits;
+    private final String annotationSeparator;
+    private final String annotation;
+    private final String annotationRevSeparator;
+    private final String annotationRevision;
+    private final String buildSeparator;
+    private final String buildSpecifier;
+    private volatile DefaultArtifactVersion comparable;
+
+    private ParsedVersion(String version, boolean valid, List<String> digits, String annotationSeparator, String annotation,
+                          String annotationRevSeparator, String annotationRevision, String buildSeparator, String buildSpecifier)
+    {
+        this.version = version;
+        this.valid = valid;
+        this.digits = digits;
+        this.annotationSeparator = annotationSeparator;
+        this.annotation = annotation;
+        this.annotationRevSeparator = annotationRevSeparator;
+        this.annotationRevision = annotationRevision;
+        this.buildSeparator = buildSeparator;
+        this.buildSpecifier = buildSpecifier;
+    }
+
+    /**
+     * Returns the interned parse of the version, parsing it the first time it's seen.
+     * Strings that aren't versions are interned too, check {@link #isValid()}.
+     *
+     * @param version the version string
+     * @return the parsed version
+     */
+    public static ParsedVersion of(String version)
+    {
+        synchronized (CACHE)
+        {
+            ParsedVersion parsed = CACHE.get(version);
+            if (null == parsed)
+            {
+                parsed = parse(version);
+                CACHE.put(version, parsed);
+            }
+            return parsed;
+        }
+    }
+
+    /**
+     * Parses the version without looking in or adding to the cache
+     *
+     * @param version the version string
+     * @return the parsed version
+     */
+    public static ParsedVersion parse(String version)
+    {
+        int length = version.length();
+
+        if (isAlternate(version))
+        {
+            return new ParsedVersion(version, true, null, null, null, null, null, null, version);
+        }
+
+        // version digits, e.g. 1.22.0. bounds holds the start and end of each number
+        int[] bounds = new int[8];
+        int count = 0;
+        int pos = 0;
+
+        while (pos < length && isDigit(version.charAt(pos)))
+        {
+            int start = pos;
+            while (pos < length && isDigit(version.charAt(pos)))
+            {
+                pos++;
+            }
+
+            if (count + 2 > bounds.length)
+            {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            bounds[count++] = start;
+            bounds[count++] = pos;
+
+            if (pos + 1 < length && version.charAt(pos) == '.' && isDigit(version.charAt(pos + 1)))
+            {
+                pos++;
+            }
+            else
+            {
+                break;
+            }
+        }
+
+        if (count == 0)
+        {
+            return new ParsedVersion(version, false, null, null, null, null, null, null, null);
+        }
+
+        String[] digits = new String[count / 2];
+        for (int i = 0; i < digits.length; i++)
+        {
+            digits[i] = version.substring(bounds[i * 2], bounds[i * 2 + 1]);
+        }
+
+        // optional - or _ (annotation separator)
+        String sep1 = isSeparator(version, pos) ? version.substring(pos, ++pos) : null;
+
+        // alpha characters (annotation - alpha, beta, RC, etc.)
+        int start = pos;
+        while (pos < length && isLetter(version.charAt(pos)))
+        {
+            pos++;
+        }
+        String alpha = version.substring(start, pos);
+
+        // optional - or _ (annotation revision separator)
+        String sep2 = isSeparator(version, pos) ? version.substring(pos, ++pos) : null;
+
+        // digits after rc or beta (annotation revision)
+        start = pos;
+        while (pos < length && isDigit(version.charAt(pos)))
+        {
+            pos++;
+        }
+        String revision = version.substring(start, pos);
+
+        // optional - or _ followed by everything else (build specifier)
+        String sep3 = isSeparator(version, pos) ? version.substring(pos, ++pos) : null;
+        String rest = version.substring(pos);
+
+        if (hasLineTerminator(rest))
+        {
+            // the build specifier is matched by "." which stops at line terminators
+            return new ParsedVersion(version, false, null, null, null, null, null, null, null);
+        }
+
+        List<String> digitList = Collections.unmodifiableList(Arrays.asList(digits));
+
+        if (SNAPSHOT_IDENTIFIER.equals(alpha))
+        {
+            // Annotation was "SNAPSHOT" so populate the build specifier with that data
+            return new ParsedVersion(version, true, digitList, null, null, null, null, sep1, alpha);
+        }
+
+        if (null != sep2 && revision.isEmpty())
+        {
+            // The build separator was picked up as the annotation revision separator
+            return new ParsedVersion(version, true, digitList, sep1, nullIfEmpty(alpha), null, null, sep2, nullIfEmpty(rest));
+        }
+
+        return new ParsedVersion(version, true, digitList, sep1, nullIfEmpty(alpha), sep2, nullIfEmpty(revision), sep3, nullIfEmpty(rest));
+    }
+
+    /**
+     * SNAPSHOT, or letters followed by - or _ and SNAPSHOT, e.g. trunk-SNAPSHOT
+     */
+    private static boolean isAlternate(String version)
+    {
+        if (!version.endsWith(SNAPSHOT_IDENTIFIER))
+        {
+            return false;
+        }
+
+        int end = version.length() - SNAPSHOT_IDENTIFIER.length();
+        if (end == 0)
+        {
+            return true;
+        }
+
+        if (end < 2 || !isSeparator(version, end - 1))
+        {
+            return false;
+        }
+
+        for (int i = 0; i < end - 1; i++)
+        {
+            if (!isLetter(version.charAt(i)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c)
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c)
+    {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isSeparator(String version, int pos)
+    {
+        if (pos >= version.length())
+        {
+            return false;
+        }
+        char c = version.charAt(pos);
+        return c == '-' || c == '_';
+    }
+
+    private static boolean hasLineTerminator(String s)
+    {
+        for (int i = 0; i < s.length(); i++)
+        {
+            char c = s.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029')
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String nullIfEmpty(String s)
+    {
+        return (null == s || s.isEmpty()) ? null : s;
+    }
+
+    public String getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * @return if the string was a version at all
+     */
+    public boolean isValid()
+    {
+        return valid;
+    }
+
+    /**
+     * @return the version digits, or null for versions like trunk-SNAPSHOT
+     */
+    public List<String> getDigits()
+    {
+        return digits;
+    }
+
+    public String getAnnotationSeparator()
+    {
+        return annotationSeparator;
+    }
+
+    public String getAnnotation()
+    {
+        return annotation;
+    }
+
+    public String getAnnotationRevSeparator()
+    {
+        return annotationRevSeparator;
+    }
+
+    public String getAnnotationRevision()
+    {
+        return annotationRevision;
+    }
+
+    public String getBuildSeparator()
+    {
+        return buildSeparator;
+    }
+
+    public String getBuildSpecifier()
+    {
+        return buildSpecifier;
+    }
+
+    /**
+     * @return the case insensitive artifact version used for comparisons, created once
+     */
+    public DefaultArtifactVersion getComparable()
+    {
+        DefaultArtifactVersion result = comparable;
+        if (null == result)
+        {
+            // NOTE: The combination of upper-casing and lower-casing is an approximation of String.equalsIgnoreCase()
+            result = new DefaultArtifactVersion(version.toUpperCase(Locale.ENGLISH).toLowerCase(Locale.ENGLISH));
+            comparable = result;
+        }
+        return result;
+    }
+}
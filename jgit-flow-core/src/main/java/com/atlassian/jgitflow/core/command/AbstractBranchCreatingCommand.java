@@ -7,16 +7,15 @@ import com.atlassian.jgitflow.core.JGitFlowConstants;
 import com.atlassian.jgitflow.core.exception.*;
 import com.atlassian.jgitflow.core.extension.BranchCreatingExtension;
 import com.atlassian.jgitflow.core.extension.JGitFlowExtension;
+import com.atlassian.jgitflow.core.metrics.JGitFlowMetrics;
 import com.atlassian.jgitflow.core.util.GitHelper;
 
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.errors.ConfigInvalidException;
-import org.eclipse.jgit.lib.ConfigConstants;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.Ref;
-import org.eclipse.jgit.lib.StoredConfig;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.transport.PushResult;
 import org.eclipse.jgit.transport.RefSpec;
 import org.eclipse.jgit.util.StringUtils;
 
@@ -33,6 +32,19 @@ public abstract class AbstractBranchCreatingCommand<C, T> extends AbstractGitFlo
     }
 
     protected Ref doCreateBranch(String rootBranch, String newBranchName, BranchCreatingExtension extension) throws JGitFlowExtensionException, JGitFlowIOException, LocalBranchMissingException, JGitFlowGitAPIException, BranchOutOfDateException, LocalBranchExistsException, TagExistsException, GitAPIException
+    {
+        metrics.startPhase("create branch", newBranchName + " from " + rootBranch);
+        try
+        {
+            return createBranch(rootBranch, newBranchName, extension);
+        }
+        finally
+        {
+            metrics.endSpan();
+        }
+    }
+
+    private Ref createBranch(String rootBranch, String newBranchName, BranchCreatingExtension extension) throws JGitFlowExtensionException, JGitFlowIOException, LocalBranchMissingException, JGitFlowGitAPIException, BranchOutOfDateException, LocalBranchExistsException, TagExistsException, GitAPIException
     {
         git.checkout().setName(rootBranch).call();
 
@@ -40,11 +52,11 @@ public abstract class AbstractBranchCreatingCommand<C, T> extends AbstractGitFlo
 
         RevCommit startPoint = getStartingPoint(rootBranch);
 
-        RevCommit latest = GitHelper.getLatestCommit(git, rootBranch);
-        reporter.debugText(getCommandName(), "startPoint is: " + startPoint);
-        reporter.debugText(getCommandName(), "latestCommit is: " + latest.getName());
+        RevCommit latest = GitHelper.getLatestCommit(git, objects(), rootBranch);
+        reporter.debugText(getCommandName(), "startPoint is: {}", startPoint);
+        reporter.debugText(getCommandName(), "latestCommit is: {}", latest);
 
-        if (GitHelper.remoteBranchExists(git, rootBranch))
+        if (GitHelper.remoteBranchExists(refs(), rootBranch))
         {
             enforcer().requireLocalBranchNotBehindRemote(rootBranch);
         }
@@ -57,46 +69,61 @@ public abstract class AbstractBranchCreatingCommand<C, T> extends AbstractGitFlo
         Ref newBranch = git.checkout()
                            .setName(newBranchName)
                            .setCreateBranch(true)
-                           .setStartPoint(startPoint)
+                           .setStartPoint(withMessage(startPoint))
                            .call();
+        refs().invalidate();
 
-        reporter.debugText(getCommandName(), "created branch: " + newBranchName);
+        reporter.debugText(getCommandName(), "created branch: {}", newBranchName);
 
         runExtensionCommands(extension.afterCreateBranch());
 
         return newBranch;
     }
 
-    protected void doPushNewBranchIfNeeded(JGitFlowExtension pushExtension, String branchToPush) throws GitAPIException, JGitFlowGitAPIException, JGitFlowExtensionException, RemoteBranchExistsException, IOException
+    protected void doPushNewBranchIfNeeded(JGitFlowExtension pushExtension, String branchToPush) throws GitAPIException, JGitFlowGitAPIException, JGitFlowIOException, JGitFlowExtensionException, RemoteBranchExistsException, IOException
     {
         if (isPush())
         {
             enforcer().requireRemoteBranchAbsent(branchToPush);
             reporter.infoText(getCommandName(), "pushing new branch to origin: " + branchToPush);
 
-            git.push().setRemote(Constants.DEFAULT_REMOTE_NAME).setRefSpecs(new RefSpec(gfConfig.getDevelop()), new RefSpec(branchToPush)).call();
-
-            reporter.debugText(getCommandName(), "push complete");
-
-            git.fetch().setRemote(Constants.DEFAULT_REMOTE_NAME).call();
-
-            //setup tracking
-            StoredConfig config = git.getRepository().getConfig();
-            config.setString(ConfigConstants.CONFIG_BRANCH_SECTION, branchToPush, ConfigConstants.CONFIG_KEY_REMOTE, Constants.DEFAULT_REMOTE_NAME);
-            config.setString(ConfigConstants.CONFIG_BRANCH_SECTION, branchToPush, ConfigConstants.CONFIG_KEY_MERGE, Constants.R_HEADS + branchToPush);
-            config.save();
+            Iterable<PushResult> results;
+            metrics.startPhase("push");
             try
             {
-                config.load();
+                results = git.push().setRemote(Constants.DEFAULT_REMOTE_NAME).setRefSpecs(new RefSpec(gfConfig.getDevelop()), new RefSpec(branchToPush)).setProgressMonitor(JGitFlowMetrics.transferMonitor()).call();
             }
-            catch (ConfigInvalidException e)
+            finally
             {
-                throw new JGitFlowGitAPIException("unable to load config", e);
+                metrics.endSpan();
             }
+
+            reporter.debugText(getCommandName(), "push complete");
+
+            updateTrackingRefs(results);
+
+            //setup tracking
+            gfConfig.beginTransaction().setUpstream(branchToPush, Constants.DEFAULT_REMOTE_NAME).commit();
             runExtensionCommands(pushExtension.afterPush());
         }
     }
 
+    /**
+     * The reflog entry of a new branch quotes the message of its start point, which the object context doesn't
+     * parse by default
+     */
+    private RevCommit withMessage(RevCommit commit) throws JGitFlowIOException
+    {
+        try
+        {
+            return objects().parseCommitWithBody(commit);
+        }
+        catch (IOException e)
+        {
+            throw new JGitFlowIOException(e);
+        }
+    }
+
     protected RevCommit getStartingPoint(String fromBranch) throws JGitFlowIOException, LocalBranchMissingException
     {
         RevCommit startPoint = null;
@@ -107,11 +134,11 @@ public abstract class AbstractBranchCreatingCommand<C, T> extends AbstractGitFlo
         }
         else if (!StringUtils.isEmptyOrNull(startCommitString))
         {
-            startPoint = GitHelper.getCommitForString(git, startCommitString);
+            startPoint = GitHelper.getCommitForString(git, objects(), startCommitString);
         }
         else
         {
-            startPoint = GitHelper.getLatestCommit(git, fromBranch);
+            startPoint = GitHelper.getLatestCommit(git, objects(), fromBranch);
         }
 
         return startPoint;
@@ -7,26 +7,46 @@ import com.atlassian.jgitflow.core.exception.JGitFlowGitAPIException;
 import com.atlassian.jgitflow.core.exception.JGitFlowIOException;
 import com.atlassian.jgitflow.core.exception.LocalBranchMissingException;
 import com.atlassian.jgitflow.core.extension.BranchMergingExtension;
+import com.atlassian.jgitflow.core.extension.ExtensionCommand;
 import com.atlassian.jgitflow.core.extension.impl.MergeProcessExtensionWrapper;
 import com.atlassian.jgitflow.core.util.GitHelper;
+import com.atlassian.jgitflow.core.util.LocalRefBatch;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.MergeCommand;
 import org.eclipse.jgit.api.MergeResult;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.CommitBuilder;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectIdRef;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
 import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TagBuilder;
+import org.eclipse.jgit.merge.MergeMessageFormatter;
 import org.eclipse.jgit.merge.MergeStrategy;
-import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.merge.ResolveMerger;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevObject;
+import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.util.StringUtils;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 public abstract class AbstractBranchMergingCommand<C, T> extends AbstractGitFlowCommand<C, T>
 {
     private boolean keepBranch;
     private boolean forceDeleteBranch;
     private String message;
+    private boolean inCoreMerge;
+    private boolean workingTreeTouched;
+    private ObjectId mergeHead;
 
     protected AbstractBranchMergingCommand(String branchName, Git git, GitFlowConfiguration gfConfig)
     {
@@ -46,34 +66,57 @@ public abstract class AbstractBranchMergingCommand<C, T> extends AbstractGitFlow
     }
 
     protected MergeResult doMerge(String branchToMerge, String mergeTarget, MergeProcessExtensionWrapper extension, boolean squash, MergeCommand.FastForwardMode ffMode) throws LocalBranchMissingException, JGitFlowGitAPIException, JGitFlowIOException, GitAPIException, JGitFlowExtensionException
+    {
+        metrics.startPhase("merge", branchToMerge + " into " + mergeTarget);
+        try
+        {
+            return mergeInto(branchToMerge, mergeTarget, extension, squash, ffMode);
+        }
+        finally
+        {
+            metrics.endSpan();
+        }
+    }
+
+    private MergeResult mergeInto(String branchToMerge, String mergeTarget, MergeProcessExtensionWrapper extension, boolean squash, MergeCommand.FastForwardMode ffMode) throws LocalBranchMissingException, JGitFlowGitAPIException, JGitFlowIOException, GitAPIException, JGitFlowExtensionException
     {
         MergeResult mergeResult = createEmptyMergeResult();
 
         runExtensionCommands(extension.beforeCheckout());
 
-        git.checkout().setName(mergeTarget).call();
+        boolean inCore = canMergeInCore(mergeTarget, extension);
+        if (!inCore)
+        {
+            checkoutWorkingTree(mergeTarget);
+        }
 
         runExtensionCommands(extension.afterCheckout());
 
-        if (!GitHelper.isMergedInto(git, branchToMerge, mergeTarget))
+        ObjectId objectToMerge = resolve(branchToMerge);
+        if (null == objectToMerge)
+        {
+            throw new LocalBranchMissingException("commit " + branchToMerge + " does not exist");
+        }
+
+        if (!GitHelper.isMergedInto(objects(), objectToMerge, resolve(mergeTarget)))
         {
             reporter.infoText(getCommandName(), "merging '" + branchToMerge + "' into '" + mergeTarget + "'...");
 
             runExtensionCommands(extension.beforeMerge());
 
-            ObjectId objectToMerge;
-            Ref refToMerge = GitHelper.getLocalBranch(git, branchToMerge);
-            if (refToMerge == null) {
-                try {
-                    objectToMerge = git.getRepository().resolve(branchToMerge);
-                } catch (IOException e) {
-                    // TODO better error handling
-                    throw new IllegalStateException("Cannot resolve commit", e);
+            if (inCore)
+            {
+                mergeResult = mergeInCore(branchToMerge, objectToMerge, mergeTarget, squash, ffMode);
+
+                if (null == mergeResult)
+                {
+                    reporter.infoText(getCommandName(), "in-core merge has conflicts, merging through the working tree instead");
+                    inCore = false;
+                    checkoutWorkingTree(mergeTarget);
                 }
-            } else {
-                objectToMerge = refToMerge.getObjectId();
             }
-            if (squash)
+
+            if (!inCore && squash)
             {
                 reporter.infoText(getCommandName(), "squashing merge");
                 mergeResult = git.merge().setSquash(true).include(objectToMerge).call();
@@ -83,12 +126,12 @@ public abstract class AbstractBranchMergingCommand<C, T> extends AbstractGitFlow
                 }
                 this.forceDeleteBranch = true;
             }
-            else
+            else if (!inCore)
             {
                 MergeCommand mergeCommand = git.merge().setFastForward(ffMode).include(objectToMerge);
                 
                 // check if you want scmCommentSuffix/scmCommentPrefix in the comment (if either is set, it shuold be used for merge messages as well for consistency)
-                boolean isCustomScmMessage = (!StringUtils.isEmptyOrNull(getScmMessagePrefix())) || (!StringUtils.isEmptyOrNull(getScmMessageSuffix()));
+                boolean isCustomScmMessage = isCustomScmMessage();
                 
                 if(isCustomScmMessage) {
                   mergeCommand.setCommit(false);
@@ -106,6 +149,15 @@ public abstract class AbstractBranchMergingCommand<C, T> extends AbstractGitFlow
             runExtensionCommands(extension.afterMerge());
         }
 
+        if (inCore && null != mergeResult.getNewHead())
+        {
+            mergeHead = mergeResult.getNewHead();
+        }
+        else
+        {
+            mergeHead = resolve(inCore ? mergeTarget : Constants.HEAD);
+        }
+
         reporter.mergeResult(getCommandName(), mergeResult);
 
         if (!mergeResult.getMergeStatus().isSuccessful())
@@ -124,13 +176,305 @@ public abstract class AbstractBranchMergingCommand<C, T> extends AbstractGitFlow
         return mergeResult;
     }
 
+    /**
+     * A merge can be done in-core when in-core merging is turned on and nothing needs the target checked out:
+     * either there is no working tree, or the target is a local branch other than the checked out one and there
+     * are no extension commands to run while it would have been checked out.
+     */
+    private boolean canMergeInCore(String mergeTarget, MergeProcessExtensionWrapper extension) throws JGitFlowIOException
+    {
+        if (!inCoreMerge)
+        {
+            return false;
+        }
+
+        if (!hasWorkingTree())
+        {
+            return true;
+        }
+
+        if (hasCommands(extension.afterCheckout()) || hasCommands(extension.beforeMerge()) || hasCommands(extension.afterMerge()))
+        {
+            return false;
+        }
+
+        try
+        {
+            //the target may be given by its full name, and anything but a local branch is merged on a detached checkout
+            Ref targetRef = GitHelper.getLocalBranch(git, mergeTarget);
+            return null != targetRef && !targetRef.getName().equals(git.getRepository().getFullBranch());
+        }
+        catch (IOException e)
+        {
+            throw new JGitFlowIOException(e);
+        }
+    }
+
+    /**
+     * Merges a commit into the target using only the object database. The merge commit is written directly and the
+     * target branch ref, if the target is a branch, is moved to it. A target that is just a commit id isn't updated,
+     * the result is only available from {@link #getMergeHead()}, the same as a detached HEAD would hold it.
+     *
+     * @return the result, or null if the merge has conflicts and there is a working tree to resolve them in
+     */
+    private MergeResult mergeInCore(String branchToMerge, ObjectId objectToMerge, String mergeTarget, boolean squash, MergeCommand.FastForwardMode ffMode) throws JGitFlowIOException, JGitFlowGitAPIException, LocalBranchMissingException
+    {
+        Repository repo = git.getRepository();
+        RevWalk walk = objects().getWalk();
+        ObjectInserter inserter = repo.newObjectInserter();
+
+        try
+        {
+            Ref targetRef = GitHelper.getLocalBranch(git, mergeTarget);
+            ObjectId targetId = resolve(mergeTarget);
+
+            if (null == targetId)
+            {
+                throw new LocalBranchMissingException("commit " + mergeTarget + " does not exist");
+            }
+
+            RevCommit target = walk.parseCommit(targetId);
+            RevCommit source = walk.parseCommit(objectToMerge);
+            ObjectId[] mergedCommits = new ObjectId[]{target, source};
+
+            if (!squash && !MergeCommand.FastForwardMode.NO_FF.equals(ffMode) && walk.isMergedInto(target, source))
+            {
+                updateMergeTarget(targetRef, target, source, "merge " + branchToMerge + ": Fast-forward");
+                return new MergeResult(source, target, mergedCommits, MergeResult.MergeStatus.FAST_FORWARD, MergeStrategy.RECURSIVE, null);
+            }
+
+            if (MergeCommand.FastForwardMode.FF_ONLY.equals(ffMode))
+            {
+                return new MergeResult(target, null, mergedCommits, MergeResult.MergeStatus.ABORTED, MergeStrategy.RECURSIVE, null);
+            }
+
+            ResolveMerger merger = (ResolveMerger) MergeStrategy.RECURSIVE.newMerger(repo, true);
+            if (!merger.merge(target, source))
+            {
+                if (hasWorkingTree())
+                {
+                    return null;
+                }
+
+                MergeResult.MergeStatus status = (null != merger.getFailingPaths()) ? MergeResult.MergeStatus.FAILED : MergeResult.MergeStatus.CONFLICTING;
+                Map<String, org.eclipse.jgit.merge.MergeResult<?>> conflicts = new HashMap<String, org.eclipse.jgit.merge.MergeResult<?>>(merger.getMergeResults());
+                return new MergeResult(target, null, mergedCommits, status, MergeStrategy.RECURSIVE, conflicts);
+            }
+
+            String commitMessage;
+            if (squash)
+            {
+                reporter.infoText(getCommandName(), "squashing merge");
+                commitMessage = getScmMessagePrefix() + "squashing '" + branchToMerge + "' into '" + mergeTarget + "'" + getScmMessageSuffix();
+                this.forceDeleteBranch = true;
+            }
+            else if (isCustomScmMessage())
+            {
+                commitMessage = getScmMessagePrefix() + "merging '" + branchToMerge + "' into '" + mergeTarget + "'" + getScmMessageSuffix();
+            }
+            else
+            {
+                //same message a merge through the working tree would get
+                Ref sourceRef = new ObjectIdRef.Unpeeled(Ref.Storage.LOOSE, objectToMerge.name(), objectToMerge);
+                Ref headRef = (null != targetRef) ? targetRef : new ObjectIdRef.Unpeeled(Ref.Storage.LOOSE, Constants.HEAD, targetId);
+                commitMessage = new MergeMessageFormatter().format(Collections.singletonList(sourceRef), headRef);
+            }
+
+            PersonIdent ident = new PersonIdent(repo);
+            CommitBuilder commit = new CommitBuilder();
+            commit.setTreeId(merger.getResultTreeId());
+            if (squash)
+            {
+                commit.setParentId(target);
+            }
+            else
+            {
+                commit.setParentIds(target, source);
+            }
+            commit.setAuthor(ident);
+            commit.setCommitter(ident);
+            commit.setMessage(commitMessage);
+
+            ObjectId commitId = inserter.insert(commit);
+            inserter.flush();
+
+            updateMergeTarget(targetRef, target, commitId, "merge " + branchToMerge + ": Merge made by recursive.");
+
+            MergeResult.MergeStatus status = squash ? MergeResult.MergeStatus.MERGED_SQUASHED : MergeResult.MergeStatus.MERGED;
+            return new MergeResult(commitId, null, mergedCommits, status, MergeStrategy.RECURSIVE, null);
+        }
+        catch (IOException e)
+        {
+            throw new JGitFlowIOException(e);
+        }
+        finally
+        {
+            inserter.release();
+        }
+    }
+
+    private void updateMergeTarget(Ref targetRef, ObjectId oldId, ObjectId newId, String refLogMessage) throws IOException, JGitFlowGitAPIException
+    {
+        if (null == targetRef)
+        {
+            return;
+        }
+
+        LocalRefBatch batch = refBatch();
+        if (null != batch)
+        {
+            batch.update(targetRef.getName(), oldId, newId, refLogMessage);
+            return;
+        }
+
+        RefUpdate update = git.getRepository().updateRef(targetRef.getName());
+        update.setNewObjectId(newId);
+        update.setExpectedOldObjectId(oldId);
+        update.setRefLogMessage(refLogMessage, false);
+
+        RefUpdate.Result result = update.update();
+        refs().invalidate();
+
+        switch (result)
+        {
+            case NEW:
+            case FAST_FORWARD:
+            case FORCED:
+            case NO_CHANGE:
+                break;
+            default:
+                throw new JGitFlowGitAPIException("error updating " + targetRef.getName() + " - " + result.name());
+        }
+    }
+
+    private boolean isCustomScmMessage()
+    {
+        return (!StringUtils.isEmptyOrNull(getScmMessagePrefix())) || (!StringUtils.isEmptyOrNull(getScmMessageSuffix()));
+    }
+
+    private boolean hasCommands(Iterable<ExtensionCommand> commands)
+    {
+        return commands.iterator().hasNext();
+    }
+
+    /**
+     * Resolves a branch or commit the way a merge sees it: local branches first, including changes that are
+     * collected in the ref batch but not written yet.
+     *
+     * @return the commit id, or null if there's no such branch or commit
+     */
+    private ObjectId resolve(String revision) throws JGitFlowIOException
+    {
+        Repository repo = git.getRepository();
+        try
+        {
+            LocalRefBatch batch = refBatch();
+            if (null != batch && !batch.isEmpty())
+            {
+                String refName = Constants.HEAD.equals(revision) ? repo.getFullBranch() : Constants.R_HEADS + revision;
+                if (batch.isQueued(refName))
+                {
+                    return batch.getQueuedId(refName);
+                }
+            }
+
+            Ref branch = repo.getRef(Constants.R_HEADS + revision);
+            return (null != branch) ? branch.getObjectId() : repo.resolve(revision);
+        }
+        catch (IOException e)
+        {
+            throw new JGitFlowIOException(e);
+        }
+    }
+
+    /**
+     * A checkout reads the branch from disk, so a change to it that's still being collected is written first
+     */
+    private void flushRefBatchFor(String branchName) throws JGitFlowGitAPIException
+    {
+        LocalRefBatch batch = refBatch();
+        if (null == batch || batch.isEmpty())
+        {
+            return;
+        }
+
+        try
+        {
+            if (batch.isQueued(Constants.R_HEADS + branchName) || batch.isQueued(git.getRepository().getFullBranch()))
+            {
+                flushRefBatch();
+            }
+        }
+        catch (IOException e)
+        {
+            throw new JGitFlowGitAPIException(e);
+        }
+    }
+
+    private void checkoutWorkingTree(String branchName) throws GitAPIException, JGitFlowGitAPIException
+    {
+        flushRefBatchFor(branchName);
+        workingTreeTouched = true;
+
+        metrics.startPhase("checkout", branchName);
+        try
+        {
+            git.checkout().setName(branchName).call();
+        }
+        finally
+        {
+            metrics.endSpan();
+        }
+    }
+
+    /**
+     * @return whether the repository has a working tree, i.e. isn't bare
+     */
+    protected boolean hasWorkingTree()
+    {
+        return !git.getRepository().isBare();
+    }
+
+    /**
+     * @return the commit the last merge resulted in, or the target itself if there was nothing to merge
+     */
+    protected ObjectId getMergeHead()
+    {
+        return mergeHead;
+    }
+
     protected void doTag(String branchToTag, String tagMessage, MergeResult resultToLog, BranchMergingExtension extension) throws GitAPIException, JGitFlowGitAPIException, JGitFlowExtensionException
+    {
+        metrics.startPhase("tag");
+        try
+        {
+            tag(branchToTag, tagMessage, resultToLog, extension);
+        }
+        finally
+        {
+            metrics.endSpan();
+        }
+    }
+
+    private void tag(String branchToTag, String tagMessage, MergeResult resultToLog, BranchMergingExtension extension) throws GitAPIException, JGitFlowGitAPIException, JGitFlowExtensionException
     {
         runExtensionCommands(extension.beforeTag());
-        git.checkout().setName(branchToTag).call();
+
+        RevObject objectToTag = null;
+        if (inCoreMerge)
+        {
+            objectToTag = resolveObjectToTag(branchToTag);
+        }
+        else
+        {
+            flushRefBatchFor(branchToTag);
+            git.checkout().setName(branchToTag).call();
+        }
+
         String tagName = gfConfig.getPrefixValue(JGitFlowConstants.PREFIXES.VERSIONTAG.configKey()) + getBranchName();
+        LocalRefBatch batch = refBatch();
 
-        if (!GitHelper.tagExists(git, tagName))
+        if (null != batch && !GitHelper.tagExists(refs(), tagName) && !batch.isQueued(Constants.R_TAGS + tagName))
         {
             reporter.infoText(
                     getCommandName(),
@@ -140,43 +484,218 @@ public abstract class AbstractBranchMergingCommand<C, T> extends AbstractGitFlow
                             resultToLog.getMergeStatus()
                     )
             );
-            git.tag().setName(tagName).setMessage(getScmMessagePrefix() + tagMessage + getScmMessageSuffix()).call();
+            if (null == objectToTag)
+            {
+                objectToTag = resolveObjectToTag(branchToTag);
+            }
+            batch.create(Constants.R_TAGS + tagName, insertTag(tagName, objectToTag, getScmMessagePrefix() + tagMessage + getScmMessageSuffix()));
+        }
+        else if (null == batch && !GitHelper.tagExists(refs(), tagName))
+        {
+            reporter.infoText(
+                    getCommandName(),
+                    String.format(
+                            "tagging with name: <%s>. merge status (%s)",
+                            tagName,
+                            resultToLog.getMergeStatus()
+                    )
+            );
+            git.tag().setName(tagName).setObjectId(objectToTag).setMessage(getScmMessagePrefix() + tagMessage + getScmMessageSuffix()).call();
+            refs().invalidate();
         }
 
         runExtensionCommands(extension.afterTag());
     }
 
-    protected void cleanupBranchesIfNeeded(String branchToCheckout, String... branchesToDelete) throws GitAPIException, JGitFlowGitAPIException
+    /**
+     * Writes an annotated tag object, the same one the tag command would write, without creating its ref
+     */
+    private ObjectId insertTag(String tagName, RevObject objectToTag, String tagMessage) throws JGitFlowGitAPIException
+    {
+        if (!Repository.isValidRefName(Constants.R_TAGS + tagName))
+        {
+            throw new JGitFlowGitAPIException("invalid tag name: " + tagName);
+        }
+
+        TagBuilder tag = new TagBuilder();
+        tag.setTag(tagName);
+        tag.setObjectId(objectToTag);
+        tag.setTagger(new PersonIdent(git.getRepository()));
+        tag.setMessage(tagMessage);
+
+        ObjectInserter inserter = git.getRepository().newObjectInserter();
+        try
+        {
+            ObjectId tagId = inserter.insert(tag);
+            inserter.flush();
+            return tagId;
+        }
+        catch (IOException e)
+        {
+            throw new JGitFlowGitAPIException(e);
+        }
+        finally
+        {
+            inserter.release();
+        }
+    }
+
+    /**
+     * Resolves what to tag without checking anything out. HEAD stands for the result of the last merge.
+     */
+    private RevObject resolveObjectToTag(String branchToTag) throws JGitFlowGitAPIException
+    {
+        try
+        {
+            ObjectId id = (Constants.HEAD.equals(branchToTag) && null != mergeHead) ? mergeHead : resolve(branchToTag);
+            if (null == id)
+            {
+                throw new JGitFlowGitAPIException("unable to resolve " + branchToTag + " for tagging");
+            }
+
+            return objects().parseCommit(id);
+        }
+        catch (JGitFlowIOException e)
+        {
+            throw new JGitFlowGitAPIException(e);
+        }
+        catch (IOException e)
+        {
+            throw new JGitFlowGitAPIException(e);
+        }
+    }
+
+    protected void cleanupBranchesIfNeeded(String branchToCheckout, String... branchesToDelete) throws GitAPIException, JGitFlowGitAPIException, JGitFlowExtensionException
     {
         if (!keepBranch)
         {
-            git.checkout().setName(branchToCheckout).call();
+            //the branches may only go once origin has what they were merged into
+            pushQueuedUpdates();
 
-            for (String branchToDelete : branchesToDelete)
+            metrics.startPhase("cleanup");
+            try
             {
-                if (GitHelper.localBranchExists(git, branchToDelete))
-                {
-                    reporter.infoText(getCommandName(), "deleting local branch: " + branchToDelete);
+                cleanupBranches(branchToCheckout, branchesToDelete);
+            }
+            finally
+            {
+                metrics.endSpan();
+            }
+        }
+    }
 
-                    git.branchDelete().setForce(forceDeleteBranch).setBranchNames(branchToDelete).call();
-                }
+    private void cleanupBranches(String branchToCheckout, String... branchesToDelete) throws GitAPIException, JGitFlowGitAPIException, JGitFlowExtensionException
+    {
+        if (mustCheckout(branchToCheckout, branchesToDelete))
+        {
+            checkoutWorkingTree(branchToCheckout);
+        }
+
+        for (String branchToDelete : branchesToDelete)
+        {
+            if (GitHelper.localBranchExists(refs(), branchToDelete))
+            {
+                reporter.infoText(getCommandName(), "deleting local branch: " + branchToDelete);
 
-                if (isPush() && GitHelper.remoteBranchExists(git, branchToDelete))
+                LocalRefBatch batch = refBatch();
+                if (null != batch && forceDeleteBranch)
                 {
-                    reporter.infoText(getCommandName(), "pushing deleted branch: :" + branchToDelete);
-                    RefSpec deleteSpec = new RefSpec().setSource(null).setDestination(Constants.R_HEADS + branchToDelete);
-                    git.push().setRemote(Constants.DEFAULT_REMOTE_NAME).setRefSpecs(deleteSpec).call();
+                    batch.delete(Constants.R_HEADS + branchToDelete, resolveBranchToDelete(branchToDelete));
                 }
+                else
+                {
+                    //an unforced delete checks the branch is merged into HEAD, which has to be on disk for that
+                    flushRefBatch();
+                    git.branchDelete().setForce(forceDeleteBranch).setBranchNames(branchToDelete).call();
+                    refs().invalidate();
+                }
+            }
+
+            if (isPush() && GitHelper.remoteBranchExists(refs(), branchToDelete))
+            {
+                doPushBranchDelete(branchToDelete);
+            }
+        }
+    }
+
+    private ObjectId resolveBranchToDelete(String branchName) throws JGitFlowGitAPIException
+    {
+        try
+        {
+            return resolve(branchName);
+        }
+        catch (JGitFlowIOException e)
+        {
+            throw new JGitFlowGitAPIException(e);
+        }
+    }
+
+    /**
+     * When merging in-core, a branch only has to be checked out to get off a branch that's about to be deleted,
+     * or because an earlier step already went through the working tree. A bare repository just has HEAD re-linked.
+     */
+    private boolean mustCheckout(String branchToCheckout, String... branchesToDelete) throws JGitFlowGitAPIException
+    {
+        if (!inCoreMerge || workingTreeTouched)
+        {
+            return true;
+        }
+
+        try
+        {
+            boolean onDeletedBranch = Arrays.asList(branchesToDelete).contains(git.getRepository().getBranch());
+
+            if (onDeletedBranch && !hasWorkingTree())
+            {
+                //nothing to check out, just point HEAD somewhere that stays
+                git.getRepository().updateRef(Constants.HEAD).link(Constants.R_HEADS + branchToCheckout);
+                return false;
             }
+
+            return onDeletedBranch;
+        }
+        catch (IOException e)
+        {
+            throw new JGitFlowGitAPIException(e);
         }
     }
 
-    protected void checkoutTopicBranch(String branchName, BranchMergingExtension extension) throws GitAPIException, JGitFlowExtensionException
+    protected void checkoutTopicBranch(String branchName, BranchMergingExtension extension) throws GitAPIException, JGitFlowGitAPIException, JGitFlowExtensionException
     {
-        git.checkout().setName(branchName).call();
+        //when merging in-core the checkout is only needed if there's an extension that expects it
+        if (!inCoreMerge || (hasWorkingTree() && hasCommands(extension.afterTopicCheckout())))
+        {
+            checkoutWorkingTree(branchName);
+        }
         runExtensionCommands(extension.afterTopicCheckout());
     }
 
+    /**
+     * Checks out the branch a finish command leaves the repository on. Skipped when every merge was done in-core,
+     * since then the working tree was never moved.
+     */
+    protected void checkoutFinalBranch(String branchName) throws GitAPIException, JGitFlowGitAPIException
+    {
+        if (inCoreMerge && !workingTreeTouched)
+        {
+            return;
+        }
+
+        flushRefBatchFor(branchName);
+
+        reporter.infoText(getCommandName(), "checking out '" + branchName + "'");
+
+        metrics.startPhase("checkout", branchName);
+        try
+        {
+            git.checkout().setName(branchName).call();
+        }
+        finally
+        {
+            metrics.endSpan();
+        }
+    }
+
     protected MergeResult createEmptyMergeResult()
     {
         return new MergeResult(null, null, new ObjectId[]{null, null}, MergeResult.MergeStatus.ALREADY_UP_TO_DATE, MergeStrategy.RESOLVE, null);
@@ -227,6 +746,25 @@ public abstract class AbstractBranchMergingCommand<C, T> extends AbstractGitFlow
         return (C) this;
     }
 
+    /**
+     * Set whether to merge in-core, writing merge commits and tags straight to the object database instead of
+     * checking out each merge target. Merges that have conflicts, or that have extension commands expecting the
+     * target to be checked out, still go through the working tree. This also allows finishing in a bare repository.
+     *
+     * @param inCoreMerge {@code true} to merge in-core, {@code false}(default) otherwise
+     * @return {@code this}
+     */
+    public C setInCoreMerge(boolean inCoreMerge)
+    {
+        this.inCoreMerge = inCoreMerge;
+        return (C) this;
+    }
+
+    public boolean isInCoreMerge()
+    {
+        return inCoreMerge;
+    }
+
     public boolean isForceDeleteBranch()
     {
         return forceDeleteBranch;
@@ -1,21 +1,29 @@
 package com.atlassian.jgitflow.core.command;
 
+import com.atlassian.jgitflow.core.ConfigTransaction;
 import com.atlassian.jgitflow.core.GitFlowConfiguration;
 import com.atlassian.jgitflow.core.JGitFlowConstants;
 import com.atlassian.jgitflow.core.JGitFlowReporter;
-import com.atlassian.jgitflow.core.TaggedVersion;
 import com.atlassian.jgitflow.core.exception.*;
 import com.atlassian.jgitflow.core.extension.ExtensionCommand;
 import com.atlassian.jgitflow.core.extension.ExtensionFailStrategy;
 import com.atlassian.jgitflow.core.extension.JGitFlowExtension;
+import com.atlassian.jgitflow.core.metrics.JGitFlowMetrics;
 import com.atlassian.jgitflow.core.util.GitHelper;
+import com.atlassian.jgitflow.core.util.GitObjectContext;
+import com.atlassian.jgitflow.core.util.LocalRefBatch;
+import com.atlassian.jgitflow.core.util.RefSnapshot;
 import com.atlassian.jgitflow.core.util.RequirementHelper;
-import org.apache.maven.shared.release.versions.VersionParseException;
+import com.atlassian.jgitflow.core.util.SelectiveFetch;
+import com.atlassian.jgitflow.core.util.VersionTagIndex;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.ConfigConstants;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.transport.PushResult;
+import org.eclipse.jgit.transport.ReceiveCommand;
 import org.eclipse.jgit.transport.RefSpec;
 import org.eclipse.jgit.transport.RemoteRefUpdate;
 import org.eclipse.jgit.transport.TagOpt;
@@ -23,9 +31,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 
 import static com.atlassian.jgitflow.core.util.Preconditions.checkNotNull;
@@ -44,14 +53,23 @@ public abstract class AbstractGitFlowCommand<C, T> implements Callable<T>, JGitF
     private static final Logger log = LoggerFactory.getLogger(AbstractGitFlowCommand.class);
     protected final Git git;
     protected final GitFlowConfiguration gfConfig;
-    protected final JGitFlowReporter reporter = JGitFlowReporter.get();
+    protected final JGitFlowReporter reporter;
+    protected final JGitFlowMetrics metrics;
     protected final RequirementHelper requirementHelper;
+    private final RefSnapshot refSnapshot;
+    private final GitObjectContext objectContext;
     private boolean allowUntracked;
     private String scmMessagePrefix;
     private String scmMessageSuffix;
     private boolean fetch;
+    private boolean fullFetch;
     private boolean push;
     private final String branchName;
+    private boolean batchingPushes;
+    private final List<RefSpec> pendingPushSpecs;
+    private final Set<String> requiredPushRefs;
+    private final List<JGitFlowExtension> pendingPushExtensions;
+    private LocalRefBatch refBatch;
 
     protected AbstractGitFlowCommand(String branchName, Git git, GitFlowConfiguration gfConfig)
     {
@@ -59,7 +77,11 @@ public abstract class AbstractGitFlowCommand<C, T> implements Callable<T>, JGitF
         checkNotNull(git);
         checkNotNull(gfConfig);
 
-        this.requirementHelper = new RequirementHelper(git, gfConfig, getCommandName());
+        this.reporter = JGitFlowReporter.forRepository(git.getRepository());
+        this.metrics = JGitFlowMetrics.forRepository(git.getRepository());
+        this.refSnapshot = new RefSnapshot(git);
+        this.objectContext = new GitObjectContext(git.getRepository());
+        this.requirementHelper = new RequirementHelper(git, gfConfig, getCommandName(), refSnapshot, objectContext);
 
         this.git = git;
         this.gfConfig = gfConfig;
@@ -67,67 +89,370 @@ public abstract class AbstractGitFlowCommand<C, T> implements Callable<T>, JGitF
         this.scmMessagePrefix = "";
         this.scmMessageSuffix = "";
         this.fetch = false;
+        this.fullFetch = false;
         this.push = false;
         this.branchName = branchName;
+        this.batchingPushes = false;
+        this.pendingPushSpecs = new ArrayList<RefSpec>();
+        this.requiredPushRefs = new HashSet<String>();
+        this.pendingPushExtensions = new ArrayList<JGitFlowExtension>();
     }
 
-    protected void doFetchIfNeeded(JGitFlowExtension fetchingExtension) throws GitAPIException, JGitFlowGitAPIException, JGitFlowExtensionException
+    /**
+     * Fetches develop, the given topic branches and new version tags from origin, or everything origin has when a
+     * full fetch is requested. Releases are merged onto the latest version tag, so the tags stand in for master.
+     */
+    protected void doFetchIfNeeded(JGitFlowExtension fetchingExtension, String... topicBranches) throws GitAPIException, JGitFlowGitAPIException, JGitFlowExtensionException
     {
         if (fetch)
         {
             runExtensionCommands(fetchingExtension.beforeFetch());
 
-            git.fetch().setTagOpt(TagOpt.FETCH_TAGS).setRemote(Constants.DEFAULT_REMOTE_NAME).call();
+            metrics.startPhase("fetch", fullFetch ? "full" : null);
+            try
+            {
+                if (fullFetch)
+                {
+                    git.fetch().setTagOpt(TagOpt.FETCH_TAGS).setRemote(Constants.DEFAULT_REMOTE_NAME).setProgressMonitor(JGitFlowMetrics.transferMonitor()).call();
+                }
+                else
+                {
+                    SelectiveFetch selectiveFetch = new SelectiveFetch(git, Constants.DEFAULT_REMOTE_NAME)
+                            .addBranch(gfConfig.getDevelop())
+                            .setVersionTagPrefix(gfConfig.getPrefixValue(JGitFlowConstants.PREFIXES.VERSIONTAG.configKey()));
+
+                    for (String topicBranch : topicBranches)
+                    {
+                        selectiveFetch.addBranch(topicBranch);
+                    }
+
+                    try
+                    {
+                        reporter.debugText(getCommandName(), "fetched refs: {}", selectiveFetch.call());
+                    }
+                    catch (JGitFlowIOException e)
+                    {
+                        throw new JGitFlowGitAPIException(e);
+                    }
+                }
+                refs().invalidate();
+            }
+            finally
+            {
+                metrics.endSpan();
+            }
 
             runExtensionCommands(fetchingExtension.afterFetch());
         }
     }
 
+    /**
+     * Pushes the given branches, and optionally tags, to origin in a single push and then runs the extension's
+     * afterPush commands. While a push batch is open the ref updates and the afterPush commands are only queued,
+     * see {@link #startPushBatch()}.
+     */
     protected void doPushIfNeeded(JGitFlowExtension pushExtension, boolean includeTags, String... branchesToPush) throws GitAPIException, JGitFlowGitAPIException, JGitFlowExtensionException
     {
         if (push)
         {
-            reporter.infoText(getCommandName(), "pushing changes to origin...");
-
             for (String branchToPush : branchesToPush)
             {
-                if (GitHelper.remoteBranchExists(git, branchToPush))
+                if (GitHelper.remoteBranchExists(refs(), branchToPush))
                 {
-                    reporter.infoText(getCommandName(), "pushing '" + branchToPush + "'");
-                    RefSpec branchSpec = new RefSpec(branchToPush);
-                    Iterable<PushResult> i = git.push().setRemote(Constants.DEFAULT_REMOTE_NAME).setRefSpecs(branchSpec).call();
-                    for (PushResult pr : i)
-                    {
-                        reporter.infoText(getCommandName(), "messages: '" + pr.getMessages() + "'");
-
-                        for(RemoteRefUpdate update : pr.getRemoteUpdates()) {
-
-                            RemoteRefUpdate.Status trackingStatus = update.getStatus();
-                            if (failedResult(trackingStatus)) {
-                                if (pr.getMessages() != null && pr.getMessages().length() > 0) {
-                                    throw new JGitFlowGitAPIException("error pushing to " + branchToPush + " - status: " + trackingStatus.name() + " - " + pr.getMessages());
-                                } else {
-                                    throw new JGitFlowGitAPIException("error pushing to " + branchToPush + " - " + trackingStatus.name());
-                                }
-                            }
-                        }
-                    }
+                    String branchRef = Constants.R_HEADS + branchToPush;
+                    queuePushSpec(new RefSpec(branchRef + ":" + branchRef));
+                    requiredPushRefs.add(branchRef);
                 }
             }
 
             if (includeTags)
             {
-                reporter.infoText(getCommandName(), "pushing tags");
-                // TODO: check for errors or at least log error messages received
-                git.push().setRemote(Constants.DEFAULT_REMOTE_NAME).setPushTags().call();
+                queuePushSpec(new RefSpec(Constants.R_TAGS + "*:" + Constants.R_TAGS + "*"));
             }
 
-            git.fetch().setRemote(Constants.DEFAULT_REMOTE_NAME).call();
+            pendingPushExtensions.add(pushExtension);
 
+            if (!batchingPushes)
+            {
+                pushPending();
+            }
+        }
+    }
+
+    /**
+     * Deletes a branch on origin. While a push batch is open the delete is only queued, replacing any queued push
+     * of the same branch.
+     */
+    protected void doPushBranchDelete(String branchToDelete) throws GitAPIException, JGitFlowGitAPIException, JGitFlowExtensionException
+    {
+        String branchRef = Constants.R_HEADS + branchToDelete;
+
+        Iterator<RefSpec> queued = pendingPushSpecs.iterator();
+        while (queued.hasNext())
+        {
+            if (branchRef.equals(queued.next().getDestination()))
+            {
+                queued.remove();
+            }
+        }
+        requiredPushRefs.remove(branchRef);
+
+        reporter.infoText(getCommandName(), "pushing deleted branch: :{}", branchToDelete);
+        queuePushSpec(new RefSpec().setSource(null).setDestination(branchRef));
+
+        if (!batchingPushes)
+        {
+            pushPending();
+        }
+    }
+
+    /**
+     * Starts collecting pushes instead of sending them, so that a command makes one round trip to origin for all
+     * its branches and tags and one for its deletions. {@link #finishPushBatch()} sends them.
+     * <p>
+     * The afterPush commands of every queued push run once the batch has been sent, in the order the pushes were
+     * queued, so they see origin with all of the command's changes, including the branches deleted afterwards.
+     * </p>
+     */
+    protected void startPushBatch()
+    {
+        this.batchingPushes = true;
+    }
+
+    /**
+     * Sends everything queued since {@link #startPushBatch()}. The branch and tag updates go first and the deletes
+     * are only sent once origin took every required update.
+     */
+    protected void finishPushBatch() throws GitAPIException, JGitFlowGitAPIException, JGitFlowExtensionException
+    {
+        this.batchingPushes = false;
+        pushPending();
+    }
+
+    /**
+     * Sends the branch and tag updates queued so far and checks origin took every required one, keeping the push
+     * batch open. Deleting branches waits for this: a push isn't atomic, so a branch deleted along with a rejected
+     * update would be gone on origin, and locally, while the update it was merged into never made it.
+     * <p>
+     * The afterPush commands still wait for {@link #finishPushBatch()}.
+     * </p>
+     */
+    protected void pushQueuedUpdates() throws GitAPIException, JGitFlowGitAPIException
+    {
+        if (!batchingPushes)
+        {
+            return;
+        }
+
+        //only push what's on disk
+        flushRefBatch();
+
+        List<RefSpec> updates = takeQueuedSpecs(false);
+        Set<String> required = new HashSet<String>(requiredPushRefs);
+        requiredPushRefs.clear();
+
+        sendPush(updates, required);
+        refs().invalidate();
+    }
+
+    /**
+     * Starts collecting the command's local ref changes, the merges, tags and branch deletions, instead of writing
+     * them one by one. {@link #finishRefBatch()} applies them all at once. Anything that needs the refs on disk,
+     * like a push, a checkout of a changed branch or an extension command, applies what was collected so far first.
+     */
+    protected void startRefBatch()
+    {
+        this.refBatch = new LocalRefBatch(git.getRepository());
+    }
+
+    /**
+     * Applies everything collected since {@link #startRefBatch()} in a single ref update
+     */
+    protected void finishRefBatch() throws JGitFlowGitAPIException
+    {
+        flushRefBatch();
+        this.refBatch = null;
+    }
+
+    /**
+     * @return the local ref changes being collected, or null if the command isn't batching them
+     */
+    protected LocalRefBatch refBatch()
+    {
+        return refBatch;
+    }
+
+    /**
+     * Applies the ref changes collected so far and keeps collecting
+     */
+    protected void flushRefBatch() throws JGitFlowGitAPIException
+    {
+        if (null == refBatch || refBatch.isEmpty())
+        {
+            return;
+        }
+
+        metrics.startPhase("ref update", refBatch.size() + " refs");
+        try
+        {
+            List<ReceiveCommand> applied = refBatch.execute(getCommandName() + " " + getBranchName());
+
+            //deleted branches lose their tracking config, like they do with git branch -d
+            ConfigTransaction configTx = gfConfig.beginTransaction();
+            for (ReceiveCommand command : applied)
+            {
+                if (ReceiveCommand.Type.DELETE.equals(command.getType()) && command.getRefName().startsWith(Constants.R_HEADS))
+                {
+                    configTx.removeSection(ConfigConstants.CONFIG_BRANCH_SECTION, Repository.shortenRefName(command.getRefName()));
+                }
+            }
+            configTx.commit();
+        }
+        catch (JGitFlowIOException e)
+        {
+            throw new JGitFlowGitAPIException(e);
+        }
+        finally
+        {
+            refs().invalidate();
+            metrics.endSpan();
+        }
+    }
+
+    private void queuePushSpec(RefSpec spec)
+    {
+        if (!pendingPushSpecs.contains(spec))
+        {
+            pendingPushSpecs.add(spec);
+        }
+    }
+
+    private void pushPending() throws GitAPIException, JGitFlowGitAPIException, JGitFlowExtensionException
+    {
+        //only push what's on disk
+        flushRefBatch();
+
+        List<RefSpec> updates = takeQueuedSpecs(false);
+        List<RefSpec> deletes = takeQueuedSpecs(true);
+        Set<String> required = new HashSet<String>(requiredPushRefs);
+        List<JGitFlowExtension> pushExtensions = new ArrayList<JGitFlowExtension>(pendingPushExtensions);
+
+        requiredPushRefs.clear();
+        pendingPushExtensions.clear();
+
+        if (updates.isEmpty() && deletes.isEmpty() && pushExtensions.isEmpty())
+        {
+            return;
+        }
+
+        //nothing is deleted on origin unless it took the updates
+        sendPush(updates, required);
+        sendPush(deletes, required);
+
+        refs().invalidate();
+
+        for (JGitFlowExtension pushExtension : pushExtensions)
+        {
             runExtensionCommands(pushExtension.afterPush());
         }
     }
 
+    /**
+     * Removes the queued deletes, or the queued updates, from the pending specs
+     */
+    private List<RefSpec> takeQueuedSpecs(boolean deletes)
+    {
+        List<RefSpec> taken = new ArrayList<RefSpec>();
+
+        Iterator<RefSpec> queued = pendingPushSpecs.iterator();
+        while (queued.hasNext())
+        {
+            RefSpec spec = queued.next();
+            if (deletes == (null == spec.getSource()))
+            {
+                taken.add(spec);
+                queued.remove();
+            }
+        }
+
+        return taken;
+    }
+
+    /**
+     * Pushes the given specs to origin in one push
+     *
+     * @param required the remote refs whose update must succeed
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowGitAPIException if a required update was rejected
+     */
+    private void sendPush(List<RefSpec> specs, Set<String> required) throws GitAPIException, JGitFlowGitAPIException
+    {
+        if (!specs.isEmpty())
+        {
+            reporter.infoText(getCommandName(), "pushing changes to origin: {}", specs);
+
+            String error = null;
+            Iterable<PushResult> results;
+
+            metrics.startPhase("push");
+            try
+            {
+                results = git.push().setRemote(Constants.DEFAULT_REMOTE_NAME).setRefSpecs(specs).setProgressMonitor(JGitFlowMetrics.transferMonitor()).call();
+            }
+            finally
+            {
+                metrics.endSpan();
+            }
+
+            for (PushResult pr : results)
+            {
+                reporter.infoText(getCommandName(), "messages: '" + pr.getMessages() + "'");
+
+                for (RemoteRefUpdate update : pr.getRemoteUpdates())
+                {
+                    RemoteRefUpdate.Status trackingStatus = update.getStatus();
+                    reporter.infoText(getCommandName(), update.getRemoteName() + ": " + trackingStatus.name());
+
+                    if (failedResult(trackingStatus) && required.contains(update.getRemoteName()) && null == error)
+                    {
+                        String branchName = Repository.shortenRefName(update.getRemoteName());
+                        if (pr.getMessages() != null && pr.getMessages().length() > 0)
+                        {
+                            error = "error pushing to " + branchName + " - status: " + trackingStatus.name() + " - " + pr.getMessages();
+                        }
+                        else
+                        {
+                            error = "error pushing to " + branchName + " - " + trackingStatus.name();
+                        }
+                    }
+                }
+            }
+
+            //the results say where every remote branch ended up, no need to fetch them again
+            updateTrackingRefs(results);
+
+            if (null != error)
+            {
+                throw new JGitFlowGitAPIException(error);
+            }
+        }
+    }
+
+    /**
+     * Points the origin tracking refs at the pushed commits
+     */
+    protected void updateTrackingRefs(Iterable<PushResult> pushResults) throws JGitFlowGitAPIException
+    {
+        try
+        {
+            GitHelper.updateTrackingRefs(git, Constants.DEFAULT_REMOTE_NAME, pushResults);
+        }
+        catch (JGitFlowIOException e)
+        {
+            throw new JGitFlowGitAPIException(e);
+        }
+        refs().invalidate();
+    }
+
     private boolean failedResult(RemoteRefUpdate.Status trackingStatus) {
         boolean isFailed = false;
         
@@ -146,8 +471,21 @@ public abstract class AbstractGitFlowCommand<C, T> implements Callable<T>, JGitF
 
     protected String runBeforeAndGetPrefixedBranchName(Iterable<ExtensionCommand> before, JGitFlowConstants.PREFIXES prefix) throws JGitFlowExtensionException
     {
+        metrics.startCommand(getCommandName());
         reporter.commandCall(getCommandName());
-        runExtensionCommands(before);
+
+        try
+        {
+            runExtensionCommands(before);
+        }
+        catch (JGitFlowExtensionException e)
+        {
+            //the command never gets to the try block which ends it
+            reporter.endCommand();
+            metrics.endCommand();
+            throw e;
+        }
+
         return gfConfig.getPrefixValue(prefix.configKey()) + branchName;
     }
 
@@ -155,7 +493,7 @@ public abstract class AbstractGitFlowCommand<C, T> implements Callable<T>, JGitF
     {
         for (String branchToTest : branchesToTest)
         {
-            if (GitHelper.remoteBranchExists(git, branchToTest))
+            if (GitHelper.remoteBranchExists(refs(), branchToTest))
             {
                 enforcer().requireLocalBranchNotBehindRemote(branchToTest);
             }
@@ -163,32 +501,9 @@ public abstract class AbstractGitFlowCommand<C, T> implements Callable<T>, JGitF
     }
 
     protected String findLatestTaggedCommit() throws GitAPIException, JGitFlowGenericException, JGitFlowIOException {
-        String result;
-        List<TaggedVersion> taggedVersions = findTaggedVersions();
-        if (!taggedVersions.isEmpty()) {
-            TaggedVersion latestTaggedVersion = Collections.max(taggedVersions);
-            result = GitHelper.getTaggedCommit(git, latestTaggedVersion.getTag());
-        } else {
-            result = null;
-        }
-        return result;
-    }
-
-    private List<TaggedVersion> findTaggedVersions() throws JGitFlowGenericException, GitAPIException {
-        Map<String, Ref> tags = git.getRepository().getTags();
-        List<TaggedVersion> taggedVersions = new ArrayList<TaggedVersion>();
-        for (Map.Entry<String, Ref> tagEntry : tags.entrySet()) {
-            try {
-                String simpleTagName = tagEntry.getKey();
-                String tagPrefix = gfConfig.getPrefixValue(JGitFlowConstants.PREFIXES.VERSIONTAG.configKey());
-                String simpleTagNameWithoutPrefix =
-                        simpleTagName.substring(simpleTagName.indexOf(tagPrefix) + tagPrefix.length());
-                taggedVersions.add(new TaggedVersion(simpleTagNameWithoutPrefix, tagEntry.getValue()));
-            } catch (VersionParseException e) {
-                throw new JGitFlowGenericException("Tag name is not a valid version", e);
-            }
-        }
-        return taggedVersions;
+        String tagPrefix = gfConfig.getPrefixValue(JGitFlowConstants.PREFIXES.VERSIONTAG.configKey());
+        VersionTagIndex.VersionTag latest = VersionTagIndex.load(git.getRepository(), tagPrefix).getLatest();
+        return (null != latest) ? latest.getCommitId().getName() : null;
     }
 
     @Override
@@ -249,6 +564,24 @@ public abstract class AbstractGitFlowCommand<C, T> implements Callable<T>, JGitF
         return fetch;
     }
 
+    /**
+     * Set whether a fetch gets every branch and tag from the remote rather than just develop, the branch being
+     * worked on and new version tags
+     *
+     * @param fullFetch {@code true} to fetch everything, {@code false}(default) otherwise
+     * @return {@code this}
+     */
+    public C setFullFetch(boolean fullFetch)
+    {
+        this.fullFetch = fullFetch;
+        return (C) this;
+    }
+
+    public boolean isFullFetch()
+    {
+        return fullFetch;
+    }
+
     /**
      * Set whether to push the changes to the remote repository
      *
@@ -278,8 +611,25 @@ public abstract class AbstractGitFlowCommand<C, T> implements Callable<T>, JGitF
 
     protected void runExtensionCommands(Iterable<ExtensionCommand> commands) throws JGitFlowExtensionException
     {
+        if (commands.iterator().hasNext())
+        {
+            //extensions look at the repository, not at what we've collected
+            try
+            {
+                flushRefBatch();
+            }
+            catch (JGitFlowGitAPIException e)
+            {
+                throw new JGitFlowExtensionException("unable to update local refs before running extensions", e);
+            }
+        }
+
         for (final ExtensionCommand command : commands)
         {
+            //extensions may move or create refs behind our back
+            refs().invalidate();
+
+            metrics.startExtension(command.getClass().getName());
             try
             {
                 command.execute(gfConfig, git, this);
@@ -295,6 +645,10 @@ public abstract class AbstractGitFlowCommand<C, T> implements Callable<T>, JGitF
                     log.warn("Error running JGitFlow Extension", e);
                 }
             }
+            finally
+            {
+                metrics.endSpan();
+            }
         }
     }
 
@@ -302,4 +656,21 @@ public abstract class AbstractGitFlowCommand<C, T> implements Callable<T>, JGitF
     {
         return requirementHelper;
     }
+
+    /**
+     * @return the ref snapshot shared by this command and its {@link RequirementHelper}
+     */
+    protected RefSnapshot refs()
+    {
+        return refSnapshot;
+    }
+
+    /**
+     * @return the object context shared by this command and its {@link RequirementHelper}, released when the
+     * command finishes
+     */
+    protected GitObjectContext objects()
+    {
+        return objectContext;
+    }
 }
@@ -95,46 +95,52 @@ public class FeatureFinishCommand extends AbstractBranchMergingCommand<FeatureFi
 
         String prefixedBranchName = runBeforeAndGetPrefixedBranchName(extension.before(), JGitFlowConstants.PREFIXES.FEATURE);
 
-        enforcer().requireGitFlowInitialized();
-        enforcer().requireLocalBranchExists(prefixedBranchName);
+        try
+        {
+            enforcer().requireGitFlowInitialized();
+            enforcer().requireLocalBranchExists(prefixedBranchName);
 
-        //check to see if we're restoring from a merge conflict
-        File flowDir = new File(git.getRepository().getDirectory(), JGitFlowConstants.GITFLOW_DIR);
-        File mergeBase = new File(flowDir, JGitFlowConstants.MERGE_BASE);
+            //check to see if we're restoring from a merge conflict
+            File flowDir = new File(git.getRepository().getDirectory(), JGitFlowConstants.GITFLOW_DIR);
+            File mergeBase = new File(flowDir, JGitFlowConstants.MERGE_BASE);
 
-        if (!noMerge && mergeBase.exists())
-        {
-            reporter.debugText(getCommandName(), "restoring from merge conflict. base: " + mergeBase.getAbsolutePath());
-            if (GitHelper.workingTreeIsClean(git, isAllowUntracked()).isClean())
+            if (!noMerge && mergeBase.exists())
             {
-                //check to see if the merge was done
-                String finishBase = FileHelper.readFirstLine(mergeBase);
-                if (GitHelper.isMergedInto(git, prefixedBranchName, finishBase))
+                reporter.debugText(getCommandName(), "restoring from merge conflict. base: " + mergeBase.getAbsolutePath());
+                if (GitHelper.workingTreeIsClean(git, isAllowUntracked()).isClean())
                 {
-                    mergeBase.delete();
-                    cleanupBranchesIfNeeded(gfConfig.getDevelop(), prefixedBranchName);
-                    reporter.endCommand();
-                    return null;
+                    //check to see if the merge was done
+                    String finishBase = FileHelper.readFirstLine(mergeBase);
+                    if (GitHelper.isMergedInto(git, objects(), prefixedBranchName, finishBase))
+                    {
+                        mergeBase.delete();
+                        cleanupBranchesIfNeeded(gfConfig.getDevelop(), prefixedBranchName);
+                        reporter.endCommand();
+                        return null;
+                    }
+                    else
+                    {
+                        mergeBase.delete();
+                    }
                 }
                 else
                 {
-                    mergeBase.delete();
+                    reporter.errorText(getCommandName(), "Merge conflicts are not resolved");
+                    reporter.endCommand();
+                    throw new MergeConflictsNotResolvedException("Merge conflicts are not resolved");
                 }
             }
-            else
-            {
-                reporter.errorText(getCommandName(), "Merge conflicts are not resolved");
-                reporter.endCommand();
-                throw new MergeConflictsNotResolvedException("Merge conflicts are not resolved");
-            }
-        }
 
-        //not restoring a merge, continue
-        enforcer().requireCleanWorkingTree(isAllowUntracked());
+            //not restoring a merge, continue
+            enforcer().requireCleanWorkingTree(isAllowUntracked());
 
-        try
-        {
-            doFetchIfNeeded(extension);
+            doFetchIfNeeded(extension, prefixedBranchName);
+
+            //collect all branch, tag and delete pushes into a single push to origin
+            startPushBatch();
+
+            //and every local branch, tag and delete into a single ref update
+            startRefBatch();
 
             ensureLocalBranchesNotBehindRemotes(prefixedBranchName, prefixedBranchName, gfConfig.getDevelop());
 
@@ -152,8 +158,8 @@ public class FeatureFinishCommand extends AbstractBranchMergingCommand<FeatureFi
             if (!noMerge)
             {
 
-                RevCommit developCommit = GitHelper.getLatestCommit(git, gfConfig.getDevelop());
-                RevCommit featureCommit = GitHelper.getLatestCommit(git, prefixedBranchName);
+                RevCommit developCommit = GitHelper.getLatestCommit(git, objects(), gfConfig.getDevelop());
+                RevCommit featureCommit = GitHelper.getLatestCommit(git, objects(), prefixedBranchName);
 
                 List<RevCommit> commitList = IterableHelper.asList(git.log().setMaxCount(2).addRange(developCommit, featureCommit).call());
 
@@ -183,6 +189,9 @@ public class FeatureFinishCommand extends AbstractBranchMergingCommand<FeatureFi
 
             cleanupBranchesIfNeeded(gfConfig.getDevelop(), prefixedBranchName);
 
+            finishRefBatch();
+            finishPushBatch();
+
             reporter.infoText(getCommandName(), "checking out '" + gfConfig.getDevelop() + "'");
             git.checkout().setName(gfConfig.getDevelop()).call();
 
@@ -206,6 +215,8 @@ public class FeatureFinishCommand extends AbstractBranchMergingCommand<FeatureFi
         {
             reporter.endCommand();
             reporter.flush();
+            objects().release();
+            metrics.endCommand();
         }
     }
 
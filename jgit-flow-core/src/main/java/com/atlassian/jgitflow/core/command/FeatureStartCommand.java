@@ -65,12 +65,12 @@ public class FeatureStartCommand extends AbstractBranchCreatingCommand<FeatureSt
     {
         String prefixedBranchName = runBeforeAndGetPrefixedBranchName(extension.before(), JGitFlowConstants.PREFIXES.FEATURE);
 
-        enforcer().requireGitFlowInitialized();
-        enforcer().requireLocalBranchAbsent(prefixedBranchName);
-
         try
         {
-            doFetchIfNeeded(extension);
+            enforcer().requireGitFlowInitialized();
+            enforcer().requireLocalBranchAbsent(prefixedBranchName);
+
+            doFetchIfNeeded(extension, prefixedBranchName);
 
             Ref newBranch = doCreateBranch(gfConfig.getDevelop(), prefixedBranchName, extension);
 
@@ -92,6 +92,8 @@ public class FeatureStartCommand extends AbstractBranchCreatingCommand<FeatureSt
         {
             reporter.endCommand();
             reporter.flush();
+            objects().release();
+            metrics.endCommand();
         }
     }
 
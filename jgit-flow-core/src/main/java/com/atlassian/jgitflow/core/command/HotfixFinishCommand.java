@@ -1,6 +1,5 @@
 package com.atlassian.jgitflow.core.command;
 
-import java.io.IOException;
 import java.util.List;
 
 import com.atlassian.jgitflow.core.GitFlowConfiguration;
@@ -97,16 +96,25 @@ public class HotfixFinishCommand extends AbstractBranchMergingCommand<HotfixFini
     public ReleaseMergeResult call() throws JGitFlowGitAPIException, LocalBranchMissingException, DirtyWorkingTreeException, JGitFlowIOException, BranchOutOfDateException, JGitFlowExtensionException, NotInitializedException, JGitFlowGenericException
     { String prefixedBranchName = runBeforeAndGetPrefixedBranchName(extension.before(), JGitFlowConstants.PREFIXES.HOTFIX);
 
-        enforcer().requireGitFlowInitialized();
-        enforcer().requireLocalBranchExists(prefixedBranchName);
-        enforcer().requireCleanWorkingTree(isAllowUntracked());
-
         MergeResult developResult = createEmptyMergeResult();
         MergeResult masterResult = createEmptyMergeResult();
         MergeResult releaseResult = createEmptyMergeResult();
         try
         {
-            doFetchIfNeeded(extension);
+            enforcer().requireGitFlowInitialized();
+            enforcer().requireLocalBranchExists(prefixedBranchName);
+            if (hasWorkingTree())
+            {
+                enforcer().requireCleanWorkingTree(isAllowUntracked());
+            }
+
+            doFetchIfNeeded(extension, prefixedBranchName);
+
+            //collect all branch, tag and delete pushes into a single push to origin
+            startPushBatch();
+
+            //and every local branch, tag and delete into a single ref update
+            startRefBatch();
 
             ensureLocalBranchesNotBehindRemotes(prefixedBranchName, gfConfig.getDevelop());
 
@@ -130,7 +138,7 @@ public class HotfixFinishCommand extends AbstractBranchMergingCommand<HotfixFini
             //IMPORTANT: we need to back-merge master into develop so that git describe works properly
             MergeProcessExtensionWrapper developExtension = new MergeProcessExtensionWrapper(extension.beforeDevelopCheckout(), extension.afterDevelopCheckout(), extension.beforeDevelopMerge(), extension.afterDevelopMerge());
 
-            taggingHead = git.getRepository().resolve(Constants.HEAD).getName();
+            taggingHead = getMergeHead().getName();
             developResult = doMerge(taggingHead, gfConfig.getDevelop(), developExtension);
 
             boolean mergeSuccess = checkMergeResults(masterResult, developResult);
@@ -146,7 +154,7 @@ public class HotfixFinishCommand extends AbstractBranchMergingCommand<HotfixFini
                 String releaseBranchName = getReleaseBranchName();
                 MergeProcessExtensionWrapper releaseExtension = new MergeProcessExtensionWrapper(extension.beforeReleaseCheckout(), extension.afterReleaseCheckout(), extension.beforeReleaseMerge(), extension.afterReleaseMerge());
 
-                taggingHead = git.getRepository().resolve(Constants.HEAD).getName();
+                taggingHead = getMergeHead().getName();
                 releaseResult = doMerge(taggingHead, releaseBranchName, releaseExtension);
 
                 boolean releaseMergeSuccess = checkMergeResults(releaseResult);
@@ -162,8 +170,10 @@ public class HotfixFinishCommand extends AbstractBranchMergingCommand<HotfixFini
                 cleanupBranchesIfNeeded(gfConfig.getDevelop(), prefixedBranchName);
             }
             
-            reporter.infoText(getCommandName(), "checking out '" + gfConfig.getDevelop() + "'");
-            git.checkout().setName(gfConfig.getDevelop()).call();
+            finishRefBatch();
+            finishPushBatch();
+
+            checkoutFinalBranch(gfConfig.getDevelop());
 
             runExtensionCommands(extension.after());
             return new ReleaseMergeResult(masterResult, developResult);
@@ -173,15 +183,12 @@ public class HotfixFinishCommand extends AbstractBranchMergingCommand<HotfixFini
         {
             throw new JGitFlowGitAPIException(e);
         }
-        catch (IOException e)
-        {
-            reporter.errorText(getCommandName(), e.getMessage());
-            throw new JGitFlowGenericException(e);
-        }
         finally
         {
             reporter.endCommand();
             reporter.flush();
+            objects().release();
+            metrics.endCommand();
         }
     }
 
@@ -189,7 +196,7 @@ public class HotfixFinishCommand extends AbstractBranchMergingCommand<HotfixFini
     {
         boolean exists = false;
 
-        List<Ref> branches = GitHelper.listBranchesWithPrefix(git, gfConfig.getPrefixValue(JGitFlowConstants.PREFIXES.RELEASE.configKey()));
+        List<Ref> branches = GitHelper.listBranchesWithPrefix(refs(), gfConfig.getPrefixValue(JGitFlowConstants.PREFIXES.RELEASE.configKey()));
 
         if (!branches.isEmpty())
         {
@@ -203,7 +210,7 @@ public class HotfixFinishCommand extends AbstractBranchMergingCommand<HotfixFini
     {
         String branchName = "";
 
-        List<Ref> branches = GitHelper.listBranchesWithPrefix(git, gfConfig.getPrefixValue(JGitFlowConstants.PREFIXES.RELEASE.configKey()));
+        List<Ref> branches = GitHelper.listBranchesWithPrefix(refs(), gfConfig.getPrefixValue(JGitFlowConstants.PREFIXES.RELEASE.configKey()));
 
         if (!branches.isEmpty())
         {
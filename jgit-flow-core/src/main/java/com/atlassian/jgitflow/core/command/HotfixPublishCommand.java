@@ -10,10 +10,8 @@ import com.atlassian.jgitflow.core.extension.impl.EmptyHotfixStartExtension;
 
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.errors.ConfigInvalidException;
-import org.eclipse.jgit.lib.ConfigConstants;
 import org.eclipse.jgit.lib.Constants;
-import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.transport.PushResult;
 import org.eclipse.jgit.transport.RefSpec;
 
 /**
@@ -60,47 +58,38 @@ public class HotfixPublishCommand extends AbstractGitFlowCommand<HotfixPublishCo
         JGitFlowExtension extension = new EmptyHotfixStartExtension();
 
         String prefixedBranchName = runBeforeAndGetPrefixedBranchName(extension.before(), JGitFlowConstants.PREFIXES.HOTFIX);
-        enforcer().requireGitFlowInitialized();
-        enforcer().requireCleanWorkingTree(isAllowUntracked());
-        enforcer().requireLocalBranchExists(prefixedBranchName);
 
         try
         {
-            doFetchIfNeeded(extension);
+            enforcer().requireGitFlowInitialized();
+            enforcer().requireCleanWorkingTree(isAllowUntracked());
+            enforcer().requireLocalBranchExists(prefixedBranchName);
+
+            doFetchIfNeeded(extension, prefixedBranchName);
 
             enforcer().requireRemoteBranchAbsent(prefixedBranchName);
 
             //create remote feature branch
             RefSpec branchSpec = new RefSpec(prefixedBranchName + ":" + Constants.R_HEADS + prefixedBranchName);
-            git.push().setRemote(Constants.DEFAULT_REMOTE_NAME).setRefSpecs(branchSpec).call();
-            git.fetch().setRemote(Constants.DEFAULT_REMOTE_NAME).call();
+            Iterable<PushResult> results = git.push().setRemote(Constants.DEFAULT_REMOTE_NAME).setRefSpecs(branchSpec).call();
+            updateTrackingRefs(results);
 
             //setup tracking
-            StoredConfig config = git.getRepository().getConfig();
-            config.setString(ConfigConstants.CONFIG_BRANCH_SECTION, prefixedBranchName, ConfigConstants.CONFIG_KEY_REMOTE, Constants.DEFAULT_REMOTE_NAME);
-            config.setString(ConfigConstants.CONFIG_BRANCH_SECTION, prefixedBranchName, ConfigConstants.CONFIG_KEY_MERGE, Constants.R_HEADS + prefixedBranchName);
-            config.save();
-            config.load();
+            gfConfig.beginTransaction().setUpstream(prefixedBranchName, Constants.DEFAULT_REMOTE_NAME).commit();
             //checkout the branch
             git.checkout().setName(prefixedBranchName).call();
 
         }
-        catch (IOException e)
-        {
-            throw new JGitFlowIOException(e);
-        }
         catch (GitAPIException e)
         {
             throw new JGitFlowGitAPIException(e);
         }
-        catch (ConfigInvalidException e)
-        {
-            throw new JGitFlowGitAPIException(e);
-        }
         finally
         {
             reporter.endCommand();
             reporter.flush();
+            objects().release();
+            metrics.endCommand();
         }
 
         return null;
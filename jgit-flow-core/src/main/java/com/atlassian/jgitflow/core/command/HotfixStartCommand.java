@@ -69,14 +69,14 @@ public class HotfixStartCommand extends AbstractBranchCreatingCommand<HotfixStar
     {
         String prefixedBranchName = runBeforeAndGetPrefixedBranchName(extension.before(), JGitFlowConstants.PREFIXES.HOTFIX);
 
-        enforcer().requireGitFlowInitialized();
-        enforcer().requireNoExistingHotfixBranches();
-        enforcer().requireLocalBranchAbsent(prefixedBranchName);
-        enforcer().requireCleanWorkingTree(isAllowUntracked());
-
         try
         {
-            doFetchIfNeeded(extension);
+            enforcer().requireGitFlowInitialized();
+            enforcer().requireNoExistingHotfixBranches();
+            enforcer().requireLocalBranchAbsent(prefixedBranchName);
+            enforcer().requireCleanWorkingTree(isAllowUntracked());
+
+            doFetchIfNeeded(extension, prefixedBranchName);
 
             String taggingHead = findLatestTaggedCommit();
             if (taggingHead == null) {
@@ -101,6 +101,8 @@ public class HotfixStartCommand extends AbstractBranchCreatingCommand<HotfixStar
         {
             reporter.endCommand();
             reporter.flush();
+            objects().release();
+            metrics.endCommand();
         }
     }
 
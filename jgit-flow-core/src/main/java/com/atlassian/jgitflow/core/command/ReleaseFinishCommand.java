@@ -15,8 +15,6 @@ import org.eclipse.jgit.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
-
 import static com.atlassian.jgitflow.core.util.Preconditions.checkState;
 
 /**
@@ -99,15 +97,24 @@ public class ReleaseFinishCommand extends AbstractBranchMergingCommand<ReleaseFi
     {
         String prefixedBranchName = runBeforeAndGetPrefixedBranchName(extension.before(), JGitFlowConstants.PREFIXES.RELEASE);
 
-        enforcer().requireGitFlowInitialized();
-        enforcer().requireLocalBranchExists(prefixedBranchName);
-        enforcer().requireCleanWorkingTree(isAllowUntracked());
-
         MergeResult developResult = createEmptyMergeResult();
         MergeResult masterResult = createEmptyMergeResult();
         try
         {
-            doFetchIfNeeded(extension);
+            enforcer().requireGitFlowInitialized();
+            enforcer().requireLocalBranchExists(prefixedBranchName);
+            if (hasWorkingTree())
+            {
+                enforcer().requireCleanWorkingTree(isAllowUntracked());
+            }
+
+            doFetchIfNeeded(extension, prefixedBranchName);
+
+            //collect all branch, tag and delete pushes into a single push to origin
+            startPushBatch();
+
+            //and every local branch, tag and delete into a single ref update
+            startRefBatch();
 
 
             ensureLocalBranchesNotBehindRemotes(prefixedBranchName, gfConfig.getDevelop());
@@ -145,7 +152,7 @@ public class ReleaseFinishCommand extends AbstractBranchMergingCommand<ReleaseFi
                     log.debug("back merging master to develop...");
                 }
 
-                taggingHead = git.getRepository().resolve(Constants.HEAD).getName();
+                taggingHead = getMergeHead().getName();
                 developResult = doMerge(taggingHead, gfConfig.getDevelop(), developExtension, squash);
 
                 mergeSuccess = checkMergeResults(masterResult, developResult);
@@ -166,8 +173,10 @@ public class ReleaseFinishCommand extends AbstractBranchMergingCommand<ReleaseFi
                 log.debug("checking out develop...");
             }
 
-            reporter.infoText(getCommandName(), "checking out '" + gfConfig.getDevelop() + "'");
-            git.checkout().setName(gfConfig.getDevelop()).call();
+            finishRefBatch();
+            finishPushBatch();
+
+            checkoutFinalBranch(gfConfig.getDevelop());
 
             runExtensionCommands(extension.after());
             return new ReleaseMergeResult(masterResult, developResult);
@@ -177,15 +186,12 @@ public class ReleaseFinishCommand extends AbstractBranchMergingCommand<ReleaseFi
             reporter.errorText(getCommandName(), e.getMessage());
             throw new JGitFlowGitAPIException(e);
         }
-        catch (IOException e)
-        {
-            reporter.errorText(getCommandName(), e.getMessage());
-            throw new JGitFlowGenericException(e);
-        }
         finally
         {
             reporter.endCommand();
             reporter.flush();
+            objects().release();
+            metrics.endCommand();
         }
     }
 
@@ -69,14 +69,14 @@ public class ReleaseStartCommand extends AbstractBranchCreatingCommand<ReleaseSt
     {
         String prefixedBranchName = runBeforeAndGetPrefixedBranchName(extension.before(), JGitFlowConstants.PREFIXES.RELEASE);
 
-        enforcer().requireGitFlowInitialized();
-        enforcer().requireNoExistingReleaseBranches();
-        enforcer().requireLocalBranchAbsent(prefixedBranchName);
-        enforcer().requireCleanWorkingTree(isAllowUntracked());
-
         try
         {
-            doFetchIfNeeded(extension);
+            enforcer().requireGitFlowInitialized();
+            enforcer().requireNoExistingReleaseBranches();
+            enforcer().requireLocalBranchAbsent(prefixedBranchName);
+            enforcer().requireCleanWorkingTree(isAllowUntracked());
+
+            doFetchIfNeeded(extension, prefixedBranchName);
 
             Ref newBranch = doCreateBranch(gfConfig.getDevelop(), prefixedBranchName, extension);
 
@@ -98,6 +98,8 @@ public class ReleaseStartCommand extends AbstractBranchCreatingCommand<ReleaseSt
         {
             reporter.endCommand();
             reporter.flush();
+            objects().release();
+            metrics.endCommand();
         }
     }
 
@@ -0,0 +1,47 @@
+package com.atlassian.jgitflow.core.metrics;
+
+/**
+ * The things counted while a command runs
+ */
+public enum Counter
+{
+    /**
+     * refs read from the ref database or advertised by origin
+     */
+    REFS_SCANNED("refsScanned"),
+
+    /**
+     * distinct commits looked at by the walks jgit-flow runs itself
+     */
+    COMMITS_WALKED("commitsWalked"),
+
+    /**
+     * objects received by fetches and sent by pushes
+     */
+    OBJECTS_TRANSFERRED("objectsTransferred"),
+
+    /**
+     * bytes of the files jgit-flow writes, like its own state files and rewritten poms
+     */
+    BYTES_WRITTEN("bytesWritten"),
+
+    /**
+     * maven projects whose poms were rewritten or loaded into a reactor
+     */
+    MODULES("modules");
+
+    private final String key;
+
+    Counter(String key)
+    {
+        this.key = key;
+    }
+
+    /**
+     * @return the name used for this counter in summaries
+     */
+    public String getKey()
+    {
+        return key;
+    }
+}
@@ -0,0 +1,25 @@
+package com.atlassian.jgitflow.core.metrics;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+/**
+ * A walk that adds each distinct commit it comes across to {@link Counter#COMMITS_WALKED} of the span open at the
+ * time, so a walk shared by a whole command still counts into the phase that did the walking
+ */
+class CountingRevWalk extends RevWalk
+{
+    CountingRevWalk(Repository repository)
+    {
+        super(repository);
+    }
+
+    @Override
+    protected RevCommit createCommit(AnyObjectId id)
+    {
+        JGitFlowMetrics.count(Counter.COMMITS_WALKED, 1);
+        return super.createCommit(id);
+    }
+}
@@ -0,0 +1,365 @@
+package com.atlassian.jgitflow.core.metrics;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.lib.ProgressMonitor;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Times the commands run on a repository and the phases and extension commands inside them, and counts the refs,
+ * commits, objects and bytes each of them went through.
+ * <p>
+ * Like the reporter there is one instance per repository, obtained with {@link #forRepository(Repository)}.
+ * Nothing is measured until a {@link MetricsListener} is added. The spans of a running command are confined to the
+ * thread running it, which is what lets helpers deep down count with the static {@link #count(Counter, long)}.
+ * </p>
+ * <p>
+ * Listeners can also be added by a {@link MetricsListenerInstaller} on the classpath.
+ * </p>
+ */
+public class JGitFlowMetrics
+{
+    private static final Logger log = LoggerFactory.getLogger(JGitFlowMetrics.class);
+
+    private static final ConcurrentMap<File, JGitFlowMetrics> METRICS = new ConcurrentHashMap<File, JGitFlowMetrics>();
+    private static final JGitFlowMetrics DETACHED = new JGitFlowMetrics();
+
+    private static final ThreadLocal<Deque<ActiveSpan>> ACTIVE = new ThreadLocal<Deque<ActiveSpan>>()
+    {
+        @Override
+        protected Deque<ActiveSpan> initialValue()
+        {
+            return new ArrayDeque<ActiveSpan>();
+        }
+    };
+
+    private final List<MetricsListener> listeners;
+
+    private JGitFlowMetrics()
+    {
+        this.listeners = new CopyOnWriteArrayList<MetricsListener>();
+    }
+
+    /**
+     * @param repository the repository the commands run on
+     * @return the metrics of the given repository
+     */
+    public static JGitFlowMetrics forRepository(Repository repository)
+    {
+        if (null == repository.getDirectory())
+        {
+            return DETACHED;
+        }
+
+        File gitDir = repository.getDirectory().getAbsoluteFile();
+        JGitFlowMetrics metrics = METRICS.get(gitDir);
+
+        if (null == metrics)
+        {
+            JGitFlowMetrics created = new JGitFlowMetrics();
+            metrics = METRICS.putIfAbsent(gitDir, created);
+
+            if (null == metrics)
+            {
+                metrics = created;
+                for (MetricsListenerInstaller installer : Installers.INSTALLERS)
+                {
+                    installer.install(repository, created);
+                }
+            }
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Forgets the metrics and listeners of the given repository
+     *
+     * @param repository the repository to release
+     */
+    public static void release(Repository repository)
+    {
+        if (null != repository.getDirectory())
+        {
+            METRICS.remove(repository.getDirectory().getAbsoluteFile());
+        }
+    }
+
+    public JGitFlowMetrics addListener(MetricsListener listener)
+    {
+        listeners.add(listener);
+        return this;
+    }
+
+    public JGitFlowMetrics removeListener(MetricsListener listener)
+    {
+        listeners.remove(listener);
+        return this;
+    }
+
+    /**
+     * @param type the type of listener to look for
+     * @return the first listener of the given type, or null if there is none
+     */
+    public <T extends MetricsListener> T getListener(Class<T> type)
+    {
+        for (MetricsListener listener : listeners)
+        {
+            if (type.isInstance(listener))
+            {
+                return type.cast(listener);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Starts timing a command on the calling thread. Whatever is left of an earlier command that never got to
+     * {@link #endCommand()} is dropped.
+     */
+    public void startCommand(String commandName)
+    {
+        Deque<ActiveSpan> active = ACTIVE.get();
+        active.clear();
+
+        if (listeners.isEmpty())
+        {
+            return;
+        }
+
+        List<MetricsListener> runListeners = new CopyOnWriteArrayList<MetricsListener>(listeners);
+        for (MetricsListener listener : runListeners)
+        {
+            listener.commandStarted(commandName);
+        }
+
+        active.push(new ActiveSpan(SpanKind.COMMAND, commandName, null, 0, commandName, runListeners));
+    }
+
+    /**
+     * Finishes the command started last on the calling thread, along with any spans still open inside it
+     */
+    public void endCommand()
+    {
+        Deque<ActiveSpan> active = ACTIVE.get();
+
+        while (!active.isEmpty())
+        {
+            ActiveSpan span = active.pop();
+            Span finished = span.finish(active.peek());
+
+            if (active.isEmpty())
+            {
+                for (MetricsListener listener : span.listeners)
+                {
+                    listener.commandFinished(span.commandName, finished);
+                }
+            }
+            else
+            {
+                notifyFinished(span, finished);
+            }
+        }
+    }
+
+    /**
+     * Starts a phase of the running command, ended by {@link #endSpan()}. Phases may nest.
+     */
+    public void startPhase(String name)
+    {
+        startSpan(SpanKind.PHASE, name, null);
+    }
+
+    /**
+     * @param detail what the phase works on, like the branch being merged into
+     */
+    public void startPhase(String name, String detail)
+    {
+        startSpan(SpanKind.PHASE, name, detail);
+    }
+
+    public void startExtension(String name)
+    {
+        startSpan(SpanKind.EXTENSION, name, null);
+    }
+
+    /**
+     * Ends the innermost phase or extension span. Does nothing when only the command itself is open.
+     */
+    public void endSpan()
+    {
+        Deque<ActiveSpan> active = ACTIVE.get();
+        ActiveSpan top = active.peek();
+
+        if (null == top || SpanKind.COMMAND == top.kind)
+        {
+            return;
+        }
+
+        active.pop();
+        notifyFinished(top, top.finish(active.peek()));
+    }
+
+    private void startSpan(SpanKind kind, String name, String detail)
+    {
+        Deque<ActiveSpan> active = ACTIVE.get();
+        ActiveSpan parent = active.peek();
+
+        if (null == parent)
+        {
+            return;
+        }
+
+        for (MetricsListener listener : parent.listeners)
+        {
+            listener.spanStarted(parent.commandName, kind, name, detail, parent.depth + 1);
+        }
+
+        active.push(new ActiveSpan(kind, name, detail, parent.depth + 1, parent.commandName, parent.listeners));
+    }
+
+    private void notifyFinished(ActiveSpan span, Span finished)
+    {
+        for (MetricsListener listener : span.listeners)
+        {
+            listener.spanFinished(span.commandName, finished);
+        }
+    }
+
+    /**
+     * Adds to a counter of the innermost open span on the calling thread, if a command is being measured
+     */
+    public static void count(Counter counter, long amount)
+    {
+        ActiveSpan top = ACTIVE.get().peek();
+
+        if (null != top)
+        {
+            top.add(counter, amount);
+        }
+    }
+
+    /**
+     * @return whether a command is being measured on the calling thread
+     */
+    public static boolean isActive()
+    {
+        return !ACTIVE.get().isEmpty();
+    }
+
+    /**
+     * @return a walk that counts the commits it looks at, or a plain walk if nothing is being measured
+     */
+    public static RevWalk newRevWalk(Repository repository)
+    {
+        return isActive() ? new CountingRevWalk(repository) : new RevWalk(repository);
+    }
+
+    /**
+     * @return a progress monitor for fetches and pushes that counts the objects transferred
+     */
+    public static ProgressMonitor transferMonitor()
+    {
+        return isActive() ? new TransferCountingMonitor() : NullProgressMonitor.INSTANCE;
+    }
+
+    private static class ActiveSpan
+    {
+        private final SpanKind kind;
+        private final String name;
+        private final String detail;
+        private final int depth;
+        private final String commandName;
+        private final List<MetricsListener> listeners;
+        private final long startTime;
+        private final long startNanos;
+        private final EnumMap<Counter, Long> counters;
+
+        ActiveSpan(SpanKind kind, String name, String detail, int depth, String commandName, List<MetricsListener> listeners)
+        {
+            this.kind = kind;
+            this.name = name;
+            this.detail = detail;
+            this.depth = depth;
+            this.commandName = commandName;
+            this.listeners = listeners;
+            this.startTime = System.currentTimeMillis();
+            this.startNanos = System.nanoTime();
+            this.counters = new EnumMap<Counter, Long>(Counter.class);
+        }
+
+        void add(Counter counter, long amount)
+        {
+            Long count = counters.get(counter);
+            counters.put(counter, (null == count) ? amount : count + amount);
+        }
+
+        Span finish(ActiveSpan parent)
+        {
+            if (null != parent)
+            {
+                for (Map.Entry<Counter, Long> count : counters.entrySet())
+                {
+                    parent.add(count.getKey(), count.getValue());
+                }
+            }
+
+            return new Span(kind, name, detail, depth, startTime, startNanos, System.nanoTime() - startNanos, counters);
+        }
+    }
+
+    /**
+     * Holds the installers found on the classpath, looked up the first time a repository gets its metrics
+     */
+    private static class Installers
+    {
+        private static final List<MetricsListenerInstaller> INSTALLERS = load();
+
+        private static List<MetricsListenerInstaller> load()
+        {
+            List<MetricsListenerInstaller> installers = new ArrayList<MetricsListenerInstaller>();
+            Iterator<MetricsListenerInstaller> found = ServiceLoader.load(MetricsListenerInstaller.class, JGitFlowMetrics.class.getClassLoader()).iterator();
+
+            while (true)
+            {
+                try
+                {
+                    if (!found.hasNext())
+                    {
+                        break;
+                    }
+
+                    installers.add(found.next());
+                }
+                catch (ServiceConfigurationError e)
+                {
+                    //e.g. built for a newer JVM than this one
+                    log.debug("skipping metrics listener installer", e);
+                }
+                catch (LinkageError e)
+                {
+                    log.debug("skipping metrics listener installer", e);
+                }
+            }
+
+            return installers;
+        }
+    }
+}
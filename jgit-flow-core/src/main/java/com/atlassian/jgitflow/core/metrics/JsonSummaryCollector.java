@@ -0,0 +1,188 @@
+package com.atlassian.jgitflow.core.metrics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import com.atlassian.jgitflow.core.JGitFlowConstants;
+
+import com.google.common.base.Charsets;
+import com.google.gson.stream.JsonWriter;
+
+import org.eclipse.jgit.lib.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes a JSON summary of every command to its own file, named after the time the command started and the
+ * command, e.g. {@code 20141027-153012-123-release-finish.json}.
+ * <p>
+ * A summary has the command's start time, duration and counters, followed by every phase and extension command
+ * with its depth, its start offset from the command start, its duration and its counters.
+ * </p>
+ */
+public class JsonSummaryCollector implements MetricsListener
+{
+    public static final String METRICS_DIR = "metrics";
+
+    private static final Logger log = LoggerFactory.getLogger(JsonSummaryCollector.class);
+
+    private final File outputDir;
+    private final ThreadLocal<List<Span>> spans;
+    private volatile File lastSummary;
+
+    public JsonSummaryCollector(File outputDir)
+    {
+        this.outputDir = outputDir;
+        this.spans = new ThreadLocal<List<Span>>();
+    }
+
+    /**
+     * @return a collector writing into .git/.gitflow/metrics of the given repository
+     */
+    public static JsonSummaryCollector forRepository(Repository repository)
+    {
+        return new JsonSummaryCollector(new File(new File(repository.getDirectory(), JGitFlowConstants.GITFLOW_DIR), METRICS_DIR));
+    }
+
+    @Override
+    public void commandStarted(String commandName)
+    {
+        spans.set(new ArrayList<Span>());
+    }
+
+    @Override
+    public void spanStarted(String commandName, SpanKind kind, String name, String detail, int depth)
+    {
+    }
+
+    @Override
+    public void spanFinished(String commandName, Span span)
+    {
+        List<Span> finished = spans.get();
+        if (null != finished)
+        {
+            finished.add(span);
+        }
+    }
+
+    @Override
+    public void commandFinished(String commandName, Span command)
+    {
+        List<Span> finished = spans.get();
+        spans.remove();
+
+        if (null == finished)
+        {
+            return;
+        }
+
+        //spans finish inside out, list them in the order they started
+        Collections.sort(finished, new Comparator<Span>()
+        {
+            @Override
+            public int compare(Span a, Span b)
+            {
+                return Long.compare(a.getStartNanos(), b.getStartNanos());
+            }
+        });
+
+        SimpleDateFormat fileFormat = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS");
+        File summary = new File(outputDir, fileFormat.format(new Date(command.getStartTime())) + "-" + commandName + ".json");
+
+        try
+        {
+            write(summary, command, finished);
+            lastSummary = summary;
+        }
+        catch (IOException e)
+        {
+            //never fail a command over its metrics
+            log.warn("unable to write metrics summary " + summary.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * @return the summary written last, or null
+     */
+    public File getLastSummary()
+    {
+        return lastSummary;
+    }
+
+    public File getOutputDir()
+    {
+        return outputDir;
+    }
+
+    private void write(File summary, Span command, List<Span> finished) throws IOException
+    {
+        if (!outputDir.isDirectory() && !outputDir.mkdirs())
+        {
+            throw new IOException("unable to create " + outputDir.getAbsolutePath());
+        }
+
+        SimpleDateFormat isoFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        isoFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        JsonWriter json = new JsonWriter(new OutputStreamWriter(new FileOutputStream(summary), Charsets.UTF_8));
+        try
+        {
+            json.setIndent("  ");
+            json.beginObject();
+            json.name("command").value(command.getName());
+            json.name("started").value(isoFormat.format(new Date(command.getStartTime())));
+            json.name("durationMillis").value(millis(command.getDurationNanos()));
+            writeCounters(json, command);
+
+            json.name("spans").beginArray();
+            for (Span span : finished)
+            {
+                json.beginObject();
+                json.name("kind").value(span.getKind().name().toLowerCase());
+                json.name("name").value(span.getName());
+                if (null != span.getDetail())
+                {
+                    json.name("detail").value(span.getDetail());
+                }
+                json.name("depth").value(span.getDepth());
+                json.name("offsetMillis").value(millis(span.getStartNanos() - command.getStartNanos()));
+                json.name("durationMillis").value(millis(span.getDurationNanos()));
+                writeCounters(json, span);
+                json.endObject();
+            }
+            json.endArray();
+
+            json.endObject();
+        }
+        finally
+        {
+            json.close();
+        }
+    }
+
+    private void writeCounters(JsonWriter json, Span span) throws IOException
+    {
+        json.name("counters").beginObject();
+        for (Map.Entry<Counter, Long> count : span.getCounters().entrySet())
+        {
+            json.name(count.getKey().getKey()).value(count.getValue());
+        }
+        json.endObject();
+    }
+
+    private double millis(long nanos)
+    {
+        return Math.round(nanos / (double) TimeUnit.MICROSECONDS.toNanos(100)) / 10.0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.atlassian.jgitflow.core.metrics;
+
+/**
+ * Receives the timings and counters of the commands run on a repository.
+ * <p>
+ * Listeners are registered with {@link JGitFlowMetrics#addListener(MetricsListener)} and are called on the thread
+ * running the command, so they should be quick. A command that fails before its main block, like on a requirement
+ * check, never gets {@link #commandFinished(String, Span)}.
+ * </p>
+ */
+public interface MetricsListener
+{
+    void commandStarted(String commandName);
+
+    void spanStarted(String commandName, SpanKind kind, String name, String detail, int depth);
+
+    void spanFinished(String commandName, Span span);
+
+    void commandFinished(String commandName, Span command);
+}
@@ -0,0 +1,17 @@
+package com.atlassian.jgitflow.core.metrics;
+
+import org.eclipse.jgit.lib.Repository;
+
+/**
+ * Adds listeners to the metrics of every repository without the caller having to know about them.
+ * <p>
+ * Installers are found with {@link java.util.ServiceLoader} through
+ * {@code META-INF/services/com.atlassian.jgitflow.core.metrics.MetricsListenerInstaller} and are called once for
+ * each repository, when its metrics are first looked up. Installers that can't be loaded on the running JVM are
+ * skipped.
+ * </p>
+ */
+public interface MetricsListenerInstaller
+{
+    void install(Repository repository, JGitFlowMetrics metrics);
+}
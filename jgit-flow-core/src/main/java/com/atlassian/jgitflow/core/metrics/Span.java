@@ -0,0 +1,97 @@
+package com.atlassian.jgitflow.core.metrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A finished command, phase or extension command: when it started, how long it took and what it counted.
+ * Durations and counters include everything that ran inside the span.
+ */
+public final class Span
+{
+    private final SpanKind kind;
+    private final String name;
+    private final String detail;
+    private final int depth;
+    private final long startTime;
+    private final long startNanos;
+    private final long durationNanos;
+    private final Map<Counter, Long> counters;
+
+    Span(SpanKind kind, String name, String detail, int depth, long startTime, long startNanos, long durationNanos, EnumMap<Counter, Long> counters)
+    {
+        this.kind = kind;
+        this.name = name;
+        this.detail = detail;
+        this.depth = depth;
+        this.startTime = startTime;
+        this.startNanos = startNanos;
+        this.durationNanos = durationNanos;
+        this.counters = Collections.unmodifiableMap(new EnumMap<Counter, Long>(counters));
+    }
+
+    public SpanKind getKind()
+    {
+        return kind;
+    }
+
+    /**
+     * @return the command name, the phase name or the class name of the extension command
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return what the phase worked on, like the branch merged into, or null
+     */
+    public String getDetail()
+    {
+        return detail;
+    }
+
+    /**
+     * @return 0 for the command, 1 for the spans directly inside it and so on
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * @return when the span started, in milliseconds since the epoch
+     */
+    public long getStartTime()
+    {
+        return startTime;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} when the span started, to order and offset spans within a command
+     */
+    public long getStartNanos()
+    {
+        return startNanos;
+    }
+
+    public long getDurationNanos()
+    {
+        return durationNanos;
+    }
+
+    public long getCount(Counter counter)
+    {
+        Long count = counters.get(counter);
+        return (null == count) ? 0L : count;
+    }
+
+    /**
+     * @return the non-zero counters
+     */
+    public Map<Counter, Long> getCounters()
+    {
+        return counters;
+    }
+}
@@ -0,0 +1,6 @@
+package com.atlassian.jgitflow.core.metrics;
+
+public enum SpanKind
+{
+    COMMAND, PHASE, EXTENSION
+}
@@ -0,0 +1,45 @@
+package com.atlassian.jgitflow.core.metrics;
+
+import org.eclipse.jgit.internal.JGitText;
+import org.eclipse.jgit.lib.ProgressMonitor;
+
+/**
+ * Counts the work done in the tasks where a fetch receives objects and a push writes them into
+ * {@link Counter#OBJECTS_TRANSFERRED}
+ */
+class TransferCountingMonitor implements ProgressMonitor
+{
+    private boolean countingTask;
+
+    @Override
+    public void start(int totalTasks)
+    {
+    }
+
+    @Override
+    public void beginTask(String title, int totalWork)
+    {
+        countingTask = JGitText.get().receivingObjects.equals(title) || JGitText.get().writingObjects.equals(title);
+    }
+
+    @Override
+    public void update(int completed)
+    {
+        if (countingTask)
+        {
+            JGitFlowMetrics.count(Counter.OBJECTS_TRANSFERRED, completed);
+        }
+    }
+
+    @Override
+    public void endTask()
+    {
+        countingTask = false;
+    }
+
+    @Override
+    public boolean isCancelled()
+    {
+        return false;
+    }
+}
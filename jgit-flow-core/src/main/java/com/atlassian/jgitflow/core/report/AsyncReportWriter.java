@@ -0,0 +1,271 @@
+package com.atlassian.jgitflow.core.report;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends report content to a log file from a single background thread.
+ * <p>
+ * Content is handed over through a bounded ring buffer and written in batches through one open {@link FileChannel}.
+ * A batch is written once it reaches the configured size, once the flush interval has passed, when {@link #flush()}
+ * is called, and when the JVM shuts down. Producers block when the buffer is full rather than dropping content.
+ * </p>
+ */
+public class AsyncReportWriter
+{
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final int DEFAULT_BATCH_SIZE = 64 * 1024;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 500;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final File logFile;
+    private final BlockingQueue<String> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final Object writeLock = new Object();
+    private final List<String> drained;
+    private final StringBuilder pending;
+    private final FileChannel channel;
+    private final Thread worker;
+    private final Thread shutdownHook;
+
+    private volatile boolean running;
+    private long lastWrite;
+
+    public AsyncReportWriter(File logFile) throws IOException
+    {
+        this(logFile, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    /**
+     * @param logFile             the file to append to
+     * @param capacity            the number of chunks the ring buffer can hold before producers block
+     * @param batchSize           the number of characters that triggers an immediate write
+     * @param flushIntervalMillis the maximum time content waits in memory before it is written
+     * @throws IOException if the log file can not be opened
+     */
+    public AsyncReportWriter(File logFile, int capacity, int batchSize, long flushIntervalMillis) throws IOException
+    {
+        this.logFile = logFile;
+        this.queue = new ArrayBlockingQueue<String>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.drained = new ArrayList<String>();
+        this.pending = new StringBuilder();
+        this.channel = new FileOutputStream(logFile, true).getChannel();
+        this.lastWrite = System.currentTimeMillis();
+        this.running = true;
+
+        this.worker = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                writeLoop();
+            }
+        }, "jgitflow-report-writer");
+        worker.setDaemon(true);
+        worker.start();
+
+        this.shutdownHook = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                close();
+            }
+        }, "jgitflow-report-writer-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    public File getLogFile()
+    {
+        return logFile;
+    }
+
+    /**
+     * @return if content can still be written
+     */
+    public boolean isOpen()
+    {
+        return running;
+    }
+
+    /**
+     * Queues content to be appended to the log file
+     *
+     * @param content the content to append
+     * @throws IllegalStateException if the writer has been closed
+     */
+    public void write(String content)
+    {
+        if (!running)
+        {
+            throw new IllegalStateException("report writer for " + logFile.getPath() + " is closed");
+        }
+
+        try
+        {
+            queue.put(content);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Discards anything not yet written and empties the log file
+     *
+     * @throws IOException
+     */
+    public void truncate() throws IOException
+    {
+        synchronized (writeLock)
+        {
+            queue.clear();
+            pending.setLength(0);
+            channel.truncate(0);
+        }
+    }
+
+    /**
+     * Writes everything queued so far on the calling thread
+     */
+    public void flush()
+    {
+        synchronized (writeLock)
+        {
+            drainQueue();
+            writePending();
+        }
+    }
+
+    /**
+     * Stops the background thread, writes any remaining content and closes the log file
+     */
+    public void close()
+    {
+        if (!running)
+        {
+            return;
+        }
+
+        //don't interrupt the worker, an interrupt during a write would close the channel
+        running = false;
+
+        try
+        {
+            worker.join(flushIntervalMillis * 2);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (writeLock)
+        {
+            drainQueue();
+            writePending();
+
+            try
+            {
+                channel.close();
+            }
+            catch (IOException e)
+            {
+                //ignore
+            }
+        }
+
+        try
+        {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        }
+        catch (IllegalStateException e)
+        {
+            //we're already shutting down
+        }
+    }
+
+    private void writeLoop()
+    {
+        while (running)
+        {
+            String next;
+            try
+            {
+                next = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                break;
+            }
+
+            synchronized (writeLock)
+            {
+                if (null != next)
+                {
+                    pending.append(next);
+                    drainQueue();
+                }
+
+                boolean full = pending.length() >= batchSize;
+                boolean due = System.currentTimeMillis() - lastWrite >= flushIntervalMillis;
+
+                if (full || due)
+                {
+                    writePending();
+                }
+            }
+        }
+    }
+
+    private void drainQueue()
+    {
+        queue.drainTo(drained);
+
+        for (String content : drained)
+        {
+            pending.append(content);
+        }
+
+        drained.clear();
+    }
+
+    private void writePending()
+    {
+        lastWrite = System.currentTimeMillis();
+
+        if (pending.length() < 1 || !channel.isOpen())
+        {
+            return;
+        }
+
+        ByteBuffer bytes = UTF8.encode(CharBuffer.wrap(pending));
+        pending.setLength(0);
+
+        try
+        {
+            while (bytes.hasRemaining())
+            {
+                channel.write(bytes);
+            }
+        }
+        catch (IOException e)
+        {
+            //ignore, the report is best effort just like the synchronous one
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.atlassian.jgitflow.core.report;
+
+/**
+ * The levels of detail the {@link com.atlassian.jgitflow.core.JGitFlowReporter} can record, from most to least verbose.
+ */
+public enum ReportLevel
+{
+    DEBUG, INFO, ERROR, OFF;
+
+    /**
+     * @param threshold the lowest level being recorded
+     * @return if entries of this level should be recorded
+     */
+    public boolean isEnabledFor(ReportLevel threshold)
+    {
+        return this != OFF && compareTo(threshold) >= 0;
+    }
+}
@@ -2,6 +2,9 @@ package com.atlassian.jgitflow.core.util;
 
 import java.io.*;
 
+import com.atlassian.jgitflow.core.metrics.Counter;
+import com.atlassian.jgitflow.core.metrics.JGitFlowMetrics;
+
 /**
  * A helper utility to make dealing with file operations easier
  */
@@ -88,6 +91,7 @@ public class FileHelper
                 bw.close();
             }
         }
+        JGitFlowMetrics.count(Counter.BYTES_WRITTEN, f.length());
     }
 
 }
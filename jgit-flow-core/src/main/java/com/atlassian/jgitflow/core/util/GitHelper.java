@@ -1,20 +1,19 @@
 package com.atlassian.jgitflow.core.util;
 
-import com.atlassian.jgitflow.core.JGitFlowConstants;
 import com.atlassian.jgitflow.core.JGitFlowReporter;
 import com.atlassian.jgitflow.core.exception.JGitFlowGitAPIException;
 import com.atlassian.jgitflow.core.exception.JGitFlowIOException;
 import com.atlassian.jgitflow.core.exception.LocalBranchMissingException;
+import com.atlassian.jgitflow.core.metrics.JGitFlowMetrics;
 import org.eclipse.jgit.api.Git;
-import org.eclipse.jgit.api.ListBranchCommand;
-import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.lib.*;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevTag;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.eclipse.jgit.transport.PushResult;
+import org.eclipse.jgit.transport.RemoteRefUpdate;
 import org.eclipse.jgit.treewalk.FileTreeIterator;
-import org.eclipse.jgit.util.StringUtils;
 
 import java.io.IOException;
 import java.util.*;
@@ -39,35 +38,61 @@ public class GitHelper
      */
     public static boolean isMergedInto(Git git, String commitString, String baseBranch) throws LocalBranchMissingException, JGitFlowIOException, JGitFlowGitAPIException
     {
-        RevCommit branchCommit = getCommitForString(git, commitString);
-
-        return isMergedInto(git, branchCommit, baseBranch);
+        GitObjectContext objects = new GitObjectContext(git.getRepository());
+        try
+        {
+            return isMergedInto(git, objects, commitString, baseBranch);
+        }
+        finally
+        {
+            objects.release();
+        }
     }
 
     /**
-     * Gets a commit for a given string with no body
+     * Checks to see if one branch is merged into another using an existing object context
      *
-     * @param git      The git instance to use
-     * @param commitId The name of the commit to find
-     * @return The commit
+     * @param git          The git instance to use
+     * @param objects      The object context to read the commits through
+     * @param commitString The name of the commit we're testing
+     * @param baseBranch   The name of the base branch to look for the merge
+     * @return if the contents of branchName has been merged into baseName
+     * @throws com.atlassian.jgitflow.core.exception.LocalBranchMissingException
      * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
      */
-    public static RevCommit getCommitForString(Git git, String commitId) throws JGitFlowIOException, LocalBranchMissingException
+    public static boolean isMergedInto(Git git, GitObjectContext objects, String commitString, String baseBranch) throws LocalBranchMissingException, JGitFlowIOException
     {
-        RevWalk walk = null;
         try
         {
-            ObjectId commit = git.getRepository().resolve(commitId);
+            ObjectId commit = git.getRepository().resolve(commitString);
 
             if (null == commit)
             {
-                throw new LocalBranchMissingException("commit " + commitId + " does not exist");
+                throw new LocalBranchMissingException("commit " + commitString + " does not exist");
             }
 
-            walk = new RevWalk(git.getRepository());
-            walk.setRetainBody(true);
+            return isMergedInto(git, objects, commit, baseBranch);
+        }
+        catch (IOException e)
+        {
+            throw new JGitFlowIOException(e);
+        }
+    }
 
-            return walk.parseCommit(commit);
+    /**
+     * Gets a commit for a given string, message included
+     *
+     * @param git      The git instance to use
+     * @param commitId The name of the commit to find
+     * @return The commit
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
+     */
+    public static RevCommit getCommitForString(Git git, String commitId) throws JGitFlowIOException, LocalBranchMissingException
+    {
+        GitObjectContext objects = new GitObjectContext(git.getRepository());
+        try
+        {
+            return objects.parseCommitWithBody(resolveCommit(git, commitId));
         }
         catch (IOException e)
         {
@@ -75,13 +100,43 @@ public class GitHelper
         }
         finally
         {
-            if (null != walk)
-            {
-                walk.release();
-            }
+            objects.release();
         }
     }
 
+    /**
+     * Gets a commit for a given string with its headers only, using an existing object context
+     *
+     * @param git      The git instance to use
+     * @param objects  The object context to read the commit through
+     * @param commitId The name of the commit to find
+     * @return The commit
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
+     */
+    public static RevCommit getCommitForString(Git git, GitObjectContext objects, String commitId) throws JGitFlowIOException, LocalBranchMissingException
+    {
+        try
+        {
+            return objects.parseCommit(resolveCommit(git, commitId));
+        }
+        catch (IOException e)
+        {
+            throw new JGitFlowIOException(e);
+        }
+    }
+
+    private static ObjectId resolveCommit(Git git, String commitId) throws IOException, LocalBranchMissingException
+    {
+        ObjectId commit = git.getRepository().resolve(commitId);
+
+        if (null == commit)
+        {
+            throw new LocalBranchMissingException("commit " + commitId + " does not exist");
+        }
+
+        return commit;
+    }
+
     /**
      * Checks to see if a specific commit is merged into a branch
      *
@@ -94,45 +149,90 @@ public class GitHelper
      */
     public static boolean isMergedInto(Git git, RevCommit commit, String branchName) throws JGitFlowGitAPIException, JGitFlowIOException
     {
-        Repository repo = git.getRepository();
+        GitObjectContext objects = new GitObjectContext(git.getRepository());
         try
         {
-            ObjectId base = repo.resolve(branchName);
+            return isMergedInto(git, objects, commit, branchName);
+        }
+        finally
+        {
+            objects.release();
+        }
+    }
+
+    /**
+     * Checks to see if a commit is reachable from a branch using an existing object context.
+     * <p>
+     * The check walks back from both commits towards their merge base, so the cost depends on the distance
+     * between the two commits rather than the length of the branch history.
+     * </p>
+     *
+     * @param git        The git instance to use
+     * @param objects    The object context to read the commits through
+     * @param commitId   The commit to test
+     * @param branchName The name of the base branch to look for the merge
+     * @return if the commit is reachable from the branch
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
+     */
+    public static boolean isMergedInto(Git git, GitObjectContext objects, ObjectId commitId, String branchName) throws JGitFlowIOException
+    {
+        try
+        {
+            return isMergedInto(objects, commitId, git.getRepository().resolve(branchName));
+        }
+        catch (IOException e)
+        {
+            throw new JGitFlowIOException(e);
+        }
+    }
 
+    /**
+     * Checks to see if a commit is reachable from another one using an existing object context
+     *
+     * @param objects  The object context to read the commits through
+     * @param commitId The commit to test
+     * @param base     The commit to look for the merge from, may be null
+     * @return if the commit is reachable from the base, false if there is no base
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
+     */
+    public static boolean isMergedInto(GitObjectContext objects, ObjectId commitId, ObjectId base) throws JGitFlowIOException
+    {
+        try
+        {
             if (null == base)
             {
                 return false;
             }
 
-            Iterable<RevCommit> baseCommits = git.log().add(base).call();
+            RevCommit baseCommit = objects.parseCommit(base);
+            RevCommit commit = objects.parseCommit(commitId);
 
-            boolean merged = false;
+            if (baseCommit.equals(commit))
+            {
+                return true;
+            }
 
-            for (RevCommit entry : baseCommits)
+            //cheap check for the usual "just merged" case before walking
+            for (RevCommit parent : baseCommit.getParents())
             {
-                if (entry.getId().equals(commit))
-                {
-                    merged = true;
-                    break;
-                }
-                if (entry.getParentCount() > 1 && Arrays.asList(entry.getParents()).contains(commit))
+                if (parent.equals(commit))
                 {
-                    merged = true;
-                    break;
+                    return true;
                 }
             }
 
-            return merged;
-        }
-        catch (GitAPIException e)
-        {
-            throw new JGitFlowGitAPIException(e);
+            //a root commit can only reach itself
+            if (baseCommit.getParentCount() == 0)
+            {
+                return false;
+            }
+
+            return objects.getWalk().isMergedInto(commit, baseCommit);
         }
         catch (IOException e)
         {
             throw new JGitFlowIOException(e);
         }
-
     }
 
     /**
@@ -145,14 +245,10 @@ public class GitHelper
      */
     public static RevCommit getLatestCommit(Git git, String branchName) throws JGitFlowIOException
     {
-        RevWalk walk = null;
+        GitObjectContext objects = new GitObjectContext(git.getRepository());
         try
         {
-            ObjectId branch = git.getRepository().resolve(branchName);
-            walk = new RevWalk(git.getRepository());
-            walk.setRetainBody(true);
-
-            return walk.parseCommit(branch);
+            return objects.parseCommitWithBody(git.getRepository().resolve(branchName));
         }
         catch (IOException e)
         {
@@ -160,10 +256,28 @@ public class GitHelper
         }
         finally
         {
-            if (null != walk)
-            {
-                walk.release();
-            }
+            objects.release();
+        }
+    }
+
+    /**
+     * Gets the latest commit for a branch with its headers only, using an existing object context
+     *
+     * @param git        The git instance to use
+     * @param objects    The object context to read the commit through
+     * @param branchName The name of the branch to find the commit on
+     * @return The latest commit for the branch
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
+     */
+    public static RevCommit getLatestCommit(Git git, GitObjectContext objects, String branchName) throws JGitFlowIOException
+    {
+        try
+        {
+            return objects.parseCommit(git.getRepository().resolve(branchName));
+        }
+        catch (IOException e)
+        {
+            throw new JGitFlowIOException(e);
         }
     }
 
@@ -177,30 +291,24 @@ public class GitHelper
      */
     public static boolean localBranchExists(Git git, String branchName) throws JGitFlowGitAPIException
     {
-        boolean exists = false;
-
-        if (StringUtils.isEmptyOrNull(branchName))
-        {
-            return exists;
-        }
+        return localBranchExists(new RefSnapshot(git), branchName);
+    }
 
+    /**
+     * Checks to see if a local branch with the given name exists using an existing ref snapshot
+     *
+     * @param refs       The ref snapshot to use
+     * @param branchName The name of the branch to look for
+     * @return if the branch exists or not
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowGitAPIException
+     */
+    public static boolean localBranchExists(RefSnapshot refs, String branchName) throws JGitFlowGitAPIException
+    {
         try
         {
-
-            List<Ref> refs = git.branchList().setListMode(null).call();
-            for (Ref ref : refs)
-            {
-                String simpleName = ref.getName().substring(ref.getName().indexOf(Constants.R_HEADS) + Constants.R_HEADS.length());
-                if (simpleName.equals(branchName))
-                {
-                    exists = true;
-                    break;
-                }
-            }
-
-            return exists;
+            return refs.localBranchExists(branchName);
         }
-        catch (GitAPIException e)
+        catch (JGitFlowIOException e)
         {
             throw new JGitFlowGitAPIException(e);
         }
@@ -216,45 +324,31 @@ public class GitHelper
      */
     public static boolean remoteBranchExists(Git git, final String branch) throws JGitFlowGitAPIException
     {
-        JGitFlowReporter reporter = JGitFlowReporter.get();
-        reporter.debugMethod(getName(), "remoteBranchExists");
-        reporter.debugText(getName(), "checking for branch: " + branch);
-        boolean exists = false;
+        return remoteBranchExists(new RefSnapshot(git), branch);
+    }
 
-        if (StringUtils.isEmptyOrNull(branch))
-        {
-            return exists;
-        }
+    /**
+     * Checks to see if a remote branch with the given name exists using an existing ref snapshot
+     *
+     * @param refs   The ref snapshot to use
+     * @param branch The name of the branch to look for
+     * @return if the branch exists or not
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowGitAPIException
+     */
+    public static boolean remoteBranchExists(RefSnapshot refs, final String branch) throws JGitFlowGitAPIException
+    {
+        JGitFlowReporter reporter = JGitFlowReporter.forRepository(refs.getRepository());
+        reporter.debugMethod(getName(), "remoteBranchExists");
+        reporter.debugText(getName(), "checking for branch: {}", branch);
 
         try
         {
-            List<Ref> refs = git.branchList().setListMode(ListBranchCommand.ListMode.REMOTE).call();
-            reporter.debugText(getName(), "got " + refs.size() + " remote refs");
-            for (Ref ref : refs)
-            {
-                reporter.debugText(getName(), "ref name: " + ref.getName());
-
-                //if we're not coming from origin, just ignore
-                if (!ref.getName().contains(JGitFlowConstants.R_REMOTE_ORIGIN))
-                {
-                    continue;
-                }
-
-                String simpleName = ref.getName().substring(ref.getName().indexOf(JGitFlowConstants.R_REMOTE_ORIGIN) + JGitFlowConstants.R_REMOTE_ORIGIN.length());
-
-                reporter.debugText(getName(), "ref simple name: " + simpleName);
-
-                reporter.debugText(getName(), "simple name equals branch? " + simpleName.equals(branch));
-                if (simpleName.equals(branch))
-                {
-                    exists = true;
-                    break;
-                }
-            }
+            boolean exists = refs.remoteBranchExists(branch);
+            reporter.debugText(getName(), "remote branch exists? {}", exists);
 
             return exists;
         }
-        catch (GitAPIException e)
+        catch (JGitFlowIOException e)
         {
             throw new JGitFlowGitAPIException(e);
         }
@@ -267,26 +361,42 @@ public class GitHelper
 
     public static boolean localBranchBehindRemote(Git git, final String branch) throws JGitFlowIOException
     {
-        JGitFlowReporter reporter = JGitFlowReporter.get();
-        final RevWalk walk = new RevWalk(git.getRepository());
-        walk.setRetainBody(true);
+        return localBranchBehindRemote(git, new RefSnapshot(git), branch);
+    }
+
+    public static boolean localBranchBehindRemote(Git git, RefSnapshot refs, final String branch) throws JGitFlowIOException
+    {
+        GitObjectContext objects = new GitObjectContext(git.getRepository());
+        try
+        {
+            return localBranchBehindRemote(git, refs, objects, branch);
+        }
+        finally
+        {
+            objects.release();
+        }
+    }
+
+    public static boolean localBranchBehindRemote(Git git, RefSnapshot refs, GitObjectContext objects, final String branch) throws JGitFlowIOException
+    {
+        JGitFlowReporter reporter = JGitFlowReporter.forRepository(git.getRepository());
         boolean behind = false;
         try
         {
-            Ref remote = getRemoteBranch(git, branch);
+            Ref remote = refs.getRemoteBranch(branch);
             Ref local = getLocalBranch(git, branch);
 
             checkNotNull(remote);
             checkNotNull(local);
 
-            ObjectId remoteId = git.getRepository().resolve(remote.getObjectId().getName());
-            RevCommit remoteCommit = walk.parseCommit(remoteId);
-            RevCommit localCommit = walk.parseCommit(local.getObjectId());
+            RevCommit remoteCommit = objects.parseCommit(remote.getObjectId());
+            RevCommit localCommit = objects.parseCommit(local.getObjectId());
 
             if (!localCommit.equals(remoteCommit))
             {
-                reporter.debugText(getName(), localCommit.getName() + " !equals " + remoteCommit.getName());
+                reporter.debugText(getName(), "{} !equals {}", localCommit, remoteCommit);
                 behind = true;
+                RevWalk walk = objects.getWalk();
                 walk.setRevFilter(RevFilter.MERGE_BASE);
                 walk.markStart(localCommit);
                 walk.markStart(remoteCommit);
@@ -295,8 +405,6 @@ public class GitHelper
                 reporter.debugText(getName(), "checking if remote is at our merge base");
                 if (null != base)
                 {
-                    walk.parseBody(base);
-
                     //remote is behind
                     if (remoteCommit.equals(base))
                     {
@@ -313,10 +421,6 @@ public class GitHelper
             reporter.flush();
             throw new JGitFlowIOException(e);
         }
-        finally
-        {
-            walk.release();
-        }
 
         return behind;
     }
@@ -331,33 +435,7 @@ public class GitHelper
      */
     public static Ref getRemoteBranch(Git git, String branchName) throws JGitFlowIOException
     {
-        try
-        {
-            final Map<String, Ref> refList = git.getRepository().getRefDatabase().getRefs(Constants.R_REMOTES);
-            Ref remote = null;
-
-            for (Map.Entry<String, Ref> entry : refList.entrySet())
-            {
-                int index = entry.getValue().getName().indexOf(JGitFlowConstants.R_REMOTE_ORIGIN);
-                if (index < 0)
-                {
-                    continue;
-                }
-
-                String simpleName = entry.getValue().getName().substring(index + JGitFlowConstants.R_REMOTE_ORIGIN.length());
-                if (simpleName.equals(branchName))
-                {
-                    remote = entry.getValue();
-                    break;
-                }
-            }
-
-            return remote;
-        }
-        catch (IOException e)
-        {
-            throw new JGitFlowIOException(e);
-        }
+        return new RefSnapshot(git).getRemoteBranch(branchName);
     }
 
     /**
@@ -369,6 +447,26 @@ public class GitHelper
      * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
      */
     public static Ref getLocalBranch(Git git, String branchName) throws JGitFlowIOException
+    {
+        //this is called a lot, don't look up the metrics unless something is being measured
+        if (!JGitFlowMetrics.isActive())
+        {
+            return findLocalBranch(git, branchName);
+        }
+
+        JGitFlowMetrics metrics = JGitFlowMetrics.forRepository(git.getRepository());
+        metrics.startPhase("ref lookup", branchName);
+        try
+        {
+            return findLocalBranch(git, branchName);
+        }
+        finally
+        {
+            metrics.endSpan();
+        }
+    }
+
+    private static Ref findLocalBranch(Git git, String branchName) throws JGitFlowIOException
     {
         try
         {
@@ -397,46 +495,86 @@ public class GitHelper
      */
     public static List<Ref> listBranchesWithPrefix(Git git, String prefix) throws JGitFlowGitAPIException
     {
-        JGitFlowReporter reporter = JGitFlowReporter.get();
-        List<Ref> branches = new ArrayList<Ref>();
+        return listBranchesWithPrefix(new RefSnapshot(git), prefix);
+    }
+
+    /**
+     * Gets a list of branch references that begin with the given prefix using an existing ref snapshot
+     *
+     * @param refs   The ref snapshot to use
+     * @param prefix The prefix to test for
+     * @return A list of branch references matching the given prefix
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowGitAPIException
+     */
+    public static List<Ref> listBranchesWithPrefix(RefSnapshot refs, String prefix) throws JGitFlowGitAPIException
+    {
+        JGitFlowReporter reporter = JGitFlowReporter.forRepository(refs.getRepository());
         reporter.debugMethod(getName(), "listBranchesWithPrefix");
 
         try
         {
-            List<Ref> refs = git.branchList().setListMode(ListBranchCommand.ListMode.ALL).call();
+            List<Ref> branches = refs.listBranchesWithPrefix(prefix);
+            reporter.debugText(getName(), "found {} branches with prefix [{}]", branches.size(), prefix);
 
-            for (Ref ref : refs)
-            {
-                String simpleName;
+            return branches;
+        }
+        catch (JGitFlowIOException e)
+        {
+            throw new JGitFlowGitAPIException(e);
+        }
+        finally
+        {
+            reporter.endMethod();
+        }
+    }
 
-                String originPrefix = Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/";
+    /**
+     * Tests to see if a working folder is clean. e.g. all changes have been committed.
+     * This stops at the first thing that makes the tree dirty, use {@link #describeWorkingTree(org.eclipse.jgit.api.Git, boolean)}
+     * to find out exactly what is dirty.
+     *
+     * @param git            The git instance to use
+     * @param allowUntracked
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowGitAPIException
+     */
+    public static CleanStatus workingTreeIsClean(Git git, boolean allowUntracked) throws JGitFlowIOException, JGitFlowGitAPIException
+    {
+        JGitFlowReporter reporter = JGitFlowReporter.forRepository(git.getRepository());
 
-                if (ref.getName().indexOf(Constants.R_HEADS) > -1)
-                {
-                    simpleName = ref.getName().substring(ref.getName().indexOf(Constants.R_HEADS) + Constants.R_HEADS.length());
-                }
-                else if (ref.getName().indexOf(originPrefix) > -1)
-                {
-                    simpleName = ref.getName().substring(ref.getName().indexOf(originPrefix) + originPrefix.length());
-                }
-                else
-                {
-                    simpleName = "";
-                }
+        reporter.debugMethod(getName(), "workingTreeIsClean");
+        try
+        {
+            WorkingTreeCheck check = new WorkingTreeCheck(git.getRepository(), allowUntracked).call();
 
-                reporter.debugText(getName(), "simple name [" + simpleName + "] startsWith prefix [" + prefix + "] ? " + simpleName.startsWith(prefix));
+            boolean changed = check.isUncommitted();
+            boolean untracked = !allowUntracked && check.isUntracked();
 
-                if (simpleName.startsWith(prefix))
-                {
-                    branches.add(ref);
-                }
+            if (!changed && !untracked)
+            {
+                reporter.debugText(getName(), "working tree is clean");
+                return new CleanStatus(false, false, "Working tree is clean");
             }
 
-            return branches;
+            StringBuilder sb = new StringBuilder();
+            if (changed)
+            {
+                sb.append("Working tree has uncommitted changes");
+            }
+
+            if (untracked)
+            {
+                sb.append(changed ? " and untracked files" : "Working tree has untracked files");
+            }
+
+            reporter.debugText(getName(), "working tree is dirty: {}", sb.toString());
+            return new CleanStatus(untracked, changed, sb.toString());
         }
-        catch (GitAPIException e)
+        catch (IOException e)
         {
-            throw new JGitFlowGitAPIException(e);
+            reporter.errorText(getName(), e.getMessage());
+            reporter.flush();
+            throw new JGitFlowIOException(e);
         }
         finally
         {
@@ -445,18 +583,19 @@ public class GitHelper
     }
 
     /**
-     * Tests to see if a working folder is clean. e.g. all changes have been committed.
+     * Runs a full diff of the working folder against HEAD and logs every dirty file by category.
+     * This is much slower than {@link #workingTreeIsClean(org.eclipse.jgit.api.Git, boolean)}, only use it when the details are needed.
      *
      * @param git            The git instance to use
      * @param allowUntracked
      * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
      * @throws com.atlassian.jgitflow.core.exception.JGitFlowGitAPIException
      */
-    public static CleanStatus workingTreeIsClean(Git git, boolean allowUntracked) throws JGitFlowIOException, JGitFlowGitAPIException
+    public static CleanStatus describeWorkingTree(Git git, boolean allowUntracked) throws JGitFlowIOException, JGitFlowGitAPIException
     {
-        JGitFlowReporter reporter = JGitFlowReporter.get();
+        JGitFlowReporter reporter = JGitFlowReporter.forRepository(git.getRepository());
 
-        reporter.debugMethod(getName(), "workingTreeIsClean");
+        reporter.debugMethod(getName(), "describeWorkingTree");
         try
         {
             IndexDiff diffIndex = new IndexDiff(git.getRepository(), Constants.HEAD, new FileTreeIterator(git.getRepository()));
@@ -479,24 +618,24 @@ public class GitHelper
                 StringBuilder sb = new StringBuilder();
 
                 reporter.debugText(getName(), "diffIndex.diff() returned diffs. working tree is dirty!");
-                reporter.debugText(getName(), "added size: " + addedSize);
-                reportDirtyDetails(getName(), "added", diffIndex.getAdded());
-                reporter.debugText(getName(), "assume unchanged size: " + assumedSize);
-                reporter.debugText(getName(), "changed size: " + changedSize);
-                reportDirtyDetails(getName(), "changed", diffIndex.getChanged());
-                reporter.debugText(getName(), "conflicting size: " + conflictSize);
-                reportDirtyDetails(getName(), "conflicting", diffIndex.getConflicting());
-                reporter.debugText(getName(), "ignored not in index size: " + ignoredSize);
-                reporter.debugText(getName(), "missing size: " + missingSize);
-                reportDirtyDetails(getName(), "missing", diffIndex.getMissing());
-                reporter.debugText(getName(), "modified size: " + modifiedSize);
-                reportDirtyDetails(getName(), "modified", diffIndex.getModified());
-                reporter.debugText(getName(), "removed size: " + removedSize);
-                reportDirtyDetails(getName(), "removed", diffIndex.getRemoved());
-                reporter.debugText(getName(), "untracked size: " + untrackedSize);
-                reportDirtyDetails(getName(), "untracked", diffIndex.getUntracked());
-                reporter.debugText(getName(), "untracked folders size: " + untrackedFolderSize);
-                reportDirtyDetails(getName(), "untracked folders", diffIndex.getUntrackedFolders());
+                reporter.debugText(getName(), "added size: {}", addedSize);
+                reportDirtyDetails(reporter, getName(), "added", diffIndex.getAdded());
+                reporter.debugText(getName(), "assume unchanged size: {}", assumedSize);
+                reporter.debugText(getName(), "changed size: {}", changedSize);
+                reportDirtyDetails(reporter, getName(), "changed", diffIndex.getChanged());
+                reporter.debugText(getName(), "conflicting size: {}", conflictSize);
+                reportDirtyDetails(reporter, getName(), "conflicting", diffIndex.getConflicting());
+                reporter.debugText(getName(), "ignored not in index size: {}", ignoredSize);
+                reporter.debugText(getName(), "missing size: {}", missingSize);
+                reportDirtyDetails(reporter, getName(), "missing", diffIndex.getMissing());
+                reporter.debugText(getName(), "modified size: {}", modifiedSize);
+                reportDirtyDetails(reporter, getName(), "modified", diffIndex.getModified());
+                reporter.debugText(getName(), "removed size: {}", removedSize);
+                reportDirtyDetails(reporter, getName(), "removed", diffIndex.getRemoved());
+                reporter.debugText(getName(), "untracked size: {}", untrackedSize);
+                reportDirtyDetails(reporter, getName(), "untracked", diffIndex.getUntracked());
+                reporter.debugText(getName(), "untracked folders size: {}", untrackedFolderSize);
+                reportDirtyDetails(reporter, getName(), "untracked folders", diffIndex.getUntrackedFolders());
                 reporter.endMethod();
 
                 if (addedSize > 0 || changedSize > 0 || conflictSize > 0 || missingSize > 0 || modifiedSize > 0 || removedSize > 0)
@@ -559,16 +698,15 @@ public class GitHelper
         }
     }
 
-    private static void reportDirtyDetails(String cmdName, String reason, Set<String> files)
+    private static void reportDirtyDetails(JGitFlowReporter reporter, String cmdName, String reason, Set<String> files)
     {
-        JGitFlowReporter reporter = JGitFlowReporter.get();
-        if (files.size() > 0)
+        if (files.size() > 0 && reporter.isDebugEnabled())
         {
-            reporter.debugText(cmdName, reason + " details: ");
+            reporter.debugText(cmdName, "{} details: ", reason);
 
             for (String file : files)
             {
-                reporter.debugText(cmdName, " -- " + reason + ": " + file);
+                reporter.debugText(cmdName, " -- {}: {}", reason, file);
             }
         }
     }
@@ -583,45 +721,100 @@ public class GitHelper
      */
     public static boolean tagExists(Git git, final String tagName) throws JGitFlowGitAPIException
     {
-        boolean exists = false;
-
-        if (StringUtils.isEmptyOrNull(tagName))
-        {
-            return exists;
-        }
+        return tagExists(new RefSnapshot(git), tagName);
+    }
 
+    /**
+     * Tests to see if a tag exists with the given name using an existing ref snapshot
+     *
+     * @param refs    The ref snapshot to use
+     * @param tagName The name of the tag to test for
+     * @return if the tag exists or not
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowGitAPIException
+     */
+    public static boolean tagExists(RefSnapshot refs, final String tagName) throws JGitFlowGitAPIException
+    {
         try
         {
-            List<Ref> refs = git.tagList().call();
-            for (Ref ref : refs)
-            {
-                String simpleName = ref.getName().substring(ref.getName().indexOf(Constants.R_TAGS) + Constants.R_TAGS.length());
-                if (simpleName.equals(tagName))
-                {
-                    exists = true;
-                    break;
-                }
-            }
-
-            return exists;
+            return refs.tagExists(tagName);
         }
-        catch (GitAPIException e)
+        catch (JGitFlowIOException e)
         {
             throw new JGitFlowGitAPIException(e);
         }
     }
 
     public static String getTaggedCommit(Git git, Ref tag) throws JGitFlowIOException {
-        RevWalk revWalk = new RevWalk(git.getRepository());
+        GitObjectContext objects = new GitObjectContext(git.getRepository());
+        try {
+            return getTaggedCommit(objects, tag);
+        } finally {
+            objects.release();
+        }
+    }
+
+    public static String getTaggedCommit(GitObjectContext objects, Ref tag) throws JGitFlowIOException {
         try {
             // TODO handle lightweight tags
-            RevTag annotatedTag = revWalk.parseTag(tag.getObjectId());
+            RevTag annotatedTag = objects.parseTag(tag.getObjectId());
             return annotatedTag.getObject().getName();
         } catch (IOException e) {
             throw new JGitFlowIOException(e);
         }
     }
 
+    /**
+     * Moves the remote tracking refs to where a push just put the remote branches, so they're current without
+     * fetching again. Refs JGit already updated while pushing are left alone.
+     *
+     * @param git         The git instance to use
+     * @param remoteName  The name of the remote that was pushed to
+     * @param pushResults The results of the push
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
+     */
+    public static void updateTrackingRefs(Git git, String remoteName, Iterable<PushResult> pushResults) throws JGitFlowIOException
+    {
+        Repository repo = git.getRepository();
+        String trackingPrefix = Constants.R_REMOTES + remoteName + "/";
+
+        try
+        {
+            for (PushResult pushResult : pushResults)
+            {
+                for (RemoteRefUpdate update : pushResult.getRemoteUpdates())
+                {
+                    RemoteRefUpdate.Status status = update.getStatus();
+                    if (null != update.getTrackingRefUpdate() || !update.getRemoteName().startsWith(Constants.R_HEADS)
+                            || (RemoteRefUpdate.Status.OK != status && RemoteRefUpdate.Status.UP_TO_DATE != status))
+                    {
+                        continue;
+                    }
+
+                    RefUpdate trackingUpdate = repo.updateRef(trackingPrefix + update.getRemoteName().substring(Constants.R_HEADS.length()));
+                    trackingUpdate.setForceUpdate(true);
+                    trackingUpdate.setRefLogMessage("update by push", false);
+
+                    if (update.isDelete())
+                    {
+                        if (null != repo.getRef(trackingUpdate.getName()))
+                        {
+                            trackingUpdate.delete();
+                        }
+                    }
+                    else
+                    {
+                        trackingUpdate.setNewObjectId(update.getNewObjectId());
+                        trackingUpdate.update();
+                    }
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            throw new JGitFlowIOException(e);
+        }
+    }
+
     private static String getName()
     {
         return GitHelper.class.getSimpleName();
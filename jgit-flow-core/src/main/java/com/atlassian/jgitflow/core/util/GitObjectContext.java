@@ -0,0 +1,119 @@
+package com.atlassian.jgitflow.core.util;
+
+import java.io.IOException;
+
+import com.atlassian.jgitflow.core.metrics.JGitFlowMetrics;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevTag;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+/**
+ * The object reader and walk a command reads commits through.
+ * <p>
+ * A single reader keeps its inflater and delta base caches warm across every lookup, and the walk keeps each commit
+ * it parsed, so a command that looks at develop a handful of times only reads it once. Commits are parsed without
+ * their message unless {@link #parseCommitWithBody(AnyObjectId)} is used.
+ * </p>
+ * <p>
+ * Commands hold one context for their lifetime, like their {@link RefSnapshot}, and release it when they're done.
+ * Commits handed out stay usable after that; the next lookup opens a new reader.
+ * </p>
+ */
+public class GitObjectContext
+{
+    private final Repository repository;
+    private RevWalk walk;
+
+    public GitObjectContext(Repository repository)
+    {
+        this.repository = repository;
+    }
+
+    public Repository getRepository()
+    {
+        return repository;
+    }
+
+    public ObjectReader getReader()
+    {
+        return walk().getObjectReader();
+    }
+
+    /**
+     * @param id the commit to parse
+     * @return the commit with its headers parsed, from the cache if it was parsed before
+     * @throws IOException
+     */
+    public RevCommit parseCommit(AnyObjectId id) throws IOException
+    {
+        return walk().parseCommit(id);
+    }
+
+    /**
+     * @param id the commit to parse
+     * @return the commit with its message available
+     * @throws IOException
+     */
+    public RevCommit parseCommitWithBody(AnyObjectId id) throws IOException
+    {
+        RevCommit commit = walk().parseCommit(id);
+        if (null == commit.getRawBuffer())
+        {
+            walk.parseBody(commit);
+        }
+
+        return commit;
+    }
+
+    public RevTag parseTag(AnyObjectId id) throws IOException
+    {
+        return walk().parseTag(id);
+    }
+
+    /**
+     * Gets the walk the commits are cached in, ready for a new walk. Flags, filters and sorting set by whoever used
+     * it last are cleared, the parsed commits are kept.
+     *
+     * @return the shared walk
+     */
+    public RevWalk getWalk()
+    {
+        RevWalk shared = walk();
+        shared.reset();
+        shared.setRevFilter(RevFilter.ALL);
+        shared.setTreeFilter(TreeFilter.ALL);
+        shared.sort(RevSort.NONE);
+
+        return shared;
+    }
+
+    /**
+     * Releases the reader. The next lookup starts over with an empty cache.
+     */
+    public void release()
+    {
+        if (null != walk)
+        {
+            walk.release();
+            walk = null;
+        }
+    }
+
+    private RevWalk walk()
+    {
+        if (null == walk)
+        {
+            walk = JGitFlowMetrics.newRevWalk(repository);
+            walk.setRetainBody(false);
+        }
+
+        return walk;
+    }
+}
@@ -0,0 +1,272 @@
+package com.atlassian.jgitflow.core.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.atlassian.jgitflow.core.exception.JGitFlowGitAPIException;
+import com.atlassian.jgitflow.core.exception.JGitFlowIOException;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.BatchRefUpdate;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.transport.ReceiveCommand;
+
+/**
+ * Local ref changes collected while a command runs and applied together with one {@link BatchRefUpdate}.
+ * <p>
+ * A ref changed more than once keeps a single command going from its original value to its last one, so a branch
+ * that is merged into twice is only written once. Until the batch is executed the queued values can be looked up
+ * with {@link #getQueuedId(String)}, which is how the command sees its own changes.
+ * </p>
+ * <p>
+ * Executing is all or nothing as far as the ref database allows: every ref is checked against the value it's
+ * expected to have before anything is written, and if a ref can't be updated the refs already moved are put back.
+ * </p>
+ * <p>
+ * A change can carry its own reflog message, which is written as is, like a single {@link RefUpdate} would. The
+ * other refs get the message the batch is executed with.
+ * </p>
+ */
+public class LocalRefBatch
+{
+    private final Repository repository;
+    private final Map<String, ReceiveCommand> commands;
+    private final Map<String, String> refLogMessages;
+
+    public LocalRefBatch(Repository repository)
+    {
+        this.repository = repository;
+        this.commands = new LinkedHashMap<String, ReceiveCommand>();
+        this.refLogMessages = new HashMap<String, String>();
+    }
+
+    /**
+     * Queues moving a ref
+     *
+     * @param refName the full name of the ref
+     * @param oldId   the value the ref has now, or null if it doesn't exist
+     * @param newId   the value to move it to
+     */
+    public void update(String refName, AnyObjectId oldId, AnyObjectId newId)
+    {
+        update(refName, oldId, newId, null);
+    }
+
+    /**
+     * Queues moving a ref with its own reflog message
+     *
+     * @param refName       the full name of the ref
+     * @param oldId         the value the ref has now, or null if it doesn't exist
+     * @param newId         the value to move it to
+     * @param refLogMessage the reflog message for the ref, or null to use the one of the batch
+     */
+    public void update(String refName, AnyObjectId oldId, AnyObjectId newId, String refLogMessage)
+    {
+        ReceiveCommand queued = commands.get(refName);
+        ObjectId expected = (null != queued) ? queued.getOldId() : toId(oldId);
+        ObjectId target = toId(newId);
+
+        if (expected.equals(target))
+        {
+            //created and deleted again, or moved back where it was
+            commands.remove(refName);
+            refLogMessages.remove(refName);
+        }
+        else
+        {
+            commands.put(refName, new ReceiveCommand(expected, target, refName));
+            if (null != refLogMessage)
+            {
+                refLogMessages.put(refName, refLogMessage);
+            }
+        }
+    }
+
+    /**
+     * Queues creating a ref
+     */
+    public void create(String refName, AnyObjectId newId)
+    {
+        update(refName, null, newId);
+    }
+
+    /**
+     * Queues deleting a ref
+     */
+    public void delete(String refName, AnyObjectId oldId)
+    {
+        update(refName, oldId, null);
+    }
+
+    /**
+     * @return if the ref has a change queued
+     */
+    public boolean isQueued(String refName)
+    {
+        return commands.containsKey(refName);
+    }
+
+    /**
+     * @return the value the ref will have, or null if it isn't queued or is queued for deletion
+     */
+    public ObjectId getQueuedId(String refName)
+    {
+        ReceiveCommand queued = commands.get(refName);
+        if (null == queued || ReceiveCommand.Type.DELETE.equals(queued.getType()))
+        {
+            return null;
+        }
+
+        return queued.getNewId();
+    }
+
+    public boolean isEmpty()
+    {
+        return commands.isEmpty();
+    }
+
+    public int size()
+    {
+        return commands.size();
+    }
+
+    /**
+     * Applies every queued change and empties the batch
+     *
+     * @param refLogMessage the reflog message for every updated ref without one of its own, followed by what happened
+     *                      to it
+     * @return the changes that were applied
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowGitAPIException if a ref isn't where it's expected to be
+     * or couldn't be updated, in which case nothing is changed
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
+     */
+    public List<ReceiveCommand> execute(String refLogMessage) throws JGitFlowGitAPIException, JGitFlowIOException
+    {
+        if (commands.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+
+        List<ReceiveCommand> toApply = new ArrayList<ReceiveCommand>(commands.values());
+
+        //BatchRefUpdate only takes one reflog message, so the refs are written in a batch per message
+        Map<String, List<ReceiveCommand>> byMessage = new LinkedHashMap<String, List<ReceiveCommand>>();
+        for (ReceiveCommand command : toApply)
+        {
+            String message = refLogMessages.get(command.getRefName());
+            if (!byMessage.containsKey(message))
+            {
+                byMessage.put(message, new ArrayList<ReceiveCommand>());
+            }
+
+            byMessage.get(message).add(command);
+        }
+
+        commands.clear();
+        refLogMessages.clear();
+
+        RevWalk walk = new RevWalk(repository);
+        try
+        {
+            //refuse before writing anything if a ref was moved behind our back
+            for (ReceiveCommand command : toApply)
+            {
+                Ref current = repository.getRef(command.getRefName());
+                boolean exists = null != current && command.getRefName().equals(current.getName());
+
+                if (!toId(exists ? current.getObjectId() : null).equals(command.getOldId()))
+                {
+                    throw new JGitFlowGitAPIException("error updating " + command.getRefName() + " - it was changed by someone else");
+                }
+            }
+
+            PersonIdent ident = new PersonIdent(repository);
+            for (Map.Entry<String, List<ReceiveCommand>> group : byMessage.entrySet())
+            {
+                BatchRefUpdate batch = repository.getRefDatabase().newBatchUpdate();
+                batch.setRefLogIdent(ident);
+                if (null == group.getKey())
+                {
+                    batch.setRefLogMessage(refLogMessage, true);
+                }
+                else
+                {
+                    batch.setRefLogMessage(group.getKey(), false);
+                }
+                batch.addCommand(group.getValue());
+                batch.execute(walk, NullProgressMonitor.INSTANCE);
+
+                ReceiveCommand failed = null;
+                for (ReceiveCommand command : group.getValue())
+                {
+                    if (!ReceiveCommand.Result.OK.equals(command.getResult()) && null == failed)
+                    {
+                        failed = command;
+                    }
+                }
+
+                if (null != failed)
+                {
+                    //the refs of later groups were never attempted, revert only touches the ones that were written
+                    revert(toApply);
+                    throw new JGitFlowGitAPIException("error updating " + failed.getRefName() + " - " + failed.getResult().name());
+                }
+            }
+
+            return toApply;
+        }
+        catch (IOException e)
+        {
+            throw new JGitFlowIOException(e);
+        }
+        finally
+        {
+            walk.release();
+        }
+    }
+
+    /**
+     * Puts the refs that were updated back where they were
+     */
+    private void revert(List<ReceiveCommand> applied) throws IOException
+    {
+        for (ReceiveCommand command : applied)
+        {
+            if (!ReceiveCommand.Result.OK.equals(command.getResult()))
+            {
+                continue;
+            }
+
+            RefUpdate update = repository.updateRef(command.getRefName());
+            update.setExpectedOldObjectId(command.getNewId());
+            update.setForceUpdate(true);
+            update.setRefLogMessage("revert incomplete batch update", false);
+
+            if (ObjectId.zeroId().equals(command.getOldId()))
+            {
+                update.delete();
+            }
+            else
+            {
+                update.setNewObjectId(command.getOldId());
+                update.update();
+            }
+        }
+    }
+
+    private ObjectId toId(AnyObjectId id)
+    {
+        return (null != id) ? id.toObjectId() : ObjectId.zeroId();
+    }
+}
@@ -0,0 +1,243 @@
+package com.atlassian.jgitflow.core.util;
+
+import java.io.IOException;
+import java.util.*;
+
+import com.atlassian.jgitflow.core.JGitFlowConstants;
+import com.atlassian.jgitflow.core.exception.JGitFlowIOException;
+import com.atlassian.jgitflow.core.metrics.Counter;
+import com.atlassian.jgitflow.core.metrics.JGitFlowMetrics;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefDatabase;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.util.StringUtils;
+
+/**
+ * An index of the refs in a repository keyed by their simple branch and tag names.
+ * <p>
+ * The index is built lazily with a single pass over the ref database and is reused for every lookup
+ * until {@link #invalidate()} is called. Commands hold one snapshot for their lifetime and invalidate it
+ * whenever they fetch, push, create or delete a ref.
+ * </p>
+ * <p>
+ * Only the existence and the remote tracking refs are guaranteed to be current. Local branch refs move
+ * with every commit, so callers that need an up to date object id for a local branch should resolve it
+ * from the repository instead.
+ * </p>
+ */
+public class RefSnapshot
+{
+    private final Git git;
+
+    private TreeMap<String, Ref> localBranches;
+    private TreeMap<String, Ref> remoteBranches;
+    private TreeMap<String, Ref> otherRemoteBranches;
+    private Map<String, Ref> tags;
+
+    public RefSnapshot(Git git)
+    {
+        this.git = git;
+    }
+
+    Repository getRepository()
+    {
+        return git.getRepository();
+    }
+
+    /**
+     * Drops the current index. The next lookup will re-read the ref database.
+     */
+    public void invalidate()
+    {
+        this.localBranches = null;
+        this.remoteBranches = null;
+        this.otherRemoteBranches = null;
+        this.tags = null;
+    }
+
+    public boolean isLoaded()
+    {
+        return null != localBranches;
+    }
+
+    /**
+     * @param branchName the simple name of the branch, e.g. develop
+     * @return if a local branch with the given name exists
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
+     */
+    public boolean localBranchExists(String branchName) throws JGitFlowIOException
+    {
+        if (StringUtils.isEmptyOrNull(branchName))
+        {
+            return false;
+        }
+
+        load();
+        return localBranches.containsKey(branchName);
+    }
+
+    /**
+     * @param branchName the simple name of the branch, e.g. develop
+     * @return if a branch with the given name exists on origin
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
+     */
+    public boolean remoteBranchExists(String branchName) throws JGitFlowIOException
+    {
+        if (StringUtils.isEmptyOrNull(branchName))
+        {
+            return false;
+        }
+
+        load();
+        return remoteBranches.containsKey(branchName);
+    }
+
+    /**
+     * @param tagName the simple name of the tag
+     * @return if a tag with the given name exists
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
+     */
+    public boolean tagExists(String tagName) throws JGitFlowIOException
+    {
+        if (StringUtils.isEmptyOrNull(tagName))
+        {
+            return false;
+        }
+
+        load();
+        return tags.containsKey(tagName);
+    }
+
+    /**
+     * @param branchName the simple name of the branch
+     * @return the origin tracking ref for the branch or null
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
+     */
+    public Ref getRemoteBranch(String branchName) throws JGitFlowIOException
+    {
+        load();
+        return remoteBranches.get(branchName);
+    }
+
+    /**
+     * @param tagName the simple name of the tag
+     * @return the tag ref or null
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
+     */
+    public Ref getTag(String tagName) throws JGitFlowIOException
+    {
+        load();
+        return tags.get(tagName);
+    }
+
+    /**
+     * @return all tags keyed by their simple name
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
+     */
+    public Map<String, Ref> getTags() throws JGitFlowIOException
+    {
+        load();
+        return Collections.unmodifiableMap(tags);
+    }
+
+    /**
+     * Lists the local and origin branches whose simple name starts with the given prefix, sorted by full ref name.
+     *
+     * @param prefix the prefix to test for
+     * @return the matching branch refs
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
+     */
+    public List<Ref> listBranchesWithPrefix(String prefix) throws JGitFlowIOException
+    {
+        load();
+
+        List<Ref> branches = new ArrayList<Ref>();
+        branches.addAll(withPrefix(localBranches, prefix).values());
+        branches.addAll(withPrefix(remoteBranches, prefix).values());
+
+        //branches from other remotes have no simple name, so they only match the empty prefix
+        if (StringUtils.isEmptyOrNull(prefix))
+        {
+            branches.addAll(otherRemoteBranches.values());
+            Collections.sort(branches, new Comparator<Ref>()
+            {
+                @Override
+                public int compare(Ref o1, Ref o2)
+                {
+                    return o1.getName().compareTo(o2.getName());
+                }
+            });
+        }
+
+        return branches;
+    }
+
+    private SortedMap<String, Ref> withPrefix(TreeMap<String, Ref> refs, String prefix)
+    {
+        if (StringUtils.isEmptyOrNull(prefix))
+        {
+            return refs;
+        }
+
+        return refs.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private void load() throws JGitFlowIOException
+    {
+        if (isLoaded())
+        {
+            return;
+        }
+
+        TreeMap<String, Ref> newLocals = new TreeMap<String, Ref>();
+        TreeMap<String, Ref> newRemotes = new TreeMap<String, Ref>();
+        TreeMap<String, Ref> newOtherRemotes = new TreeMap<String, Ref>();
+        Map<String, Ref> newTags = new HashMap<String, Ref>();
+
+        JGitFlowMetrics metrics = JGitFlowMetrics.forRepository(git.getRepository());
+        metrics.startPhase("ref lookup", "all refs");
+        try
+        {
+            Map<String, Ref> allRefs = git.getRepository().getRefDatabase().getRefs(RefDatabase.ALL);
+            JGitFlowMetrics.count(Counter.REFS_SCANNED, allRefs.size());
+
+            for (Ref ref : allRefs.values())
+            {
+                String name = ref.getName();
+
+                if (name.startsWith(Constants.R_HEADS))
+                {
+                    newLocals.put(name.substring(Constants.R_HEADS.length()), ref);
+                }
+                else if (name.startsWith(JGitFlowConstants.R_REMOTE_ORIGIN))
+                {
+                    newRemotes.put(name.substring(JGitFlowConstants.R_REMOTE_ORIGIN.length()), ref);
+                }
+                else if (name.startsWith(Constants.R_REMOTES))
+                {
+                    newOtherRemotes.put(name, ref);
+                }
+                else if (name.startsWith(Constants.R_TAGS))
+                {
+                    newTags.put(name.substring(Constants.R_TAGS.length()), ref);
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            throw new JGitFlowIOException(e);
+        }
+        finally
+        {
+            metrics.endSpan();
+        }
+
+        this.remoteBranches = newRemotes;
+        this.otherRemoteBranches = newOtherRemotes;
+        this.tags = newTags;
+        this.localBranches = newLocals;
+    }
+}
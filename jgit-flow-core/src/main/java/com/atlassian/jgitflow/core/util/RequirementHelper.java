@@ -6,6 +6,7 @@ import com.atlassian.jgitflow.core.GitFlowConfiguration;
 import com.atlassian.jgitflow.core.JGitFlowConstants;
 import com.atlassian.jgitflow.core.JGitFlowReporter;
 import com.atlassian.jgitflow.core.exception.*;
+import com.atlassian.jgitflow.core.metrics.JGitFlowMetrics;
 
 import org.eclipse.jgit.api.CreateBranchCommand;
 import org.eclipse.jgit.api.Git;
@@ -18,14 +19,34 @@ public class RequirementHelper
 {
     protected final Git git;
     protected final GitFlowConfiguration gfConfig;
-    protected final JGitFlowReporter reporter = JGitFlowReporter.get();
+    protected final JGitFlowReporter reporter;
+    protected final JGitFlowMetrics metrics;
     protected final String commandName;
+    protected final RefSnapshot refs;
+    protected final GitObjectContext objects;
 
     public RequirementHelper(Git git, GitFlowConfiguration gfConfig, String commandName)
+    {
+        this(git, gfConfig, commandName, new RefSnapshot(git));
+    }
+
+    public RequirementHelper(Git git, GitFlowConfiguration gfConfig, String commandName, RefSnapshot refs)
+    {
+        this(git, gfConfig, commandName, refs, new GitObjectContext(git.getRepository()));
+    }
+
+    /**
+     * @param objects the object context of the command, it's released by the command
+     */
+    public RequirementHelper(Git git, GitFlowConfiguration gfConfig, String commandName, RefSnapshot refs, GitObjectContext objects)
     {
         this.git = git;
         this.gfConfig = gfConfig;
         this.commandName = commandName;
+        this.refs = refs;
+        this.objects = objects;
+        this.reporter = JGitFlowReporter.forRepository(git.getRepository());
+        this.metrics = JGitFlowMetrics.forRepository(git.getRepository());
     }
 
     /**
@@ -53,7 +74,7 @@ public class RequirementHelper
      */
     public void requireLocalBranchAbsent(String branch) throws LocalBranchExistsException, JGitFlowGitAPIException
     {
-        if (GitHelper.localBranchExists(git, branch))
+        if (GitHelper.localBranchExists(refs, branch))
         {
             reporter.errorText(commandName, "requireLocalBranchAbsent() failed: '" + branch + "' already exists");
             reporter.flush();
@@ -70,7 +91,7 @@ public class RequirementHelper
      */
     public void requireLocalBranchExists(String branch) throws LocalBranchMissingException, JGitFlowGitAPIException
     {
-        if (!GitHelper.localBranchExists(git, branch) && GitHelper.remoteBranchExists(git, branch))
+        if (!GitHelper.localBranchExists(refs, branch) && GitHelper.remoteBranchExists(refs, branch))
         {
             try
             {
@@ -85,9 +106,13 @@ public class RequirementHelper
             {
                 throw new JGitFlowGitAPIException("error checking out remote branch.", e);
             }
+            finally
+            {
+                refs.invalidate();
+            }
         }
 
-        if (!GitHelper.localBranchExists(git, branch))
+        if (!GitHelper.localBranchExists(refs, branch))
         {
             reporter.errorText(commandName, "localBranchExists() failed: '" + branch + "' does not exist");
             reporter.flush();
@@ -104,7 +129,7 @@ public class RequirementHelper
      */
     public void requireRemoteBranchAbsent(String branch) throws RemoteBranchExistsException, JGitFlowGitAPIException
     {
-        if (GitHelper.remoteBranchExists(git, branch))
+        if (GitHelper.remoteBranchExists(refs, branch))
         {
             reporter.errorText(commandName, "requireRemoteBranchAbsent() failed: '" + branch + "' already exists");
             reporter.flush();
@@ -121,7 +146,7 @@ public class RequirementHelper
      */
     public void requireRemoteBranchExists(String branch) throws RemoteBranchMissingException, JGitFlowGitAPIException
     {
-        if (!GitHelper.remoteBranchExists(git, branch))
+        if (!GitHelper.remoteBranchExists(refs, branch))
         {
             reporter.errorText(commandName, "requireRemoteBranchExists() failed: '" + branch + "' does not exist");
             reporter.flush();
@@ -138,7 +163,7 @@ public class RequirementHelper
      */
     public void requireTagAbsent(String name) throws TagExistsException, JGitFlowGitAPIException
     {
-        if (GitHelper.tagExists(git, name))
+        if (GitHelper.tagExists(refs, name))
         {
             reporter.errorText(commandName, "requireTagAbsent() failed: '" + name + "' already exists");
             reporter.flush();
@@ -156,7 +181,17 @@ public class RequirementHelper
     public void requireLocalBranchNotBehindRemote(String branch) throws BranchOutOfDateException, JGitFlowIOException
     {
         reporter.debugMethod(commandName, "requireLocalBranchNotBehindRemote");
-        boolean behind = GitHelper.localBranchBehindRemote(git, branch);
+
+        boolean behind;
+        metrics.startPhase("requirements", branch + " not behind origin");
+        try
+        {
+            behind = GitHelper.localBranchBehindRemote(git, refs, objects, branch);
+        }
+        finally
+        {
+            metrics.endSpan();
+        }
 
         if (behind)
         {
@@ -178,9 +213,24 @@ public class RequirementHelper
      */
     public void requireCleanWorkingTree(boolean allowUntracked) throws DirtyWorkingTreeException, JGitFlowIOException, JGitFlowGitAPIException
     {
-        CleanStatus cs = GitHelper.workingTreeIsClean(git, allowUntracked);
+        CleanStatus cs;
+        metrics.startPhase("requirements", "clean working tree");
+        try
+        {
+            cs = GitHelper.workingTreeIsClean(git, allowUntracked);
+        }
+        finally
+        {
+            metrics.endSpan();
+        }
+
         if (cs.isNotClean())
         {
+            if (reporter.isDebugEnabled())
+            {
+                GitHelper.describeWorkingTree(git, allowUntracked);
+            }
+
             reporter.errorText(commandName, cs.getMessage());
             reporter.flush();
             throw new DirtyWorkingTreeException(cs.getMessage());
@@ -195,7 +245,7 @@ public class RequirementHelper
      */
     public void requireNoExistingReleaseBranches() throws ReleaseBranchExistsException, JGitFlowGitAPIException
     {
-        List<Ref> branches = GitHelper.listBranchesWithPrefix(git, gfConfig.getPrefixValue(JGitFlowConstants.PREFIXES.RELEASE.configKey()));
+        List<Ref> branches = GitHelper.listBranchesWithPrefix(refs, gfConfig.getPrefixValue(JGitFlowConstants.PREFIXES.RELEASE.configKey()));
 
         if (!branches.isEmpty())
         {
@@ -213,7 +263,7 @@ public class RequirementHelper
      */
     public void requireNoExistingHotfixBranches() throws HotfixBranchExistsException, JGitFlowGitAPIException
     {
-        List<Ref> branches = GitHelper.listBranchesWithPrefix(git, gfConfig.getPrefixValue(JGitFlowConstants.PREFIXES.HOTFIX.configKey()));
+        List<Ref> branches = GitHelper.listBranchesWithPrefix(refs, gfConfig.getPrefixValue(JGitFlowConstants.PREFIXES.HOTFIX.configKey()));
 
         if (!branches.isEmpty())
         {
@@ -231,7 +281,18 @@ public class RequirementHelper
      */
     public void requireCommitOnBranch(RevCommit commit, String branch) throws LocalBranchExistsException, JGitFlowGitAPIException, JGitFlowIOException
     {
-        if (!GitHelper.isMergedInto(git, commit, branch))
+        boolean onBranch;
+        metrics.startPhase("requirements", "commit on " + branch);
+        try
+        {
+            onBranch = GitHelper.isMergedInto(git, objects, commit, branch);
+        }
+        finally
+        {
+            metrics.endSpan();
+        }
+
+        if (!onBranch)
         {
             reporter.errorText(commandName, "requireCommitOnBranch() failed: '" + commit.getName() + "' is not on " + branch);
             reporter.flush();
@@ -0,0 +1,275 @@
+package com.atlassian.jgitflow.core.util;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.atlassian.jgitflow.core.BaseVersionInfo;
+import com.atlassian.jgitflow.core.exception.JGitFlowGitAPIException;
+import com.atlassian.jgitflow.core.exception.JGitFlowIOException;
+import com.atlassian.jgitflow.core.metrics.Counter;
+import com.atlassian.jgitflow.core.metrics.JGitFlowMetrics;
+
+import com.google.common.base.Strings;
+
+import org.apache.maven.shared.release.versions.VersionParseException;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.errors.NotSupportedException;
+import org.eclipse.jgit.errors.TransportException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.transport.FetchConnection;
+import org.eclipse.jgit.transport.Transport;
+
+/**
+ * Fetches only the refs a command needs from a remote instead of everything it advertises.
+ * <p>
+ * The wanted refs are picked from the remote's advertisement: the named branches, any branch under one of the
+ * given prefixes, and version tags newer than the newest version tag already present locally. Only objects that
+ * are missing locally are downloaded, all over the one connection the advertisement came from.
+ * </p>
+ */
+public class SelectiveFetch
+{
+    private final Git git;
+    private final String remoteName;
+    private final Set<String> branches;
+    private final Set<String> branchPrefixes;
+    private String versionTagPrefix;
+
+    public SelectiveFetch(Git git, String remoteName)
+    {
+        this.git = git;
+        this.remoteName = remoteName;
+        this.branches = new LinkedHashSet<String>();
+        this.branchPrefixes = new LinkedHashSet<String>();
+        this.versionTagPrefix = null;
+    }
+
+    /**
+     * Fetch a branch, if the remote has it
+     *
+     * @param branchName the short name of the branch
+     * @return {@code this}
+     */
+    public SelectiveFetch addBranch(String branchName)
+    {
+        if (!Strings.isNullOrEmpty(branchName))
+        {
+            branches.add(branchName);
+        }
+        return this;
+    }
+
+    /**
+     * Fetch all branches whose name starts with the prefix
+     *
+     * @param prefix the branch prefix, e.g. "release/"
+     * @return {@code this}
+     */
+    public SelectiveFetch addBranchPrefix(String prefix)
+    {
+        if (!Strings.isNullOrEmpty(prefix))
+        {
+            branchPrefixes.add(prefix);
+        }
+        return this;
+    }
+
+    /**
+     * Fetch version tags newer than the newest one already present locally
+     *
+     * @param prefix the version tag prefix, may be empty
+     * @return {@code this}
+     */
+    public SelectiveFetch setVersionTagPrefix(String prefix)
+    {
+        this.versionTagPrefix = Strings.nullToEmpty(prefix);
+        return this;
+    }
+
+    /**
+     * @return the local refs that were created or moved
+     */
+    public List<String> call() throws JGitFlowIOException, JGitFlowGitAPIException
+    {
+        Repository repo = git.getRepository();
+        Map<String, ObjectId> updates = new LinkedHashMap<String, ObjectId>();
+
+        Transport transport = null;
+        FetchConnection connection = null;
+        try
+        {
+            transport = Transport.open(repo, remoteName);
+            connection = transport.openFetch();
+
+            BaseVersionInfo watermark = (null != versionTagPrefix) ? findLocalWatermark(repo) : null;
+            List<Ref> wants = new ArrayList<Ref>();
+
+            JGitFlowMetrics.count(Counter.REFS_SCANNED, connection.getRefs().size());
+
+            for (Ref ref : connection.getRefs())
+            {
+                String localName = getLocalName(repo, ref.getName(), watermark);
+                if (null == localName || null == ref.getObjectId())
+                {
+                    continue;
+                }
+
+                updates.put(localName, ref.getObjectId());
+
+                if (!repo.hasObject(ref.getObjectId()))
+                {
+                    wants.add(ref);
+                }
+            }
+
+            if (!wants.isEmpty())
+            {
+                connection.fetch(JGitFlowMetrics.transferMonitor(), wants, Collections.<ObjectId>emptySet());
+            }
+        }
+        catch (NotSupportedException e)
+        {
+            throw new JGitFlowGitAPIException(e);
+        }
+        catch (URISyntaxException e)
+        {
+            throw new JGitFlowGitAPIException(e);
+        }
+        catch (TransportException e)
+        {
+            throw new JGitFlowGitAPIException(e);
+        }
+        finally
+        {
+            if (null != connection)
+            {
+                connection.close();
+            }
+            if (null != transport)
+            {
+                transport.close();
+            }
+        }
+
+        return updateLocalRefs(repo, updates);
+    }
+
+    /**
+     * Maps an advertised ref to the local ref it's fetched into, or null if it isn't wanted
+     */
+    private String getLocalName(Repository repo, String remoteRefName, BaseVersionInfo watermark)
+    {
+        if (remoteRefName.startsWith(Constants.R_HEADS))
+        {
+            String branchName = remoteRefName.substring(Constants.R_HEADS.length());
+            if (branches.contains(branchName) || hasWantedPrefix(branchName))
+            {
+                return Constants.R_REMOTES + remoteName + "/" + branchName;
+            }
+        }
+        else if (null != versionTagPrefix && remoteRefName.startsWith(Constants.R_TAGS + versionTagPrefix) && !remoteRefName.endsWith("^{}"))
+        {
+            BaseVersionInfo version = parseVersion(remoteRefName.substring(Constants.R_TAGS.length()));
+            if (null != version && (null == watermark || version.compareTo(watermark) > 0) && !hasRef(repo, remoteRefName))
+            {
+                return remoteRefName;
+            }
+        }
+
+        return null;
+    }
+
+    private boolean hasWantedPrefix(String branchName)
+    {
+        for (String prefix : branchPrefixes)
+        {
+            if (branchName.startsWith(prefix))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private BaseVersionInfo findLocalWatermark(Repository repo) throws JGitFlowIOException
+    {
+        VersionTagIndex.VersionTag latest = VersionTagIndex.load(repo, versionTagPrefix).getLatest();
+        return (null != latest) ? latest.getVersion() : null;
+    }
+
+    private BaseVersionInfo parseVersion(String tagName)
+    {
+        try
+        {
+            return new BaseVersionInfo(tagName.substring(versionTagPrefix.length()));
+        }
+        catch (VersionParseException e)
+        {
+            //not a version tag
+            return null;
+        }
+    }
+
+    private boolean hasRef(Repository repo, String refName)
+    {
+        try
+        {
+            return null != repo.getRef(refName);
+        }
+        catch (IOException e)
+        {
+            return false;
+        }
+    }
+
+    private List<String> updateLocalRefs(Repository repo, Map<String, ObjectId> updates) throws JGitFlowIOException, JGitFlowGitAPIException
+    {
+        List<String> updated = new ArrayList<String>();
+        try
+        {
+            for (Map.Entry<String, ObjectId> entry : updates.entrySet())
+            {
+                Ref current = repo.getRef(entry.getKey());
+                if (null != current && entry.getValue().equals(current.getObjectId()))
+                {
+                    continue;
+                }
+
+                RefUpdate update = repo.updateRef(entry.getKey());
+                update.setNewObjectId(entry.getValue());
+                update.setForceUpdate(true);
+                update.setRefLogMessage("fetch: selective", false);
+
+                RefUpdate.Result result = update.update();
+                switch (result)
+                {
+                    case NEW:
+                    case FAST_FORWARD:
+                    case FORCED:
+                    case NO_CHANGE:
+                        updated.add(entry.getKey());
+                        break;
+                    default:
+                        throw new JGitFlowGitAPIException("error updating " + entry.getKey() + " - " + result.name());
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            throw new JGitFlowIOException(e);
+        }
+
+        return updated;
+    }
+}
@@ -0,0 +1,417 @@
+package com.atlassian.jgitflow.core.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.atlassian.jgitflow.core.BaseVersionInfo;
+import com.atlassian.jgitflow.core.JGitFlowConstants;
+import com.atlassian.jgitflow.core.exception.JGitFlowIOException;
+import com.atlassian.jgitflow.core.metrics.Counter;
+import com.atlassian.jgitflow.core.metrics.JGitFlowMetrics;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.io.BaseEncoding;
+
+import org.apache.maven.shared.release.versions.VersionParseException;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+
+/**
+ * A sorted index of the version tags in a repository and the commits they point to.
+ * <p>
+ * The index lives in the jgitflow folder inside the git dir, one per tag prefix, and is reconciled with the tag refs whenever it's loaded,
+ * so only tags that were created, moved or fetched since the last load are parsed and peeled. Tags that aren't versions
+ * are remembered so they're skipped without being parsed again.
+ * </p>
+ */
+public class VersionTagIndex
+{
+    public static final String INDEX_FILE = "version-tags";
+    private static final String PREFIX_LINE = "prefix\t";
+    private static final String VERSION_ENTRY = "v";
+    private static final String SKIPPED_ENTRY = "x";
+
+    private final Repository repo;
+    private final String tagPrefix;
+    private final File indexFile;
+    private final List<VersionTag> versions;
+    private final Map<String, VersionTag> byRefName;
+    private boolean changed;
+
+    private VersionTagIndex(Repository repo, String tagPrefix)
+    {
+        this.repo = repo;
+        this.tagPrefix = tagPrefix;
+        this.indexFile = indexFile(repo, tagPrefix);
+        this.versions = new ArrayList<VersionTag>();
+        this.byRefName = new HashMap<String, VersionTag>();
+        this.changed = false;
+    }
+
+    /**
+     * Loads the index, brings it up to date with the tags in the repository and saves it if anything changed
+     *
+     * @param repo      the repository
+     * @param tagPrefix the version tag prefix, may be empty
+     * @return the index
+     * @throws com.atlassian.jgitflow.core.exception.JGitFlowIOException
+     */
+    public static VersionTagIndex load(Repository repo, String tagPrefix) throws JGitFlowIOException
+    {
+        VersionTagIndex index = new VersionTagIndex(repo, Strings.nullToEmpty(tagPrefix));
+        try
+        {
+            index.read();
+            index.refresh();
+            index.save();
+        }
+        catch (IOException e)
+        {
+            throw new JGitFlowIOException(e);
+        }
+
+        return index;
+    }
+
+    /**
+     * @param repo      the repository
+     * @param tagPrefix the version tag prefix, may be empty
+     * @return the file the index for the prefix is kept in. Every prefix has its own, so commands using different
+     * prefixes don't rebuild each other's index.
+     */
+    public static File indexFile(Repository repo, String tagPrefix)
+    {
+        String name = Strings.isNullOrEmpty(tagPrefix) ? INDEX_FILE : INDEX_FILE + "-" + BaseEncoding.base16().lowerCase().encode(tagPrefix.getBytes(Charsets.UTF_8));
+        return new File(new File(repo.getDirectory(), JGitFlowConstants.GITFLOW_DIR), name);
+    }
+
+    /**
+     * @return the tag with the highest version or null if there are no version tags
+     */
+    public VersionTag getLatest()
+    {
+        return versions.isEmpty() ? null : versions.get(versions.size() - 1);
+    }
+
+    /**
+     * @return all version tags, lowest version first
+     */
+    public List<VersionTag> getVersionTags()
+    {
+        return Collections.unmodifiableList(versions);
+    }
+
+    private void read() throws IOException
+    {
+        if (!indexFile.isFile())
+        {
+            changed = true;
+            return;
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(indexFile), Charsets.UTF_8));
+        try
+        {
+            if (!(PREFIX_LINE + tagPrefix).equals(reader.readLine()))
+            {
+                //written for another prefix, start over
+                changed = true;
+                return;
+            }
+
+            String line;
+            while (null != (line = reader.readLine()))
+            {
+                String[] fields = line.split(" ");
+                if (VERSION_ENTRY.equals(fields[0]) && fields.length == 4)
+                {
+                    VersionTag tag = new VersionTag(fields[1], versionString(fields[1]), ObjectId.fromString(fields[2]), ObjectId.fromString(fields[3]));
+                    versions.add(tag);
+                    byRefName.put(tag.refName, tag);
+                }
+                else if (SKIPPED_ENTRY.equals(fields[0]) && fields.length == 3)
+                {
+                    byRefName.put(fields[1], new VersionTag(fields[1], null, ObjectId.fromString(fields[2]), null));
+                }
+                else
+                {
+                    versions.clear();
+                    byRefName.clear();
+                    changed = true;
+                    return;
+                }
+            }
+        }
+        catch (IllegalArgumentException e)
+        {
+            //a mangled object id, rebuild from scratch
+            versions.clear();
+            byRefName.clear();
+            changed = true;
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+    private void refresh() throws IOException
+    {
+        Map<String, Ref> tags = repo.getRefDatabase().getRefs(Constants.R_TAGS);
+        JGitFlowMetrics.count(Counter.REFS_SCANNED, tags.size());
+        Set<String> current = new HashSet<String>();
+
+        for (Ref ref : tags.values())
+        {
+            String refName = ref.getName();
+            if (!refName.startsWith(Constants.R_TAGS + tagPrefix) || null == ref.getObjectId())
+            {
+                continue;
+            }
+
+            current.add(refName);
+
+            VersionTag known = byRefName.get(refName);
+            if (null != known && known.refId.equals(ref.getObjectId()))
+            {
+                continue;
+            }
+
+            if (null != known)
+            {
+                versions.remove(known);
+            }
+
+            add(index(ref));
+        }
+
+        Iterator<VersionTag> it = byRefName.values().iterator();
+        while (it.hasNext())
+        {
+            VersionTag tag = it.next();
+            if (!current.contains(tag.refName))
+            {
+                it.remove();
+                versions.remove(tag);
+                changed = true;
+            }
+        }
+    }
+
+    private VersionTag index(Ref ref) throws IOException
+    {
+        String version = versionString(ref.getName());
+        ObjectId commitId = null;
+
+        if (null != parseVersion(version))
+        {
+            Ref peeled = repo.peel(ref);
+            ObjectId target = (null != peeled.getPeeledObjectId()) ? peeled.getPeeledObjectId() : ref.getObjectId();
+
+            try
+            {
+                if (Constants.OBJ_COMMIT == repo.open(target).getType())
+                {
+                    commitId = target;
+                }
+            }
+            catch (MissingObjectException e)
+            {
+                //dangling tag, treat it as not a version
+            }
+        }
+
+        return new VersionTag(ref.getName(), (null != commitId) ? version : null, ref.getObjectId(), commitId);
+    }
+
+    private void add(VersionTag tag)
+    {
+        byRefName.put(tag.refName, tag);
+        changed = true;
+
+        if (!tag.isVersion())
+        {
+            return;
+        }
+
+        int low = 0;
+        int high = versions.size();
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (compare(versions.get(mid), tag) <= 0)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+
+        versions.add(low, tag);
+    }
+
+    private void save() throws IOException
+    {
+        if (!changed)
+        {
+            return;
+        }
+
+        FileHelper.createParentDirs(indexFile);
+
+        //a file of our own, so another process saving at the same time can't write into it
+        File tmp = File.createTempFile(INDEX_FILE, ".tmp", indexFile.getParentFile());
+        try
+        {
+            write(tmp);
+            JGitFlowMetrics.count(Counter.BYTES_WRITTEN, tmp.length());
+
+            if (!tmp.renameTo(indexFile))
+            {
+                indexFile.delete();
+                if (!tmp.renameTo(indexFile))
+                {
+                    throw new IOException("unable to write " + indexFile.getAbsolutePath());
+                }
+            }
+        }
+        finally
+        {
+            if (tmp.exists())
+            {
+                tmp.delete();
+            }
+        }
+
+        changed = false;
+    }
+
+    private void write(File file) throws IOException
+    {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), Charsets.UTF_8));
+        try
+        {
+            writer.write(PREFIX_LINE + tagPrefix);
+            writer.newLine();
+
+            for (VersionTag tag : versions)
+            {
+                writer.write(VERSION_ENTRY + " " + tag.refName + " " + tag.refId.name() + " " + tag.commitId.name());
+                writer.newLine();
+            }
+
+            for (VersionTag tag : byRefName.values())
+            {
+                if (!tag.isVersion())
+                {
+                    writer.write(SKIPPED_ENTRY + " " + tag.refName + " " + tag.refId.name());
+                    writer.newLine();
+                }
+            }
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    private String versionString(String refName)
+    {
+        return refName.substring(Constants.R_TAGS.length() + tagPrefix.length());
+    }
+
+    private static int compare(VersionTag a, VersionTag b)
+    {
+        int result = a.getVersion().compareTo(b.getVersion());
+        return (0 != result) ? result : a.refName.compareTo(b.refName);
+    }
+
+    private static BaseVersionInfo parseVersion(String version)
+    {
+        try
+        {
+            return new BaseVersionInfo(version);
+        }
+        catch (VersionParseException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * A version tag and the commit it points to
+     */
+    public static class VersionTag
+    {
+        private final String refName;
+        private final String versionString;
+        private final ObjectId refId;
+        private final ObjectId commitId;
+        private BaseVersionInfo version;
+
+        private VersionTag(String refName, String versionString, ObjectId refId, ObjectId commitId)
+        {
+            this.refName = refName;
+            this.versionString = versionString;
+            this.refId = refId;
+            this.commitId = commitId;
+        }
+
+        private boolean isVersion()
+        {
+            return null != commitId;
+        }
+
+        /**
+         * @return the simple name of the tag, including the prefix
+         */
+        public String getTagName()
+        {
+            return refName.substring(Constants.R_TAGS.length());
+        }
+
+        /**
+         * @return the version, parsed the first time it's needed
+         */
+        public BaseVersionInfo getVersion()
+        {
+            if (null == version)
+            {
+                version = parseVersion(versionString);
+                if (null == version)
+                {
+                    throw new IllegalStateException("indexed tag " + refName + " is not a version");
+                }
+            }
+            return version;
+        }
+
+        /**
+         * @return the commit the tag points to, annotated tags peeled
+         */
+        public ObjectId getCommitId()
+        {
+            return commitId;
+        }
+    }
+}
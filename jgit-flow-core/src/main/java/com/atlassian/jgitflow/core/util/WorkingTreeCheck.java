@@ -0,0 +1,149 @@
+package com.atlassian.jgitflow.core.util;
+
+import java.io.IOException;
+
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.dircache.DirCacheIterator;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.treewalk.AbstractTreeIterator;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.FileTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.WorkingTreeIterator;
+
+/**
+ * A fast check of whether the working tree is clean.
+ * <p>
+ * HEAD, the index and the working tree are walked together and the walk stops as soon as the answer is known,
+ * e.g. at the first tracked modification when untracked files are allowed. Ignored directories that aren't
+ * tracked are never entered, and files whose index stat data still matches are not hashed.
+ * Unlike {@link org.eclipse.jgit.lib.IndexDiff} this only says whether something is dirty, not what.
+ * </p>
+ */
+public class WorkingTreeCheck
+{
+    private static final int T_HEAD = 0;
+    private static final int T_INDEX = 1;
+    private static final int T_WORKING = 2;
+
+    private final Repository repo;
+    private final boolean allowUntracked;
+    private boolean uncommitted;
+    private boolean untracked;
+
+    public WorkingTreeCheck(Repository repo, boolean allowUntracked)
+    {
+        this.repo = repo;
+        this.allowUntracked = allowUntracked;
+        this.uncommitted = false;
+        this.untracked = false;
+    }
+
+    public WorkingTreeCheck call() throws IOException
+    {
+        DirCache dirCache = repo.readDirCache();
+        uncommitted = dirCache.hasUnmergedPaths();
+
+        TreeWalk walk = new TreeWalk(repo);
+        try
+        {
+            ObjectId headTree = repo.resolve(Constants.HEAD + "^{tree}");
+            if (null == headTree)
+            {
+                walk.addTree(new EmptyTreeIterator());
+            }
+            else
+            {
+                walk.addTree(headTree);
+            }
+
+            walk.addTree(new DirCacheIterator(dirCache));
+
+            FileTreeIterator workingTree = new FileTreeIterator(repo);
+            walk.addTree(workingTree);
+            workingTree.setDirCacheIterator(walk, T_INDEX);
+
+            while (!isDone() && walk.next())
+            {
+                checkEntry(walk);
+            }
+        }
+        finally
+        {
+            walk.release();
+        }
+
+        return this;
+    }
+
+    public boolean isUncommitted()
+    {
+        return uncommitted;
+    }
+
+    public boolean isUntracked()
+    {
+        return untracked;
+    }
+
+    private boolean isDone()
+    {
+        return uncommitted && (allowUntracked || untracked);
+    }
+
+    private void checkEntry(TreeWalk walk) throws IOException
+    {
+        AbstractTreeIterator head = walk.getTree(T_HEAD, AbstractTreeIterator.class);
+        DirCacheIterator index = walk.getTree(T_INDEX, DirCacheIterator.class);
+        WorkingTreeIterator working = walk.getTree(T_WORKING, WorkingTreeIterator.class);
+
+        boolean tracked = (null != head || null != index);
+
+        if (walk.isSubtree())
+        {
+            //untracked folders are only interesting if they hold something that isn't ignored
+            if (tracked || (!allowUntracked && !untracked && !working.isEntryIgnored()))
+            {
+                walk.enterSubtree();
+            }
+            return;
+        }
+
+        if (!tracked)
+        {
+            if (!working.isEntryIgnored())
+            {
+                untracked = true;
+            }
+            return;
+        }
+
+        if (uncommitted)
+        {
+            //already dirty, only still walking to look for untracked files
+            return;
+        }
+
+        if (null == index || null == head || walk.getRawMode(T_HEAD) != walk.getRawMode(T_INDEX) || !walk.idEqual(T_HEAD, T_INDEX))
+        {
+            //removed, added or changed in the index
+            uncommitted = true;
+            return;
+        }
+
+        DirCacheEntry entry = index.getDirCacheEntry();
+        if (null == entry || entry.isAssumeValid())
+        {
+            return;
+        }
+
+        if (null == working || working.isModified(entry, true, walk.getObjectReader()))
+        {
+            //missing or modified
+            uncommitted = true;
+        }
+    }
+}
@@ -13,8 +13,14 @@ import com.atlassian.jgitflow.core.util.GitHelper;
 
 import org.apache.commons.io.FileUtils;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.ReflogEntry;
+import org.eclipse.jgit.lib.StoredConfig;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.storage.file.FileBasedConfig;
+import org.eclipse.jgit.util.FS;
 import org.junit.Test;
 
 import ut.com.atlassian.jgitflow.core.testutils.RepoUtil;
@@ -412,4 +418,38 @@ public class FeatureFinishTest extends BaseGitFlowTest
         assertFalse(mergeBase2.exists());
 
     }
+
+    @Test
+    public void forcedDeleteRemovesBranchConfig() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMasterAndDevelop(newDir());
+        JGitFlowInitCommand initCommand = new JGitFlowInitCommand();
+        JGitFlow flow = initCommand.setDirectory(git.getRepository().getWorkTree()).call();
+
+        String featureBranch = flow.getFeatureBranchPrefix() + "my-feature";
+        flow.featureStart("my-feature").call();
+
+        StoredConfig config = git.getRepository().getConfig();
+        config.setString(ConfigConstants.CONFIG_BRANCH_SECTION, featureBranch, ConfigConstants.CONFIG_KEY_REMOTE, "origin");
+        config.setString(ConfigConstants.CONFIG_BRANCH_SECTION, featureBranch, ConfigConstants.CONFIG_KEY_MERGE, Constants.R_HEADS + featureBranch);
+        config.save();
+
+        File junkFile = new File(git.getRepository().getWorkTree(), "junk.txt");
+        FileUtils.writeStringToFile(junkFile, "I am junk");
+        git.add().addFilepattern(junkFile.getName()).call();
+        git.commit().setMessage("committing junk file").call();
+
+        flow.featureFinish("my-feature").setForceDeleteBranch(true).setInCoreMerge(true).call();
+
+        assertNull(git.getRepository().getRef(featureBranch));
+        assertTrue(junkFile.exists());
+
+        FileBasedConfig onDisk = new FileBasedConfig(new File(git.getRepository().getDirectory(), Constants.CONFIG), FS.DETECTED);
+        onDisk.load();
+        assertTrue(onDisk.getNames(ConfigConstants.CONFIG_BRANCH_SECTION, featureBranch).isEmpty());
+
+        //the merge keeps its own reflog message in the batch
+        ReflogEntry merge = git.reflog().setRef(Constants.R_HEADS + flow.getDevelopBranchName()).call().iterator().next();
+        assertTrue(merge.getComment(), merge.getComment().startsWith("merge " + featureBranch));
+    }
 }
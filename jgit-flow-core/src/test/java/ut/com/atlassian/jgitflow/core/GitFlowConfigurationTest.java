@@ -0,0 +1,114 @@
+package ut.com.atlassian.jgitflow.core;
+
+import java.io.File;
+
+import com.atlassian.jgitflow.core.ConfigTransaction;
+import com.atlassian.jgitflow.core.GitFlowConfiguration;
+import com.atlassian.jgitflow.core.JGitFlowConstants;
+import com.atlassian.jgitflow.core.JGitFlowInitCommand;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.storage.file.FileBasedConfig;
+import org.eclipse.jgit.util.FS;
+import org.junit.Test;
+
+import ut.com.atlassian.jgitflow.core.testutils.RepoUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GitFlowConfigurationTest extends BaseGitFlowTest
+{
+    @Test
+    public void seesConfigChangedOnDisk() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMasterAndDevelop(newDir());
+        new JGitFlowInitCommand().setDirectory(git.getRepository().getWorkTree()).call();
+
+        GitFlowConfiguration config = new GitFlowConfiguration(git);
+        assertEquals("feature/", config.getPrefixValue(JGitFlowConstants.PREFIXES.FEATURE.configKey()));
+
+        FileBasedConfig onDisk = new FileBasedConfig(new File(git.getRepository().getDirectory(), "config"), FS.DETECTED);
+        onDisk.load();
+        onDisk.setString(JGitFlowConstants.SECTION, JGitFlowConstants.PREFIX_SUB, JGitFlowConstants.PREFIXES.FEATURE.configKey(), "feat/");
+        onDisk.save();
+
+        assertEquals("feat/", config.getPrefixValue(JGitFlowConstants.PREFIXES.FEATURE.configKey()));
+        assertEquals("feat/", config.getPrefixForBranch("feat/my-feature"));
+    }
+
+    @Test
+    public void longestPrefixWins() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMasterAndDevelop(newDir());
+        new JGitFlowInitCommand().setDirectory(git.getRepository().getWorkTree()).call();
+
+        GitFlowConfiguration config = new GitFlowConfiguration(git);
+        config.setPrefix(JGitFlowConstants.PREFIXES.FEATURE.configKey(), "topic/");
+        config.setPrefix(JGitFlowConstants.PREFIXES.RELEASE.configKey(), "topic/release/");
+
+        assertEquals("topic/release/", config.getPrefixForBranch("topic/release/1.0"));
+        assertEquals("topic/", config.getPrefixForBranch("topic/my-feature"));
+        assertEquals("", config.getPrefixForBranch("other"));
+    }
+
+    @Test
+    public void initializedFollowsDevelopBranch() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMasterAndDevelop(newDir());
+        new JGitFlowInitCommand().setDirectory(git.getRepository().getWorkTree()).call();
+
+        GitFlowConfiguration config = new GitFlowConfiguration(git);
+        assertTrue(config.gitFlowIsInitialized());
+
+        config.setDevelop("missing");
+        assertFalse(config.hasDevelopConfigured());
+        assertFalse(config.gitFlowIsInitialized());
+    }
+
+    @Test
+    public void transactionWritesOnCommit() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMasterAndDevelop(newDir());
+        new JGitFlowInitCommand().setDirectory(git.getRepository().getWorkTree()).call();
+
+        GitFlowConfiguration config = new GitFlowConfiguration(git);
+        FileBasedConfig onDisk = new FileBasedConfig(new File(git.getRepository().getDirectory(), "config"), FS.DETECTED);
+
+        ConfigTransaction tx = config.beginTransaction();
+        tx.setPrefix(JGitFlowConstants.PREFIXES.FEATURE.configKey(), "feat/").setUpstream("feat/my-feature", "origin");
+
+        //visible in memory straight away, but not written yet
+        assertEquals("feat/", config.getPrefixValue(JGitFlowConstants.PREFIXES.FEATURE.configKey()));
+        onDisk.load();
+        assertEquals("feature/", onDisk.getString(JGitFlowConstants.SECTION, JGitFlowConstants.PREFIX_SUB, JGitFlowConstants.PREFIXES.FEATURE.configKey()));
+
+        tx.commit();
+
+        onDisk.load();
+        assertEquals("feat/", onDisk.getString(JGitFlowConstants.SECTION, JGitFlowConstants.PREFIX_SUB, JGitFlowConstants.PREFIXES.FEATURE.configKey()));
+        assertEquals("origin", onDisk.getString(ConfigConstants.CONFIG_BRANCH_SECTION, "feat/my-feature", ConfigConstants.CONFIG_KEY_REMOTE));
+        assertEquals("refs/heads/feat/my-feature", onDisk.getString(ConfigConstants.CONFIG_BRANCH_SECTION, "feat/my-feature", ConfigConstants.CONFIG_KEY_MERGE));
+    }
+
+    @Test
+    public void transactionRollsBack() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMasterAndDevelop(newDir());
+        new JGitFlowInitCommand().setDirectory(git.getRepository().getWorkTree()).call();
+
+        GitFlowConfiguration config = new GitFlowConfiguration(git);
+
+        ConfigTransaction unchanged = config.beginTransaction().setPrefix(JGitFlowConstants.PREFIXES.FEATURE.configKey(), "feature/");
+        assertFalse(unchanged.isDirty());
+        unchanged.commit();
+
+        ConfigTransaction tx = config.beginTransaction().setPrefix(JGitFlowConstants.PREFIXES.FEATURE.configKey(), "feat/");
+        assertTrue(tx.isDirty());
+        tx.rollback();
+
+        assertEquals("feature/", config.getPrefixValue(JGitFlowConstants.PREFIXES.FEATURE.configKey()));
+    }
+}
@@ -4,10 +4,17 @@ import java.io.File;
 
 import com.atlassian.jgitflow.core.InitContext;
 import com.atlassian.jgitflow.core.JGitFlow;
+import com.atlassian.jgitflow.core.JGitFlowConstants;
 import com.atlassian.jgitflow.core.JGitFlowInitCommand;
 import com.atlassian.jgitflow.core.exception.AlreadyInitializedException;
+import com.atlassian.jgitflow.core.exception.JGitFlowGitAPIException;
 
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.CreateBranchCommand;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.storage.file.FileBasedConfig;
+import org.eclipse.jgit.util.FS;
 import org.eclipse.jgit.util.IO;
 import org.junit.Test;
 
@@ -15,6 +22,7 @@ import ut.com.atlassian.jgitflow.core.testutils.RepoUtil;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class GitFlowInitTest extends BaseGitFlowTest
 {
@@ -410,4 +418,47 @@ public class GitFlowInitTest extends BaseGitFlowTest
         assertEquals(featureBranch, git.getRepository().getBranch());
 
     }
+
+    @Test
+    public void failedInitLeavesConfigOnDiskUntouched() throws Exception
+    {
+        Git remoteGit = RepoUtil.createRepositoryWithMaster(newDir());
+        File remoteJunk = new File(remoteGit.getRepository().getWorkTree(), "junk.txt");
+        FileUtils.writeStringToFile(remoteJunk, "master");
+        remoteGit.add().addFilepattern(remoteJunk.getName()).call();
+        remoteGit.commit().setMessage("junk on master").call();
+
+        remoteGit.checkout().setCreateBranch(true).setName("develop").call();
+        FileUtils.writeStringToFile(remoteJunk, "develop");
+        remoteGit.commit().setAll(true).setMessage("junk on develop").call();
+        remoteGit.checkout().setName("master").call();
+
+        Git git = Git.cloneRepository().setDirectory(newDir()).setURI("file://" + remoteGit.getRepository().getWorkTree().getPath()).call();
+        git.branchCreate().setName("develop").setStartPoint("origin/develop").setUpstreamMode(CreateBranchCommand.SetupUpstreamMode.NOTRACK).call();
+        File gitConfig = new File(git.getRepository().getDirectory(), "config");
+        String configBefore = FileUtils.readFileToString(gitConfig);
+
+        //the local change keeps init from checking out develop to pull it, after the develop branch and its tracking were set up
+        FileUtils.writeStringToFile(new File(git.getRepository().getWorkTree(), "junk.txt"), "local change");
+
+        InitContext initContext = new InitContext();
+        initContext.setMaster("master").setDevelop("develop");
+
+        try
+        {
+            new JGitFlowInitCommand().setDirectory(git.getRepository().getWorkTree()).setInitContext(initContext).setPullDevelop(true).call();
+            fail("expected the checkout of develop to fail");
+        }
+        catch (JGitFlowGitAPIException e)
+        {
+            //expected
+        }
+
+        assertEquals(configBefore, FileUtils.readFileToString(gitConfig));
+
+        FileBasedConfig onDisk = new FileBasedConfig(gitConfig, FS.DETECTED);
+        onDisk.load();
+        assertTrue(onDisk.getNames(ConfigConstants.CONFIG_BRANCH_SECTION, "develop").isEmpty());
+        assertTrue(onDisk.getSubsections(JGitFlowConstants.SECTION).isEmpty());
+    }
 }
@@ -6,17 +6,29 @@ import java.util.List;
 
 import com.atlassian.jgitflow.core.exception.LocalBranchMissingException;
 import com.atlassian.jgitflow.core.util.GitHelper;
+import com.atlassian.jgitflow.core.util.GitObjectContext;
+import com.atlassian.jgitflow.core.util.RefSnapshot;
+import com.atlassian.jgitflow.core.util.SelectiveFetch;
 
 import org.apache.commons.io.FileUtils;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.MergeCommand;
+import org.eclipse.jgit.lib.ConfigConstants;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.StoredConfig;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.transport.PushResult;
+import org.eclipse.jgit.transport.RefSpec;
 import org.junit.Test;
 
 import ut.com.atlassian.jgitflow.core.testutils.RepoUtil;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -134,6 +146,29 @@ public class
 
     }
 
+    @Test
+    public void commitMergedThroughSecondParent() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMaster(newDir());
+        git.checkout().setName("topic").setCreateBranch(true).call();
+
+        File junkFile = new File(git.getRepository().getWorkTree(), "junk.txt");
+        FileUtils.writeStringToFile(junkFile, "I am junk");
+        git.add().addFilepattern(junkFile.getName()).call();
+        RevCommit topicCommit = git.commit().setMessage("committing junk file").call();
+
+        git.checkout().setName("master").call();
+        git.commit().setMessage("master moves on").call();
+
+        assertFalse(GitHelper.isMergedInto(git, topicCommit, "master"));
+
+        git.merge().include(topicCommit).setFastForward(MergeCommand.FastForwardMode.NO_FF).call();
+        git.commit().setMessage("after merge").call();
+
+        assertTrue(GitHelper.isMergedInto(git, topicCommit, "master"));
+        assertFalse(GitHelper.isMergedInto(git, git.getRepository().resolve("master").getName(), "topic"));
+    }
+
     @Test(expected = LocalBranchMissingException.class)
     public void unknownCommitThrows() throws Exception
     {
@@ -173,4 +208,176 @@ public class
 
         assertTrue(GitHelper.tagExists(git, "1.0"));
     }
+
+    @Test
+    public void refSnapshotIsReusedUntilInvalidated() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMaster(newDir());
+        RefSnapshot refs = new RefSnapshot(git);
+
+        assertTrue(GitHelper.localBranchExists(refs, "master"));
+        assertFalse(GitHelper.localBranchExists(refs, "feature/my-feature"));
+
+        git.branchCreate().setName("feature/my-feature").call();
+        git.tag().setName("1.0").setMessage("tagged 1.0").call();
+
+        assertFalse(GitHelper.localBranchExists(refs, "feature/my-feature"));
+        assertFalse(GitHelper.tagExists(refs, "1.0"));
+
+        refs.invalidate();
+
+        assertTrue(GitHelper.localBranchExists(refs, "feature/my-feature"));
+        assertTrue(GitHelper.tagExists(refs, "1.0"));
+    }
+
+    @Test
+    public void objectContextReusesParsedCommits() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMaster(newDir());
+        git.checkout().setName("topic").setCreateBranch(true).call();
+        RevCommit topicCommit = git.commit().setMessage("topic commit").call();
+        git.checkout().setName("master").call();
+        git.commit().setMessage("master moves on").call();
+
+        GitObjectContext objects = new GitObjectContext(git.getRepository());
+        try
+        {
+            RevCommit latest = GitHelper.getLatestCommit(git, objects, "topic");
+            assertSame(latest, GitHelper.getCommitForString(git, objects, topicCommit.getName()));
+
+            //headers only until the message is asked for
+            assertNull(latest.getRawBuffer());
+            assertEquals("topic commit", objects.parseCommitWithBody(latest).getFullMessage());
+
+            //a walk for one check doesn't leave anything behind for the next
+            assertFalse(GitHelper.isMergedInto(git, objects, topicCommit, "master"));
+            git.merge().include(topicCommit).setFastForward(MergeCommand.FastForwardMode.NO_FF).call();
+            assertTrue(GitHelper.isMergedInto(git, objects, topicCommit, "master"));
+            assertFalse(GitHelper.isMergedInto(git, objects, "master", "topic"));
+        }
+        finally
+        {
+            objects.release();
+        }
+
+        //released contexts start over on the next lookup
+        assertNotNull(GitHelper.getLatestCommit(git, objects, "master"));
+        objects.release();
+    }
+
+    @Test
+    public void standaloneLookupsKeepMessages() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMaster(newDir());
+        git.commit().setMessage("latest on master").call();
+
+        assertEquals("latest on master", GitHelper.getLatestCommit(git, "master").getFullMessage());
+        assertEquals("latest on master", GitHelper.getCommitForString(git, "master").getFullMessage());
+    }
+
+    @Test
+    public void refSnapshotFindsRemoteBranches() throws Exception
+    {
+        Git remoteGit = RepoUtil.createRepositoryWithMaster(newDir());
+        remoteGit.branchCreate().setName("feature/my-feature").call();
+        Git git = Git.cloneRepository().setDirectory(newDir()).setURI("file://" + remoteGit.getRepository().getWorkTree().getPath()).call();
+
+        RefSnapshot refs = new RefSnapshot(git);
+
+        assertTrue(GitHelper.remoteBranchExists(refs, "master"));
+        assertTrue(GitHelper.remoteBranchExists(refs, "feature/my-feature"));
+        assertFalse(GitHelper.remoteBranchExists(refs, "feature/my"));
+        assertFalse(GitHelper.localBranchExists(refs, "feature/my-feature"));
+
+        List<Ref> branches = GitHelper.listBranchesWithPrefix(refs, "feature/");
+
+        assertEquals(1, branches.size());
+        assertEquals(Constants.R_REMOTES + "origin/feature/my-feature", branches.get(0).getName());
+        assertEquals(GitHelper.getRemoteBranch(git, "master").getName(), Constants.R_REMOTES + "origin/master");
+    }
+
+    @Test
+    public void trackingRefsFollowPushResults() throws Exception
+    {
+        Git remoteGit = RepoUtil.createRepositoryWithMaster(newDir());
+        Git git = Git.cloneRepository().setDirectory(newDir()).setURI("file://" + remoteGit.getRepository().getWorkTree().getPath()).call();
+
+        //without a fetch refspec the push itself won't touch the tracking refs
+        StoredConfig config = git.getRepository().getConfig();
+        config.unset(ConfigConstants.CONFIG_REMOTE_SECTION, Constants.DEFAULT_REMOTE_NAME, "fetch");
+        config.save();
+
+        git.branchCreate().setName("feature/my-feature").call();
+        Iterable<PushResult> results = git.push().setRemote(Constants.DEFAULT_REMOTE_NAME).setRefSpecs(new RefSpec("feature/my-feature")).call();
+
+        GitHelper.updateTrackingRefs(git, Constants.DEFAULT_REMOTE_NAME, results);
+
+        Ref tracking = git.getRepository().getRef(Constants.R_REMOTES + "origin/feature/my-feature");
+        assertEquals(git.getRepository().getRef("feature/my-feature").getObjectId(), tracking.getObjectId());
+
+        results = git.push().setRemote(Constants.DEFAULT_REMOTE_NAME).setRefSpecs(new RefSpec(":" + Constants.R_HEADS + "feature/my-feature")).call();
+        GitHelper.updateTrackingRefs(git, Constants.DEFAULT_REMOTE_NAME, results);
+
+        assertNull(git.getRepository().getRef(Constants.R_REMOTES + "origin/feature/my-feature"));
+    }
+
+    @Test
+    public void selectiveFetchOnlyGetsWantedRefs() throws Exception
+    {
+        Git remoteGit = RepoUtil.createRepositoryWithBranches(newDir(), "develop", "feature/stale");
+        remoteGit.tag().setName("1.0").call();
+        remoteGit.tag().setName("2.0").call();
+        remoteGit.tag().setName("not-a-version").call();
+
+        Git git = Git.init().setDirectory(newDir()).call();
+        StoredConfig config = git.getRepository().getConfig();
+        config.setString(ConfigConstants.CONFIG_REMOTE_SECTION, Constants.DEFAULT_REMOTE_NAME, "url", "file://" + remoteGit.getRepository().getWorkTree().getPath());
+        config.save();
+
+        new SelectiveFetch(git, Constants.DEFAULT_REMOTE_NAME).addBranch("develop").setVersionTagPrefix("").call();
+
+        RefSnapshot refs = new RefSnapshot(git);
+        assertTrue(GitHelper.remoteBranchExists(refs, "develop"));
+        assertFalse(GitHelper.remoteBranchExists(refs, "master"));
+        assertFalse(GitHelper.remoteBranchExists(refs, "feature/stale"));
+        assertTrue(GitHelper.tagExists(refs, "1.0"));
+        assertTrue(GitHelper.tagExists(refs, "2.0"));
+        assertFalse(GitHelper.tagExists(refs, "not-a-version"));
+
+        //only tags newer than what we already have are fetched
+        remoteGit.tag().setName("1.5").call();
+        remoteGit.tag().setName("3.0").call();
+
+        new SelectiveFetch(git, Constants.DEFAULT_REMOTE_NAME).addBranch("develop").setVersionTagPrefix("").call();
+
+        refs.invalidate();
+        assertTrue(GitHelper.tagExists(refs, "3.0"));
+        assertFalse(GitHelper.tagExists(refs, "1.5"));
+    }
+
+    @Test
+    public void cleanCheckIgnoresIgnoredFoldersAndTouchedFiles() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMaster(newDir());
+        File workDir = git.getRepository().getWorkTree();
+
+        File tracked = new File(workDir, "src/tracked.txt");
+        FileUtils.writeStringToFile(tracked, "tracked");
+        FileUtils.writeStringToFile(new File(workDir, ".gitignore"), "target/\n");
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage("add files").call();
+
+        FileUtils.writeStringToFile(new File(workDir, "target/classes/Foo.class"), "ignored");
+        assertTrue(tracked.setLastModified(tracked.lastModified() - 10000));
+
+        assertTrue(GitHelper.workingTreeIsClean(git, false).isClean());
+
+        FileUtils.writeStringToFile(new File(workDir, "src/new.txt"), "untracked");
+        assertTrue(GitHelper.workingTreeIsClean(git, true).isClean());
+        assertTrue(GitHelper.workingTreeIsClean(git, false).isUntracked());
+
+        FileUtils.writeStringToFile(tracked, "modified");
+        assertEquals("Working tree has uncommitted changes and untracked files", GitHelper.workingTreeIsClean(git, false).getMessage());
+        assertEquals(GitHelper.describeWorkingTree(git, false).getMessage(), GitHelper.workingTreeIsClean(git, false).getMessage());
+    }
 }
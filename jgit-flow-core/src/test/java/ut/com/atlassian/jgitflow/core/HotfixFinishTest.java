@@ -165,6 +165,36 @@ public class HotfixFinishTest extends BaseGitFlowTest
         assertEquals(2, GitHelper.getLatestCommit(git, getTaggedCommit(git, "1.1")).getParentCount());
     }
 
+    @Test
+    public void finishHotfixInCoreWithReleaseBranchCheckedOut() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMasterAndTag(newDir());
+        JGitFlowInitCommand initCommand = new JGitFlowInitCommand();
+        JGitFlow flow = initCommand.setDirectory(git.getRepository().getWorkTree()).call();
+
+        flow.releaseStart("1.1").call();
+        String releaseName = flow.getReleaseBranchPrefix() + "1.1";
+
+        flow.git().checkout().setName("master").call();
+        flow.hotfixStart("1.1.1").call();
+
+        File junkFile = new File(git.getRepository().getWorkTree(), "junk.txt");
+        FileUtils.writeStringToFile(junkFile, "I am junk");
+        git.add().addFilepattern(junkFile.getName()).call();
+        RevCommit commit = git.commit().setMessage("committing junk file").call();
+
+        //the release branch is the checked out one, so it has to be merged through the working tree
+        git.checkout().setName(releaseName).call();
+        flow.hotfixFinish("1.1.1").setInCoreMerge(true).call();
+
+        assertTrue(GitHelper.isMergedInto(git, commit, releaseName));
+        assertTrue(git.status().call().isClean());
+
+        git.checkout().setName(releaseName).call();
+        assertTrue(git.status().call().isClean());
+        assertTrue(junkFile.exists());
+    }
+
     @Test
     public void finishHotfixWithNewCommitAndReleaseBranch() throws Exception
     {
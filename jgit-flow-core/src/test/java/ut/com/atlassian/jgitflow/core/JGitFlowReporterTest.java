@@ -0,0 +1,216 @@
+package ut.com.atlassian.jgitflow.core;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.atlassian.jgitflow.core.JGitFlow;
+import com.atlassian.jgitflow.core.JGitFlowReporter;
+import com.atlassian.jgitflow.core.report.AsyncReportWriter;
+import com.atlassian.jgitflow.core.report.ReportLevel;
+import com.google.common.base.Supplier;
+import com.google.common.io.Files;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+public class JGitFlowReporterTest extends BaseGitFlowTest
+{
+    @Test
+    public void asyncWriterFlushesOnClose() throws Exception
+    {
+        JGitFlow flow = JGitFlow.init(newDir());
+        JGitFlowReporter reporter = JGitFlowReporter.get();
+
+        try
+        {
+            reporter.setAsync(true).setMaxRetainedEntries(5);
+
+            for (int i = 0; i < 10; i++)
+            {
+                reporter.infoText("asyncTest", "entry " + i);
+            }
+
+            reporter.close();
+
+            File logFile = new File(flow.git().getRepository().getDirectory(), "jgitflow.log");
+            String log = Files.toString(logFile, Charset.forName("UTF-8"));
+
+            assertTrue(log.contains("entry 0"));
+            assertTrue(log.contains("entry 9"));
+            assertEquals(5, reporter.getRetainedEntries().size());
+        }
+        finally
+        {
+            reporter.setAsync(false).setMaxRetainedEntries(JGitFlowReporter.DEFAULT_MAX_RETAINED_ENTRIES);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void asyncWriterRejectsWritesAfterClose() throws Exception
+    {
+        File dir = newDir();
+        dir.mkdirs();
+        File logFile = new File(dir, "jgitflow.log");
+        AsyncReportWriter writer = new AsyncReportWriter(logFile);
+
+        writer.write("before close");
+        writer.close();
+
+        assertFalse(writer.isOpen());
+        assertEquals("before close", Files.toString(logFile, Charset.forName("UTF-8")));
+
+        writer.write("after close");
+    }
+
+    @Test
+    public void disabledDebugSkipsFormatting() throws Exception
+    {
+        JGitFlow flow = JGitFlow.init(newDir());
+        JGitFlowReporter reporter = JGitFlowReporter.get();
+        final boolean[] called = {false};
+
+        try
+        {
+            reporter.setLevel(ReportLevel.INFO);
+            reporter.debugText("levelTest", new Supplier<String>()
+            {
+                @Override
+                public String get()
+                {
+                    called[0] = true;
+                    return "should not be built";
+                }
+            });
+            reporter.debugText("levelTest", "hidden {}", "debug");
+            reporter.infoText("levelTest", "visible {}", "info");
+            reporter.flush();
+
+            File logFile = new File(flow.git().getRepository().getDirectory(), "jgitflow.log");
+            String log = Files.toString(logFile, Charset.forName("UTF-8"));
+
+            assertFalse(called[0]);
+            assertFalse(log.contains("hidden debug"));
+            assertTrue(log.contains("visible info"));
+        }
+        finally
+        {
+            reporter.setLevel(ReportLevel.DEBUG);
+        }
+    }
+
+    @Test
+    public void commitsAreFormattedAsNames() throws Exception
+    {
+        JGitFlow flow = JGitFlow.init(newDir());
+        JGitFlowReporter reporter = flow.getReporter();
+        RevCommit head = new RevWalk(flow.git().getRepository()).parseCommit(flow.git().getRepository().resolve(Constants.HEAD));
+
+        reporter.debugText("formatTest", "{} has tree {}", head, head.getTree());
+        reporter.flush();
+
+        String log = Files.toString(new File(flow.git().getRepository().getDirectory(), "jgitflow.log"), Charset.forName("UTF-8"));
+        assertTrue(log.contains(head.getName() + " has tree " + head.getTree().getName()));
+    }
+
+    @Test
+    public void reportersAreScopedToRepositories() throws Exception
+    {
+        final JGitFlow flow1 = JGitFlow.init(newDir());
+        final JGitFlow flow2 = JGitFlow.init(newDir());
+
+        assertNotSame(flow1.getReporter(), flow2.getReporter());
+        assertEquals(flow2.getReporter(), JGitFlowReporter.get());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            Future<?> first = executor.submit(writeEntries(flow1, "first"));
+            Future<?> second = executor.submit(writeEntries(flow2, "second"));
+            first.get();
+            second.get();
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        String log1 = Files.toString(new File(flow1.git().getRepository().getDirectory(), "jgitflow.log"), Charset.forName("UTF-8"));
+        String log2 = Files.toString(new File(flow2.git().getRepository().getDirectory(), "jgitflow.log"), Charset.forName("UTF-8"));
+
+        assertTrue(log1.contains("first 99"));
+        assertFalse(log1.contains("second"));
+        assertTrue(log2.contains("second 99"));
+        assertFalse(log2.contains("first"));
+    }
+
+    @Test
+    public void initKeepsEntriesOfOtherRepositories() throws Exception
+    {
+        JGitFlow flow1 = JGitFlow.init(newDir());
+        flow1.getReporter().infoText("other", "unflushed entry of the first repository");
+
+        JGitFlow flow2 = JGitFlow.init(newDir());
+        flow2.getReporter().flush();
+
+        String log2 = Files.toString(new File(flow2.git().getRepository().getDirectory(), "jgitflow.log"), Charset.forName("UTF-8"));
+        assertFalse(log2.contains("unflushed entry of the first repository"));
+
+        flow1.getReporter().flush();
+        String log1 = Files.toString(new File(flow1.git().getRepository().getDirectory(), "jgitflow.log"), Charset.forName("UTF-8"));
+        assertTrue(log1.contains("unflushed entry of the first repository"));
+    }
+
+    @Test
+    public void closeReleasesReporter() throws Exception
+    {
+        File dir = newDir();
+        JGitFlow first = JGitFlow.init(dir);
+        JGitFlow second = JGitFlow.get(dir);
+        JGitFlowReporter reporter = first.getReporter();
+
+        assertSame(reporter, second.getReporter());
+
+        //still used by the second instance
+        first.close();
+        JGitFlow third = JGitFlow.get(dir);
+        assertSame(reporter, third.getReporter());
+
+        second.close();
+        third.close();
+        assertNotSame(reporter, JGitFlowReporter.get());
+
+        JGitFlow fourth = JGitFlow.get(dir);
+        assertNotSame(reporter, fourth.getReporter());
+        fourth.close();
+    }
+
+    private Callable<Void> writeEntries(final JGitFlow flow, final String name)
+    {
+        return new Callable<Void>()
+        {
+            @Override
+            public Void call() throws Exception
+            {
+                JGitFlowReporter reporter = flow.getReporter();
+                for (int i = 0; i < 100; i++)
+                {
+                    reporter.debugMethod(name, "method").infoText(name, "{} " + i, name).endMethod();
+                }
+
+                return null;
+            }
+        };
+    }
+}
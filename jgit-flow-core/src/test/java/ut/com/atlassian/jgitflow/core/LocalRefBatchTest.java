@@ -0,0 +1,140 @@
+package ut.com.atlassian.jgitflow.core;
+
+import java.util.Collection;
+
+import com.atlassian.jgitflow.core.exception.JGitFlowGitAPIException;
+import com.atlassian.jgitflow.core.util.LocalRefBatch;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ReflogEntry;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Test;
+
+import ut.com.atlassian.jgitflow.core.testutils.RepoUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LocalRefBatchTest extends BaseGitFlowTest
+{
+    @Test
+    public void queuedChangesAreVisibleAndAppliedTogether() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMaster(newDir());
+        Repository repo = git.getRepository();
+        RevCommit first = git.commit().setMessage("first").call();
+        git.branchCreate().setName("topic").call();
+        RevCommit second = git.commit().setMessage("second").call();
+
+        LocalRefBatch batch = new LocalRefBatch(repo);
+        batch.update(Constants.R_HEADS + "topic", first, second);
+        batch.create(Constants.R_TAGS + "v1", second);
+        batch.delete(Constants.R_HEADS + "topic", second);
+
+        //moved then deleted is a single delete
+        assertEquals(2, batch.size());
+        assertTrue(batch.isQueued(Constants.R_HEADS + "topic"));
+        assertNull(batch.getQueuedId(Constants.R_HEADS + "topic"));
+        assertEquals(second, batch.getQueuedId(Constants.R_TAGS + "v1"));
+
+        //nothing is written before executing
+        assertEquals(first, repo.getRef(Constants.R_HEADS + "topic").getObjectId());
+
+        batch.execute("test");
+
+        assertTrue(batch.isEmpty());
+        assertNull(repo.getRef(Constants.R_HEADS + "topic"));
+        assertEquals(second, repo.getRef(Constants.R_TAGS + "v1").getObjectId());
+    }
+
+    @Test
+    public void nothingIsWrittenWhenARefMoved() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMaster(newDir());
+        Repository repo = git.getRepository();
+        RevCommit first = git.commit().setMessage("first").call();
+        git.branchCreate().setName("topic").call();
+        RevCommit second = git.commit().setMessage("second").call();
+
+        LocalRefBatch batch = new LocalRefBatch(repo);
+        batch.create(Constants.R_TAGS + "v1", second);
+        //topic is at first, not second
+        batch.update(Constants.R_HEADS + "topic", second, first);
+
+        try
+        {
+            batch.execute("test");
+            fail("stale ref was updated");
+        }
+        catch (JGitFlowGitAPIException e)
+        {
+            //expected
+        }
+
+        assertNull(repo.getRef(Constants.R_TAGS + "v1"));
+        assertEquals(first, repo.getRef(Constants.R_HEADS + "topic").getObjectId());
+        assertFalse(batch.isQueued(Constants.R_TAGS + "v1"));
+    }
+
+    @Test
+    public void appliedRefsAreRevertedWhenALaterOneFails() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMaster(newDir());
+        Repository repo = git.getRepository();
+        RevCommit first = git.commit().setMessage("first").call();
+        git.branchCreate().setName("topic").call();
+        RevCommit second = git.commit().setMessage("second").call();
+        git.branchCreate().setName("other").call();
+
+        LocalRefBatch batch = new LocalRefBatch(repo);
+        batch.update(Constants.R_HEADS + "topic", first, second);
+        //moving other back isn't a fast forward, so it's rejected after topic was written
+        batch.update(Constants.R_HEADS + "other", second, first);
+
+        try
+        {
+            batch.execute("test");
+            fail("non fast forward update was applied");
+        }
+        catch (JGitFlowGitAPIException e)
+        {
+            assertTrue(e.getMessage().contains("other"));
+        }
+
+        assertEquals(first, repo.getRef(Constants.R_HEADS + "topic").getObjectId());
+        assertEquals(second, repo.getRef(Constants.R_HEADS + "other").getObjectId());
+        assertTrue(batch.isEmpty());
+    }
+
+    @Test
+    public void refsKeepTheirOwnReflogMessage() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMaster(newDir());
+        Repository repo = git.getRepository();
+        RevCommit first = git.commit().setMessage("first").call();
+        git.branchCreate().setName("topic").call();
+        RevCommit second = git.commit().setMessage("second").call();
+
+        LocalRefBatch batch = new LocalRefBatch(repo);
+        batch.update(Constants.R_HEADS + "topic", first, second, "merge master: Fast-forward");
+        batch.create(Constants.R_HEADS + "other", second);
+        batch.execute("test");
+
+        assertEquals(second, repo.getRef(Constants.R_HEADS + "topic").getObjectId());
+        assertEquals(second, repo.getRef(Constants.R_HEADS + "other").getObjectId());
+
+        assertEquals("merge master: Fast-forward", latestReflogComment(git, "topic"));
+        assertTrue(latestReflogComment(git, "other").startsWith("test"));
+    }
+
+    private String latestReflogComment(Git git, String branchName) throws Exception
+    {
+        Collection<ReflogEntry> entries = git.reflog().setRef(Constants.R_HEADS + branchName).call();
+        return entries.iterator().next().getComment();
+    }
+}
@@ -0,0 +1,207 @@
+package ut.com.atlassian.jgitflow.core;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.atlassian.jgitflow.core.JGitFlow;
+import com.atlassian.jgitflow.core.JGitFlowInitCommand;
+import com.atlassian.jgitflow.core.exception.LocalBranchExistsException;
+import com.atlassian.jgitflow.core.metrics.Counter;
+import com.atlassian.jgitflow.core.metrics.JGitFlowMetrics;
+import com.atlassian.jgitflow.core.metrics.JsonSummaryCollector;
+import com.atlassian.jgitflow.core.metrics.MetricsListener;
+import com.atlassian.jgitflow.core.metrics.Span;
+import com.atlassian.jgitflow.core.metrics.SpanKind;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.Test;
+
+import ut.com.atlassian.jgitflow.core.testutils.RepoUtil;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest extends BaseGitFlowTest
+{
+    @Test
+    public void finishFeatureWritesSummary() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMasterAndDevelop(newDir());
+        JGitFlowInitCommand initCommand = new JGitFlowInitCommand();
+        JGitFlow flow = initCommand.setDirectory(git.getRepository().getWorkTree()).call();
+
+        JsonSummaryCollector collector = JsonSummaryCollector.forRepository(git.getRepository());
+        JGitFlowMetrics metrics = JGitFlowMetrics.forRepository(git.getRepository()).addListener(collector);
+
+        try
+        {
+            flow.featureStart("my-feature").call();
+            flow.featureFinish("my-feature").call();
+        }
+        finally
+        {
+            metrics.removeListener(collector);
+        }
+
+        File summary = collector.getLastSummary();
+        assertNotNull(summary);
+        assertTrue(summary.getName().endsWith("-feature-finish.json"));
+
+        JsonObject json = new JsonParser().parse(Files.toString(summary, Charsets.UTF_8)).getAsJsonObject();
+        assertEquals("feature-finish", json.get("command").getAsString());
+        assertTrue(json.get("counters").getAsJsonObject().get(Counter.COMMITS_WALKED.getKey()).getAsLong() > 0);
+
+        List<String> phases = new ArrayList<String>();
+        JsonArray spans = json.get("spans").getAsJsonArray();
+        for (JsonElement span : spans)
+        {
+            phases.add(span.getAsJsonObject().get("name").getAsString());
+        }
+
+        assertTrue(phases.contains("requirements"));
+        assertTrue(phases.contains("merge"));
+        assertTrue(phases.contains("cleanup"));
+
+        File[] written = collector.getOutputDir().listFiles();
+        assertNotNull(written);
+        assertEquals(2, written.length);
+    }
+
+    @Test
+    public void nestedSpansRollUpIntoParent() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMasterAndDevelop(newDir());
+        JGitFlowMetrics metrics = JGitFlowMetrics.forRepository(git.getRepository());
+        RecordingListener listener = new RecordingListener();
+        metrics.addListener(listener);
+
+        try
+        {
+            metrics.startCommand("test");
+            metrics.startPhase("outer");
+            JGitFlowMetrics.count(Counter.REFS_SCANNED, 3);
+            metrics.startPhase("inner", "detail");
+            JGitFlowMetrics.count(Counter.REFS_SCANNED, 4);
+            metrics.endSpan();
+            metrics.endCommand();
+        }
+        finally
+        {
+            metrics.removeListener(listener);
+        }
+
+        assertFalse(JGitFlowMetrics.isActive());
+        assertEquals(2, listener.finished.size());
+
+        Span inner = listener.finished.get(0);
+        assertEquals("inner", inner.getName());
+        assertEquals("detail", inner.getDetail());
+        assertEquals(2, inner.getDepth());
+        assertEquals(4L, inner.getCount(Counter.REFS_SCANNED));
+
+        Span outer = listener.finished.get(1);
+        assertEquals(SpanKind.PHASE, outer.getKind());
+        assertEquals(7L, outer.getCount(Counter.REFS_SCANNED));
+
+        assertEquals(7L, listener.command.getCount(Counter.REFS_SCANNED));
+        assertEquals(0L, listener.command.getCount(Counter.BYTES_WRITTEN));
+    }
+
+    @Test
+    public void nothingMeasuredWithoutListeners() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMasterAndDevelop(newDir());
+        JGitFlowMetrics metrics = JGitFlowMetrics.forRepository(git.getRepository());
+
+        metrics.startCommand("test");
+        assertFalse(JGitFlowMetrics.isActive());
+        metrics.endCommand();
+    }
+
+    @Test
+    public void failedRequirementEndsCommand() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMasterAndDevelop(newDir());
+        JGitFlow flow = new JGitFlowInitCommand().setDirectory(git.getRepository().getWorkTree()).call();
+        flow.featureStart("my-feature").call();
+
+        JGitFlowMetrics metrics = JGitFlowMetrics.forRepository(git.getRepository());
+        RecordingListener listener = new RecordingListener();
+        metrics.addListener(listener);
+
+        try
+        {
+            flow.featureStart("my-feature").call();
+            fail("expected the existing branch to fail the start");
+        }
+        catch (LocalBranchExistsException e)
+        {
+            //expected
+        }
+        finally
+        {
+            metrics.removeListener(listener);
+        }
+
+        assertFalse(JGitFlowMetrics.isActive());
+        assertNotNull(listener.command);
+        assertEquals("feature-start", listener.command.getName());
+    }
+
+    @Test
+    public void listenersAreFoundByType() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMasterAndDevelop(newDir());
+        JGitFlowMetrics metrics = JGitFlowMetrics.forRepository(git.getRepository());
+        RecordingListener listener = new RecordingListener();
+
+        assertNull(metrics.getListener(RecordingListener.class));
+
+        metrics.addListener(listener);
+        try
+        {
+            assertSame(listener, metrics.getListener(RecordingListener.class));
+            assertSame(listener, metrics.getListener(MetricsListener.class));
+            assertNull(metrics.getListener(JsonSummaryCollector.class));
+        }
+        finally
+        {
+            metrics.removeListener(listener);
+        }
+    }
+
+    private static class RecordingListener implements MetricsListener
+    {
+        private final List<Span> finished = new ArrayList<Span>();
+        private Span command;
+
+        @Override
+        public void commandStarted(String commandName)
+        {
+        }
+
+        @Override
+        public void spanStarted(String commandName, SpanKind kind, String name, String detail, int depth)
+        {
+        }
+
+        @Override
+        public void spanFinished(String commandName, Span span)
+        {
+            finished.add(span);
+        }
+
+        @Override
+        public void commandFinished(String commandName, Span command)
+        {
+            this.command = command;
+        }
+    }
+}
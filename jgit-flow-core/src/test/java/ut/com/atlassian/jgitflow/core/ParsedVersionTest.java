@@ -0,0 +1,146 @@
+package ut.com.atlassian.jgitflow.core;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+
+import com.atlassian.jgitflow.core.BaseVersionInfo;
+import com.atlassian.jgitflow.core.ParsedVersion;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ParsedVersionTest
+{
+    private static final String[] VERSIONS = {
+            "1", "1.0", "1.22.0", "01.002", "1.0-SNAPSHOT", "1.0_SNAPSHOT", "1.0SNAPSHOT", "SNAPSHOT", "trunk-SNAPSHOT",
+            "my_branch-SNAPSHOT", "t-SNAPSHOT", "1.0-beta", "1.0-beta-2", "1.0-beta2", "1.0beta_2-20140101", "1.0-RC1-SNAPSHOT",
+            "1.0-beta-", "1.0-beta--x", "1.0-123", "1.0-123-foo", "1.0.x", "1.0.", "1..0", "1.0-alpha-1-SNAPSHOT", "2.0_rc_3_b",
+            "1.0 final", "1.0-é", "1.0-beta\n", "1.0\n", "v1.0", "", "-1.0", "a", "1.0-SNAPSHOT-SNAPSHOT", "1.2.3.4.5.6.7.8.9.10"
+    };
+
+    @Test
+    public void parsesLikeTheVersionPatterns() throws Exception
+    {
+        for (String version : VERSIONS)
+        {
+            ParsedVersion parsed = ParsedVersion.parse(version);
+            String[] expected = parseWithPatterns(version);
+
+            if (null == expected)
+            {
+                assertFalse(version, parsed.isValid());
+                continue;
+            }
+
+            assertTrue(version, parsed.isValid());
+            assertEquals(version, expected[0], null == parsed.getDigits() ? null : join(parsed.getDigits()));
+            assertEquals(version, expected[1], parsed.getAnnotationSeparator());
+            assertEquals(version, expected[2], parsed.getAnnotation());
+            assertEquals(version, expected[3], parsed.getAnnotationRevSeparator());
+            assertEquals(version, expected[4], parsed.getAnnotationRevision());
+            assertEquals(version, expected[5], parsed.getBuildSeparator());
+            assertEquals(version, expected[6], parsed.getBuildSpecifier());
+        }
+    }
+
+    @Test
+    public void parsedVersionsAreInterned() throws Exception
+    {
+        assertSame(ParsedVersion.of("3.1.4-beta-2"), ParsedVersion.of(new String("3.1.4-beta-2")));
+        assertSame(ParsedVersion.of("3.1.4").getComparable(), ParsedVersion.of("3.1.4").getComparable());
+        assertFalse(ParsedVersion.of("not a version").isValid());
+    }
+
+    @Test
+    public void digitsAreSharedButNotWritable() throws Exception
+    {
+        BaseVersionInfo one = new BaseVersionInfo("4.5.6");
+        BaseVersionInfo two = new BaseVersionInfo("4.5.6");
+
+        assertEquals(0, one.compareTo(two));
+        assertNull(ParsedVersion.of("SNAPSHOT").getDigits());
+
+        try
+        {
+            ParsedVersion.of("4.5.6").getDigits().set(0, "5");
+        }
+        catch (UnsupportedOperationException e)
+        {
+            return;
+        }
+        throw new AssertionError("digits should not be writable");
+    }
+
+    /**
+     * The regex parse BaseVersionInfo used before ParsedVersion
+     */
+    private String[] parseWithPatterns(String version)
+    {
+        if (BaseVersionInfo.ALTERNATE_PATTERN.matcher(version).matches())
+        {
+            return new String[]{null, null, null, null, null, null, version};
+        }
+
+        Matcher m = BaseVersionInfo.STANDARD_PATTERN.matcher(version);
+        if (!m.matches())
+        {
+            return null;
+        }
+
+        String[] result = new String[7];
+        result[0] = m.group(1);
+        if (!"SNAPSHOT".equals(m.group(3)))
+        {
+            result[1] = m.group(2);
+            result[2] = nullIfEmpty(m.group(3));
+
+            if (!isEmpty(m.group(4)) && isEmpty(m.group(5)))
+            {
+                result[5] = m.group(4);
+                result[6] = nullIfEmpty(m.group(7));
+            }
+            else
+            {
+                result[3] = m.group(4);
+                result[4] = nullIfEmpty(m.group(5));
+                result[5] = m.group(6);
+                result[6] = nullIfEmpty(m.group(7));
+            }
+        }
+        else
+        {
+            result[5] = m.group(2);
+            result[6] = nullIfEmpty(m.group(3));
+        }
+        return result;
+    }
+
+    private static String join(Iterable<String> digits)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (String digit : digits)
+        {
+            if (sb.length() > 0)
+            {
+                sb.append('.');
+            }
+            sb.append(digit);
+        }
+        return sb.toString();
+    }
+
+    private static boolean isEmpty(String s)
+    {
+        return null == s || s.isEmpty();
+    }
+
+    private static String nullIfEmpty(String s)
+    {
+        return isEmpty(s) ? null : s;
+    }
+}
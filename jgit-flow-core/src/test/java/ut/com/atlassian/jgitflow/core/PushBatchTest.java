@@ -0,0 +1,228 @@
+package ut.com.atlassian.jgitflow.core;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.atlassian.jgitflow.core.GitFlowConfiguration;
+import com.atlassian.jgitflow.core.JGitFlow;
+import com.atlassian.jgitflow.core.JGitFlowInitCommand;
+import com.atlassian.jgitflow.core.ReleaseMergeResult;
+import com.atlassian.jgitflow.core.command.JGitFlowCommand;
+import com.atlassian.jgitflow.core.exception.JGitFlowExtensionException;
+import com.atlassian.jgitflow.core.exception.JGitFlowGitAPIException;
+import com.atlassian.jgitflow.core.extension.ExtensionCommand;
+import com.atlassian.jgitflow.core.extension.ExtensionFailStrategy;
+import com.atlassian.jgitflow.core.metrics.JGitFlowMetrics;
+import com.atlassian.jgitflow.core.metrics.MetricsListener;
+import com.atlassian.jgitflow.core.metrics.Span;
+import com.atlassian.jgitflow.core.metrics.SpanKind;
+
+import com.google.common.collect.Lists;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+import org.junit.Test;
+
+import ut.com.atlassian.jgitflow.core.testutils.HotfixFinishExtensionForTests;
+import ut.com.atlassian.jgitflow.core.testutils.RepoUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Finishing a hotfix while a release is open queues a push of develop and the hotfix, then one for the release branch,
+ * both times with the tags, and finally deletes the hotfix branch on origin. The updates go out in one push, and the
+ * delete in a second one once origin took them.
+ */
+public class PushBatchTest extends BaseGitFlowTest
+{
+    private static final String HOTFIX = "1.1.1";
+
+    @Test
+    public void finishSendsUpdatesThenDeletes() throws Exception
+    {
+        Git remoteGit = RepoUtil.createRepositoryWithMasterAndTag(newDir());
+        JGitFlow flow = startHotfixWithRelease(remoteGit);
+
+        PushCounter pushes = new PushCounter();
+        JGitFlowMetrics metrics = JGitFlowMetrics.forRepository(flow.git().getRepository()).addListener(pushes);
+
+        try
+        {
+            ReleaseMergeResult result = flow.hotfixFinish(HOTFIX).setFetch(true).setPush(true).call();
+            assertTrue(result.wasSuccessful());
+        }
+        finally
+        {
+            metrics.removeListener(pushes);
+        }
+
+        assertEquals(2, pushes.count);
+
+        Repository local = flow.git().getRepository();
+        Repository remote = remoteGit.getRepository();
+        assertEquals(local.getRef(flow.getDevelopBranchName()).getObjectId(), remote.getRef(Constants.R_HEADS + flow.getDevelopBranchName()).getObjectId());
+        assertNotNull(remote.getRef(Constants.R_TAGS + HOTFIX));
+    }
+
+    @Test
+    public void duplicatePushesAreSentOnce() throws Exception
+    {
+        Git remoteGit = RepoUtil.createRepositoryWithMasterAndTag(newDir());
+        JGitFlow flow = startHotfixWithRelease(remoteGit);
+
+        //both pushes include the tags, a second update of the same tag would fail the push
+        PushRecordingExtension extension = new PushRecordingExtension(remoteGit, flow.getHotfixBranchPrefix() + HOTFIX);
+        ReleaseMergeResult result = flow.hotfixFinish(HOTFIX).setFetch(true).setPush(true).setExtension(extension).call();
+
+        assertTrue(result.wasSuccessful());
+        assertNotNull(remoteGit.getRepository().getRef(Constants.R_TAGS + HOTFIX));
+
+        //afterPush still runs once for each push that was queued
+        assertEquals(2, extension.remoteBranchSeen.size());
+    }
+
+    @Test
+    public void afterPushSeesTheDeletedBranch() throws Exception
+    {
+        Git remoteGit = RepoUtil.createRepositoryWithMasterAndTag(newDir());
+        JGitFlow flow = startHotfixWithRelease(remoteGit);
+
+        PushRecordingExtension extension = new PushRecordingExtension(remoteGit, flow.getHotfixBranchPrefix() + HOTFIX);
+        ReleaseMergeResult result = flow.hotfixFinish(HOTFIX).setFetch(true).setPush(true).setExtension(extension).call();
+
+        assertTrue(result.wasSuccessful());
+        assertNull(remoteGit.getRepository().getRef(Constants.R_HEADS + flow.getHotfixBranchPrefix() + HOTFIX));
+
+        //the afterPush commands run once the batch is sent, after the branch was deleted on origin
+        assertFalse(extension.remoteBranchSeen.isEmpty());
+        for (boolean seen : extension.remoteBranchSeen)
+        {
+            assertFalse(seen);
+        }
+    }
+
+    @Test
+    public void rejectedUpdateKeepsTheBranches() throws Exception
+    {
+        Git remoteGit = RepoUtil.createRepositoryWithMasterAndTag(newDir());
+        JGitFlow flow = startHotfixWithRelease(remoteGit);
+        String hotfixBranch = flow.getHotfixBranchPrefix() + HOTFIX;
+
+        //someone else pushes to develop after we last fetched
+        String remoteBranch = remoteGit.getRepository().getBranch();
+        remoteGit.checkout().setName(flow.getDevelopBranchName()).call();
+        remoteGit.commit().setMessage("someone else's commit").call();
+        remoteGit.checkout().setName(remoteBranch).call();
+
+        try
+        {
+            flow.hotfixFinish(HOTFIX).setPush(true).setForceDeleteBranch(true).call();
+            fail("develop was pushed over origin's");
+        }
+        catch (JGitFlowGitAPIException e)
+        {
+            assertTrue(e.getMessage(), e.getMessage().contains(flow.getDevelopBranchName()));
+        }
+
+        assertNotNull(remoteGit.getRepository().getRef(Constants.R_HEADS + hotfixBranch));
+        assertNotNull(flow.git().getRepository().getRef(Constants.R_HEADS + hotfixBranch));
+    }
+
+    private JGitFlow startHotfixWithRelease(Git remoteGit) throws Exception
+    {
+        Git git = Git.cloneRepository().setDirectory(newDir()).setURI("file://" + remoteGit.getRepository().getWorkTree().getPath()).call();
+        JGitFlow flow = new JGitFlowInitCommand().setDirectory(git.getRepository().getWorkTree()).call();
+
+        flow.releaseStart("1.1").call();
+        flow.git().checkout().setName("master").call();
+        flow.hotfixStart(HOTFIX).call();
+
+        File junkFile = new File(git.getRepository().getWorkTree(), "junk.txt");
+        FileUtils.writeStringToFile(junkFile, "I am junk");
+        git.add().addFilepattern(junkFile.getName()).call();
+        git.commit().setMessage("committing junk file").call();
+
+        git.push().setRemote(Constants.DEFAULT_REMOTE_NAME).setPushAll().call();
+
+        return flow;
+    }
+
+    private static class PushCounter implements MetricsListener
+    {
+        private int count;
+
+        @Override
+        public void commandStarted(String commandName)
+        {
+        }
+
+        @Override
+        public void spanStarted(String commandName, SpanKind kind, String name, String detail, int depth)
+        {
+        }
+
+        @Override
+        public void spanFinished(String commandName, Span span)
+        {
+            if (SpanKind.PHASE.equals(span.getKind()) && "push".equals(span.getName()))
+            {
+                count++;
+            }
+        }
+
+        @Override
+        public void commandFinished(String commandName, Span command)
+        {
+        }
+    }
+
+    /**
+     * Records for every afterPush whether origin still has the given branch
+     */
+    private static class PushRecordingExtension extends HotfixFinishExtensionForTests
+    {
+        private final Git remoteGit;
+        private final String branchName;
+        private final List<Boolean> remoteBranchSeen = new ArrayList<Boolean>();
+
+        private PushRecordingExtension(Git remoteGit, String branchName)
+        {
+            this.remoteGit = remoteGit;
+            this.branchName = branchName;
+        }
+
+        @Override
+        public Iterable<ExtensionCommand> afterPush()
+        {
+            return Lists.<ExtensionCommand>newArrayList(new ExtensionCommand()
+            {
+                @Override
+                public void execute(GitFlowConfiguration configuration, Git git, JGitFlowCommand gitFlowCommand) throws JGitFlowExtensionException
+                {
+                    try
+                    {
+                        remoteBranchSeen.add(null != remoteGit.getRepository().getRef(Constants.R_HEADS + branchName));
+                    }
+                    catch (Exception e)
+                    {
+                        throw new JGitFlowExtensionException(e);
+                    }
+                }
+
+                @Override
+                public ExtensionFailStrategy failStrategy()
+                {
+                    return ExtensionFailStrategy.ERROR;
+                }
+            });
+        }
+    }
+}
@@ -10,8 +10,10 @@ import com.atlassian.jgitflow.core.util.GitHelper;
 import org.apache.commons.io.FileUtils;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.ListBranchCommand;
+import org.eclipse.jgit.lib.ConfigConstants;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.StoredConfig;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.junit.Test;
 import ut.com.atlassian.jgitflow.core.testutils.RepoUtil;
@@ -223,6 +225,100 @@ public class ReleaseFinishTest extends BaseGitFlowTest
         assertNotNull(ref2check);
     }
 
+    @Test
+    public void finishReleaseInCoreLeavesWorkingTreeAlone() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMasterAndDevelop(newDir());
+        JGitFlowInitCommand initCommand = new JGitFlowInitCommand();
+        JGitFlow flow = initCommand.setDirectory(git.getRepository().getWorkTree()).call();
+
+        flow.releaseStart("1.0").call();
+
+        File junkFile = new File(git.getRepository().getWorkTree(), "junk.txt");
+        FileUtils.writeStringToFile(junkFile, "I am junk");
+        git.add().addFilepattern(junkFile.getName()).call();
+        RevCommit commit = git.commit().setMessage("committing junk file").call();
+
+        ReleaseMergeResult result = flow.releaseFinish("1.0").setInCoreMerge(true).setKeepBranch(true).call();
+
+        assertTrue(result.wasSuccessful());
+
+        //nothing was checked out
+        assertEquals(flow.getReleaseBranchPrefix() + "1.0", git.getRepository().getBranch());
+        assertTrue(junkFile.exists());
+
+        //but the release was merged and tagged
+        RevCommit developHead = GitHelper.getLatestCommit(git, flow.getDevelopBranchName());
+        assertEquals(2, developHead.getParentCount());
+        assertTrue(GitHelper.isMergedInto(git, commit, flow.getDevelopBranchName()));
+        assertEquals(developHead.getName(), getTaggedCommit(git, "1.0"));
+    }
+
+    @Test
+    public void finishReleaseInCoreInBareRepository() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMasterAndDevelop(newDir());
+        JGitFlowInitCommand initCommand = new JGitFlowInitCommand();
+        JGitFlow flow = initCommand.setDirectory(git.getRepository().getWorkTree()).call();
+
+        flow.releaseStart("1.0").call();
+
+        File junkFile = new File(git.getRepository().getWorkTree(), "junk.txt");
+        FileUtils.writeStringToFile(junkFile, "I am junk");
+        git.add().addFilepattern(junkFile.getName()).call();
+        RevCommit commit = git.commit().setMessage("committing junk file").call();
+
+        //turn the repository into a bare one
+        File gitDir = git.getRepository().getDirectory();
+        StoredConfig config = git.getRepository().getConfig();
+        config.setBoolean(ConfigConstants.CONFIG_CORE_SECTION, null, ConfigConstants.CONFIG_KEY_BARE, true);
+        config.save();
+
+        JGitFlow bareFlow = JGitFlow.get(gitDir);
+        assertTrue(bareFlow.git().getRepository().isBare());
+
+        ReleaseMergeResult result = bareFlow.releaseFinish("1.0").setInCoreMerge(true).call();
+
+        assertTrue(result.wasSuccessful());
+        assertTrue(GitHelper.isMergedInto(bareFlow.git(), commit, bareFlow.getDevelopBranchName()));
+        assertNotNull(bareFlow.git().getRepository().getRef("1.0"));
+
+        //release branch should be gone and HEAD moved off it
+        assertNull(bareFlow.git().getRepository().getRef(bareFlow.getReleaseBranchPrefix() + "1.0"));
+        assertEquals(bareFlow.getDevelopBranchName(), bareFlow.git().getRepository().getBranch());
+    }
+
+    @Test
+    public void finishReleaseInCoreUpdatesRefsTogether() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMasterAndDevelop(newDir());
+        JGitFlowInitCommand initCommand = new JGitFlowInitCommand();
+        JGitFlow flow = initCommand.setDirectory(git.getRepository().getWorkTree()).call();
+
+        flow.releaseStart("1.0").call();
+        String releaseBranch = flow.getReleaseBranchPrefix() + "1.0";
+
+        File junkFile = new File(git.getRepository().getWorkTree(), "junk.txt");
+        FileUtils.writeStringToFile(junkFile, "I am junk");
+        git.add().addFilepattern(junkFile.getName()).call();
+        git.commit().setMessage("committing junk file").call();
+
+        StoredConfig config = git.getRepository().getConfig();
+        config.setString(ConfigConstants.CONFIG_BRANCH_SECTION, releaseBranch, ConfigConstants.CONFIG_KEY_REMOTE, Constants.DEFAULT_REMOTE_NAME);
+        config.save();
+
+        ReleaseMergeResult result = flow.releaseFinish("1.0").setInCoreMerge(true).call();
+        assertTrue(result.wasSuccessful());
+
+        //the merge was written by the batched update, with the reflog message of the merge
+        String comment = git.getRepository().getReflogReader(Constants.R_HEADS + flow.getDevelopBranchName()).getLastEntry().getComment();
+        assertTrue(comment, comment.startsWith("merge " + releaseBranch));
+
+        assertNotNull(git.getRepository().getRef(Constants.R_TAGS + "1.0"));
+        assertNull(git.getRepository().getRef(Constants.R_HEADS + releaseBranch));
+        assertTrue(git.getRepository().getConfig().getNames(ConfigConstants.CONFIG_BRANCH_SECTION, releaseBranch).isEmpty());
+    }
+
     @Test
     public void finishReleaseWithMultipleCommits() throws Exception
     {
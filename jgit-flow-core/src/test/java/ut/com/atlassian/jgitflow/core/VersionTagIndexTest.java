@@ -0,0 +1,89 @@
+package ut.com.atlassian.jgitflow.core;
+
+import java.io.File;
+
+import com.atlassian.jgitflow.core.util.VersionTagIndex;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Test;
+
+import ut.com.atlassian.jgitflow.core.testutils.RepoUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class VersionTagIndexTest extends BaseGitFlowTest
+{
+    @Test
+    public void versionTagsSkipNonVersionTags() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMaster(newDir());
+        RevCommit first = git.commit().setMessage("first").call();
+        git.tag().setName("v1.0").setMessage("1.0").call();
+        RevCommit second = git.commit().setMessage("second").call();
+        git.tag().setName("v1.10").setAnnotated(false).call();
+        git.tag().setName("vnext").setMessage("not a version").call();
+        git.tag().setName("unrelated").setMessage("no prefix").call();
+        RevCommit third = git.commit().setMessage("third").call();
+        git.tag().setName("v1.9").setMessage("1.9").call();
+
+        VersionTagIndex index = VersionTagIndex.load(git.getRepository(), "v");
+
+        assertEquals(3, index.getVersionTags().size());
+        assertEquals("v1.10", index.getLatest().getTagName());
+        assertEquals(second, index.getLatest().getCommitId());
+        assertEquals(first, index.getVersionTags().get(0).getCommitId());
+        assertEquals(third, index.getVersionTags().get(1).getCommitId());
+
+        assertTrue(VersionTagIndex.indexFile(git.getRepository(), "v").isFile());
+    }
+
+    @Test
+    public void prefixesKeepTheirOwnIndex() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMaster(newDir());
+        git.tag().setName("v1.0").setMessage("1.0").call();
+        git.tag().setName("2.0").setMessage("2.0").call();
+
+        VersionTagIndex.load(git.getRepository(), "v");
+        File prefixed = VersionTagIndex.indexFile(git.getRepository(), "v");
+        File unprefixed = VersionTagIndex.indexFile(git.getRepository(), "");
+        assertFalse(prefixed.equals(unprefixed));
+
+        //loading with another prefix leaves the index alone, so it isn't rebuilt on the next load
+        assertTrue(prefixed.setLastModified(1000L));
+        assertEquals("2.0", VersionTagIndex.load(git.getRepository(), "").getLatest().getTagName());
+        assertEquals("v1.0", VersionTagIndex.load(git.getRepository(), "v").getLatest().getTagName());
+        assertEquals(1000L, prefixed.lastModified());
+        assertTrue(unprefixed.isFile());
+
+        //and nothing is left behind from writing them
+        for (String name : prefixed.getParentFile().list())
+        {
+            assertFalse(name, name.endsWith(".tmp"));
+        }
+    }
+
+    @Test
+    public void followsCreatedAndDeletedTags() throws Exception
+    {
+        Git git = RepoUtil.createRepositoryWithMaster(newDir());
+        git.tag().setName("1.0").setMessage("1.0").call();
+        assertEquals("1.0", VersionTagIndex.load(git.getRepository(), "").getLatest().getTagName());
+
+        RevCommit next = git.commit().setMessage("next").call();
+        git.tag().setName("2.0").setMessage("2.0").call();
+        VersionTagIndex index = VersionTagIndex.load(git.getRepository(), "");
+        assertEquals("2.0", index.getLatest().getTagName());
+        assertEquals(next, index.getLatest().getCommitId());
+
+        git.tagDelete().setTags("2.0").call();
+        assertEquals("1.0", VersionTagIndex.load(git.getRepository(), "").getLatest().getTagName());
+
+        git.tagDelete().setTags("1.0").call();
+        assertNull(VersionTagIndex.load(git.getRepository(), "").getLatest());
+    }
+}
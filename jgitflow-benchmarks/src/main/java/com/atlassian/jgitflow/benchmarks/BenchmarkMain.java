@@ -0,0 +1,58 @@
+package com.atlassian.jgitflow.benchmarks;
+
+import java.io.File;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks like org.openjdk.jmh.Main does, taking the same arguments, but writes the results as JSON
+ * to jmh-result.json in the module's target dir unless another result format or file is given, so runs can be
+ * compared over time.
+ * <p>
+ * e.g. java -jar jgitflow-benchmarks/target/benchmarks.jar RefLookup -p refCount=1000
+ * </p>
+ */
+public class BenchmarkMain
+{
+    public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException
+    {
+        CommandLineOptions cmdOptions = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmdOptions);
+
+        if (!cmdOptions.getResultFormat().hasValue())
+        {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+
+        if (!cmdOptions.getResult().hasValue())
+        {
+            options.result(new File(getTargetDir(), DEFAULT_RESULT_FILE).getPath());
+        }
+
+        new Runner(options.build()).run();
+    }
+
+    /**
+     * @return the dir the benchmarks jar or classes are in, which is the module's target dir wherever they're run from
+     */
+    private static File getTargetDir()
+    {
+        try
+        {
+            File location = new File(BenchmarkMain.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            return location.getParentFile();
+        }
+        catch (Exception e)
+        {
+            return new File("target");
+        }
+    }
+}
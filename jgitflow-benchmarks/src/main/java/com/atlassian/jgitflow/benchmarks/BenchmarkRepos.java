@@ -0,0 +1,127 @@
+package com.atlassian.jgitflow.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.atlassian.jgitflow.core.JGitFlowReporter;
+import com.atlassian.jgitflow.core.report.ReportLevel;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TreeFormatter;
+
+/**
+ * Builds the throw-away repositories the benchmarks run against.
+ * <p>
+ * Commits are written straight through an ObjectInserter and refs are written as a packed-refs file, so even
+ * repositories with 100k refs or deep histories are set up in seconds.
+ * </p>
+ */
+public final class BenchmarkRepos
+{
+    private static final PersonIdent IDENT = new PersonIdent("jgitflow", "jgitflow@example.com", 0L, 0);
+
+    private BenchmarkRepos()
+    {
+    }
+
+    /**
+     * @return a new repository with one empty commit on master, reporting switched off
+     */
+    public static Git create() throws GitAPIException
+    {
+        Git git = Git.init().setDirectory(Files.createTempDir()).call();
+        git.commit().setMessage("initial commit").call();
+
+        //the report log would otherwise be written on every helper call
+        JGitFlowReporter.forRepository(git.getRepository()).setLevel(ReportLevel.OFF);
+
+        return git;
+    }
+
+    /**
+     * Writes a chain of commits with empty trees on top of the given parent. Chains with different labels never share commits.
+     *
+     * @return the ids of the commits, oldest first
+     */
+    public static ObjectId[] commitChain(Repository repo, ObjectId parent, String label, int length) throws IOException
+    {
+        ObjectId[] commits = new ObjectId[length];
+        ObjectInserter inserter = repo.newObjectInserter();
+
+        try
+        {
+            ObjectId emptyTree = inserter.insert(new TreeFormatter());
+            ObjectId previous = parent;
+
+            for (int i = 0; i < length; i++)
+            {
+                CommitBuilder commit = new CommitBuilder();
+                commit.setTreeId(emptyTree);
+                commit.setParentId(previous);
+                commit.setAuthor(IDENT);
+                commit.setCommitter(IDENT);
+                commit.setMessage(label + " " + i);
+
+                previous = inserter.insert(commit);
+                commits[i] = previous;
+            }
+
+            inserter.flush();
+        }
+        finally
+        {
+            inserter.release();
+        }
+
+        return commits;
+    }
+
+    /**
+     * Writes all refs into packed-refs in one go
+     *
+     * @param refs full ref names to the ids they point to
+     */
+    public static void writePackedRefs(Repository repo, Map<String, ObjectId> refs) throws IOException
+    {
+        StringBuilder packed = new StringBuilder("# pack-refs with: peeled \n");
+
+        for (Map.Entry<String, ObjectId> ref : new TreeMap<String, ObjectId>(refs).entrySet())
+        {
+            packed.append(ref.getValue().name()).append(' ').append(ref.getKey()).append('\n');
+        }
+
+        Files.write(packed.toString(), new File(repo.getDirectory(), Constants.PACKED_REFS), Charsets.UTF_8);
+    }
+
+    public static void updateRef(Repository repo, String refName, ObjectId id) throws IOException
+    {
+        RefUpdate update = repo.updateRef(refName);
+        update.setNewObjectId(id);
+        update.setForceUpdate(true);
+        update.forceUpdate();
+    }
+
+    public static void delete(Git git) throws IOException
+    {
+        if (null != git)
+        {
+            File workTree = git.getRepository().getWorkTree();
+            git.getRepository().close();
+            FileUtils.deleteDirectory(workTree);
+        }
+    }
+}
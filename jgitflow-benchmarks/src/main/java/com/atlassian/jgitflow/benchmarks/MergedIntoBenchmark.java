@@ -0,0 +1,76 @@
+package com.atlassian.jgitflow.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.atlassian.jgitflow.core.util.GitHelper;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Merge checks against develop when the branch being checked forked off at the bottom of a deep history,
+ * which makes the walk cover the whole of develop.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MergedIntoBenchmark
+{
+    @Param({"10", "100", "1000", "10000"})
+    public int depth;
+
+    private Git git;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        git = BenchmarkRepos.create();
+        Repository repo = git.getRepository();
+        ObjectId root = repo.resolve(Constants.HEAD);
+
+        //merged: feature/merged is an ancestor of develop
+        ObjectId[] develop = BenchmarkRepos.commitChain(repo, root, "develop", depth);
+        BenchmarkRepos.updateRef(repo, Constants.R_HEADS + "develop", develop[depth - 1]);
+        BenchmarkRepos.updateRef(repo, Constants.R_HEADS + "feature/merged", develop[0]);
+
+        //not merged: feature/open forked off the root and has its own commit
+        ObjectId[] open = BenchmarkRepos.commitChain(repo, root, "feature", 1);
+        BenchmarkRepos.updateRef(repo, Constants.R_HEADS + "feature/open", open[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        BenchmarkRepos.delete(git);
+    }
+
+    @Benchmark
+    public boolean merged() throws Exception
+    {
+        return GitHelper.isMergedInto(git, "feature/merged", "develop");
+    }
+
+    @Benchmark
+    public boolean notMerged() throws Exception
+    {
+        return GitHelper.isMergedInto(git, "feature/open", "develop");
+    }
+}
@@ -0,0 +1,233 @@
+package com.atlassian.jgitflow.benchmarks;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.atlassian.maven.plugins.jgitflow.ReleaseContext;
+import com.atlassian.maven.plugins.jgitflow.provider.ContextProvider;
+import com.atlassian.maven.plugins.jgitflow.provider.DefaultContextProvider;
+import com.atlassian.maven.plugins.jgitflow.rewrite.MavenProjectRewriter;
+import com.atlassian.maven.plugins.jgitflow.rewrite.ProjectChangeset;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+import org.apache.maven.artifact.ArtifactUtils;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static com.atlassian.maven.plugins.jgitflow.rewrite.ArtifactReleaseVersionChange.artifactReleaseVersionChange;
+import static com.atlassian.maven.plugins.jgitflow.rewrite.ParentReleaseVersionChange.parentReleaseVersionChange;
+import static com.atlassian.maven.plugins.jgitflow.rewrite.ProjectReleaseVersionChange.projectReleaseVersionChange;
+
+/**
+ * Rewrites the poms of a multi-module reactor from snapshot to release versions, the way release start does.
+ * Each module has its parent, dependencies on its sibling modules, third party dependencies, plugins and comments.
+ * The poms are put back before every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PomRewriteBenchmark
+{
+    private static final String GROUP_ID = "com.example.bench";
+    private static final String SNAPSHOT = "1.0-SNAPSHOT";
+    private static final String RELEASE = "1.0";
+
+    @Param({"10", "100"})
+    public int moduleCount;
+
+    @Param({"false", "true"})
+    public boolean inPlacePomRewrite;
+
+    @Param({"1", "4"})
+    public int rewriteThreads;
+
+    private File baseDir;
+    private MavenProjectRewriter rewriter;
+    private List<MavenProject> projects;
+    private List<ProjectChangeset> changes;
+    private Map<File, String> originalPoms;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        baseDir = Files.createTempDir();
+        projects = new ArrayList<MavenProject>();
+        originalPoms = new HashMap<File, String>();
+
+        Map<String, String> originalVersions = new HashMap<String, String>();
+        Map<String, String> releaseVersions = new HashMap<String, String>();
+
+        MavenProject root = project("root", null, baseDir, rootPom());
+        projects.add(root);
+
+        for (int i = 0; i < moduleCount; i++)
+        {
+            projects.add(project("module" + i, root, new File(baseDir, "module" + i), modulePom(i)));
+        }
+
+        for (MavenProject project : projects)
+        {
+            String key = ArtifactUtils.versionlessKey(project.getGroupId(), project.getArtifactId());
+            originalVersions.put(key, SNAPSHOT);
+            releaseVersions.put(key, RELEASE);
+        }
+
+        ProjectChangeset changeset = new ProjectChangeset()
+                .with(parentReleaseVersionChange(originalVersions, releaseVersions, false))
+                .with(projectReleaseVersionChange(releaseVersions, false))
+                .with(artifactReleaseVersionChange(originalVersions, releaseVersions, true));
+
+        changes = new ArrayList<ProjectChangeset>();
+        for (int i = 0; i < projects.size(); i++)
+        {
+            changes.add(changeset);
+        }
+
+        ContextProvider contextProvider = new DefaultContextProvider();
+        contextProvider.setContext(new ReleaseContext(baseDir).setEol("lf").setInPlacePomRewrite(inPlacePomRewrite));
+
+        rewriter = new MavenProjectRewriter();
+        Field field = MavenProjectRewriter.class.getDeclaredField("contextProvider");
+        field.setAccessible(true);
+        field.set(rewriter, contextProvider);
+    }
+
+    @Setup(Level.Invocation)
+    public void restorePoms() throws Exception
+    {
+        for (Map.Entry<File, String> pom : originalPoms.entrySet())
+        {
+            Files.write(pom.getValue(), pom.getKey(), Charsets.UTF_8);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        FileUtils.deleteDirectory(baseDir);
+    }
+
+    @Benchmark
+    public void applyChanges() throws Exception
+    {
+        rewriter.applyChanges(projects, changes, rewriteThreads);
+    }
+
+    private MavenProject project(String artifactId, MavenProject parent, File dir, String pom) throws Exception
+    {
+        File pomFile = new File(dir, "pom.xml");
+        Files.createParentDirs(pomFile);
+        Files.write(pom, pomFile, Charsets.UTF_8);
+        originalPoms.put(pomFile, pom);
+
+        Model model = new Model();
+        model.setGroupId(GROUP_ID);
+        model.setArtifactId(artifactId);
+        model.setVersion(SNAPSHOT);
+
+        MavenProject project = new MavenProject(model);
+        project.setOriginalModel(model);
+        project.setFile(pomFile);
+        if (null != parent)
+        {
+            project.setParent(parent);
+        }
+
+        return project;
+    }
+
+    private String rootPom()
+    {
+        StringBuilder pom = new StringBuilder();
+        pom.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        pom.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+        pom.append("    <modelVersion>4.0.0</modelVersion>\n");
+        pom.append("    <groupId>").append(GROUP_ID).append("</groupId>\n");
+        pom.append("    <artifactId>root</artifactId>\n");
+        pom.append("    <version>").append(SNAPSHOT).append("</version>\n");
+        pom.append("    <packaging>pom</packaging>\n\n");
+        pom.append("    <modules>\n");
+        for (int i = 0; i < moduleCount; i++)
+        {
+            pom.append("        <module>module").append(i).append("</module>\n");
+        }
+        pom.append("    </modules>\n\n");
+        pom.append("    <dependencyManagement>\n        <dependencies>\n");
+        for (int i = 0; i < moduleCount; i++)
+        {
+            dependency(pom, "            ", GROUP_ID, "module" + i, SNAPSHOT);
+        }
+        dependency(pom, "            ", "com.google.guava", "guava", "14.0.1");
+        dependency(pom, "            ", "junit", "junit", "4.11");
+        pom.append("        </dependencies>\n    </dependencyManagement>\n");
+        pom.append("</project>\n");
+        return pom.toString();
+    }
+
+    private String modulePom(int index)
+    {
+        StringBuilder pom = new StringBuilder();
+        pom.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        pom.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+        pom.append("    <modelVersion>4.0.0</modelVersion>\n\n");
+        pom.append("    <parent>\n");
+        pom.append("        <groupId>").append(GROUP_ID).append("</groupId>\n");
+        pom.append("        <artifactId>root</artifactId>\n");
+        pom.append("        <version>").append(SNAPSHOT).append("</version>\n");
+        pom.append("    </parent>\n\n");
+        pom.append("    <!-- module ").append(index).append(" -->\n");
+        pom.append("    <artifactId>module").append(index).append("</artifactId>\n");
+        pom.append("    <version>").append(SNAPSHOT).append("</version>\n\n");
+        pom.append("    <dependencies>\n");
+        if (index > 0)
+        {
+            dependency(pom, "        ", GROUP_ID, "module" + (index - 1), SNAPSHOT);
+        }
+        dependency(pom, "        ", "org.slf4j", "slf4j-api", "1.7.7");
+        dependency(pom, "        ", "commons-io", "commons-io", "2.4");
+        pom.append("    </dependencies>\n\n");
+        pom.append("    <build>\n        <plugins>\n");
+        pom.append("            <plugin>\n");
+        pom.append("                <groupId>org.apache.maven.plugins</groupId>\n");
+        pom.append("                <artifactId>maven-compiler-plugin</artifactId>\n");
+        pom.append("                <version>3.0</version>\n");
+        pom.append("                <configuration>\n                    <source>1.7</source>\n                    <target>1.7</target>\n                </configuration>\n");
+        pom.append("            </plugin>\n");
+        pom.append("        </plugins>\n    </build>\n");
+        pom.append("</project>\n");
+        return pom.toString();
+    }
+
+    private void dependency(StringBuilder pom, String indent, String groupId, String artifactId, String version)
+    {
+        pom.append(indent).append("<dependency>\n");
+        pom.append(indent).append("    <groupId>").append(groupId).append("</groupId>\n");
+        pom.append(indent).append("    <artifactId>").append(artifactId).append("</artifactId>\n");
+        pom.append(indent).append("    <version>").append(version).append("</version>\n");
+        pom.append(indent).append("</dependency>\n");
+    }
+}
@@ -0,0 +1,112 @@
+package com.atlassian.jgitflow.benchmarks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.atlassian.jgitflow.core.JGitFlowConstants;
+import com.atlassian.jgitflow.core.util.GitHelper;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Branch and tag lookups in repositories with many refs. The refs are split evenly between local feature branches,
+ * their remote tracking branches and version tags, plus a handful of release branches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RefLookupBenchmark
+{
+    private static final int RELEASE_BRANCHES = 10;
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int refCount;
+
+    private Git git;
+    private String existingFeature;
+    private String existingTag;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        git = BenchmarkRepos.create();
+        ObjectId head = git.getRepository().resolve(Constants.HEAD);
+
+        int perKind = Math.max(1, refCount / 3);
+        Map<String, ObjectId> refs = new HashMap<String, ObjectId>();
+
+        for (int i = 0; i < perKind; i++)
+        {
+            refs.put(Constants.R_HEADS + "feature/f" + i, head);
+            refs.put(JGitFlowConstants.R_REMOTE_ORIGIN + "feature/f" + i, head);
+            refs.put(Constants.R_TAGS + "1." + i, head);
+        }
+
+        for (int i = 0; i < RELEASE_BRANCHES; i++)
+        {
+            refs.put(Constants.R_HEADS + "release/2." + i, head);
+        }
+
+        BenchmarkRepos.writePackedRefs(git.getRepository(), refs);
+
+        existingFeature = "feature/f" + (perKind / 2);
+        existingTag = "1." + (perKind / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        BenchmarkRepos.delete(git);
+    }
+
+    @Benchmark
+    public boolean localBranchExists() throws Exception
+    {
+        return GitHelper.localBranchExists(git, existingFeature);
+    }
+
+    @Benchmark
+    public boolean localBranchMissing() throws Exception
+    {
+        return GitHelper.localBranchExists(git, "feature/missing");
+    }
+
+    @Benchmark
+    public boolean remoteBranchExists() throws Exception
+    {
+        return GitHelper.remoteBranchExists(git, existingFeature);
+    }
+
+    @Benchmark
+    public boolean tagExists() throws Exception
+    {
+        return GitHelper.tagExists(git, existingTag);
+    }
+
+    @Benchmark
+    public List<Ref> listBranchesWithPrefix() throws Exception
+    {
+        return GitHelper.listBranchesWithPrefix(git, "release/");
+    }
+}
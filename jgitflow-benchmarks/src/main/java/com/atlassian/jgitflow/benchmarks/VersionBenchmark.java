@@ -0,0 +1,90 @@
+package com.atlassian.jgitflow.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.atlassian.jgitflow.core.BaseVersionInfo;
+import com.atlassian.jgitflow.core.ParsedVersion;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parsing, comparing and sorting version strings like the ones found in release tags
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VersionBenchmark
+{
+    private static final String[] QUALIFIERS = {"", "-SNAPSHOT", "-beta-1", "-RC2", "_build-42"};
+
+    @Param({"1000"})
+    public int versionCount;
+
+    private String[] versionStrings;
+    private List<BaseVersionInfo> versions;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        Random random = new Random(42);
+        versionStrings = new String[versionCount];
+        versions = new ArrayList<BaseVersionInfo>(versionCount);
+
+        for (int i = 0; i < versionCount; i++)
+        {
+            versionStrings[i] = random.nextInt(20) + "." + random.nextInt(50) + "." + random.nextInt(200) + QUALIFIERS[random.nextInt(QUALIFIERS.length)];
+            versions.add(new BaseVersionInfo(versionStrings[i]));
+        }
+    }
+
+    @Benchmark
+    public void tokenize(Blackhole blackhole)
+    {
+        for (String version : versionStrings)
+        {
+            blackhole.consume(ParsedVersion.parse(version));
+        }
+    }
+
+    @Benchmark
+    public void parseCached(Blackhole blackhole) throws Exception
+    {
+        for (String version : versionStrings)
+        {
+            blackhole.consume(new BaseVersionInfo(version));
+        }
+    }
+
+    @Benchmark
+    public BaseVersionInfo max()
+    {
+        return Collections.max(versions);
+    }
+
+    @Benchmark
+    public List<BaseVersionInfo> sort()
+    {
+        List<BaseVersionInfo> sorted = new ArrayList<BaseVersionInfo>(versions);
+        Collections.sort(sorted);
+        return sorted;
+    }
+}
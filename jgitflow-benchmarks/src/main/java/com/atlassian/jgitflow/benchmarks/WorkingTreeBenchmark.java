@@ -0,0 +1,100 @@
+package com.atlassian.jgitflow.benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import com.atlassian.jgitflow.core.util.CleanStatus;
+import com.atlassian.jgitflow.core.util.GitHelper;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+import org.eclipse.jgit.api.Git;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Clean checks on working trees with many tracked files and an ignored build output folder of the same size.
+ * A dirty tree has its first tracked file modified.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkingTreeBenchmark
+{
+    private static final int FILES_PER_FOLDER = 100;
+
+    @Param({"1000", "10000", "50000"})
+    public int fileCount;
+
+    @Param({"clean", "dirty"})
+    public String treeState;
+
+    private Git git;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        git = BenchmarkRepos.create();
+        File workTree = git.getRepository().getWorkTree();
+
+        //old enough that the index stat data isn't racy
+        long mtime = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(5);
+
+        writeFiles(new File(workTree, "src"), mtime);
+        Files.write("target/\n", new File(workTree, ".gitignore"), Charsets.UTF_8);
+
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage("add files").call();
+
+        writeFiles(new File(workTree, "target"), mtime);
+
+        if ("dirty".equals(treeState))
+        {
+            Files.write("modified", new File(workTree, "src/d0/f0.txt"), Charsets.UTF_8);
+        }
+    }
+
+    private void writeFiles(File root, long mtime) throws Exception
+    {
+        for (int i = 0; i < fileCount; i++)
+        {
+            File file = new File(root, "d" + (i / FILES_PER_FOLDER) + "/f" + (i % FILES_PER_FOLDER) + ".txt");
+            Files.createParentDirs(file);
+            Files.write("file " + i, file, Charsets.UTF_8);
+            file.setLastModified(mtime);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        BenchmarkRepos.delete(git);
+    }
+
+    @Benchmark
+    public CleanStatus workingTreeIsClean() throws Exception
+    {
+        return GitHelper.workingTreeIsClean(git, false);
+    }
+
+    @Benchmark
+    public CleanStatus describeWorkingTree() throws Exception
+    {
+        return GitHelper.describeWorkingTree(git, false);
+    }
+}
@@ -0,0 +1,87 @@
+package com.atlassian.jgitflow.benchmarks.scale;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.atlassian.jgitflow.core.GitFlowConfiguration;
+import com.atlassian.jgitflow.core.command.JGitFlowCommand;
+import com.atlassian.jgitflow.core.extension.ExtensionCommand;
+import com.atlassian.jgitflow.core.extension.ExtensionFailStrategy;
+
+import org.eclipse.jgit.api.Git;
+
+/**
+ * Splits the run time of a command into phases. The command's extension points switch from one phase to the
+ * next, so the time between two extension points is charged to the phase the first one started. A phase that is
+ * entered more than once adds up.
+ */
+public class PhaseTimer
+{
+    private final Map<String, Long> phases;
+    private String current;
+    private long since;
+
+    public PhaseTimer()
+    {
+        this.phases = new LinkedHashMap<String, Long>();
+    }
+
+    public void begin(String phase)
+    {
+        phases.clear();
+        current = null;
+        enter(phase);
+    }
+
+    public void enter(String phase)
+    {
+        long now = System.nanoTime();
+
+        if (null != current)
+        {
+            phases.put(current, phases.get(current) + (now - since));
+        }
+
+        if (null != phase && !phases.containsKey(phase))
+        {
+            phases.put(phase, 0L);
+        }
+
+        current = phase;
+        since = now;
+    }
+
+    public void end()
+    {
+        enter(null);
+    }
+
+    /**
+     * @return an extension command that enters the given phase when it runs
+     */
+    public ExtensionCommand at(final String phase)
+    {
+        return new ExtensionCommand()
+        {
+            @Override
+            public void execute(GitFlowConfiguration configuration, Git git, JGitFlowCommand gitFlowCommand)
+            {
+                enter(phase);
+            }
+
+            @Override
+            public ExtensionFailStrategy failStrategy()
+            {
+                return ExtensionFailStrategy.ERROR;
+            }
+        };
+    }
+
+    /**
+     * @return the nanoseconds spent in each phase, in the order the phases were first entered
+     */
+    public Map<String, Long> getPhases()
+    {
+        return new LinkedHashMap<String, Long>(phases);
+    }
+}
@@ -0,0 +1,125 @@
+package com.atlassian.jgitflow.benchmarks.scale;
+
+/**
+ * The size of a generated repository. The same shape and seed always produce the same objects and refs.
+ */
+public final class RepoShape
+{
+    public static final RepoShape SMALL = new RepoShape("small", 100, 10, 10, 200, 2);
+    public static final RepoShape MEDIUM = new RepoShape("medium", 2000, 1000, 200, 5000, 10);
+    public static final RepoShape LARGE = new RepoShape("large", 20000, 20000, 2000, 50000, 50);
+
+    private static final long DEFAULT_SEED = 42L;
+
+    private final String name;
+    private final int commits;
+    private final int branches;
+    private final int tags;
+    private final int files;
+    private final int modules;
+    private final long seed;
+
+    public RepoShape(String name, int commits, int branches, int tags, int files, int modules)
+    {
+        this(name, commits, branches, tags, files, modules, DEFAULT_SEED);
+    }
+
+    public RepoShape(String name, int commits, int branches, int tags, int files, int modules, long seed)
+    {
+        if (commits < 1 || branches < 0 || tags < 1 || tags > commits || files < 1 || modules < 0)
+        {
+            throw new IllegalArgumentException("invalid repository shape: commits " + commits + ", branches " + branches + ", tags " + tags + ", files " + files + ", modules " + modules);
+        }
+
+        this.name = name;
+        this.commits = commits;
+        this.branches = branches;
+        this.tags = tags;
+        this.files = files;
+        this.modules = modules;
+        this.seed = seed;
+    }
+
+    /**
+     * @param spec either a tier name (small, medium, large) or name:commits:branches:tags:files:modules
+     */
+    public static RepoShape parse(String spec)
+    {
+        if (SMALL.getName().equals(spec))
+        {
+            return SMALL;
+        }
+        if (MEDIUM.getName().equals(spec))
+        {
+            return MEDIUM;
+        }
+        if (LARGE.getName().equals(spec))
+        {
+            return LARGE;
+        }
+
+        String[] parts = spec.split(":");
+        if (parts.length != 6)
+        {
+            throw new IllegalArgumentException("unknown tier '" + spec + "', use small, medium, large or name:commits:branches:tags:files:modules");
+        }
+
+        return new RepoShape(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]), Integer.parseInt(parts[4]), Integer.parseInt(parts[5]));
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return the number of commits on develop
+     */
+    public int getCommits()
+    {
+        return commits;
+    }
+
+    /**
+     * @return the number of feature branches on origin, each with a commit of its own
+     */
+    public int getBranches()
+    {
+        return branches;
+    }
+
+    /**
+     * @return the number of version tags, spread evenly over develop
+     */
+    public int getTags()
+    {
+        return tags;
+    }
+
+    /**
+     * @return the number of tracked files, not counting the poms
+     */
+    public int getFiles()
+    {
+        return files;
+    }
+
+    /**
+     * @return the number of maven modules below the root pom
+     */
+    public int getModules()
+    {
+        return modules;
+    }
+
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name + " (" + commits + " commits, " + branches + " branches, " + tags + " tags, " + files + " files, " + modules + " modules)";
+    }
+}
@@ -0,0 +1,396 @@
+package com.atlassian.jgitflow.benchmarks.scale;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.atlassian.jgitflow.core.JGitFlow;
+import com.atlassian.jgitflow.core.extension.impl.EmptyFeatureFinishExtension;
+import com.atlassian.jgitflow.core.extension.impl.EmptyHotfixFinishExtension;
+import com.atlassian.jgitflow.core.extension.impl.EmptyReleaseFinishExtension;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.io.Files;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.eclipse.jgit.api.Git;
+
+/**
+ * Times feature, release and hotfix finish, phase by phase, on generated repositories of growing size and prints
+ * how each phase scales from one size tier to the next. Every finish fetches from and pushes to a local bare
+ * origin, so the whole run is offline.
+ * <p>
+ * The phases are requirements (initialization, branch and working tree checks), fetch, merge, tag, push and
+ * cleanup (getting back onto develop). Branch deletes go out in the same push as the merged branches, so they are
+ * counted as push.
+ * </p>
+ * <p>
+ * e.g. java -cp jgitflow-benchmarks/target/benchmarks.jar com.atlassian.jgitflow.benchmarks.scale.ScalabilityBenchmark --tiers small,medium,large --iterations 5
+ * </p>
+ * <p>
+ * Options:
+ * </p>
+ * <pre>
+ * --tiers small,medium,...   tiers to run, either small, medium, large or name:commits:branches:tags:files:modules
+ * --iterations n             measured runs of each command per tier, the median is reported (default 5)
+ * --warmup n                 unmeasured runs of each command per tier before that (default 1)
+ * --dir path                 where to generate the repositories (default a temp folder)
+ * --csv file                 also write every median as tier,command,phase,millis
+ * --keep                     keep the generated repositories
+ * </pre>
+ */
+public class ScalabilityBenchmark
+{
+    private static final String REQUIREMENTS = "requirements";
+    private static final String FETCH = "fetch";
+    private static final String MERGE = "merge";
+    private static final String TAG = "tag";
+    private static final String PUSH = "push";
+    private static final String CLEANUP = "cleanup";
+    private static final String TOTAL = "total";
+
+    private static final int BAR_WIDTH = 40;
+
+    private final List<RepoShape> tiers;
+    private final int iterations;
+    private final int warmup;
+    private final File baseDir;
+    private final File csvFile;
+    private final boolean keep;
+    private final PrintStream out;
+    private final PhaseTimer timer;
+
+    //command -> tier -> phase -> median nanos
+    private final Map<String, Map<RepoShape, Map<String, Long>>> results;
+
+    public ScalabilityBenchmark(List<RepoShape> tiers, int iterations, int warmup, File baseDir, File csvFile, boolean keep, PrintStream out)
+    {
+        this.tiers = tiers;
+        this.iterations = iterations;
+        this.warmup = warmup;
+        this.baseDir = baseDir;
+        this.csvFile = csvFile;
+        this.keep = keep;
+        this.out = out;
+        this.timer = new PhaseTimer();
+        this.results = new LinkedHashMap<String, Map<RepoShape, Map<String, Long>>>();
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        List<RepoShape> tiers = Arrays.asList(RepoShape.SMALL, RepoShape.MEDIUM);
+        int iterations = 5;
+        int warmup = 1;
+        File baseDir = null;
+        File csvFile = null;
+        boolean keep = false;
+
+        for (int i = 0; i < args.length; i++)
+        {
+            String arg = args[i];
+            if ("--tiers".equals(arg))
+            {
+                tiers = new ArrayList<RepoShape>();
+                for (String spec : args[++i].split(","))
+                {
+                    tiers.add(RepoShape.parse(spec.trim()));
+                }
+            }
+            else if ("--iterations".equals(arg))
+            {
+                iterations = Integer.parseInt(args[++i]);
+            }
+            else if ("--warmup".equals(arg))
+            {
+                warmup = Integer.parseInt(args[++i]);
+            }
+            else if ("--dir".equals(arg))
+            {
+                baseDir = new File(args[++i]);
+            }
+            else if ("--csv".equals(arg))
+            {
+                csvFile = new File(args[++i]);
+            }
+            else if ("--keep".equals(arg))
+            {
+                keep = true;
+            }
+            else
+            {
+                throw new IllegalArgumentException("unknown option: " + arg);
+            }
+        }
+
+        if (null == baseDir)
+        {
+            baseDir = Files.createTempDir();
+        }
+
+        new ScalabilityBenchmark(tiers, iterations, warmup, baseDir, csvFile, keep, System.out).run();
+    }
+
+    public void run() throws Exception
+    {
+        for (RepoShape tier : tiers)
+        {
+            runTier(tier);
+        }
+
+        printReport();
+
+        if (null != csvFile)
+        {
+            writeCsv();
+            out.println("wrote " + csvFile.getAbsolutePath());
+        }
+    }
+
+    private void runTier(RepoShape tier) throws Exception
+    {
+        File tierDir = new File(baseDir, tier.getName());
+        FileUtils.deleteDirectory(tierDir);
+
+        out.println("generating " + tier);
+        long start = System.nanoTime();
+        SyntheticRepo repo = new SyntheticRepoGenerator(tier).generate(tierDir);
+        out.println("  generated and cloned in " + millis(System.nanoTime() - start) + " ms");
+
+        Map<String, List<Map<String, Long>>> samples = new LinkedHashMap<String, List<Map<String, Long>>>();
+        JGitFlow flow = repo.open();
+
+        try
+        {
+            for (int i = 0; i < warmup + iterations; i++)
+            {
+                boolean measured = i >= warmup;
+
+                record(samples, "feature finish", measured, featureFinish(flow, i));
+                record(samples, "release finish", measured, releaseFinish(flow, i));
+                record(samples, "hotfix finish", measured, hotfixFinish(flow, i));
+            }
+        }
+        finally
+        {
+            flow.git().getRepository().close();
+        }
+
+        for (Map.Entry<String, List<Map<String, Long>>> command : samples.entrySet())
+        {
+            Map<RepoShape, Map<String, Long>> byTier = results.get(command.getKey());
+            if (null == byTier)
+            {
+                byTier = new LinkedHashMap<RepoShape, Map<String, Long>>();
+                results.put(command.getKey(), byTier);
+            }
+            byTier.put(tier, medians(command.getValue()));
+        }
+
+        if (!keep)
+        {
+            FileUtils.deleteDirectory(tierDir);
+        }
+    }
+
+    private Map<String, Long> featureFinish(JGitFlow flow, int iteration) throws Exception
+    {
+        String name = "bench-" + iteration;
+
+        flow.featureStart(name).setPush(true).call();
+        commitNewFile(flow.git(), "bench/feature-" + iteration + ".txt");
+
+        EmptyFeatureFinishExtension extension = new EmptyFeatureFinishExtension();
+        extension.addBeforeFetchCommands(timer.at(FETCH));
+        extension.addAfterFetchCommands(timer.at(REQUIREMENTS));
+        extension.addBeforeDevelopCheckoutCommands(timer.at(MERGE));
+        extension.addAfterDevelopMergeCommands(timer.at(PUSH));
+        extension.addAfterPushCommands(timer.at(CLEANUP));
+
+        timer.begin(REQUIREMENTS);
+        flow.featureFinish(name).setFetch(true).setPush(true).setExtension(extension).call();
+        timer.end();
+
+        return timer.getPhases();
+    }
+
+    private Map<String, Long> releaseFinish(JGitFlow flow, int iteration) throws Exception
+    {
+        String version = "2." + iteration + ".0";
+
+        flow.releaseStart(version).setPush(true).call();
+        commitNewFile(flow.git(), "bench/release-" + iteration + ".txt");
+
+        EmptyReleaseFinishExtension extension = new EmptyReleaseFinishExtension();
+        extension.addBeforeFetchCommands(timer.at(FETCH));
+        extension.addAfterFetchCommands(timer.at(REQUIREMENTS));
+        extension.addBeforeMasterCheckoutCommands(timer.at(MERGE));
+        extension.addBeforeTagCommands(timer.at(TAG));
+        extension.addAfterTagCommands(timer.at(MERGE));
+        extension.addAfterDevelopMergeCommands(timer.at(PUSH));
+        extension.addAfterPushCommands(timer.at(CLEANUP));
+
+        timer.begin(REQUIREMENTS);
+        flow.releaseFinish(version).setFetch(true).setPush(true).setExtension(extension).call();
+        timer.end();
+
+        return timer.getPhases();
+    }
+
+    private Map<String, Long> hotfixFinish(JGitFlow flow, int iteration) throws Exception
+    {
+        String version = "2." + iteration + ".1";
+
+        flow.hotfixStart(version).setPush(true).call();
+        commitNewFile(flow.git(), "bench/hotfix-" + iteration + ".txt");
+
+        EmptyHotfixFinishExtension extension = new EmptyHotfixFinishExtension();
+        extension.addBeforeFetchCommands(timer.at(FETCH));
+        extension.addAfterFetchCommands(timer.at(REQUIREMENTS));
+        extension.addBeforeMasterCheckoutCommands(timer.at(MERGE));
+        extension.addBeforeTagCommands(timer.at(TAG));
+        extension.addAfterTagCommands(timer.at(MERGE));
+        extension.addAfterDevelopMergeCommands(timer.at(PUSH));
+        extension.addAfterPushCommands(timer.at(CLEANUP));
+
+        timer.begin(REQUIREMENTS);
+        flow.hotfixFinish(version).setFetch(true).setPush(true).setExtension(extension).call();
+        timer.end();
+
+        return timer.getPhases();
+    }
+
+    private void commitNewFile(Git git, String path) throws Exception
+    {
+        File file = new File(git.getRepository().getWorkTree(), path);
+        Files.createParentDirs(file);
+        Files.write(path + "\n", file, Charsets.UTF_8);
+
+        git.add().addFilepattern(path).call();
+        git.commit().setMessage("add " + path).call();
+    }
+
+    private void record(Map<String, List<Map<String, Long>>> samples, String command, boolean measured, Map<String, Long> phases)
+    {
+        if (!measured)
+        {
+            return;
+        }
+
+        List<Map<String, Long>> runs = samples.get(command);
+        if (null == runs)
+        {
+            runs = new ArrayList<Map<String, Long>>();
+            samples.put(command, runs);
+        }
+
+        long total = 0L;
+        for (long nanos : phases.values())
+        {
+            total += nanos;
+        }
+        phases.put(TOTAL, total);
+
+        runs.add(phases);
+    }
+
+    private Map<String, Long> medians(List<Map<String, Long>> runs)
+    {
+        Set<String> phases = new LinkedHashSet<String>();
+        for (Map<String, Long> run : runs)
+        {
+            phases.addAll(run.keySet());
+        }
+
+        Map<String, Long> medians = new LinkedHashMap<String, Long>();
+        for (String phase : phases)
+        {
+            List<Long> values = new ArrayList<Long>();
+            for (Map<String, Long> run : runs)
+            {
+                values.add(run.containsKey(phase) ? run.get(phase) : 0L);
+            }
+            Collections.sort(values);
+            medians.put(phase, values.get(values.size() / 2));
+        }
+
+        return medians;
+    }
+
+    private void printReport()
+    {
+        for (Map.Entry<String, Map<RepoShape, Map<String, Long>>> command : results.entrySet())
+        {
+            Set<String> phases = new LinkedHashSet<String>();
+            long maxTotal = 1L;
+            for (Map<String, Long> tierPhases : command.getValue().values())
+            {
+                phases.addAll(tierPhases.keySet());
+                maxTotal = Math.max(maxTotal, tierPhases.get(TOTAL));
+            }
+
+            out.println();
+            out.println(command.getKey() + " (median ms)");
+
+            StringBuilder header = new StringBuilder(Strings.padEnd("tier", 10, ' '));
+            for (String phase : phases)
+            {
+                header.append(Strings.padStart(phase, 14, ' '));
+            }
+            header.append(Strings.padStart("x smallest", 12, ' '));
+            out.println(header);
+
+            Long smallest = null;
+            for (Map.Entry<RepoShape, Map<String, Long>> tier : command.getValue().entrySet())
+            {
+                Map<String, Long> tierPhases = tier.getValue();
+                long total = tierPhases.get(TOTAL);
+                if (null == smallest)
+                {
+                    smallest = Math.max(1L, total);
+                }
+
+                StringBuilder row = new StringBuilder(Strings.padEnd(tier.getKey().getName(), 10, ' '));
+                for (String phase : phases)
+                {
+                    row.append(Strings.padStart(tierPhases.containsKey(phase) ? millis(tierPhases.get(phase)) : "-", 14, ' '));
+                }
+                row.append(Strings.padStart(String.format(Locale.ROOT, "%.1f", (double) total / smallest), 12, ' '));
+                row.append("  ").append(Strings.repeat("#", (int) Math.max(1L, total * BAR_WIDTH / maxTotal)));
+                out.println(row);
+            }
+        }
+    }
+
+    private void writeCsv() throws IOException
+    {
+        StringBuilder csv = new StringBuilder("tier,command,phase,millis\n");
+        for (Map.Entry<String, Map<RepoShape, Map<String, Long>>> command : results.entrySet())
+        {
+            for (Map.Entry<RepoShape, Map<String, Long>> tier : command.getValue().entrySet())
+            {
+                for (Map.Entry<String, Long> phase : tier.getValue().entrySet())
+                {
+                    csv.append(tier.getKey().getName()).append(',').append(command.getKey()).append(',').append(phase.getKey()).append(',').append(millis(phase.getValue())).append('\n');
+                }
+            }
+        }
+
+        Files.write(csv.toString(), csvFile, Charsets.UTF_8);
+    }
+
+    private String millis(long nanos)
+    {
+        return String.format(Locale.ROOT, "%.1f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,60 @@
+package com.atlassian.jgitflow.benchmarks.scale;
+
+import java.io.File;
+
+import com.atlassian.jgitflow.core.JGitFlow;
+import com.atlassian.jgitflow.core.JGitFlowReporter;
+import com.atlassian.jgitflow.core.exception.JGitFlowIOException;
+import com.atlassian.jgitflow.core.report.ReportLevel;
+
+/**
+ * A repository made by {@link SyntheticRepoGenerator}: a bare origin and a git flow initialized clone of it
+ */
+public class SyntheticRepo
+{
+    private final RepoShape shape;
+    private final File originDir;
+    private final File workDir;
+    private final String latestVersion;
+
+    SyntheticRepo(RepoShape shape, File originDir, File workDir, String latestVersion)
+    {
+        this.shape = shape;
+        this.originDir = originDir;
+        this.workDir = workDir;
+        this.latestVersion = latestVersion;
+    }
+
+    /**
+     * @return a JGitFlow for the clone with reporting switched off, so the report log doesn't skew timings
+     */
+    public JGitFlow open() throws JGitFlowIOException
+    {
+        JGitFlow flow = JGitFlow.get(workDir);
+        JGitFlowReporter.forRepository(flow.git().getRepository()).setLevel(ReportLevel.OFF);
+        return flow;
+    }
+
+    public RepoShape getShape()
+    {
+        return shape;
+    }
+
+    public File getOriginDir()
+    {
+        return originDir;
+    }
+
+    public File getWorkDir()
+    {
+        return workDir;
+    }
+
+    /**
+     * @return the highest version tag in the generated history
+     */
+    public String getLatestVersion()
+    {
+        return latestVersion;
+    }
+}
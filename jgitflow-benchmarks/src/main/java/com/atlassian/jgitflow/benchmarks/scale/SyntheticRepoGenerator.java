@@ -0,0 +1,336 @@
+package com.atlassian.jgitflow.benchmarks.scale;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import com.atlassian.jgitflow.core.JGitFlow;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TagBuilder;
+import org.eclipse.jgit.lib.TreeFormatter;
+
+/**
+ * Generates a git flow repository of a given {@link RepoShape}: a bare origin holding the whole history, and a
+ * git flow initialized clone of it that talks to origin over file://, so everything runs offline.
+ * <p>
+ * Develop gets a history of commits that each change one file, with annotated version tags spread evenly over it
+ * and master on the last one. Every feature branch forks off a random develop commit and adds a commit of its own.
+ * Objects are written straight through an ObjectInserter and origin is packed before it is cloned.
+ * </p>
+ * <p>
+ * Commit times, contents and the choice of files and fork points all come from the shape's seed, so the same shape
+ * always gives the same commit ids.
+ * </p>
+ */
+public class SyntheticRepoGenerator
+{
+    public static final String TAG_MAJOR = "1";
+
+    private static final long EPOCH = 1400000000000L;
+    private static final int FILES_PER_FOLDER = 100;
+
+    private final RepoShape shape;
+    private final Random random;
+    private long clock;
+
+    public SyntheticRepoGenerator(RepoShape shape)
+    {
+        this.shape = shape;
+        this.random = new Random(shape.getSeed());
+        this.clock = EPOCH;
+    }
+
+    /**
+     * Generates origin in {@code baseDir/origin.git} and clones it into {@code baseDir/work}
+     */
+    public SyntheticRepo generate(File baseDir) throws Exception
+    {
+        File originDir = new File(baseDir, "origin.git");
+        File workDir = new File(baseDir, "work");
+
+        Git origin = Git.init().setBare(true).setDirectory(originDir).call();
+        try
+        {
+            writeHistory(origin.getRepository());
+            origin.gc().call();
+        }
+        finally
+        {
+            origin.getRepository().close();
+        }
+
+        String originUrl = "file://" + originDir.getCanonicalPath();
+        Git.cloneRepository().setURI(originUrl).setDirectory(workDir).call().getRepository().close();
+
+        //picks up develop from origin
+        JGitFlow.init(workDir).git().getRepository().close();
+
+        return new SyntheticRepo(shape, originDir, workDir, TAG_MAJOR + "." + (shape.getTags() - 1) + ".0");
+    }
+
+    private void writeHistory(Repository repo) throws IOException
+    {
+        Map<String, ObjectId> refs = new TreeMap<String, ObjectId>();
+        Map<String, ObjectId> peeled = new TreeMap<String, ObjectId>();
+
+        ObjectInserter inserter = repo.newObjectInserter();
+        try
+        {
+            TreeNode root = new TreeNode();
+            root.put(".gitignore", blob(inserter, "target/\n"));
+            root.put("pom.xml", blob(inserter, rootPom()));
+            for (int m = 0; m < shape.getModules(); m++)
+            {
+                root.put("module" + m + "/pom.xml", blob(inserter, modulePom(m)));
+            }
+            for (int i = 0; i < shape.getFiles(); i++)
+            {
+                root.put(filePath(i), blob(inserter, fileContent(i, 0)));
+            }
+
+            ObjectId[] develop = new ObjectId[shape.getCommits()];
+            ObjectId[] trees = new ObjectId[shape.getCommits()];
+            int tagInterval = shape.getCommits() / shape.getTags();
+            int nextTag = 0;
+            ObjectId master = null;
+
+            for (int c = 0; c < shape.getCommits(); c++)
+            {
+                if (c > 0)
+                {
+                    int file = random.nextInt(shape.getFiles());
+                    root.put(filePath(file), blob(inserter, fileContent(file, c)));
+                }
+
+                trees[c] = root.write(inserter);
+                develop[c] = commit(inserter, trees[c], (c > 0) ? develop[c - 1] : null, "develop commit " + c);
+
+                if ((c + 1) % tagInterval == 0 && nextTag < shape.getTags())
+                {
+                    String tagName = TAG_MAJOR + "." + nextTag + ".0";
+                    refs.put(Constants.R_TAGS + tagName, tag(inserter, develop[c], tagName));
+                    peeled.put(Constants.R_TAGS + tagName, develop[c]);
+                    master = develop[c];
+                    nextTag++;
+                }
+            }
+
+            for (int b = 0; b < shape.getBranches(); b++)
+            {
+                int forkPoint = random.nextInt(shape.getCommits());
+                refs.put(Constants.R_HEADS + "feature/" + branchName(b), commit(inserter, trees[forkPoint], develop[forkPoint], "feature commit " + b));
+            }
+
+            refs.put(Constants.R_HEADS + "develop", develop[shape.getCommits() - 1]);
+            refs.put(Constants.R_HEADS + Constants.MASTER, master);
+
+            inserter.flush();
+        }
+        finally
+        {
+            inserter.release();
+        }
+
+        writePackedRefs(repo, refs, peeled);
+    }
+
+    private ObjectId blob(ObjectInserter inserter, String content) throws IOException
+    {
+        return inserter.insert(Constants.OBJ_BLOB, content.getBytes(Charsets.UTF_8));
+    }
+
+    private ObjectId commit(ObjectInserter inserter, ObjectId tree, ObjectId parent, String message) throws IOException
+    {
+        PersonIdent ident = nextIdent();
+
+        CommitBuilder commit = new CommitBuilder();
+        commit.setTreeId(tree);
+        if (null != parent)
+        {
+            commit.setParentId(parent);
+        }
+        commit.setAuthor(ident);
+        commit.setCommitter(ident);
+        commit.setMessage(message);
+
+        return inserter.insert(commit);
+    }
+
+    private ObjectId tag(ObjectInserter inserter, ObjectId commit, String tagName) throws IOException
+    {
+        TagBuilder tag = new TagBuilder();
+        tag.setObjectId(commit, Constants.OBJ_COMMIT);
+        tag.setTag(tagName);
+        tag.setTagger(nextIdent());
+        tag.setMessage("tagging release " + tagName);
+
+        return inserter.insert(tag);
+    }
+
+    private PersonIdent nextIdent()
+    {
+        clock += 60000L;
+        return new PersonIdent("jgitflow", "jgitflow@example.com", clock, 0);
+    }
+
+    private void writePackedRefs(Repository repo, Map<String, ObjectId> refs, Map<String, ObjectId> peeled) throws IOException
+    {
+        StringBuilder packed = new StringBuilder("# pack-refs with: peeled fully-peeled \n");
+
+        for (Map.Entry<String, ObjectId> ref : refs.entrySet())
+        {
+            packed.append(ref.getValue().name()).append(' ').append(ref.getKey()).append('\n');
+
+            ObjectId peeledId = peeled.get(ref.getKey());
+            if (null != peeledId)
+            {
+                packed.append('^').append(peeledId.name()).append('\n');
+            }
+        }
+
+        Files.write(packed.toString(), new File(repo.getDirectory(), Constants.PACKED_REFS), Charsets.UTF_8);
+    }
+
+    private String branchName(int index)
+    {
+        return String.format("branch-%06d", index);
+    }
+
+    private String filePath(int index)
+    {
+        int modules = Math.max(1, shape.getModules());
+        String base = (shape.getModules() > 0) ? "module" + (index % modules) + "/src/main/resources/" : "src/main/resources/";
+
+        return base + "d" + (index / modules / FILES_PER_FOLDER) + "/f" + index + ".txt";
+    }
+
+    private String fileContent(int index, int revision)
+    {
+        StringBuilder content = new StringBuilder();
+        content.append("file ").append(index).append(" revision ").append(revision).append('\n');
+
+        int lines = 2 + random.nextInt(8);
+        for (int i = 0; i < lines; i++)
+        {
+            content.append(Long.toHexString(random.nextLong())).append(Long.toHexString(random.nextLong())).append('\n');
+        }
+
+        return content.toString();
+    }
+
+    private String rootPom()
+    {
+        StringBuilder pom = new StringBuilder();
+        pom.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        pom.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+        pom.append("    <modelVersion>4.0.0</modelVersion>\n");
+        pom.append("    <groupId>com.example.synthetic</groupId>\n");
+        pom.append("    <artifactId>root</artifactId>\n");
+        pom.append("    <version>1.0-SNAPSHOT</version>\n");
+        pom.append("    <packaging>pom</packaging>\n");
+        pom.append("    <modules>\n");
+        for (int m = 0; m < shape.getModules(); m++)
+        {
+            pom.append("        <module>module").append(m).append("</module>\n");
+        }
+        pom.append("    </modules>\n");
+        pom.append("</project>\n");
+        return pom.toString();
+    }
+
+    private String modulePom(int index)
+    {
+        StringBuilder pom = new StringBuilder();
+        pom.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        pom.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+        pom.append("    <modelVersion>4.0.0</modelVersion>\n");
+        pom.append("    <parent>\n");
+        pom.append("        <groupId>com.example.synthetic</groupId>\n");
+        pom.append("        <artifactId>root</artifactId>\n");
+        pom.append("        <version>1.0-SNAPSHOT</version>\n");
+        pom.append("    </parent>\n");
+        pom.append("    <artifactId>module").append(index).append("</artifactId>\n");
+        if (index > 0)
+        {
+            pom.append("    <dependencies>\n");
+            pom.append("        <dependency>\n");
+            pom.append("            <groupId>com.example.synthetic</groupId>\n");
+            pom.append("            <artifactId>module").append(index - 1).append("</artifactId>\n");
+            pom.append("            <version>1.0-SNAPSHOT</version>\n");
+            pom.append("        </dependency>\n");
+            pom.append("    </dependencies>\n");
+        }
+        pom.append("</project>\n");
+        return pom.toString();
+    }
+
+    /**
+     * An in-memory tree that only rewrites the subtrees that changed since the last write
+     */
+    private static class TreeNode
+    {
+        //keyed by git's sort order, where a folder sorts as its name followed by '/'
+        private final TreeMap<String, Object> entries = new TreeMap<String, Object>();
+        private ObjectId id;
+
+        void put(String path, ObjectId blob)
+        {
+            id = null;
+
+            int slash = path.indexOf('/');
+            if (slash < 0)
+            {
+                entries.put(path, blob);
+                return;
+            }
+
+            String folderKey = path.substring(0, slash + 1);
+            TreeNode child = (TreeNode) entries.get(folderKey);
+            if (null == child)
+            {
+                child = new TreeNode();
+                entries.put(folderKey, child);
+            }
+
+            child.put(path.substring(slash + 1), blob);
+        }
+
+        ObjectId write(ObjectInserter inserter) throws IOException
+        {
+            if (null != id)
+            {
+                return id;
+            }
+
+            TreeFormatter formatter = new TreeFormatter();
+            for (Map.Entry<String, Object> entry : entries.entrySet())
+            {
+                if (entry.getValue() instanceof TreeNode)
+                {
+                    String name = entry.getKey().substring(0, entry.getKey().length() - 1);
+                    formatter.append(name, FileMode.TREE, ((TreeNode) entry.getValue()).write(inserter));
+                }
+                else
+                {
+                    formatter.append(entry.getKey(), FileMode.REGULAR_FILE, (ObjectId) entry.getValue());
+                }
+            }
+
+            id = inserter.insert(formatter);
+            return id;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.atlassian.jgitflow.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.atlassian.jgitflow.Command")
+@Label("Git Flow Command")
+@Description("A jgitflow command, like release-finish, from its requirement checks to its cleanup")
+public class CommandEvent extends JGitFlowEvent
+{
+    @Override
+    void describe(String name, String detail)
+    {
+        //the command name is all there is to it
+    }
+}
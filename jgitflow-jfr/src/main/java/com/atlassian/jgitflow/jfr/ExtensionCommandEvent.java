@@ -0,0 +1,20 @@
+package com.atlassian.jgitflow.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.atlassian.jgitflow.ExtensionCommand")
+@Label("Git Flow Extension Command")
+@Description("An extension command run by a command, like the plugin updating poms")
+public class ExtensionCommandEvent extends JGitFlowEvent
+{
+    @Label("Extension Command")
+    String extension;
+
+    @Override
+    void describe(String name, String detail)
+    {
+        this.extension = name;
+    }
+}
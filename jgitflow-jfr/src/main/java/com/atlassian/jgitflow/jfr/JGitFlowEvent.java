@@ -0,0 +1,58 @@
+package com.atlassian.jgitflow.jfr;
+
+import com.atlassian.jgitflow.core.metrics.Counter;
+import com.atlassian.jgitflow.core.metrics.Span;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * The fields every jgitflow event has: where it ran and what it counted. Counters include everything that ran
+ * inside the event, like the metrics spans they come from.
+ */
+@Category("JGitFlow")
+@StackTrace(false)
+public abstract class JGitFlowEvent extends Event
+{
+    @Label("Repository")
+    String repository;
+
+    @Label("Command")
+    String command;
+
+    @Label("Refs Scanned")
+    long refsScanned;
+
+    @Label("Commits Walked")
+    long commitsWalked;
+
+    @Label("Objects Transferred")
+    long objectsTransferred;
+
+    @Label("Bytes Written")
+    @DataAmount
+    long bytesWritten;
+
+    @Label("Modules")
+    long modules;
+
+    void finish(String repository, String command, Span span)
+    {
+        this.repository = repository;
+        this.command = command;
+        this.refsScanned = span.getCount(Counter.REFS_SCANNED);
+        this.commitsWalked = span.getCount(Counter.COMMITS_WALKED);
+        this.objectsTransferred = span.getCount(Counter.OBJECTS_TRANSFERRED);
+        this.bytesWritten = span.getCount(Counter.BYTES_WRITTEN);
+        this.modules = span.getCount(Counter.MODULES);
+        describe(span.getName(), span.getDetail());
+    }
+
+    /**
+     * Fills in the fields of the concrete event from the span's name and detail
+     */
+    abstract void describe(String name, String detail);
+}
@@ -0,0 +1,99 @@
+package com.atlassian.jgitflow.jfr;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.atlassian.jgitflow.core.metrics.JGitFlowMetrics;
+import com.atlassian.jgitflow.core.metrics.MetricsListenerInstaller;
+
+import org.eclipse.jgit.lib.Repository;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Adds a {@link JfrMetricsListener} to the metrics of every repository while a flight recording is running.
+ * <p>
+ * The listener is taken off again once the last recording stops, so with no recording running nothing is measured
+ * and the commands run exactly as they would without this module. Starting a recording doesn't affect a command
+ * that's already running, its events start with the next command.
+ * </p>
+ */
+public class JfrListenerInstaller implements MetricsListenerInstaller
+{
+    private static final RecordingWatcher WATCHER = new RecordingWatcher();
+
+    @Override
+    public void install(Repository repository, JGitFlowMetrics metrics)
+    {
+        if (FlightRecorder.isAvailable())
+        {
+            WATCHER.watch(metrics, new JfrMetricsListener(repository));
+        }
+    }
+
+    private static class RecordingWatcher implements FlightRecorderListener
+    {
+        private final Map<JGitFlowMetrics, JfrMetricsListener> watched = new WeakHashMap<JGitFlowMetrics, JfrMetricsListener>();
+        private boolean registered;
+        private boolean recording;
+
+        synchronized void watch(JGitFlowMetrics metrics, JfrMetricsListener listener)
+        {
+            if (!registered)
+            {
+                //doesn't start the recorder, asking it for its recordings would
+                FlightRecorder.addListener(this);
+                registered = true;
+                recording = FlightRecorder.isInitialized() && anyRunning();
+            }
+
+            watched.put(metrics, listener);
+
+            if (recording)
+            {
+                metrics.addListener(listener);
+            }
+        }
+
+        @Override
+        public synchronized void recordingStateChanged(Recording changed)
+        {
+            boolean running = anyRunning();
+
+            if (running == recording)
+            {
+                return;
+            }
+
+            recording = running;
+
+            for (Map.Entry<JGitFlowMetrics, JfrMetricsListener> entry : watched.entrySet())
+            {
+                if (running)
+                {
+                    entry.getKey().addListener(entry.getValue());
+                }
+                else
+                {
+                    entry.getKey().removeListener(entry.getValue());
+                }
+            }
+        }
+
+        private boolean anyRunning()
+        {
+            for (Recording recording : FlightRecorder.getFlightRecorder().getRecordings())
+            {
+                if (RecordingState.RUNNING == recording.getState())
+                {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+}
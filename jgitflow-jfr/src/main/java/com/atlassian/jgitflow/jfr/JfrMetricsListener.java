@@ -0,0 +1,121 @@
+package com.atlassian.jgitflow.jfr;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import com.atlassian.jgitflow.core.metrics.MetricsListener;
+import com.atlassian.jgitflow.core.metrics.Span;
+import com.atlassian.jgitflow.core.metrics.SpanKind;
+
+import org.eclipse.jgit.lib.Repository;
+
+/**
+ * Turns the spans of the commands run on a repository into flight recorder events.
+ * <p>
+ * An event is begun when its span starts so the recording has the real start and duration, and committed with the
+ * span's counters when it finishes.
+ * </p>
+ */
+public class JfrMetricsListener implements MetricsListener
+{
+    private final String repository;
+    private final ThreadLocal<Deque<JGitFlowEvent>> events;
+
+    public JfrMetricsListener(Repository repository)
+    {
+        this.repository = (null == repository.getWorkTree()) ? repository.getDirectory().getAbsolutePath() : repository.getWorkTree().getAbsolutePath();
+        this.events = new ThreadLocal<Deque<JGitFlowEvent>>()
+        {
+            @Override
+            protected Deque<JGitFlowEvent> initialValue()
+            {
+                return new ArrayDeque<JGitFlowEvent>();
+            }
+        };
+    }
+
+    @Override
+    public void commandStarted(String commandName)
+    {
+        Deque<JGitFlowEvent> started = events.get();
+        started.clear();
+        begin(started, new CommandEvent());
+    }
+
+    @Override
+    public void spanStarted(String commandName, SpanKind kind, String name, String detail, int depth)
+    {
+        begin(events.get(), newEvent(kind, name));
+    }
+
+    @Override
+    public void spanFinished(String commandName, Span span)
+    {
+        commit(commandName, span);
+    }
+
+    @Override
+    public void commandFinished(String commandName, Span command)
+    {
+        commit(commandName, command);
+    }
+
+    private void begin(Deque<JGitFlowEvent> started, JGitFlowEvent event)
+    {
+        event.begin();
+        started.push(event);
+    }
+
+    private void commit(String commandName, Span span)
+    {
+        JGitFlowEvent event = events.get().poll();
+
+        if (null == event)
+        {
+            return;
+        }
+
+        event.end();
+
+        if (event.shouldCommit())
+        {
+            event.finish(repository, commandName, span);
+            event.commit();
+        }
+    }
+
+    private JGitFlowEvent newEvent(SpanKind kind, String name)
+    {
+        if (SpanKind.EXTENSION == kind)
+        {
+            return new ExtensionCommandEvent();
+        }
+
+        if ("merge".equals(name))
+        {
+            return new MergeEvent();
+        }
+
+        if ("fetch".equals(name) || "push".equals(name))
+        {
+            return new TransferEvent();
+        }
+
+        if ("ref lookup".equals(name))
+        {
+            return new RefLookupEvent();
+        }
+
+        if ("pom rewrite".equals(name))
+        {
+            return new PomRewriteEvent();
+        }
+
+        if ("reactor reload".equals(name))
+        {
+            return new ReactorReloadEvent();
+        }
+
+        return new PhaseEvent();
+    }
+}
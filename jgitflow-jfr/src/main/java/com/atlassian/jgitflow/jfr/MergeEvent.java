@@ -0,0 +1,21 @@
+package com.atlassian.jgitflow.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.atlassian.jgitflow.Merge")
+@Label("Git Flow Merge")
+@Description("A merge of one branch into another")
+public class MergeEvent extends JGitFlowEvent
+{
+    @Label("Branches")
+    @Description("The branch merged and the branch merged into")
+    String branches;
+
+    @Override
+    void describe(String name, String detail)
+    {
+        this.branches = detail;
+    }
+}
@@ -0,0 +1,24 @@
+package com.atlassian.jgitflow.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.atlassian.jgitflow.Phase")
+@Label("Git Flow Phase")
+@Description("A step of a command that has no event of its own, like a checkout or a tag")
+public class PhaseEvent extends JGitFlowEvent
+{
+    @Label("Phase")
+    String phase;
+
+    @Label("Detail")
+    String detail;
+
+    @Override
+    void describe(String name, String detail)
+    {
+        this.phase = name;
+        this.detail = detail;
+    }
+}
@@ -0,0 +1,17 @@
+package com.atlassian.jgitflow.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.atlassian.jgitflow.PomRewrite")
+@Label("Git Flow Pom Rewrite")
+@Description("A rewrite of the versions in the poms of a reactor")
+public class PomRewriteEvent extends JGitFlowEvent
+{
+    @Override
+    void describe(String name, String detail)
+    {
+        //the modules and bytes written say it all
+    }
+}
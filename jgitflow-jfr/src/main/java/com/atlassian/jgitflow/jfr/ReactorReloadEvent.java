@@ -0,0 +1,20 @@
+package com.atlassian.jgitflow.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.atlassian.jgitflow.ReactorReload")
+@Label("Git Flow Reactor Reload")
+@Description("A reload of the maven projects of a branch")
+public class ReactorReloadEvent extends JGitFlowEvent
+{
+    @Label("Branch")
+    String branch;
+
+    @Override
+    void describe(String name, String detail)
+    {
+        this.branch = detail;
+    }
+}
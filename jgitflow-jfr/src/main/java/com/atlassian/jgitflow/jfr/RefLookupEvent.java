@@ -0,0 +1,20 @@
+package com.atlassian.jgitflow.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.atlassian.jgitflow.RefLookup")
+@Label("Git Flow Ref Lookup")
+@Description("A lookup in the ref database, either of a single branch or of all refs at once")
+public class RefLookupEvent extends JGitFlowEvent
+{
+    @Label("Ref")
+    String ref;
+
+    @Override
+    void describe(String name, String detail)
+    {
+        this.ref = detail;
+    }
+}
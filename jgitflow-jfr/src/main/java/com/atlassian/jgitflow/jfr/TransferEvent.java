@@ -0,0 +1,24 @@
+package com.atlassian.jgitflow.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.atlassian.jgitflow.Transfer")
+@Label("Git Flow Fetch or Push")
+@Description("A fetch from or a push to origin")
+public class TransferEvent extends JGitFlowEvent
+{
+    @Label("Operation")
+    String operation;
+
+    @Label("Detail")
+    String detail;
+
+    @Override
+    void describe(String name, String detail)
+    {
+        this.operation = name;
+        this.detail = detail;
+    }
+}
@@ -0,0 +1,118 @@
+package ut.com.atlassian.jgitflow.jfr;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.atlassian.jgitflow.core.JGitFlow;
+import com.atlassian.jgitflow.core.metrics.JGitFlowMetrics;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.Assert.*;
+
+public class JfrEventsTest
+{
+    private File dir;
+
+    @Before
+    public void createDir() throws Exception
+    {
+        dir = Files.createTempDirectory("jgitflow-jfr").toFile();
+    }
+
+    @After
+    public void deleteDir() throws Exception
+    {
+        FileUtils.delete(dir, FileUtils.RECURSIVE | FileUtils.SKIP_MISSING);
+    }
+
+    @Test
+    public void finishFeatureIsRecorded() throws Exception
+    {
+        Git git = Git.init().setDirectory(new File(dir, "repo")).call();
+        git.commit().setMessage("initial commit").call();
+        JGitFlow flow = JGitFlow.init(git.getRepository().getWorkTree());
+
+        Path recorded = new File(dir, "flow.jfr").toPath();
+        Recording recording = new Recording();
+
+        try
+        {
+            recording.start();
+            flow.featureStart("my-feature").call();
+            flow.featureFinish("my-feature").call();
+            recording.stop();
+            recording.dump(recorded);
+        }
+        finally
+        {
+            recording.close();
+            JGitFlowMetrics.release(git.getRepository());
+        }
+
+        List<RecordedEvent> finishEvents = new ArrayList<RecordedEvent>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(recorded))
+        {
+            if (event.getEventType().getName().startsWith("com.atlassian.jgitflow.") && "feature-finish".equals(event.getString("command")))
+            {
+                finishEvents.add(event);
+            }
+        }
+
+        RecordedEvent command = find(finishEvents, "Command");
+        assertEquals(git.getRepository().getWorkTree().getAbsolutePath(), command.getString("repository"));
+        assertTrue(command.getLong("commitsWalked") > 0);
+        assertTrue(command.getLong("refsScanned") > 0);
+
+        RecordedEvent merge = find(finishEvents, "Merge");
+        assertTrue(merge.getString("branches").startsWith("feature/my-feature into "));
+        assertFalse(merge.getDuration().isNegative());
+
+        assertEquals("all refs", find(finishEvents, "RefLookup").getString("ref"));
+        assertNotNull(find(finishEvents, "Phase"));
+    }
+
+    @Test
+    public void nothingMeasuredWithoutRecording() throws Exception
+    {
+        Git git = Git.init().setDirectory(new File(dir, "repo")).call();
+        git.commit().setMessage("initial commit").call();
+        JGitFlow.init(git.getRepository().getWorkTree());
+
+        try
+        {
+            JGitFlowMetrics.forRepository(git.getRepository()).startCommand("test");
+            assertFalse(JGitFlowMetrics.isActive());
+            JGitFlowMetrics.forRepository(git.getRepository()).endCommand();
+        }
+        finally
+        {
+            JGitFlowMetrics.release(git.getRepository());
+        }
+    }
+
+    private RecordedEvent find(List<RecordedEvent> events, String type)
+    {
+        for (RecordedEvent event : events)
+        {
+            if (event.getEventType().getName().equals("com.atlassian.jgitflow." + type))
+            {
+                return event;
+            }
+        }
+
+        fail("no " + type + " event recorded");
+        return null;
+    }
+}
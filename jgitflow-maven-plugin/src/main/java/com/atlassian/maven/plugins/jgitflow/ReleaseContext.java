@@ -59,6 +59,12 @@ public class ReleaseContext
     private MavenHotfixStartExtension hotfixStartExtension;
     private MavenHotfixFinishExtension hotfixFinishExtension;
     private String eol;
+    private int rewriteThreads;
+    private boolean inPlacePomRewrite;
+    private boolean checkoutFreeReactor;
+    private boolean inCoreMerge;
+    private boolean fullFetch;
+    private boolean writeMetrics;
 
     public ReleaseContext(File baseDir)
     {
@@ -105,6 +111,12 @@ public class ReleaseContext
         this.hotfixStartExtension = null;
         this.hotfixFinishExtension = null;
         this.eol = "";
+        this.rewriteThreads = 1;
+        this.inPlacePomRewrite = false;
+        this.checkoutFreeReactor = false;
+        this.inCoreMerge = false;
+        this.fullFetch = false;
+        this.writeMetrics = false;
     }
 
     public boolean isAllowSnapshots()
@@ -594,6 +606,50 @@ public class ReleaseContext
         this.eol = eol;
         return this;
     }
+
+    public int getRewriteThreads()
+    {
+        return rewriteThreads;
+    }
+
+    public ReleaseContext setRewriteThreads(int rewriteThreads)
+    {
+        this.rewriteThreads = rewriteThreads;
+        return this;
+    }
+
+    public boolean isInPlacePomRewrite()
+    {
+        return inPlacePomRewrite;
+    }
+
+    public ReleaseContext setInPlacePomRewrite(boolean inPlacePomRewrite)
+    {
+        this.inPlacePomRewrite = inPlacePomRewrite;
+        return this;
+    }
+
+    public boolean isCheckoutFreeReactor()
+    {
+        return checkoutFreeReactor;
+    }
+
+    public ReleaseContext setCheckoutFreeReactor(boolean checkoutFreeReactor)
+    {
+        this.checkoutFreeReactor = checkoutFreeReactor;
+        return this;
+    }
+
+    public boolean isInCoreMerge()
+    {
+        return inCoreMerge;
+    }
+
+    public ReleaseContext setInCoreMerge(boolean inCoreMerge)
+    {
+        this.inCoreMerge = inCoreMerge;
+        return this;
+    }
     
     public MavenHotfixStartExtension getHotfixStartExtension()
     {
@@ -616,4 +672,26 @@ public class ReleaseContext
         this.hotfixFinishExtension = hotfixFinishExtension;
         return this;
     }
+
+    public boolean isFullFetch()
+    {
+        return fullFetch;
+    }
+
+    public ReleaseContext setFullFetch(boolean fullFetch)
+    {
+        this.fullFetch = fullFetch;
+        return this;
+    }
+
+    public boolean isWriteMetrics()
+    {
+        return writeMetrics;
+    }
+
+    public ReleaseContext setWriteMetrics(boolean writeMetrics)
+    {
+        this.writeMetrics = writeMetrics;
+        return this;
+    }
 }
@@ -69,7 +69,7 @@ public class BranchHelper
         String unprefixedBranchName = NamingUtil.unprefixedBranchName(branchPrefix, branchName);
 
         //reload the reactor projects for release
-        MavenSession branchSession = mavenExecutionHelper.getSessionForBranch(branchName, ReleaseUtil.getRootProject(projectsProvider.getReactorProjects()), session);
+        MavenSession branchSession = mavenExecutionHelper.getBuildSessionForBranch(branchName, ReleaseUtil.getRootProject(projectsProvider.getReactorProjects()), session);
 
         return new SessionAndProjects(branchSession, branchSession.getSortedProjects());
     }
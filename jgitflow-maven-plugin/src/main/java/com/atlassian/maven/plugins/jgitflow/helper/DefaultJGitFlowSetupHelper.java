@@ -152,8 +152,9 @@ public class DefaultJGitFlowSetupHelper extends AbstractLogEnabled implements JG
             String mvnFlowVersion = mvnFlowPkg.getImplementationVersion();
 
             String shortName = getClass().getSimpleName();
+            JGitFlowReporter reporter = jGitFlowProvider.gitFlow().getReporter();
 
-            JGitFlowReporter.get().debugText(shortName, "# Maven JGitFlow Plugin")
+            reporter.debugText(shortName, "# Maven JGitFlow Plugin")
                 .debugText(shortName, JGitFlowReporter.P)
                 .debugText(shortName, "  ## Configuration")
                 .debugText(shortName, JGitFlowReporter.EOL)
@@ -186,7 +187,7 @@ public class DefaultJGitFlowSetupHelper extends AbstractLogEnabled implements JG
                 .debugText(shortName, "    use release profile: " + ctx.isUseReleaseProfile())
                 .debugText(shortName, JGitFlowReporter.HR);
 
-            JGitFlowReporter.get().flush();
+            reporter.flush();
             this.headerWritten = true;
         }
     }
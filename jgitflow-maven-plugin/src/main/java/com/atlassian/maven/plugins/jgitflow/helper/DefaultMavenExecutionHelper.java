@@ -2,15 +2,21 @@ package com.atlassian.maven.plugins.jgitflow.helper;
 
 import com.atlassian.jgitflow.core.JGitFlow;
 import com.atlassian.jgitflow.core.exception.JGitFlowException;
+import com.atlassian.jgitflow.core.metrics.Counter;
+import com.atlassian.jgitflow.core.metrics.JGitFlowMetrics;
 import com.atlassian.maven.plugins.jgitflow.ReleaseContext;
 import com.atlassian.maven.plugins.jgitflow.exception.ReactorReloadException;
 import com.atlassian.maven.plugins.jgitflow.provider.ContextProvider;
 import com.atlassian.maven.plugins.jgitflow.provider.JGitFlowProvider;
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
+import com.google.common.collect.Sets;
+import com.google.common.io.Files;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.execution.ReactorManager;
+import org.apache.maven.model.Model;
 import org.apache.maven.model.Profile;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.MavenProjectBuilder;
 import org.apache.maven.shared.release.ReleaseResult;
@@ -20,15 +26,33 @@ import org.apache.maven.shared.release.exec.MavenExecutor;
 import org.apache.maven.shared.release.exec.MavenExecutorException;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.ReaderFactory;
 import org.eclipse.jgit.api.errors.GitAPIException;
-
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Method;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.Stack;
 
 import static com.google.common.collect.Lists.newArrayList;
@@ -51,6 +75,8 @@ public class DefaultMavenExecutionHelper implements MavenExecutionHelper
     @Requirement
     private ContextProvider contextProvider;
 
+    private final ReactorSessionCache sessionCache = new ReactorSessionCache();
+
     @Override
     public void execute(MavenProject project, MavenSession session) throws MavenExecutorException
     {
@@ -118,17 +144,22 @@ public class DefaultMavenExecutionHelper implements MavenExecutionHelper
 
     @Override
     public MavenSession reloadReactor(MavenProject rootProject, MavenSession oldSession) throws ReactorReloadException
+    {
+        return reloadReactor(rootProject.getFile(), rootProject, oldSession);
+    }
+
+    private MavenSession reloadReactor(File rootPom, MavenProject rootProject, MavenSession oldSession) throws ReactorReloadException
     {
         List<MavenProject> reactorProjects = new ArrayList<MavenProject>();
 
-        List<File> pomFiles = newArrayList(rootProject.getFile());
+        List<File> pomFiles = newArrayList(rootPom);
         try
         {
             MavenProject project = null;
             //try maven3 first
             try
             {
-                if (rootProject.getFile().exists() && rootProject.getFile().canRead())
+                if (rootPom.exists() && rootPom.canRead())
                 {
                     Method getRequestMethod = oldSession.getClass().getMethod("getRequest");
                     Object mavenExecutionRequest = getRequestMethod.invoke(oldSession);
@@ -168,7 +199,7 @@ public class DefaultMavenExecutionHelper implements MavenExecutionHelper
                 }
 
                 Stack<File> projectFiles = new Stack<File>();
-                projectFiles.push(rootProject.getFile());
+                projectFiles.push(rootPom);
 
                 while (!projectFiles.isEmpty())
                 {
@@ -240,20 +271,364 @@ public class DefaultMavenExecutionHelper implements MavenExecutionHelper
 
     @Override
     public MavenSession getSessionForBranch(String branchName, MavenProject rootProject, MavenSession oldSession) throws JGitFlowException, IOException, GitAPIException, ReactorReloadException
+    {
+        ReleaseContext ctx = contextProvider.getContext();
+        return getSessionForBranch(branchName, rootProject, oldSession, null != ctx && ctx.isCheckoutFreeReactor());
+    }
+
+    @Override
+    public MavenSession getBuildSessionForBranch(String branchName, MavenProject rootProject, MavenSession oldSession) throws JGitFlowException, IOException, GitAPIException, ReactorReloadException
+    {
+        return getSessionForBranch(branchName, rootProject, oldSession, false);
+    }
+
+    private MavenSession getSessionForBranch(String branchName, MavenProject rootProject, MavenSession oldSession, boolean checkoutFree) throws JGitFlowException, IOException, GitAPIException, ReactorReloadException
     {
         JGitFlow flow = jGitFlowProvider.gitFlow();
-        String originalBranch = flow.git().getRepository().getBranch();
+        Repository repo = flow.git().getRepository();
+        String originalBranch = repo.getBranch();
+
+        boolean fromObjectDatabase = checkoutFree && !branchName.equals(originalBranch);
+
+        ReactorSessionCache.PomSource poms = getPomSource(repo, branchName, originalBranch, fromObjectDatabase);
+        String cacheKey = ReactorSessionCache.key(fromObjectDatabase ? branchName + " (object database)" : branchName, rootProject.getFile(), getProfileIds(rootProject));
+        if (null != poms)
+        {
+            MavenSession cached = sessionCache.get(cacheKey, oldSession, poms);
+            if (null != cached)
+            {
+                return cached;
+            }
+        }
+
+        MavenSession newSession = null;
+        JGitFlowMetrics metrics = JGitFlowMetrics.forRepository(repo);
+        metrics.startPhase("reactor reload", branchName);
+
+        try
+        {
+            if (fromObjectDatabase)
+            {
+                newSession = reloadReactorFromObjectDatabase(repo, branchName, rootProject, oldSession);
+            }
 
-        flow.git().checkout().setName(branchName).call();
+            if (null == newSession)
+            {
+                if (fromObjectDatabase)
+                {
+                    poms = getPomSource(repo, branchName, originalBranch, false);
+                    cacheKey = ReactorSessionCache.key(branchName, rootProject.getFile(), getProfileIds(rootProject));
+                }
 
-        //reload the reactor projects
-        MavenSession newSession = reloadReactor(rootProject, oldSession);
+                flow.git().checkout().setName(branchName).call();
+
+                //reload the reactor projects
+                newSession = reloadReactor(rootProject, oldSession);
+
+                flow.git().checkout().setName(originalBranch).call();
+            }
+
+            JGitFlowMetrics.count(Counter.MODULES, newSession.getSortedProjects().size());
+        }
+        finally
+        {
+            metrics.endSpan();
+        }
 
-        flow.git().checkout().setName(originalBranch).call();
+        if (null != poms)
+        {
+            sessionCache.put(cacheKey, oldSession, newSession, getReactorPomPaths(repo, newSession), poms);
+        }
 
         return newSession;
     }
 
+    /**
+     * Loads the reactor of a branch without checking it out by writing the poms committed on the branch to a temp
+     * directory and building the projects from there. The files of the loaded projects are then pointed back at the
+     * working tree so they can be rewritten once the branch is checked out.
+     * <p>
+     * Anything else interpolated from the location of the poms, like the build directory and the source roots,
+     * still points at the temp directory, which is gone once this returns. The session is only good for reading the
+     * models and must never be executed.
+     * </p>
+     *
+     * @return the new session, or null if the root pom isn't part of the branch and a checkout is needed
+     */
+    private MavenSession reloadReactorFromObjectDatabase(Repository repo, String branchName, MavenProject rootProject, MavenSession oldSession) throws IOException, ReactorReloadException
+    {
+        Ref branchRef = repo.getRef(branchName);
+        File workTree = repo.getWorkTree().getCanonicalFile();
+        String rootPath = relativePath(workTree, rootProject.getFile());
+
+        if (null == branchRef || null == branchRef.getObjectId() || null == rootPath)
+        {
+            return null;
+        }
+
+        File pomDir = Files.createTempDir();
+
+        try
+        {
+            if (!writeBranchPoms(repo, branchRef.getObjectId(), pomDir, rootPath))
+            {
+                return null;
+            }
+
+            MavenSession newSession = reloadReactor(new File(pomDir, rootPath), rootProject, oldSession);
+
+            File canonicalPomDir = pomDir.getCanonicalFile();
+            Set<MavenProject> relocated = Sets.newSetFromMap(new IdentityHashMap<MavenProject, Boolean>());
+            for (MavenProject project : newSession.getSortedProjects())
+            {
+                for (MavenProject p = project; null != p && relocated.add(p); p = p.getParent())
+                {
+                    String path = (null == p.getFile()) ? null : relativePath(canonicalPomDir, p.getFile());
+                    if (null != path)
+                    {
+                        p.setFile(new File(workTree, path));
+                    }
+                }
+            }
+
+            return newSession;
+        }
+        finally
+        {
+            FileUtils.deleteDirectory(pomDir);
+        }
+    }
+
+    /**
+     * Copies every pom.xml in the commit's tree into the target directory, keeping the repository layout, along with
+     * the module poms with other names the copied poms list.
+     *
+     * @return whether the root pom was among them
+     */
+    private boolean writeBranchPoms(Repository repo, ObjectId commitId, File targetDir, String rootPath) throws IOException
+    {
+        Map<String, byte[]> poms = new LinkedHashMap<String, byte[]>();
+        RevWalk walk = new RevWalk(repo);
+        TreeWalk treeWalk = new TreeWalk(repo);
+
+        try
+        {
+            RevTree tree = walk.parseCommit(commitId).getTree();
+            treeWalk.addTree(tree);
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(PathSuffixFilter.create("pom.xml"));
+
+            while (treeWalk.next())
+            {
+                if (isFile(treeWalk))
+                {
+                    poms.put(treeWalk.getPathString(), repo.open(treeWalk.getObjectId(0), Constants.OBJ_BLOB).getBytes());
+                }
+            }
+
+            Deque<String> pending = new ArrayDeque<String>(poms.keySet());
+            while (!pending.isEmpty())
+            {
+                String pomPath = pending.pop();
+                for (String modulePath : getModulePomPaths(pomPath, poms.get(pomPath)))
+                {
+                    if (poms.containsKey(modulePath))
+                    {
+                        continue;
+                    }
+
+                    TreeWalk moduleWalk = TreeWalk.forPath(repo, modulePath, tree);
+                    if (null == moduleWalk)
+                    {
+                        continue;
+                    }
+
+                    try
+                    {
+                        if (isFile(moduleWalk))
+                        {
+                            poms.put(modulePath, repo.open(moduleWalk.getObjectId(0), Constants.OBJ_BLOB).getBytes());
+                            pending.push(modulePath);
+                        }
+                    }
+                    finally
+                    {
+                        moduleWalk.release();
+                    }
+                }
+            }
+        }
+        finally
+        {
+            treeWalk.release();
+            walk.release();
+        }
+
+        for (Map.Entry<String, byte[]> pom : poms.entrySet())
+        {
+            File file = new File(targetDir, pom.getKey());
+            Files.createParentDirs(file);
+            Files.write(pom.getValue(), file);
+            JGitFlowMetrics.count(Counter.BYTES_WRITTEN, pom.getValue().length);
+        }
+
+        return poms.containsKey(rootPath);
+    }
+
+    private boolean isFile(TreeWalk treeWalk)
+    {
+        return FileMode.REGULAR_FILE.equals(treeWalk.getFileMode(0)) || FileMode.EXECUTABLE_FILE.equals(treeWalk.getFileMode(0));
+    }
+
+    /**
+     * @return the repository paths of the modules a pom lists, including those of its profiles. Modules which are
+     * directories are included as they are, and modules outside the repository are left out.
+     */
+    private List<String> getModulePomPaths(String pomPath, byte[] content)
+    {
+        List<String> modules = new ArrayList<String>();
+
+        try
+        {
+            Model model = new MavenXpp3Reader().read(ReaderFactory.newXmlReader(new ByteArrayInputStream(content)), false);
+            modules.addAll(model.getModules());
+            for (Profile profile : model.getProfiles())
+            {
+                modules.addAll(profile.getModules());
+            }
+        }
+        catch (Exception e)
+        {
+            //a broken pom is reported when the reactor is built
+            return modules;
+        }
+
+        int slash = pomPath.lastIndexOf('/');
+        String pomDir = (slash < 0) ? "" : pomPath.substring(0, slash + 1);
+
+        List<String> paths = new ArrayList<String>();
+        for (String module : modules)
+        {
+            String path = normalizePath(pomDir + module.trim().replace('\\', '/'));
+            if (null != path)
+            {
+                paths.add(path);
+            }
+        }
+
+        return paths;
+    }
+
+    /**
+     * @return the path without "." and ".." segments, or null if it leaves the repository
+     */
+    private String normalizePath(String path)
+    {
+        Deque<String> segments = new ArrayDeque<String>();
+        for (String segment : path.split("/"))
+        {
+            if (segment.isEmpty() || ".".equals(segment))
+            {
+                continue;
+            }
+
+            if ("..".equals(segment))
+            {
+                if (segments.isEmpty())
+                {
+                    return null;
+                }
+
+                segments.removeLast();
+            }
+            else
+            {
+                segments.addLast(segment);
+            }
+        }
+
+        return segments.isEmpty() ? null : Joiner.on('/').join(segments);
+    }
+
+    private String relativePath(File baseDir, File file) throws IOException
+    {
+        String base = baseDir.getCanonicalPath() + File.separator;
+        String path = file.getCanonicalPath();
+
+        if (!path.startsWith(base))
+        {
+            return null;
+        }
+
+        return path.substring(base.length()).replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Returns where the poms the session for the branch is built from are read, or null if it can't be cached.
+     * The poms of the checked out branch are read from the working tree since they may have been rewritten but not
+     * yet committed, and a checkout carries the changed poms over to the other branch.
+     */
+    private ReactorSessionCache.PomSource getPomSource(Repository repo, String branchName, String currentBranch, boolean fromObjectDatabase) throws IOException
+    {
+        if (branchName.equals(currentBranch))
+        {
+            return ReactorSessionCache.workingTree(repo);
+        }
+
+        Ref currentRef = repo.getRef(currentBranch);
+        Ref branchRef = repo.getRef(branchName);
+
+        if (null == currentRef || null == currentRef.getObjectId() || null == branchRef || null == branchRef.getObjectId())
+        {
+            return null;
+        }
+
+        if (fromObjectDatabase)
+        {
+            return ReactorSessionCache.committed(repo, branchRef.getObjectId());
+        }
+
+        return ReactorSessionCache.checkout(repo, currentRef.getObjectId(), branchRef.getObjectId());
+    }
+
+    /**
+     * @return the paths of the poms of the session's projects and their parents that are in the working tree
+     */
+    private Set<String> getReactorPomPaths(Repository repo, MavenSession session) throws IOException
+    {
+        File workTree = repo.getWorkTree().getCanonicalFile();
+        Set<String> paths = new LinkedHashSet<String>();
+        Set<MavenProject> seen = Sets.newSetFromMap(new IdentityHashMap<MavenProject, Boolean>());
+
+        for (MavenProject project : session.getSortedProjects())
+        {
+            for (MavenProject p = project; null != p && seen.add(p); p = p.getParent())
+            {
+                String path = (null == p.getFile()) ? null : relativePath(workTree, p.getFile());
+                if (null != path)
+                {
+                    paths.add(path);
+                }
+            }
+        }
+
+        return paths;
+    }
+
+    private List<String> getProfileIds(MavenProject rootProject)
+    {
+        List<String> profileIds = new ArrayList<String>();
+        if (null != rootProject.getActiveProfiles())
+        {
+            for (Object profile : rootProject.getActiveProfiles())
+            {
+                profileIds.add(((Profile) profile).getId());
+            }
+        }
+
+        return profileIds;
+    }
+
     private List<String> getActiveProfileIds(MavenProject project, MavenSession session)
     {
         List<String> profiles = new ArrayList<String>();
@@ -1,5 +1,6 @@
 package com.atlassian.maven.plugins.jgitflow.helper;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -11,6 +12,7 @@ import com.atlassian.maven.plugins.jgitflow.provider.ContextProvider;
 import com.atlassian.maven.plugins.jgitflow.provider.ProjectCacheKey;
 import com.atlassian.maven.plugins.jgitflow.provider.VersionProvider;
 import com.atlassian.maven.plugins.jgitflow.rewrite.ProjectChangeset;
+import com.atlassian.maven.plugins.jgitflow.rewrite.ProjectRewriteListener;
 import com.atlassian.maven.plugins.jgitflow.rewrite.ProjectRewriter;
 
 import com.google.common.base.Function;
@@ -228,31 +230,39 @@ public class DefaultPomUpdater extends AbstractLogEnabled implements PomUpdater
 
     protected void doUpdate(List<MavenProject> reactorProjects, Map<String, String> originalVersions, Map<String, String> finalVersions, boolean updateDependencies, boolean consistentProjectVersions) throws MavenJGitFlowException
     {
-        String fullBranchName = branchHelper.getCurrentBranchName();
+        final String fullBranchName = branchHelper.getCurrentBranchName();
 
         getLogger().info("(" + fullBranchName + ") updating poms for all projects...");
         if (!getLogger().isDebugEnabled())
         {
             getLogger().info("turn on debug logging with -X to see exact changes");
         }
+
+        List<ProjectChangeset> reactorChanges = new ArrayList<ProjectChangeset>(reactorProjects.size());
         for (MavenProject project : reactorProjects)
         {
-            ProjectChangeset changes = new ProjectChangeset()
+            reactorChanges.add(new ProjectChangeset()
                     .with(parentReleaseVersionChange(originalVersions, finalVersions, consistentProjectVersions))
                     .with(projectReleaseVersionChange(finalVersions, consistentProjectVersions))
-                    .with(artifactReleaseVersionChange(originalVersions, finalVersions, updateDependencies));
-            try
-            {
-                getLogger().info("(" + fullBranchName + ") updating pom for " + project.getName() + "...");
-
-                projectRewriter.applyChanges(project, changes);
+                    .with(artifactReleaseVersionChange(originalVersions, finalVersions, updateDependencies)));
+        }
 
-                logChanges(changes);
-            }
-            catch (ProjectRewriteException e)
+        try
+        {
+            //log each pom as it's done so the ones that were written still show up if another fails
+            projectRewriter.applyChanges(reactorProjects, reactorChanges, contextProvider.getContext().getRewriteThreads(), new ProjectRewriteListener()
             {
-                throw new MavenJGitFlowException("Error updating poms with final versions", e);
-            }
+                @Override
+                public void rewritten(MavenProject project, ProjectChangeset changes)
+                {
+                    getLogger().info("(" + fullBranchName + ") updating pom for " + project.getName() + "...");
+                    logChanges(changes);
+                }
+            });
+        }
+        catch (ProjectRewriteException e)
+        {
+            throw new MavenJGitFlowException("Error updating poms with final versions", e);
         }
     }
 
@@ -21,5 +21,15 @@ public interface MavenExecutionHelper
 
     MavenSession reloadReactor(MavenProject rootProject, MavenSession oldSession) throws ReactorReloadException;
 
+    /**
+     * Loads the reactor of a branch to read its projects. When checkout free reactors are enabled, another branch's
+     * reactor is loaded from the object database, and the session mustn't be executed.
+     */
     MavenSession getSessionForBranch(String branchName, MavenProject rootProject, MavenSession oldSession) throws JGitFlowException, IOException, GitAPIException, ReactorReloadException;
+
+    /**
+     * Loads the reactor of a branch from the working tree, checking the branch out if needed, so the session can be
+     * executed.
+     */
+    MavenSession getBuildSessionForBranch(String branchName, MavenProject rootProject, MavenSession oldSession) throws JGitFlowException, IOException, GitAPIException, ReactorReloadException;
 }
@@ -0,0 +1,275 @@
+package com.atlassian.maven.plugins.jgitflow.helper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.execution.MavenSession;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.FileTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.WorkingTreeIterator;
+import org.eclipse.jgit.treewalk.filter.PathFilter;
+
+/**
+ * Keeps the sessions built by reloading the reactor, checked against the content of the poms they were built from.
+ * <p>
+ * Sessions are looked up by where the reactor was loaded from, i.e. the branch, the root pom and the active profiles,
+ * and a cached session is only returned while the pom of every project in it still has the content the session was
+ * built from. Only the files of the cached projects are read, whatever they are named, and a module that is added or
+ * removed shows up as a change to the pom listing it. Only a handful of sessions are kept.
+ * </p>
+ * <p>
+ * Working tree files are hashed the way git would add them, i.e. with core.autocrlf applied, so a pom that only
+ * differs in its line endings isn't taken for a changed one.
+ * </p>
+ */
+public class ReactorSessionCache
+{
+    public static final int DEFAULT_MAX_ENTRIES = 8;
+
+    private final Map<String, Entry> sessions;
+
+    /**
+     * Where the content of the poms a session depends on is read from
+     */
+    public interface PomSource
+    {
+        /**
+         * @param path the path of the pom relative to the working tree
+         * @return the blob id of the pom's content, the zero id if there is no such file, or null if the content
+         * can't be known and the session mustn't be cached
+         * @throws IOException
+         */
+        ObjectId idOf(String path) throws IOException;
+    }
+
+    public ReactorSessionCache()
+    {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public ReactorSessionCache(final int maxEntries)
+    {
+        this.sessions = new LinkedHashMap<String, Entry>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest)
+            {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param key        where the reactor is loaded from, see {@link #key(String, File, List)}
+     * @param oldSession the session the cached one must have been built from
+     * @param poms       the current content of the poms
+     * @return the cached session, or null if there is none or one of its poms has changed
+     * @throws IOException
+     */
+    public MavenSession get(String key, MavenSession oldSession, PomSource poms) throws IOException
+    {
+        Entry entry;
+        synchronized (this)
+        {
+            entry = sessions.get(key);
+        }
+
+        if (null == entry || entry.oldSession != oldSession || !entry.fingerprint.equals(fingerprint(entry.pomPaths, poms)))
+        {
+            return null;
+        }
+
+        return entry.session;
+    }
+
+    /**
+     * @param key        where the reactor was loaded from, see {@link #key(String, File, List)}
+     * @param oldSession the session the new one was built from
+     * @param session    the new session
+     * @param pomPaths   the paths of the poms the session was built from, relative to the working tree
+     * @param poms       the content of the poms the session was built from, the session isn't cached if it can't be
+     *                   known
+     * @throws IOException
+     */
+    public void put(String key, MavenSession oldSession, MavenSession session, Collection<String> pomPaths, PomSource poms) throws IOException
+    {
+        List<String> paths = new ArrayList<String>(pomPaths);
+        String fingerprint = fingerprint(paths, poms);
+        if (null == fingerprint)
+        {
+            return;
+        }
+
+        Entry entry = new Entry(oldSession, session, paths, fingerprint);
+
+        synchronized (this)
+        {
+            sessions.put(key, entry);
+        }
+    }
+
+    public synchronized void clear()
+    {
+        sessions.clear();
+    }
+
+    /**
+     * @param source         the branch the reactor is loaded from and how
+     * @param rootPom        the root pom of the reactor
+     * @param activeProfiles the ids of the active profiles
+     * @return the key the session is cached under
+     */
+    public static String key(String source, File rootPom, List<String> activeProfiles)
+    {
+        return source + " " + rootPom.getAbsolutePath() + " " + activeProfiles;
+    }
+
+    /**
+     * Reads the poms committed in a commit's tree
+     */
+    public static PomSource committed(final Repository repo, final ObjectId commitId)
+    {
+        return new PomSource()
+        {
+            private RevTree tree;
+
+            @Override
+            public ObjectId idOf(String path) throws IOException
+            {
+                if (null == tree)
+                {
+                    RevWalk walk = new RevWalk(repo);
+                    try
+                    {
+                        tree = walk.parseCommit(commitId).getTree();
+                    }
+                    finally
+                    {
+                        walk.release();
+                    }
+                }
+
+                TreeWalk treeWalk = TreeWalk.forPath(repo, path, tree);
+                if (null == treeWalk)
+                {
+                    return ObjectId.zeroId();
+                }
+
+                try
+                {
+                    return treeWalk.getObjectId(0);
+                }
+                finally
+                {
+                    treeWalk.release();
+                }
+            }
+        };
+    }
+
+    /**
+     * Reads the poms in the working tree, including changes which aren't committed
+     */
+    public static PomSource workingTree(final Repository repo)
+    {
+        return new PomSource()
+        {
+            @Override
+            public ObjectId idOf(String path) throws IOException
+            {
+                TreeWalk treeWalk = new TreeWalk(repo);
+                try
+                {
+                    treeWalk.setRecursive(true);
+                    treeWalk.addTree(new FileTreeIterator(repo));
+                    treeWalk.setFilter(PathFilter.create(path));
+
+                    while (treeWalk.next())
+                    {
+                        if (path.equals(treeWalk.getPathString()))
+                        {
+                            //hashed like git add would, with autocrlf applied
+                            return treeWalk.getTree(0, WorkingTreeIterator.class).getEntryObjectId();
+                        }
+                    }
+
+                    return ObjectId.zeroId();
+                }
+                finally
+                {
+                    treeWalk.release();
+                }
+            }
+        };
+    }
+
+    /**
+     * Reads the poms as they are after checking out another branch, which are the ones committed on the branch. A
+     * pom changed in the working tree would be carried over by the checkout, so sessions depending on one aren't
+     * cached.
+     *
+     * @param currentCommitId the commit at the tip of the checked out branch
+     * @param branchCommitId  the commit at the tip of the branch to check out
+     */
+    public static PomSource checkout(Repository repo, ObjectId currentCommitId, ObjectId branchCommitId)
+    {
+        final PomSource workingTree = workingTree(repo);
+        final PomSource current = committed(repo, currentCommitId);
+        final PomSource branch = committed(repo, branchCommitId);
+
+        return new PomSource()
+        {
+            @Override
+            public ObjectId idOf(String path) throws IOException
+            {
+                return workingTree.idOf(path).equals(current.idOf(path)) ? branch.idOf(path) : null;
+            }
+        };
+    }
+
+    /**
+     * @return the ids of the poms, or null if one of them can't be known
+     */
+    private static String fingerprint(List<String> pomPaths, PomSource poms) throws IOException
+    {
+        StringBuilder fingerprint = new StringBuilder();
+
+        for (String path : pomPaths)
+        {
+            ObjectId id = poms.idOf(path);
+            if (null == id)
+            {
+                return null;
+            }
+
+            fingerprint.append(path).append(' ').append(id.getName()).append('\n');
+        }
+
+        return fingerprint.toString();
+    }
+
+    private static class Entry
+    {
+        private final MavenSession oldSession;
+        private final MavenSession session;
+        private final List<String> pomPaths;
+        private final String fingerprint;
+
+        private Entry(MavenSession oldSession, MavenSession session, List<String> pomPaths, String fingerprint)
+        {
+            this.oldSession = oldSession;
+            this.session = session;
+            this.pomPaths = pomPaths;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -67,6 +67,7 @@ public class DefaultFlowFeatureManager extends AbstractFlowReleaseManager
 
             flow.featureStart(featureName)
                 .setAllowUntracked(ctx.isAllowUntracked())
+                .setFullFetch(ctx.isFullFetch())
                 .setPush(ctx.isPushFeatures())
                 .setStartCommit(ctx.getStartCommit())
                 .setScmMessagePrefix(ctx.getScmCommentPrefix())
@@ -82,7 +83,7 @@ public class DefaultFlowFeatureManager extends AbstractFlowReleaseManager
         {
             if (null != flow)
             {
-                JGitFlowReporter.get().flush();
+                flow.getReporter().flush();
             }
         }
 
@@ -100,7 +101,7 @@ public class DefaultFlowFeatureManager extends AbstractFlowReleaseManager
             String featureLabel = getFinishLabelAndRunPreflight(ctx, reactorProjects, session);
             flow = jGitFlowProvider.gitFlow();
 
-            JGitFlowReporter reporter = JGitFlowReporter.get();
+            JGitFlowReporter reporter = flow.getReporter();
 
             getLogger().info("running jgitflow feature finish...");
 
@@ -109,6 +110,7 @@ public class DefaultFlowFeatureManager extends AbstractFlowReleaseManager
                                           .setSquash(ctx.isSquash())
                                           .setRebase(ctx.isFeatureRebase())
                                           .setAllowUntracked(ctx.isAllowUntracked())
+                                          .setFullFetch(ctx.isFullFetch())
                                           .setPush(ctx.isPushFeatures())
                                           .setNoMerge(ctx.isNoFeatureMerge())
                                           .setSuppressFastForward(ctx.isSuppressFastForward())
@@ -139,7 +141,7 @@ public class DefaultFlowFeatureManager extends AbstractFlowReleaseManager
         {
             if (null != flow)
             {
-                JGitFlowReporter.get().flush();
+                flow.getReporter().flush();
             }
         }
     }
@@ -154,7 +156,7 @@ public class DefaultFlowFeatureManager extends AbstractFlowReleaseManager
             String featureLabel = getFinishLabelAndRunPreflight(ctx, reactorProjects, session);
             flow = jGitFlowProvider.gitFlow();
 
-            JGitFlowReporter reporter = JGitFlowReporter.get();
+            JGitFlowReporter reporter = flow.getReporter();
 
             SessionAndProjects sessionAndProjects = checkoutAndGetProjects.run(flow.getFeatureBranchPrefix() + featureLabel);
 
@@ -222,7 +224,7 @@ public class DefaultFlowFeatureManager extends AbstractFlowReleaseManager
         {
             if (null != flow)
             {
-                JGitFlowReporter.get().flush();
+                flow.getReporter().flush();
             }
         }
     }
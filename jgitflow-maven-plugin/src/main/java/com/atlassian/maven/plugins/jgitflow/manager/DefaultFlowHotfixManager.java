@@ -4,7 +4,6 @@ import java.util.List;
 
 import com.atlassian.jgitflow.core.BranchType;
 import com.atlassian.jgitflow.core.JGitFlow;
-import com.atlassian.jgitflow.core.JGitFlowReporter;
 import com.atlassian.jgitflow.core.ReleaseMergeResult;
 import com.atlassian.jgitflow.core.exception.JGitFlowException;
 import com.atlassian.maven.plugins.jgitflow.ReleaseContext;
@@ -49,6 +48,7 @@ public class DefaultFlowHotfixManager extends AbstractProductionBranchManager
 
             flow.hotfixStart(hotfixLabel)
                 .setAllowUntracked(ctx.isAllowUntracked())
+                .setFullFetch(ctx.isFullFetch())
                 .setPush(ctx.isPushHotfixes())
                 .setStartCommit(ctx.getStartCommit())
                 .setScmMessagePrefix(ctx.getScmCommentPrefix())
@@ -64,7 +64,7 @@ public class DefaultFlowHotfixManager extends AbstractProductionBranchManager
         {
             if (null != flow)
             {
-                JGitFlowReporter.get().flush();
+                flow.getReporter().flush();
             }
         }
     }
@@ -85,8 +85,10 @@ public class DefaultFlowHotfixManager extends AbstractProductionBranchManager
             ReleaseMergeResult mergeResult = flow.hotfixFinish(hotfixLabel)
                                                  .setPush(ctx.isPushHotfixes())
                                                  .setKeepBranch(ctx.isKeepBranch())
+                                                 .setInCoreMerge(ctx.isInCoreMerge())
                                                  .setNoTag(ctx.isNoTag())
                                                  .setAllowUntracked(ctx.isAllowUntracked())
+                                                 .setFullFetch(ctx.isFullFetch())
                                                  .setScmMessagePrefix(ctx.getScmCommentPrefix())
                                                  .setScmMessageSuffix(ctx.getScmCommentSuffix())
                                                  .setExtension(finishExtension)
@@ -120,7 +122,7 @@ public class DefaultFlowHotfixManager extends AbstractProductionBranchManager
         {
             if (null != flow)
             {
-                JGitFlowReporter.get().flush();
+                flow.getReporter().flush();
             }
         }
     }
@@ -50,6 +50,7 @@ public class DefaultFlowReleaseManager extends AbstractProductionBranchManager
 
             flow.releaseStart(releaseLabel)
                 .setAllowUntracked(ctx.isAllowUntracked())
+                .setFullFetch(ctx.isFullFetch())
                 .setPush(ctx.isPushReleases())
                 .setStartCommit(ctx.getStartCommit())
                 .setScmMessagePrefix(ctx.getScmCommentPrefix())
@@ -65,7 +66,7 @@ public class DefaultFlowReleaseManager extends AbstractProductionBranchManager
         {
             if (null != flow)
             {
-                JGitFlowReporter.get().flush();
+                flow.getReporter().flush();
             }
         }
     }
@@ -82,16 +83,18 @@ public class DefaultFlowReleaseManager extends AbstractProductionBranchManager
             String releaseLabel = getFinishLabelAndRunPreflight(ctx, reactorProjects, session);
 
             flow = jGitFlowProvider.gitFlow();
-            JGitFlowReporter reporter = JGitFlowReporter.get();
+            JGitFlowReporter reporter = flow.getReporter();
             MavenProject originalRootProject = ReleaseUtil.getRootProject(reactorProjects);
 
             getLogger().info("running jgitflow release finish...");
             ReleaseMergeResult mergeResult = flow.releaseFinish(releaseLabel)
                                                  .setPush(ctx.isPushReleases())
                                                  .setKeepBranch(ctx.isKeepBranch())
+                                                 .setInCoreMerge(ctx.isInCoreMerge())
                                                  .setNoTag(ctx.isNoTag())
                                                  .setSquash(ctx.isSquash())
                                                  .setAllowUntracked(ctx.isAllowUntracked())
+                                                 .setFullFetch(ctx.isFullFetch())
                                                  .setNoMerge(ctx.isNoReleaseMerge())
                                                  .setScmMessagePrefix(ctx.getScmCommentPrefix())
                                                  .setScmMessageSuffix(ctx.getScmCommentSuffix())
@@ -126,7 +129,7 @@ public class DefaultFlowReleaseManager extends AbstractProductionBranchManager
         {
             if (null != flow)
             {
-                JGitFlowReporter.get().flush();
+                flow.getReporter().flush();
             }
         }
     }
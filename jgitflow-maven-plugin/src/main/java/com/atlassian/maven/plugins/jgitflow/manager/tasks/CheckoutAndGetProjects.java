@@ -42,8 +42,8 @@ public class CheckoutAndGetProjects
 
             flow.git().checkout().setName(branchName).call();
 
-            //reload the reactor projects for develop
-            MavenSession branchSession = mavenExecutionHelper.getSessionForBranch(branchName, ReleaseUtil.getRootProject(reactorProjectsProvider.getReactorProjects()), sessionProvider.getSession());
+            //reload the reactor projects for develop, the session may be built from so it's loaded from the working tree
+            MavenSession branchSession = mavenExecutionHelper.getBuildSessionForBranch(branchName, ReleaseUtil.getRootProject(reactorProjectsProvider.getReactorProjects()), sessionProvider.getSession());
 
             return new SessionAndProjects(branchSession, branchSession.getSortedProjects());
         }
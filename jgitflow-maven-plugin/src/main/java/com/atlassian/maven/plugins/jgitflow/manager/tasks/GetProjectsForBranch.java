@@ -2,8 +2,6 @@ package com.atlassian.maven.plugins.jgitflow.manager.tasks;
 
 import java.util.List;
 
-import com.atlassian.jgitflow.core.JGitFlow;
-import com.atlassian.maven.plugins.jgitflow.ReleaseContext;
 import com.atlassian.maven.plugins.jgitflow.exception.MavenJGitFlowException;
 import com.atlassian.maven.plugins.jgitflow.helper.BranchHelper;
 import com.atlassian.maven.plugins.jgitflow.helper.MavenExecutionHelper;
@@ -39,18 +37,9 @@ public class GetProjectsForBranch
     {
         try
         {
-            JGitFlow flow = jGitFlowProvider.gitFlow();
-            ReleaseContext ctx = contextProvider.getContext();
-
-            String originalBranchName = branchHelper.getCurrentBranchName();
-
-            flow.git().checkout().setName(branchName).call();
-
-            //reload the reactor projects for develop
+            //reload the reactor projects for the branch, the helper takes care of checking it out if needed
             MavenSession branchSession = mavenExecutionHelper.getSessionForBranch(branchName, ReleaseUtil.getRootProject(originalProjects), sessionProvider.getSession());
 
-            flow.git().checkout().setName(originalBranchName).call();
-
             return branchSession.getSortedProjects();
         }
         catch (Exception e)
@@ -155,6 +155,40 @@ public abstract class AbstractJGitFlowMojo extends AbstractMojo
     @Parameter(defaultValue = "", property = "eol")
     protected String eol = "";
 
+    /**
+     * The number of poms to rewrite concurrently when updating versions across the reactor.
+     * The default of 1 rewrites them one at a time.
+     */
+    @Parameter(defaultValue = "1", property = "rewriteThreads")
+    protected int rewriteThreads = 1;
+
+    /**
+     * Whether to update pom versions by splicing the new values into the original text, leaving the rest of the
+     * file untouched, instead of re-writing the whole pom. Poms the in-place editor can't handle are re-written as before.
+     */
+    @Parameter(defaultValue = "false", property = "inPlacePomRewrite")
+    protected boolean inPlacePomRewrite = false;
+
+    /**
+     * Whether to load the projects of other branches by reading their poms straight from the git object database
+     * instead of checking each branch out. Leaves the working tree alone while versions are looked up.
+     */
+    @Parameter(defaultValue = "false", property = "checkoutFreeReactor")
+    protected boolean checkoutFreeReactor = false;
+
+    /**
+     * Whether to fetch every ref from origin. By default only develop, the branch being worked on and version tags
+     * newer than the latest local one are fetched.
+     */
+    @Parameter(defaultValue = "false", property = "fullFetch")
+    protected boolean fullFetch = false;
+
+    /**
+     * Whether to write a JSON summary of the timings and counters of each git flow command to .git/.gitflow/metrics
+     */
+    @Parameter(defaultValue = "false", property = "writeMetrics")
+    protected boolean writeMetrics = false;
+
     Settings getSettings()
     {
         return settings;
@@ -1,5 +1,6 @@
 package com.atlassian.maven.plugins.jgitflow.mojo;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -12,6 +13,7 @@ import com.atlassian.maven.plugins.jgitflow.helper.JGitFlowSetupHelper;
 import com.atlassian.maven.plugins.jgitflow.helper.ProjectHelper;
 import com.atlassian.maven.plugins.jgitflow.provider.*;
 import com.atlassian.maven.plugins.jgitflow.rewrite.ProjectChangeset;
+import com.atlassian.maven.plugins.jgitflow.rewrite.ProjectRewriteListener;
 import com.atlassian.maven.plugins.jgitflow.rewrite.ProjectRewriter;
 
 import com.google.common.base.Function;
@@ -107,20 +109,29 @@ public class BuildNumberMojo extends AbstractJGitFlowMojo
             }
         });
 
+        List<ProjectChangeset> reactorChanges = new ArrayList<ProjectChangeset>(reactorProjects.size());
         for (MavenProject project : reactorProjects)
         {
-            ProjectChangeset changes = new ProjectChangeset()
+            reactorChanges.add(new ProjectChangeset()
                     .with(parentReleaseVersionChange(originalVersions, featureSuffixedVersions, false))
                     .with(projectReleaseVersionChange(featureSuffixedVersions, false))
-                    .with(artifactReleaseVersionChange(originalVersions, featureSuffixedVersions, updateDependencies));
-            try
-            {
-                projectRewriter.applyChanges(project, changes);
-            }
-            catch (ProjectRewriteException e)
+                    .with(artifactReleaseVersionChange(originalVersions, featureSuffixedVersions, updateDependencies)));
+        }
+
+        try
+        {
+            projectRewriter.applyChanges(reactorProjects, reactorChanges, rewriteThreads, new ProjectRewriteListener()
             {
-                throw new MojoExecutionException("Error updating poms with build numbers versions", e);
-            }
+                @Override
+                public void rewritten(MavenProject project, ProjectChangeset changes)
+                {
+                    getLog().debug("updated pom for " + project.getName());
+                }
+            });
+        }
+        catch (ProjectRewriteException e)
+        {
+            throw new MojoExecutionException("Error updating poms with build numbers versions", e);
         }
     }
 
@@ -134,6 +145,11 @@ public class BuildNumberMojo extends AbstractJGitFlowMojo
                 .setUsername(username)
                 .setPassword(password)
                 .setEol(eol)
+                .setRewriteThreads(rewriteThreads)
+                .setInPlacePomRewrite(inPlacePomRewrite)
+                .setCheckoutFreeReactor(checkoutFreeReactor)
+                .setFullFetch(fullFetch)
+                .setWriteMetrics(writeMetrics)
                 .setAllowRemote(isRemoteAllowed()));
         sessionProvider.setSession(session);
         projectsProvider.setReactorProjects(projects);
@@ -54,6 +54,11 @@ public class FeatureDeployMojo extends AbstractJGitFlowMojo
            .setUsername(username)
            .setPassword(password)
                 .setEol(eol)
+                .setRewriteThreads(rewriteThreads)
+                .setInPlacePomRewrite(inPlacePomRewrite)
+                .setCheckoutFreeReactor(checkoutFreeReactor)
+                .setFullFetch(fullFetch)
+                .setWriteMetrics(writeMetrics)
            .setUseReleaseProfile(false)
            .setFlowInitContext(getFlowInitContext().getJGitFlowContext());
 
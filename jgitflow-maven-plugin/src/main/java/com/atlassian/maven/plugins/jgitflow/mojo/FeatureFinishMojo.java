@@ -111,6 +111,11 @@ public class FeatureFinishMojo extends AbstractJGitFlowMojo
            .setPullDevelop(pullDevelop)
            .setUseReleaseProfile(false)
                 .setEol(eol)
+                .setRewriteThreads(rewriteThreads)
+                .setInPlacePomRewrite(inPlacePomRewrite)
+                .setCheckoutFreeReactor(checkoutFreeReactor)
+                .setFullFetch(fullFetch)
+                .setWriteMetrics(writeMetrics)
            .setConsistentProjectVersions(consistentProjectVersions)
            .setFlowInitContext(getFlowInitContext().getJGitFlowContext());
 
@@ -67,6 +67,11 @@ public class FeatureStartMojo extends AbstractJGitFlowMojo
            .setUsername(username)
            .setPassword(password)
                 .setEol(eol)
+                .setRewriteThreads(rewriteThreads)
+                .setInPlacePomRewrite(inPlacePomRewrite)
+                .setCheckoutFreeReactor(checkoutFreeReactor)
+                .setFullFetch(fullFetch)
+                .setWriteMetrics(writeMetrics)
            .setFlowInitContext(getFlowInitContext().getJGitFlowContext());
 
         try
@@ -50,6 +50,13 @@ public class HotfixFinishMojo extends AbstractJGitFlowMojo
     @Parameter(defaultValue = "false", property = "keepBranch")
     private boolean keepBranch = false;
 
+    /**
+     * Whether to do the merges and tagging straight in the git object database instead of checking out each branch.
+     * Merges with conflicts, or that extensions need checked out, still go through the working tree.
+     */
+    @Parameter(defaultValue = "false", property = "inCoreMerge")
+    private boolean inCoreMerge = false;
+
     /**
      * Whether to squash commits into a single commit before merging.
      */
@@ -137,6 +144,7 @@ public class HotfixFinishMojo extends AbstractJGitFlowMojo
            .setDefaultDevelopmentVersion(developmentVersion)
            .setPushHotfixes(pushHotfixes)
            .setKeepBranch(keepBranch)
+           .setInCoreMerge(inCoreMerge)
            .setSquash(squash)
            .setNoTag(noTag)
            .setNoDeploy(noDeploy)
@@ -158,6 +166,11 @@ public class HotfixFinishMojo extends AbstractJGitFlowMojo
            .setArgs(arguments)
            .setGoals(goals)
                 .setEol(eol)
+                .setRewriteThreads(rewriteThreads)
+                .setInPlacePomRewrite(inPlacePomRewrite)
+                .setCheckoutFreeReactor(checkoutFreeReactor)
+                .setFullFetch(fullFetch)
+                .setWriteMetrics(writeMetrics)
            .setHotfixFinishExtension(extensionObject)
            .setFlowInitContext(getFlowInitContext().getJGitFlowContext())
            .setConsistentProjectVersions(consistentProjectVersions);
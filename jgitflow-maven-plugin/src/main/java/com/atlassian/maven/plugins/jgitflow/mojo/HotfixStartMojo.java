@@ -90,6 +90,11 @@ public class HotfixStartMojo extends AbstractJGitFlowMojo
            .setUsername(username)
            .setPassword(password)
                 .setEol(eol)
+                .setRewriteThreads(rewriteThreads)
+                .setInPlacePomRewrite(inPlacePomRewrite)
+                .setCheckoutFreeReactor(checkoutFreeReactor)
+                .setFullFetch(fullFetch)
+                .setWriteMetrics(writeMetrics)
            .setHotfixStartExtension(extensionObject)
            .setFlowInitContext(getFlowInitContext().getJGitFlowContext());
 
@@ -44,6 +44,13 @@ public class ReleaseFinishMojo extends AbstractJGitFlowMojo
     @Parameter(defaultValue = "false", property = "keepBranch")
     private boolean keepBranch = false;
 
+    /**
+     * Whether to do the merges and tagging straight in the git object database instead of checking out each branch.
+     * Merges with conflicts, or that extensions need checked out, still go through the working tree.
+     */
+    @Parameter(defaultValue = "false", property = "inCoreMerge")
+    private boolean inCoreMerge = false;
+
     /**
      * Whether to squash commits into a single commit before merging.
      */
@@ -142,6 +149,7 @@ public class ReleaseFinishMojo extends AbstractJGitFlowMojo
            .setReleaseBranchVersionSuffix(releaseBranchVersionSuffix)
            .setPushReleases(pushReleases)
            .setKeepBranch(keepBranch)
+           .setInCoreMerge(inCoreMerge)
            .setSquash(squash)
            .setNoTag(noTag)
            .setNoBuild(noReleaseBuild)
@@ -167,6 +175,11 @@ public class ReleaseFinishMojo extends AbstractJGitFlowMojo
            .setReleaseFinishExtension(extensionObject)
            .setFlowInitContext(getFlowInitContext().getJGitFlowContext())
                 .setEol(eol)
+                .setRewriteThreads(rewriteThreads)
+                .setInPlacePomRewrite(inPlacePomRewrite)
+                .setCheckoutFreeReactor(checkoutFreeReactor)
+                .setFullFetch(fullFetch)
+                .setWriteMetrics(writeMetrics)
            .setConsistentProjectVersions(consistentProjectVersions);
 
         try
@@ -106,6 +106,11 @@ public class ReleaseStartMojo extends AbstractJGitFlowMojo
            .setPassword(password)
            .setReleaseStartExtension(extensionObject)
                 .setEol(eol)
+                .setRewriteThreads(rewriteThreads)
+                .setInPlacePomRewrite(inPlacePomRewrite)
+                .setCheckoutFreeReactor(checkoutFreeReactor)
+                .setFullFetch(fullFetch)
+                .setWriteMetrics(writeMetrics)
            .setFlowInitContext(getFlowInitContext().getJGitFlowContext());
 
         try
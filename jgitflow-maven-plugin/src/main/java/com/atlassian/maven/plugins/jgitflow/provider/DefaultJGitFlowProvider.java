@@ -1,15 +1,18 @@
 package com.atlassian.maven.plugins.jgitflow.provider;
 
 import com.atlassian.jgitflow.core.JGitFlow;
-import com.atlassian.jgitflow.core.JGitFlowReporter;
 import com.atlassian.jgitflow.core.exception.JGitFlowException;
+import com.atlassian.jgitflow.core.metrics.JGitFlowMetrics;
+import com.atlassian.jgitflow.core.metrics.JsonSummaryCollector;
 import com.atlassian.maven.plugins.jgitflow.ReleaseContext;
 
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
+import org.codehaus.plexus.personality.plexus.lifecycle.phase.Disposable;
+import org.eclipse.jgit.lib.Repository;
 
 @Component(role = JGitFlowProvider.class)
-public class DefaultJGitFlowProvider implements JGitFlowProvider
+public class DefaultJGitFlowProvider implements JGitFlowProvider, Disposable
 {
     private JGitFlow jgitFlow;
 
@@ -29,11 +32,33 @@ public class DefaultJGitFlowProvider implements JGitFlowProvider
                                .setAlwaysUpdateOrigin(ctx.isAlwaysUpdateOrigin())
                                .setPullMaster(ctx.isPullMaster())
                                .setPullDevelop(ctx.isPullDevelop())
+                               .setFullFetch(ctx.isFullFetch())
                                .call();
 
-            JGitFlowReporter.get().clearLog();
+            jgitFlow.getReporter().clearLog();
+
+            if (ctx.isWriteMetrics())
+            {
+                //the metrics outlive the flow, so a flow created again for the same repository reuses the collector
+                Repository repo = jgitFlow.git().getRepository();
+                JGitFlowMetrics metrics = JGitFlowMetrics.forRepository(repo);
+                if (null == metrics.getListener(JsonSummaryCollector.class))
+                {
+                    metrics.addListener(JsonSummaryCollector.forRepository(repo));
+                }
+            }
         }
 
         return jgitFlow;
     }
+
+    @Override
+    public void dispose()
+    {
+        if (null != jgitFlow)
+        {
+            jgitFlow.close();
+            jgitFlow = null;
+        }
+    }
 }
@@ -36,6 +36,7 @@ public class DefaultVersionProvider extends AbstractLogEnabled implements Versio
     private final Map<ProjectCacheKey, Map<String, String>> nextHotfixVersions;
     private final Map<ProjectCacheKey, Map<String, String>> lastReleaseVersions;
     private final Map<ProjectCacheKey, Map<String, String>> originalVersions;
+    private final Map<String, DefaultVersionInfo> parsedVersions;
 
     @Requirement
     private PrettyPrompter prompter;
@@ -59,6 +60,7 @@ public class DefaultVersionProvider extends AbstractLogEnabled implements Versio
         this.nextHotfixVersions = new HashMap<ProjectCacheKey, Map<String, String>>();
         this.lastReleaseVersions = new HashMap<ProjectCacheKey, Map<String, String>>();
         this.originalVersions = new HashMap<ProjectCacheKey, Map<String, String>>();
+        this.parsedVersions = new HashMap<String, DefaultVersionInfo>();
     }
 
     @Override
@@ -341,7 +343,7 @@ public class DefaultVersionProvider extends AbstractLogEnabled implements Versio
         DefaultVersionInfo info;
         try
         {
-            info = new DefaultVersionInfo(incomingVersion);
+            info = getDefaultVersionInfo(incomingVersion);
         }
         catch (VersionParseException e)
         {
@@ -349,7 +351,7 @@ public class DefaultVersionProvider extends AbstractLogEnabled implements Versio
             {
                 try
                 {
-                    info = new DefaultVersionInfo("1.0");
+                    info = getDefaultVersionInfo("1.0");
                 }
                 catch (VersionParseException e1)
                 {
@@ -389,8 +391,8 @@ public class DefaultVersionProvider extends AbstractLogEnabled implements Versio
         {
             try
             {
-                DefaultVersionInfo defaultInfo = new DefaultVersionInfo(defaultVersion);
-                DefaultVersionInfo lastReleaseInfo = new DefaultVersionInfo(lastRelease);
+                DefaultVersionInfo defaultInfo = getDefaultVersionInfo(defaultVersion);
+                DefaultVersionInfo lastReleaseInfo = getDefaultVersionInfo(lastRelease);
 
                 String higherVersion = defaultVersion;
 
@@ -456,4 +458,18 @@ public class DefaultVersionProvider extends AbstractLogEnabled implements Versio
 
         return suggestedVersion;
     }
+
+    /**
+     * DefaultVersionInfo never changes once parsed, so each version string is only parsed once
+     */
+    private DefaultVersionInfo getDefaultVersionInfo(String version) throws VersionParseException
+    {
+        DefaultVersionInfo info = parsedVersions.get(version);
+        if (null == info)
+        {
+            info = new DefaultVersionInfo(version);
+            parsedVersions.put(version, info);
+        }
+        return info;
+    }
 }
@@ -3,6 +3,7 @@ package com.atlassian.maven.plugins.jgitflow.rewrite;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import com.atlassian.maven.plugins.jgitflow.exception.ProjectRewriteException;
 
@@ -15,6 +16,7 @@ import org.apache.maven.shared.release.util.ReleaseUtil;
 import org.jdom2.Element;
 import org.jdom2.Namespace;
 
+import static com.atlassian.maven.plugins.jgitflow.rewrite.ProjectChangeUtils.containsElementText;
 import static com.atlassian.maven.plugins.jgitflow.rewrite.ProjectChangeUtils.getElementListOrEmpty;
 import static com.atlassian.maven.plugins.jgitflow.rewrite.ProjectChangeUtils.getNamespaceOrNull;
 
@@ -24,6 +26,8 @@ import static com.atlassian.maven.plugins.jgitflow.rewrite.ProjectChangeUtils.ge
 public class ArtifactReleaseVersionChange implements ProjectChange
 {
     private static final String LF = System.getProperty("line.separator") + "  - ";
+    private static final Pattern INTERPOLATED_COORDINATES = Pattern.compile("<(groupId|artifactId)>\\s*\\$\\{");
+    private static final Pattern PROPERTY_VERSION = Pattern.compile("<version>\\s*\\$\\{");
     private final Map<String, String> originalVersions;
     private final Map<String, String> releaseVersions;
     private final boolean updateDependencies;
@@ -239,6 +243,40 @@ public class ArtifactReleaseVersionChange implements ProjectChange
         return modified;
     }
 
+    @Override
+    public boolean mayChange(MavenProject project, String pomContent)
+    {
+        //interpolated coordinates can't be matched against the raw text, and interpolating them may fail
+        if (INTERPOLATED_COORDINATES.matcher(pomContent).find())
+        {
+            return true;
+        }
+
+        //a version taken from a property is checked against the property even if the artifact's version doesn't change
+        boolean propertyVersions = PROPERTY_VERSION.matcher(pomContent).find();
+
+        for (Map.Entry<String, String> release : releaseVersions.entrySet())
+        {
+            if (null == release.getValue())
+            {
+                continue;
+            }
+
+            if (!propertyVersions && release.getValue().equals(originalVersions.get(release.getKey())))
+            {
+                continue;
+            }
+
+            String artifactId = release.getKey().substring(release.getKey().indexOf(':') + 1);
+            if (containsElementText(pomContent, artifactId))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     @Override
     public String toString()
     {
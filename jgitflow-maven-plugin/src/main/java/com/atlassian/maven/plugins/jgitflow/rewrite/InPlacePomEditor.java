@@ -0,0 +1,639 @@
+package com.atlassian.maven.plugins.jgitflow.rewrite;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.*;
+
+import org.jdom2.*;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.input.sax.SAXHandler;
+import org.jdom2.input.sax.SAXHandlerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+
+/**
+ * Edits a pom by splicing changed values into the original text instead of re-serialising the whole document.
+ * <p>
+ * The pom is parsed into a JDOM tree with the same {@link SAXBuilder} the full rewrite uses, recording where every
+ * element's tags are from the SAX locator. Once the changes have been applied, {@link #getModifiedContent()} copies
+ * the original text untouched and only replaces the ranges of elements whose content was changed or that had
+ * content inserted. Everything else, including whitespace inside tags, attribute order and line endings, is
+ * kept exactly as it was. Inserted text is written with the line endings the pom already uses.
+ * </p>
+ * <p>
+ * Documents with a DOCTYPE, or whose tags can't be located from the parser's positions, are rejected by
+ * {@link #parse(String, String)}, which returns null so the caller can write the whole tree instead.
+ * </p>
+ */
+public class InPlacePomEditor
+{
+    private static final String DISALLOW_DOCTYPE = "http://apache.org/xml/features/disallow-doctype-decl";
+
+    private final String content;
+    private final String eol;
+    private final Document document;
+    private final int rootStart;
+    private final int rootEnd;
+    private final Map<Element, Range> ranges;
+    private final Map<Element, List<Content>> originalContent;
+
+    private InPlacePomEditor(String content, String eol, Document document, Map<Element, Range> ranges, Map<Element, List<Content>> originalContent)
+    {
+        this.content = content;
+        this.eol = eol;
+        this.document = document;
+        this.ranges = ranges;
+        this.originalContent = originalContent;
+
+        Range root = ranges.get(document.getRootElement());
+        this.rootStart = root.start;
+        this.rootEnd = root.end;
+    }
+
+    /**
+     * @param content    the text of the pom
+     * @param defaultEol the line ending for inserted text if the pom doesn't have any line breaks
+     * @return an editor for the pom, or null if the pom can't be edited in place
+     */
+    public static InPlacePomEditor parse(String content, String defaultEol)
+    {
+        final Locating handler = new Locating(content);
+
+        SAXBuilder builder = new SAXBuilder();
+        builder.setFeature(DISALLOW_DOCTYPE, true);
+        builder.setSAXHandlerFactory(new SAXHandlerFactory()
+        {
+            @Override
+            public SAXHandler createSAXHandler(JDOMFactory factory)
+            {
+                handler.setFactory(factory);
+                return handler.handler;
+            }
+        });
+
+        try
+        {
+            Document document = builder.build(new StringReader(content));
+
+            if (!handler.located)
+            {
+                return null;
+            }
+
+            return new InPlacePomEditor(content, detectEol(content, defaultEol), document, handler.ranges, handler.originalContent);
+        }
+        catch (JDOMException e)
+        {
+            return null;
+        }
+        catch (IOException e)
+        {
+            return null;
+        }
+    }
+
+    public Document getDocument()
+    {
+        return document;
+    }
+
+    public Element getRootElement()
+    {
+        return document.getRootElement();
+    }
+
+    /**
+     * @return the text before the root element
+     */
+    public String getIntro()
+    {
+        return content.substring(0, rootStart);
+    }
+
+    /**
+     * @return the text after the root element
+     */
+    public String getOuttro()
+    {
+        return content.substring(rootEnd);
+    }
+
+    /**
+     * Splices the changes made to the document into the original text
+     *
+     * @return the edited text, or null if the document was changed in a way that can't be spliced, e.g. content was removed
+     */
+    public String getModifiedContent()
+    {
+        List<Edit> edits = new ArrayList<Edit>();
+
+        if (!collectEdits(getRootElement(), edits))
+        {
+            return null;
+        }
+
+        if (edits.isEmpty())
+        {
+            return content;
+        }
+
+        Collections.sort(edits);
+
+        StringBuilder sb = new StringBuilder(content.length() + 64 * edits.size());
+        int copied = 0;
+
+        for (Edit edit : edits)
+        {
+            sb.append(content, copied, edit.start).append(edit.replacement);
+            copied = edit.end;
+        }
+
+        return sb.append(content, copied, content.length()).toString();
+    }
+
+    private boolean collectEdits(Element element, List<Edit> edits)
+    {
+        List<Content> original = originalContent.get(element);
+        List<Content> current = element.getContent();
+
+        if (null == original)
+        {
+            //a new element, its parent will write it out
+            return true;
+        }
+
+        if (sameContent(original, current))
+        {
+            return collectChildEdits(original, edits);
+        }
+
+        Range range = ranges.get(element);
+
+        if (!hasElements(original) && !hasElements(current))
+        {
+            if (range.isEmptyElement())
+            {
+                String startTag = content.substring(range.start, range.end - 2).replaceAll("\\s+$", "");
+                edits.add(new Edit(range.start, range.end, startTag + ">" + serialize(current) + "</" + element.getQualifiedName() + ">"));
+            }
+            else
+            {
+                edits.add(new Edit(range.innerStart, range.innerEnd, serialize(current)));
+            }
+
+            return true;
+        }
+
+        //only insertions into elements with children can be spliced
+        if (range.isEmptyElement())
+        {
+            return false;
+        }
+
+        int insertAt = range.innerStart;
+        int o = 0;
+        List<Content> inserted = new ArrayList<Content>();
+
+        for (Content node : current)
+        {
+            if (o < original.size() && node == original.get(o))
+            {
+                if (!inserted.isEmpty())
+                {
+                    if (insertAt < 0)
+                    {
+                        return false;
+                    }
+
+                    edits.add(new Edit(insertAt, insertAt, serialize(inserted)));
+                    inserted.clear();
+                }
+
+                insertAt = endOf(range, original, o);
+                o++;
+            }
+            else if (original.contains(node))
+            {
+                //content was moved around
+                return false;
+            }
+            else
+            {
+                inserted.add(node);
+            }
+        }
+
+        if (o < original.size())
+        {
+            //content was removed
+            return false;
+        }
+
+        if (!inserted.isEmpty())
+        {
+            if (insertAt < 0)
+            {
+                return false;
+            }
+
+            edits.add(new Edit(insertAt, insertAt, serialize(inserted)));
+        }
+
+        return collectChildEdits(original, edits);
+    }
+
+    /**
+     * Only element positions are known, so the end of a node is where the next element starts, or where an element
+     * ends. Between two nodes that aren't elements, e.g. text followed by a comment, it's unknown.
+     *
+     * @return where the original child at the given index ends, or -1 if it isn't known
+     */
+    private int endOf(Range parent, List<Content> original, int index)
+    {
+        if (index == original.size() - 1)
+        {
+            return parent.innerEnd;
+        }
+
+        Content next = original.get(index + 1);
+        if (next instanceof Element)
+        {
+            return ranges.get(next).start;
+        }
+
+        Content node = original.get(index);
+        if (node instanceof Element)
+        {
+            return ranges.get(node).end;
+        }
+
+        return -1;
+    }
+
+    private boolean collectChildEdits(List<Content> nodes, List<Edit> edits)
+    {
+        for (Content node : nodes)
+        {
+            if (node instanceof Element && !collectEdits((Element) node, edits))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean sameContent(List<Content> original, List<Content> current)
+    {
+        if (original.size() != current.size())
+        {
+            return false;
+        }
+
+        for (int i = 0; i < original.size(); i++)
+        {
+            if (original.get(i) != current.get(i))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean hasElements(List<Content> nodes)
+    {
+        for (Content node : nodes)
+        {
+            if (node instanceof Element)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Writes new content with the pom's line endings. The parser reports every line break as {@code \n} and changes
+     * may add text with a different line ending than the pom uses.
+     */
+    private String serialize(List<Content> nodes)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        for (Content node : nodes)
+        {
+            serialize(node, sb);
+        }
+
+        return toEol(sb.toString());
+    }
+
+    private String toEol(String text)
+    {
+        if (text.indexOf('\n') < 0 && text.indexOf('\r') < 0)
+        {
+            return text;
+        }
+
+        return text.replace("\r\n", "\n").replace('\r', '\n').replace("\n", eol);
+    }
+
+    private static String detectEol(String content, String defaultEol)
+    {
+        int lf = content.indexOf('\n');
+        if (lf > 0 && content.charAt(lf - 1) == '\r')
+        {
+            return "\r\n";
+        }
+
+        if (lf >= 0)
+        {
+            return "\n";
+        }
+
+        return content.indexOf('\r') >= 0 ? "\r" : defaultEol;
+    }
+
+    private static void serialize(Content node, StringBuilder sb)
+    {
+        if (node instanceof CDATA)
+        {
+            sb.append("<![CDATA[").append(((CDATA) node).getText()).append("]]>");
+        }
+        else if (node instanceof Text)
+        {
+            sb.append(escape(((Text) node).getText(), false));
+        }
+        else if (node instanceof Comment)
+        {
+            sb.append("<!--").append(((Comment) node).getText()).append("-->");
+        }
+        else if (node instanceof ProcessingInstruction)
+        {
+            ProcessingInstruction pi = (ProcessingInstruction) node;
+            sb.append("<?").append(pi.getTarget()).append(' ').append(pi.getData()).append("?>");
+        }
+        else if (node instanceof Element)
+        {
+            Element element = (Element) node;
+            sb.append('<').append(element.getQualifiedName());
+
+            for (Attribute attribute : element.getAttributes())
+            {
+                sb.append(' ').append(attribute.getQualifiedName()).append("=\"").append(escape(attribute.getValue(), true)).append('"');
+            }
+
+            if (element.getContentSize() < 1)
+            {
+                sb.append(" />");
+                return;
+            }
+
+            sb.append('>');
+            for (Content child : element.getContent())
+            {
+                serialize(child, sb);
+            }
+            sb.append("</").append(element.getQualifiedName()).append('>');
+        }
+    }
+
+    /**
+     * Escapes markup characters, leaving line endings alone so they can be converted to the pom's
+     */
+    private static String escape(String value, boolean attribute)
+    {
+        StringBuilder sb = null;
+
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            String entity = null;
+
+            if (c == '&')
+            {
+                entity = "&amp;";
+            }
+            else if (c == '<')
+            {
+                entity = "&lt;";
+            }
+            else if (c == '>')
+            {
+                entity = "&gt;";
+            }
+            else if (c == '"' && attribute)
+            {
+                entity = "&quot;";
+            }
+
+            if (null != entity && null == sb)
+            {
+                sb = new StringBuilder(value.length() + 16).append(value, 0, i);
+            }
+
+            if (null != sb)
+            {
+                if (null != entity)
+                {
+                    sb.append(entity);
+                }
+                else
+                {
+                    sb.append(c);
+                }
+            }
+        }
+
+        return null == sb ? value : sb.toString();
+    }
+
+    private static class Range
+    {
+        private final int start;
+        private final int end;
+        private final int innerStart;
+        private final int innerEnd;
+
+        private Range(int start, int end, int innerStart, int innerEnd)
+        {
+            this.start = start;
+            this.end = end;
+            this.innerStart = innerStart;
+            this.innerEnd = innerEnd;
+        }
+
+        private Range(int start, int end)
+        {
+            this(start, end, -1, -1);
+        }
+
+        private boolean isEmptyElement()
+        {
+            return innerStart < 0;
+        }
+    }
+
+    private static class Edit implements Comparable<Edit>
+    {
+        private final int start;
+        private final int end;
+        private final String replacement;
+
+        private Edit(int start, int end, String replacement)
+        {
+            this.start = start;
+            this.end = end;
+            this.replacement = replacement;
+        }
+
+        @Override
+        public int compareTo(Edit o)
+        {
+            return start < o.start ? -1 : (start == o.start ? 0 : 1);
+        }
+    }
+
+    /**
+     * Records the range of every element while the {@link SAXBuilder} builds the tree.
+     * <p>
+     * SAX reports the line and column just after the tag that triggered an event. The tag itself starts at the
+     * {@code <} before that, as {@code <} can't appear inside a tag. Every position is checked against the text,
+     * and if one doesn't match the pom is not edited in place.
+     * </p>
+     */
+    private static class Locating
+    {
+        private final String content;
+        private final int[] lineStarts;
+        private final Map<Element, Range> ranges = new IdentityHashMap<Element, Range>();
+        private final Map<Element, List<Content>> originalContent = new IdentityHashMap<Element, List<Content>>();
+        private final Deque<Integer> openStarts = new ArrayDeque<Integer>();
+        private final Deque<Integer> openInnerStarts = new ArrayDeque<Integer>();
+        private boolean located = true;
+        private SAXHandler handler;
+
+        private Locating(String content)
+        {
+            this.content = content;
+            this.lineStarts = lineStarts(content);
+        }
+
+        private void setFactory(JDOMFactory factory)
+        {
+            this.handler = new SAXHandler(factory)
+            {
+                @Override
+                public void startElement(String namespaceURI, String localName, String qName, Attributes atts) throws SAXException
+                {
+                    super.startElement(namespaceURI, localName, qName, atts);
+                    started(qName, getDocumentLocator());
+                }
+
+                @Override
+                public void endElement(String namespaceURI, String localName, String qName) throws SAXException
+                {
+                    Element element = getCurrentElement();
+                    super.endElement(namespaceURI, localName, qName);
+                    ended(element, qName, getDocumentLocator());
+                }
+            };
+        }
+
+        private void started(String qName, Locator locator)
+        {
+            int innerStart = offset(locator);
+            int start = (innerStart > 0) ? content.lastIndexOf('<', innerStart - 1) : -1;
+
+            if (start < 0 || !content.startsWith("<" + qName, start) || content.charAt(innerStart - 1) != '>')
+            {
+                located = false;
+            }
+
+            openStarts.push(start);
+            openInnerStarts.push(innerStart);
+        }
+
+        private void ended(Element element, String qName, Locator locator)
+        {
+            int start = openStarts.pop();
+            int innerStart = openInnerStarts.pop();
+            int end = offset(locator);
+
+            if (!located)
+            {
+                return;
+            }
+
+            if (end == innerStart && content.startsWith("/>", end - 2))
+            {
+                ranges.put(element, new Range(start, end));
+                originalContent.put(element, new ArrayList<Content>());
+                return;
+            }
+
+            int innerEnd = content.lastIndexOf('<', end - 1);
+
+            if (innerEnd < innerStart || !content.startsWith("</" + qName, innerEnd))
+            {
+                located = false;
+                return;
+            }
+
+            ranges.put(element, new Range(start, end, innerStart, innerEnd));
+            originalContent.put(element, new ArrayList<Content>(element.getContent()));
+        }
+
+        private int offset(Locator locator)
+        {
+            if (null == locator || locator.getLineNumber() < 1 || locator.getLineNumber() > lineStarts.length || locator.getColumnNumber() < 1)
+            {
+                located = false;
+                return -1;
+            }
+
+            int offset = lineStarts[locator.getLineNumber() - 1] + locator.getColumnNumber() - 1;
+            if (offset > content.length())
+            {
+                located = false;
+                return -1;
+            }
+
+            return offset;
+        }
+
+        /**
+         * Lines are counted the way the parser does, with \r\n, \r and \n all ending a line
+         */
+        private static int[] lineStarts(String content)
+        {
+            List<Integer> starts = new ArrayList<Integer>();
+            starts.add(0);
+
+            for (int i = 0; i < content.length(); i++)
+            {
+                char c = content.charAt(i);
+                if (c == '\r' && i + 1 < content.length() && content.charAt(i + 1) == '\n')
+                {
+                    i++;
+                    starts.add(i + 1);
+                }
+                else if (c == '\r' || c == '\n')
+                {
+                    starts.add(i + 1);
+                }
+            }
+
+            int[] result = new int[starts.size()];
+            for (int i = 0; i < result.length; i++)
+            {
+                result[i] = starts.get(i);
+            }
+
+            return result;
+        }
+    }
+}
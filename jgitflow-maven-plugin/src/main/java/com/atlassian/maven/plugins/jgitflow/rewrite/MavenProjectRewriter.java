@@ -1,21 +1,31 @@
 package com.atlassian.maven.plugins.jgitflow.rewrite;
 
 import java.io.*;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.atlassian.jgitflow.core.CoreEol;
 import com.atlassian.jgitflow.core.exception.JGitFlowException;
+import com.atlassian.jgitflow.core.metrics.Counter;
+import com.atlassian.jgitflow.core.metrics.JGitFlowMetrics;
 import com.atlassian.maven.plugins.jgitflow.exception.ProjectRewriteException;
 import com.atlassian.maven.plugins.jgitflow.provider.ContextProvider;
 import com.atlassian.maven.plugins.jgitflow.provider.JGitFlowProvider;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.release.util.ReleaseUtil;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
 import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.ReaderFactory;
 import org.codehaus.plexus.util.WriterFactory;
 import org.jdom2.*;
 import org.jdom2.filter.ContentFilter;
@@ -40,25 +50,198 @@ public class MavenProjectRewriter implements ProjectRewriter
     @Override
     public void applyChanges(MavenProject project, ProjectChangeset changes) throws ProjectRewriteException
     {
-        String eol = null;
+        String eol = resolveEol();
+        JGitFlowMetrics metrics = startRewrite();
+
+        try
+        {
+            JGitFlowMetrics.count(Counter.MODULES, 1);
+            JGitFlowMetrics.count(Counter.BYTES_WRITTEN, applyChanges(project, changes, eol));
+        }
+        finally
+        {
+            if (null != metrics)
+            {
+                metrics.endSpan();
+            }
+        }
+    }
+
+    @Override
+    public void applyChanges(List<MavenProject> projects, List<ProjectChangeset> changes, int threads, ProjectRewriteListener listener) throws ProjectRewriteException
+    {
+        if (projects.size() != changes.size())
+        {
+            throw new IllegalArgumentException("expected one changeset per project but got " + changes.size() + " for " + projects.size() + " projects");
+        }
+
+        final String eol = resolveEol();
+        JGitFlowMetrics metrics = startRewrite();
+
+        try
+        {
+            JGitFlowMetrics.count(Counter.MODULES, projects.size());
+            JGitFlowMetrics.count(Counter.BYTES_WRITTEN, applyChanges(projects, changes, threads, listener, eol));
+        }
+        finally
+        {
+            if (null != metrics)
+            {
+                metrics.endSpan();
+            }
+        }
+    }
+
+    /**
+     * @return the number of bytes written. The pool threads can't count into the caller's metrics themselves.
+     */
+    private long applyChanges(List<MavenProject> projects, List<ProjectChangeset> changes, int threads, final ProjectRewriteListener listener, final String eol) throws ProjectRewriteException
+    {
+        int poolSize = Math.min(threads, projects.size());
+        long written = 0;
+
+        if (poolSize < 2)
+        {
+            for (int i = 0; i < projects.size(); i++)
+            {
+                written += applyChanges(projects.get(i), changes.get(i), eol);
+                listener.rewritten(projects.get(i), changes.get(i));
+            }
+
+            return written;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize, new ThreadFactoryBuilder().setNameFormat("jgitflow-pom-rewriter-%d").setDaemon(true).build());
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final AtomicLong bytesWritten = new AtomicLong();
+
+        try
+        {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>(projects.size());
+
+            for (int i = 0; i < projects.size(); i++)
+            {
+                final MavenProject project = projects.get(i);
+                final ProjectChangeset projectChanges = changes.get(i);
+
+                futures.add(executor.submit(new Callable<Void>()
+                {
+                    @Override
+                    public Void call() throws Exception
+                    {
+                        //fail fast, don't start on poms once another one has failed
+                        if (!failed.get())
+                        {
+                            try
+                            {
+                                bytesWritten.addAndGet(applyChanges(project, projectChanges, eol));
+                            }
+                            catch (Exception e)
+                            {
+                                failed.set(true);
+                                throw e;
+                            }
+
+                            //one project at a time, so the listener's output for a pom isn't interleaved with another's
+                            synchronized (listener)
+                            {
+                                listener.rewritten(project, projectChanges);
+                            }
+                        }
+
+                        return null;
+                    }
+                }));
+            }
+
+            ProjectRewriteException failure = null;
+
+            for (int i = 0; i < futures.size(); i++)
+            {
+                try
+                {
+                    futures.get(i).get();
+                }
+                catch (ExecutionException e)
+                {
+                    Throwable cause = e.getCause();
+
+                    if (null == failure)
+                    {
+                        failure = (cause instanceof ProjectRewriteException) ? (ProjectRewriteException) cause : new ProjectRewriteException("Error rewriting pom for " + projects.get(i).getName(), cause);
+                    }
+                    else
+                    {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+
+            if (null != failure)
+            {
+                throw failure;
+            }
+
+            return bytesWritten.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new ProjectRewriteException("Interrupted while rewriting poms", e);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the metrics the rewrite is timed in, or null if no command is being measured
+     */
+    private JGitFlowMetrics startRewrite() throws ProjectRewriteException
+    {
+        if (!JGitFlowMetrics.isActive())
+        {
+            return null;
+        }
 
+        try
+        {
+            JGitFlowMetrics metrics = JGitFlowMetrics.forRepository(jGitFlowProvider.gitFlow().git().getRepository());
+            metrics.startPhase("pom rewrite");
+            return metrics;
+        }
+        catch (JGitFlowException e)
+        {
+            throw new ProjectRewriteException("Error starting pom rewrite metrics!", e);
+        }
+    }
+
+    private String resolveEol() throws ProjectRewriteException
+    {
         try
         {
             String eolParam = contextProvider.getContext().getEol();
             if(CoreEol.isValid(eolParam))
             {
-                eol = CoreEol.fromString(eolParam).getEol();
+                return CoreEol.fromString(eolParam).getEol();
             }
             else 
             {
-                eol = CoreEol.getConfigValue(jGitFlowProvider.gitFlow().git().getRepository().getConfig()).getEol();
+                return CoreEol.getConfigValue(jGitFlowProvider.gitFlow().git().getRepository().getConfig()).getEol();
             }
         }
         catch (JGitFlowException e)
         {
             throw new ProjectRewriteException("Error determining proper EOL!", e);
         }
+    }
 
+    /**
+     * @return the number of bytes written, 0 if the pom was left alone
+     */
+    private long applyChanges(MavenProject project, ProjectChangeset changes, String eol) throws ProjectRewriteException
+    {
         File pomFile = project.getFile();
 
         if (null == pomFile || !pomFile.exists() || !pomFile.canRead())
@@ -68,8 +251,25 @@ public class MavenProjectRewriter implements ProjectRewriter
             throw new ProjectRewriteException("pom file must be readable! " + pomPath);
         }
 
+        String content = readPomContent(pomFile);
+
+        if (!changes.mayChange(project, content))
+        {
+            //nothing in this pom refers to a changed version, don't bother parsing or writing it
+            return 0;
+        }
+
+        if (contextProvider.getContext().isInPlacePomRewrite())
+        {
+            long written = applyChangesInPlace(project, changes, content, pomFile, eol);
+            if (written >= 0)
+            {
+                return written;
+            }
+        }
+
         //Document document = readPom(pomFile);
-        DocumentDescriptor dd = readPom(pomFile, eol);
+        DocumentDescriptor dd = readPom(content, eol);
         Document document = dd.getDocument();
         Element root = document.getRootElement();
 
@@ -80,8 +280,81 @@ public class MavenProjectRewriter implements ProjectRewriter
         if (pomWasModified)
         {
             writePom(dd, pomFile, eol);
+            return pomFile.length();
+        }
+
+        return 0;
+    }
+
+    /**
+     * Applies the changes by splicing the new values into the original pom text
+     *
+     * @return the number of bytes written, or -1 if the pom can't be edited in place and nothing was applied
+     */
+    private long applyChangesInPlace(MavenProject project, ProjectChangeset changes, String content, File pomFile, String eol) throws ProjectRewriteException
+    {
+        InPlacePomEditor editor = InPlacePomEditor.parse(content, eol);
+        if (null == editor)
+        {
+            return -1;
         }
 
+        if (applyAllChanges(project, editor.getRootElement(), changes.getItems(), eol))
+        {
+            String modified = editor.getModifiedContent();
+
+            if (null == modified)
+            {
+                //the changes restructured the pom, write out the whole tree instead
+                writePom(new DocumentDescriptor(editor.getDocument(), editor.getIntro(), editor.getOuttro()), pomFile, eol);
+            }
+            else
+            {
+                writePomContent(modified, pomFile);
+            }
+
+            return pomFile.length();
+        }
+
+        return 0;
+    }
+
+    private String readPomContent(File pomFile) throws ProjectRewriteException
+    {
+        Reader reader = null;
+
+        try
+        {
+            reader = ReaderFactory.newXmlReader(pomFile);
+            return IOUtil.toString(reader);
+        }
+        catch (IOException e)
+        {
+            throw new ProjectRewriteException("unable to read pom!", e);
+        }
+        finally
+        {
+            IOUtil.close(reader);
+        }
+    }
+
+    private void writePomContent(String content, File f) throws ProjectRewriteException
+    {
+        Writer writer = null;
+
+        try
+        {
+            writer = WriterFactory.newXmlWriter(f);
+            writer.write(content);
+        }
+        catch (IOException e)
+        {
+            throw new ProjectRewriteException("Error writing pom!", e);
+        }
+        finally
+        {
+            IOUtil.close(writer);
+        }
     }
 
     private void writePom(DocumentDescriptor dd, File f, String eol) throws ProjectRewriteException
@@ -138,14 +411,14 @@ public class MavenProjectRewriter implements ProjectRewriter
         return modified;
     }
 
-    private DocumentDescriptor readPom(File pomFile, String eol) throws ProjectRewriteException
+    private DocumentDescriptor readPom(String rawContent, String eol) throws ProjectRewriteException
     {
         String intro = null;
         String outtro = null;
 
         try
         {
-            String content = ReleaseUtil.readXmlFile(pomFile, eol);
+            String content = ReleaseUtil.normalizeLineEndings(rawContent, eol);
             // we need to eliminate any extra whitespace inside elements, as JDOM will nuke it
             content = content.replaceAll("<([^!][^>]*?)\\s{2,}([^>]*?)>", "<$1 $2>");
             content = content.replaceAll("(\\s{2,}|[^\\s])/>", "$1 />");
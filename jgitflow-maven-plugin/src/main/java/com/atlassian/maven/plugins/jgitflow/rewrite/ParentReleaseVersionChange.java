@@ -9,6 +9,7 @@ import com.atlassian.maven.plugins.jgitflow.exception.ProjectRewriteException;
 import com.google.common.base.Joiner;
 
 import org.apache.maven.artifact.ArtifactUtils;
+import org.apache.maven.model.Model;
 import org.apache.maven.project.MavenProject;
 import org.jdom2.Element;
 import org.jdom2.Namespace;
@@ -75,6 +76,38 @@ public class ParentReleaseVersionChange implements ProjectChange
         return modified;
     }
 
+    @Override
+    public boolean mayChange(MavenProject project, String pomContent)
+    {
+        if (!project.hasParent())
+        {
+            return false;
+        }
+
+        MavenProject parent = project.getParent();
+        String parentId = ArtifactUtils.versionlessKey(parent.getGroupId(), parent.getArtifactId());
+
+        String parentVersion = releaseVersions.get(parentId);
+        if (null == parentVersion && consistentProjectVersions && releaseVersions.size() > 0)
+        {
+            parentVersion = releaseVersions.values().iterator().next();
+        }
+
+        if (null == parentVersion)
+        {
+            //true if applying would fail
+            return parent.getVersion().equals(originalVersions.get(parentId));
+        }
+
+        Model originalModel = project.getOriginalModel();
+        if (null == originalModel || null == originalModel.getParent() || null == originalModel.getParent().getVersion())
+        {
+            return true;
+        }
+
+        return !parentVersion.equals(originalModel.getParent().getVersion().trim());
+    }
+
     @Override
     public String toString()
     {
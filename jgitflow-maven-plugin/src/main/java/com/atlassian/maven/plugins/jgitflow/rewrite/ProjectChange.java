@@ -11,4 +11,15 @@ import org.jdom2.Element;
 public interface ProjectChange
 {
     boolean applyChange(MavenProject project, Element root, String eol) throws ProjectRewriteException;
+
+    /**
+     * A cheap check, made before the pom is parsed, of whether applying this change could alter the pom.
+     * Implementations must only return false when they are sure {@link #applyChange} would leave the pom text as is,
+     * and must return true if {@link #applyChange} would fail so the error is still reported.
+     *
+     * @param project    the project being rewritten
+     * @param pomContent the raw text of the project's pom
+     * @return false if the change can be skipped for this pom
+     */
+    boolean mayChange(MavenProject project, String pomContent);
 }
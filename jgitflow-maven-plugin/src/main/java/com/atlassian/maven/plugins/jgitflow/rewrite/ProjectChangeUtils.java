@@ -25,6 +25,38 @@ public class ProjectChangeUtils
         return false;
     }
 
+    /**
+     * Scans raw xml for an element whose whole text is the given value, ignoring surrounding whitespace
+     */
+    public static boolean containsElementText(String xml, String value)
+    {
+        int found = xml.indexOf(value);
+
+        while (found >= 0)
+        {
+            int before = found - 1;
+            while (before >= 0 && Character.isWhitespace(xml.charAt(before)))
+            {
+                before--;
+            }
+
+            int after = found + value.length();
+            while (after < xml.length() && Character.isWhitespace(xml.charAt(after)))
+            {
+                after++;
+            }
+
+            if (before >= 0 && xml.charAt(before) == '>' && after < xml.length() && xml.charAt(after) == '<')
+            {
+                return true;
+            }
+
+            found = xml.indexOf(value, found + 1);
+        }
+
+        return false;
+    }
+
     public static Element getOrCreateElement(Element container, String path, Namespace ns)
     {
         Element last = container;
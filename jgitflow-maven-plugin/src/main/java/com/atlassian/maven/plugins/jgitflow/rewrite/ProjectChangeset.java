@@ -9,6 +9,8 @@ import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.collect.*;
 
+import org.apache.maven.project.MavenProject;
+
 import static com.google.common.base.Functions.toStringFunction;
 import static com.google.common.base.Predicates.not;
 import static com.google.common.collect.Iterables.*;
@@ -89,6 +91,24 @@ public final class ProjectChangeset
         return new ProjectChangeset(concat(changes, other.changes));
     }
 
+    /**
+     * Returns true if any change in the changeset could alter the given pom.
+     *
+     * @see ProjectChange#mayChange(org.apache.maven.project.MavenProject, String)
+     */
+    public boolean mayChange(MavenProject project, String pomContent)
+    {
+        for (ProjectChange change : changes)
+        {
+            if (change.mayChange(project, pomContent))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Returns the toString() description of every change in the changeset.
      */
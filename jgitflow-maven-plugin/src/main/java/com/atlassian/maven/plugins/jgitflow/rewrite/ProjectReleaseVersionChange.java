@@ -124,6 +124,45 @@ public class ProjectReleaseVersionChange implements ProjectChange
         return modified;
     }
 
+    @Override
+    public boolean mayChange(MavenProject project, String pomContent)
+    {
+        String projectId = ArtifactUtils.versionlessKey(project.getGroupId(), project.getArtifactId());
+        String releaseVersion = releaseVersions.get(projectId);
+
+        if (Strings.isNullOrEmpty(releaseVersion) && consistentProjectVersions && releaseVersions.size() > 0)
+        {
+            releaseVersion = releaseVersions.values().iterator().next();
+        }
+
+        if (Strings.isNullOrEmpty(releaseVersion) || null == project.getOriginalModel())
+        {
+            return true;
+        }
+
+        String declaredVersion = project.getOriginalModel().getVersion();
+
+        if (null != declaredVersion)
+        {
+            return !releaseVersion.equals(declaredVersion.trim());
+        }
+
+        //no version element, one is only added if we no longer match the parent
+        String parentVersion = null;
+        if (project.hasParent())
+        {
+            MavenProject parent = project.getParent();
+            parentVersion = releaseVersions.get(ArtifactUtils.versionlessKey(parent.getGroupId(), parent.getArtifactId()));
+
+            if (Strings.isNullOrEmpty(parentVersion) && consistentProjectVersions && releaseVersions.size() > 0)
+            {
+                parentVersion = releaseVersions.values().iterator().next();
+            }
+        }
+
+        return !releaseVersion.equals(parentVersion);
+    }
+
     @Override
     public String toString()
     {
@@ -0,0 +1,16 @@
+package com.atlassian.maven.plugins.jgitflow.rewrite;
+
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Told about each project as soon as its pom is done, so progress is reported even if a later pom fails.
+ * Calls are never made concurrently, but may come from the rewriter's pool threads.
+ */
+public interface ProjectRewriteListener
+{
+    /**
+     * @param project the project whose pom was rewritten, or left alone if nothing in it changed
+     * @param changes the changeset that was applied to it
+     */
+    void rewritten(MavenProject project, ProjectChangeset changes);
+}
@@ -1,5 +1,7 @@
 package com.atlassian.maven.plugins.jgitflow.rewrite;
 
+import java.util.List;
+
 import com.atlassian.maven.plugins.jgitflow.exception.ProjectRewriteException;
 
 import org.apache.maven.project.MavenProject;
@@ -10,4 +12,20 @@ import org.apache.maven.project.MavenProject;
 public interface ProjectRewriter
 {
     void applyChanges(MavenProject project, ProjectChangeset changes) throws ProjectRewriteException;
+
+    /**
+     * Applies a changeset to each project, rewriting up to {@code threads} poms at a time.
+     * <p>
+     * If any pom fails to be rewritten, no further poms are started and the first failure in reactor order is thrown
+     * with any others attached as suppressed exceptions. The listener has been told about every pom that was done
+     * by then.
+     * </p>
+     *
+     * @param projects the projects to rewrite
+     * @param changes  the changeset for each project, in the same order as {@code projects}
+     * @param threads  the maximum number of poms to rewrite concurrently, 1 or less rewrites them sequentially
+     * @param listener told about each project as soon as its pom is done, in completion order
+     * @throws ProjectRewriteException
+     */
+    void applyChanges(List<MavenProject> projects, List<ProjectChangeset> changes, int threads, ProjectRewriteListener listener) throws ProjectRewriteException;
 }
@@ -0,0 +1,124 @@
+package ut.com.atlassian.maven.plugins.jgitflow;
+
+import com.atlassian.maven.plugins.jgitflow.rewrite.InPlacePomEditor;
+import com.atlassian.maven.plugins.jgitflow.rewrite.ProjectChangeUtils;
+
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.Text;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @since version
+ */
+public class InPlacePomEditorTest
+{
+    private static final String POM = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\r\n"
+            + "<!-- a   comment -->\r\n"
+            + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\"   xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\r\n"
+            + "         xsi:schemaLocation=\"http://maven.apache.org/POM/4.0.0 http://maven.apache.org/maven-v4_0_0.xsd\">\r\n"
+            + "    <parent>\r\n"
+            + "        <groupId>com.example</groupId>\r\n"
+            + "        <artifactId>parent</artifactId>\r\n"
+            + "        <version>1.0-SNAPSHOT</version>\r\n"
+            + "    </parent>\r\n"
+            + "    <artifactId>child</artifactId>\r\n"
+            + "    <description>R&amp;D <![CDATA[<tools>]]></description>\r\n"
+            + "    <packaging   >jar</packaging>\r\n"
+            + "</project>\r\n";
+
+    @Test
+    public void unchangedPomIsUntouched() throws Exception
+    {
+        InPlacePomEditor editor = InPlacePomEditor.parse(POM, "\n");
+
+        assertNotNull(editor);
+        assertEquals(POM, editor.getModifiedContent());
+    }
+
+    @Test
+    public void changedTextIsSpliced() throws Exception
+    {
+        InPlacePomEditor editor = InPlacePomEditor.parse(POM, "\n");
+        Element root = editor.getRootElement();
+        Namespace ns = root.getNamespace();
+
+        assertEquals("R&D <tools>", root.getChild("description", ns).getText());
+
+        root.getChild("parent", ns).getChild("version", ns).setText("1.0");
+
+        assertEquals(POM.replace("<version>1.0-SNAPSHOT</version>", "<version>1.0</version>"), editor.getModifiedContent());
+    }
+
+    @Test
+    public void insertedElementIsSpliced() throws Exception
+    {
+        InPlacePomEditor editor = InPlacePomEditor.parse(POM, "\n");
+        Element root = editor.getRootElement();
+        Namespace ns = root.getNamespace();
+
+        int index = root.indexOf(root.getChild("artifactId", ns));
+        root.addContent(index + 1, new Text("\r\n    "));
+        root.addContent(index + 2, new Element("version", ns).setText("2.0"));
+
+        String expected = POM.replace("<artifactId>child</artifactId>", "<artifactId>child</artifactId>\r\n    <version>2.0</version>");
+        assertEquals(expected, editor.getModifiedContent());
+    }
+
+    @Test
+    public void insertedTextUsesLineEndingsOfPom() throws Exception
+    {
+        InPlacePomEditor editor = InPlacePomEditor.parse(POM, "\n");
+        Element root = editor.getRootElement();
+        Namespace ns = root.getNamespace();
+
+        //changes write "\n", the pom uses "\r\n"
+        int index = root.indexOf(root.getChild("artifactId", ns));
+        root.addContent(index + 1, new Text("\n    "));
+        root.addContent(index + 2, new Element("version", ns).setText("2.0"));
+        ProjectChangeUtils.getOrCreateElement(root, "properties", ns).setText("x");
+
+        String expected = POM.replace("<artifactId>child</artifactId>", "<artifactId>child</artifactId>\r\n    <version>2.0</version>")
+                             .replace("</packaging>\r\n</project>", "</packaging>\r\n    <properties>x</properties>\r\n  </project>");
+        String modified = editor.getModifiedContent();
+
+        assertEquals(expected, modified);
+        assertFalse(modified.replace("\r\n", "").contains("\n"));
+    }
+
+    @Test
+    public void entitiesAndNamespacesComeFromTheParser() throws Exception
+    {
+        InPlacePomEditor editor = InPlacePomEditor.parse("<p:project xmlns:p=\"urn:p\"><p:name>a &#x26; b</p:name><p:version>1</p:version></p:project>", "\n");
+        Element root = editor.getRootElement();
+        Namespace ns = Namespace.getNamespace("p", "urn:p");
+
+        assertEquals("a & b", root.getChildText("name", ns));
+
+        root.getChild("version", ns).setText("2");
+
+        assertEquals("<p:project xmlns:p=\"urn:p\"><p:name>a &#x26; b</p:name><p:version>2</p:version></p:project>", editor.getModifiedContent());
+    }
+
+    @Test
+    public void removedContentCannotBeSpliced() throws Exception
+    {
+        InPlacePomEditor editor = InPlacePomEditor.parse(POM, "\n");
+        Element root = editor.getRootElement();
+
+        root.removeChild("packaging", root.getNamespace());
+
+        assertNull(editor.getModifiedContent());
+    }
+
+    @Test
+    public void doctypeIsNotSupported() throws Exception
+    {
+        assertNull(InPlacePomEditor.parse("<!DOCTYPE project [<!ENTITY v \"1.0\">]><project><version>&v;</version></project>", "\n"));
+    }
+}
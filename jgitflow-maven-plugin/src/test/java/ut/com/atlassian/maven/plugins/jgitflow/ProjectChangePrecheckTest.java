@@ -0,0 +1,121 @@
+package ut.com.atlassian.maven.plugins.jgitflow;
+
+import java.io.StringReader;
+import java.util.Map;
+
+import com.atlassian.maven.plugins.jgitflow.exception.ProjectRewriteException;
+import com.atlassian.maven.plugins.jgitflow.rewrite.ArtifactReleaseVersionChange;
+import com.atlassian.maven.plugins.jgitflow.rewrite.ProjectChangeset;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.jdom2.input.SAXBuilder;
+import org.junit.Test;
+
+import static com.atlassian.maven.plugins.jgitflow.rewrite.ArtifactReleaseVersionChange.artifactReleaseVersionChange;
+import static com.atlassian.maven.plugins.jgitflow.rewrite.ParentReleaseVersionChange.parentReleaseVersionChange;
+import static com.atlassian.maven.plugins.jgitflow.rewrite.ProjectReleaseVersionChange.projectReleaseVersionChange;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @since version
+ */
+public class ProjectChangePrecheckTest
+{
+    private static final String POM = "<project><groupId>com.example</groupId><artifactId>unchanged</artifactId><version>1.0</version>"
+            + "<dependencies><dependency><groupId>com.example</groupId><artifactId>other</artifactId><version>2.0</version></dependency></dependencies>"
+            + "</project>";
+
+    @Test
+    public void pomWithoutChangedCoordinatesIsSkipped() throws Exception
+    {
+        Map<String, String> original = ImmutableMap.of("com.example:unchanged", "1.0", "com.example:changed", "3.0-SNAPSHOT");
+        Map<String, String> release = ImmutableMap.of("com.example:unchanged", "1.0", "com.example:changed", "3.0");
+
+        assertFalse(changeset(original, release).mayChange(project(), POM));
+    }
+
+    @Test
+    public void pomReferencingChangedCoordinatesIsRewritten() throws Exception
+    {
+        Map<String, String> original = ImmutableMap.of("com.example:unchanged", "1.0", "com.example:other", "2.0");
+        Map<String, String> release = ImmutableMap.of("com.example:unchanged", "1.0", "com.example:other", "2.1");
+
+        assertTrue(changeset(original, release).mayChange(project(), POM));
+    }
+
+    @Test
+    public void changedProjectVersionIsRewritten() throws Exception
+    {
+        Map<String, String> original = ImmutableMap.of("com.example:unchanged", "1.0");
+        Map<String, String> release = ImmutableMap.of("com.example:unchanged", "1.1");
+
+        assertTrue(changeset(original, release).mayChange(project(), POM));
+    }
+
+    @Test
+    public void missingReleaseVersionIsNotSkipped() throws Exception
+    {
+        Map<String, String> original = ImmutableMap.of("com.example:somethingElse", "1.0");
+
+        assertTrue(changeset(original, original).mayChange(project(), POM));
+    }
+
+    @Test
+    public void unchangedArtifactWithPropertyVersionIsNotSkipped() throws Exception
+    {
+        //the property doesn't hold the artifact's version, which applyChange reports as an error
+        String pom = "<project><groupId>com.example</groupId><artifactId>unchanged</artifactId><version>1.0</version>"
+                + "<properties><other.version>1.5</other.version></properties>"
+                + "<dependencies><dependency><groupId>com.example</groupId><artifactId>other</artifactId><version>${other.version}</version></dependency></dependencies>"
+                + "</project>";
+
+        Map<String, String> versions = ImmutableMap.of("com.example:unchanged", "1.0", "com.example:other", "2.0");
+        ArtifactReleaseVersionChange change = artifactReleaseVersionChange(versions, versions, true);
+
+        assertTrue(change.mayChange(project(), pom));
+
+        try
+        {
+            change.applyChange(project(), new SAXBuilder().build(new StringReader(pom)).getRootElement(), "\n");
+            fail("expected the mismatched property to be reported");
+        }
+        catch (ProjectRewriteException e)
+        {
+            assertTrue(e.getMessage().contains("other.version"));
+        }
+    }
+
+    @Test
+    public void interpolatedGroupIdIsNotSkipped() throws Exception
+    {
+        Map<String, String> versions = ImmutableMap.of("com.example:unchanged", "1.0");
+
+        assertTrue(artifactReleaseVersionChange(versions, versions, true).mayChange(project(), POM.replace("<groupId>com.example</groupId><artifactId>other", "<groupId>${project.groupId}</groupId><artifactId>other")));
+    }
+
+    private ProjectChangeset changeset(Map<String, String> original, Map<String, String> release)
+    {
+        return new ProjectChangeset()
+                .with(parentReleaseVersionChange(original, release, false))
+                .with(projectReleaseVersionChange(release, false))
+                .with(artifactReleaseVersionChange(original, release, true));
+    }
+
+    private MavenProject project()
+    {
+        Model model = new Model();
+        model.setGroupId("com.example");
+        model.setArtifactId("unchanged");
+        model.setVersion("1.0");
+
+        MavenProject project = new MavenProject(model);
+        project.setOriginalModel(model);
+
+        return project;
+    }
+}
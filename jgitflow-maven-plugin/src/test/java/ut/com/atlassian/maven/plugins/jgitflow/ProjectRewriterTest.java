@@ -0,0 +1,286 @@
+package ut.com.atlassian.maven.plugins.jgitflow;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.atlassian.maven.plugins.jgitflow.ReleaseContext;
+import com.atlassian.maven.plugins.jgitflow.exception.ProjectRewriteException;
+import com.atlassian.maven.plugins.jgitflow.provider.ContextProvider;
+import com.atlassian.maven.plugins.jgitflow.rewrite.ProjectChange;
+import com.atlassian.maven.plugins.jgitflow.rewrite.ProjectChangeUtils;
+import com.atlassian.maven.plugins.jgitflow.rewrite.ProjectChangeset;
+import com.atlassian.maven.plugins.jgitflow.rewrite.ProjectRewriteListener;
+import com.atlassian.maven.plugins.jgitflow.rewrite.ProjectRewriter;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Files;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.PlexusJUnit4TestCase;
+import org.jdom2.Element;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static com.atlassian.maven.plugins.jgitflow.rewrite.ProjectReleaseVersionChange.projectReleaseVersionChange;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @since version
+ */
+public class ProjectRewriterTest extends PlexusJUnit4TestCase
+{
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Override
+    protected InputStream getCustomConfiguration() throws Exception
+    {
+        String configBase = System.getProperty("basedir", "");
+        if (!configBase.endsWith("/"))
+        {
+            configBase = configBase + "/";
+        }
+        return org.apache.commons.io.FileUtils.openInputStream(new File(configBase + "target/components.xml"));
+    }
+
+    @Test
+    public void parallelRewriteUpdatesEveryPom() throws Exception
+    {
+        List<MavenProject> projects = projects("a", "b", "c", "d");
+        Map<String, String> versions = ImmutableMap.of("com.example:a", "1.0", "com.example:b", "1.0", "com.example:c", "1.0", "com.example:d", "1.0");
+
+        RecordingListener listener = new RecordingListener();
+        rewriter(4).applyChanges(projects, changesets(projects, versions), 4, listener);
+
+        for (MavenProject project : projects)
+        {
+            assertTrue(Files.toString(project.getFile(), UTF8).contains("<version>1.0</version>"));
+        }
+
+        assertEquals(4, listener.names.size());
+    }
+
+    @Test
+    public void finishedPomsAreReportedWhenOneFails() throws Exception
+    {
+        List<MavenProject> projects = projects("a", "b", "broken", "c");
+        Map<String, String> versions = ImmutableMap.of("com.example:a", "1.0", "com.example:b", "1.0", "com.example:c", "1.0");
+
+        //the broken pom only fails once the others are done, so the outcome doesn't depend on scheduling
+        final CountDownLatch othersDone = new CountDownLatch(3);
+        RecordingListener listener = new RecordingListener()
+        {
+            @Override
+            public void rewritten(MavenProject project, ProjectChangeset changes)
+            {
+                super.rewritten(project, changes);
+                othersDone.countDown();
+            }
+        };
+
+        List<ProjectChangeset> changes = changesets(projects, versions);
+        changes.set(2, new ProjectChangeset().with(new WaitingChange(othersDone)).with(changes.get(2)));
+
+        try
+        {
+            rewriter(4).applyChanges(projects, changes, 4, listener);
+            fail("expected the broken pom to fail");
+        }
+        catch (ProjectRewriteException e)
+        {
+            assertTrue(e.getMessage().contains("broken"));
+        }
+
+        Collections.sort(listener.names);
+        assertEquals(listOf("a", "b", "c"), listener.names);
+
+        for (MavenProject project : projects)
+        {
+            boolean rewritten = Files.toString(project.getFile(), UTF8).contains("<version>1.0</version>");
+            assertEquals(project.getArtifactId(), listener.names.contains(project.getArtifactId()), rewritten);
+        }
+    }
+
+    @Test
+    public void failuresOfSeveralPomsAreAggregated() throws Exception
+    {
+        List<MavenProject> projects = projects("broken1", "broken2", "a");
+        Map<String, String> versions = ImmutableMap.of("com.example:a", "1.0");
+
+        //both broken poms are started before either fails, so neither is skipped
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        List<ProjectChangeset> changes = changesets(projects, versions);
+        changes.set(0, new ProjectChangeset().with(new WaitingChange(bothStarted, true)).with(changes.get(0)));
+        changes.set(1, new ProjectChangeset().with(new WaitingChange(bothStarted, true)).with(changes.get(1)));
+
+        try
+        {
+            rewriter(2).applyChanges(projects, changes, 2, new RecordingListener());
+            fail("expected the broken poms to fail");
+        }
+        catch (ProjectRewriteException e)
+        {
+            //the first failure in reactor order is thrown, the other one is attached to it
+            assertTrue(e.getMessage().contains("broken1"));
+            assertEquals(1, e.getSuppressed().length);
+            assertTrue(e.getSuppressed()[0].getMessage().contains("broken2"));
+        }
+    }
+
+    @Test
+    public void inPlaceRewriteKeepsCrlfPomConsistent() throws Exception
+    {
+        MavenProject project = projects("crlf").get(0);
+        Files.write(Files.toString(project.getFile(), UTF8).replace("\n", "\r\n"), project.getFile(), UTF8);
+
+        ProjectChangeset changes = new ProjectChangeset().with(projectReleaseVersionChange(ImmutableMap.of("com.example:crlf", "1.0"), false)).with(new ProjectChange()
+        {
+            @Override
+            public boolean applyChange(MavenProject project, Element root, String eol) throws ProjectRewriteException
+            {
+                ProjectChangeUtils.getOrCreateElement(root, "properties", root.getNamespace()).setText("x");
+                return true;
+            }
+
+            @Override
+            public boolean mayChange(MavenProject project, String pomContent)
+            {
+                return true;
+            }
+        });
+
+        ProjectRewriter rewriter = rewriter(1);
+        contextProvider().getContext().setInPlacePomRewrite(true);
+        rewriter.applyChanges(Collections.singletonList(project), Collections.singletonList(changes), 1, new RecordingListener());
+
+        String pom = Files.toString(project.getFile(), UTF8);
+        assertTrue(pom.contains("<version>1.0</version>\r\n"));
+        assertTrue(pom.contains("<properties>x</properties>\r\n"));
+        assertFalse(pom.replace("\r\n", "").contains("\n"));
+    }
+
+    private ProjectRewriter rewriter(int threads) throws Exception
+    {
+        contextProvider().setContext(new ReleaseContext(tmp.getRoot()).setEol("lf").setRewriteThreads(threads));
+
+        return (ProjectRewriter) lookup(ProjectRewriter.class.getName());
+    }
+
+    private ContextProvider contextProvider() throws Exception
+    {
+        return (ContextProvider) lookup(ContextProvider.class.getName());
+    }
+
+    private List<MavenProject> projects(String... artifactIds) throws Exception
+    {
+        List<MavenProject> projects = new ArrayList<MavenProject>();
+
+        for (String artifactId : artifactIds)
+        {
+            File pom = new File(tmp.newFolder(artifactId), "pom.xml");
+            Files.write("<project>\n    <groupId>com.example</groupId>\n    <artifactId>" + artifactId + "</artifactId>\n    <version>1.0-SNAPSHOT</version>\n</project>\n", pom, UTF8);
+
+            Model model = new Model();
+            model.setGroupId("com.example");
+            model.setArtifactId(artifactId);
+            model.setVersion("1.0-SNAPSHOT");
+            model.setName(artifactId);
+
+            MavenProject project = new MavenProject(model);
+            project.setOriginalModel(model);
+            project.setFile(pom);
+            projects.add(project);
+        }
+
+        return projects;
+    }
+
+    private List<ProjectChangeset> changesets(List<MavenProject> projects, Map<String, String> versions)
+    {
+        List<ProjectChangeset> changes = new ArrayList<ProjectChangeset>();
+        for (MavenProject project : projects)
+        {
+            changes.add(new ProjectChangeset().with(projectReleaseVersionChange(versions, false)));
+        }
+
+        return changes;
+    }
+
+    private static List<String> listOf(String... names)
+    {
+        List<String> list = new ArrayList<String>();
+        Collections.addAll(list, names);
+        return list;
+    }
+
+    private static class RecordingListener implements ProjectRewriteListener
+    {
+        final List<String> names = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public void rewritten(MavenProject project, ProjectChangeset changes)
+        {
+            names.add(project.getArtifactId());
+        }
+    }
+
+    /**
+     * Holds the rewrite of a pom until the latch opens, optionally counting it down first
+     */
+    private static class WaitingChange implements ProjectChange
+    {
+        private final CountDownLatch latch;
+        private final boolean countDown;
+
+        private WaitingChange(CountDownLatch latch)
+        {
+            this(latch, false);
+        }
+
+        private WaitingChange(CountDownLatch latch, boolean countDown)
+        {
+            this.latch = latch;
+            this.countDown = countDown;
+        }
+
+        @Override
+        public boolean applyChange(MavenProject project, Element root, String eol) throws ProjectRewriteException
+        {
+            if (countDown)
+            {
+                latch.countDown();
+            }
+
+            try
+            {
+                latch.await(10, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            return false;
+        }
+
+        @Override
+        public boolean mayChange(MavenProject project, String pomContent)
+        {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package ut.com.atlassian.maven.plugins.jgitflow;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import com.atlassian.maven.plugins.jgitflow.helper.ReactorSessionCache;
+
+import com.google.common.io.Files;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.settings.Settings;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @since version
+ */
+public class ReactorSessionCacheTest
+{
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final List<String> POMS = Arrays.asList("pom.xml", "module/pom.xml", "module/pom-extra.xml");
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private Git git;
+    private Repository repo;
+    private String key;
+    private MavenSession oldSession;
+    private MavenSession session;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        git = Git.init().setDirectory(tmp.getRoot()).call();
+        repo = git.getRepository();
+
+        for (String path : POMS)
+        {
+            write(path, "<project><artifactId>" + path + "</artifactId></project>");
+        }
+        write("other/pom.xml", "<project/>");
+        commitAll("initial commit");
+
+        key = ReactorSessionCache.key("develop", new File(tmp.getRoot(), "pom.xml"), Collections.<String>emptyList());
+        oldSession = session();
+        session = session();
+    }
+
+    @Test
+    public void unchangedPomsHitTheCache() throws Exception
+    {
+        ReactorSessionCache cache = new ReactorSessionCache();
+        cache.put(key, oldSession, session, POMS, ReactorSessionCache.workingTree(repo));
+
+        //poms outside the reactor don't matter
+        write("other/pom.xml", "<project><changed/></project>");
+
+        assertSame(session, cache.get(key, oldSession, ReactorSessionCache.workingTree(repo)));
+        assertSame(session, cache.get(key, oldSession, ReactorSessionCache.committed(repo, head())));
+    }
+
+    @Test
+    public void otherKeysAndSessionsMissTheCache() throws Exception
+    {
+        ReactorSessionCache cache = new ReactorSessionCache();
+        cache.put(key, oldSession, session, POMS, ReactorSessionCache.workingTree(repo));
+
+        String otherKey = ReactorSessionCache.key("develop", new File(tmp.getRoot(), "pom.xml"), Collections.singletonList("profile"));
+
+        assertNull(cache.get(otherKey, oldSession, ReactorSessionCache.workingTree(repo)));
+        assertNull(cache.get(key, session(), ReactorSessionCache.workingTree(repo)));
+    }
+
+    @Test
+    public void changedPomsInvalidateTheSession() throws Exception
+    {
+        for (String path : POMS)
+        {
+            ReactorSessionCache cache = new ReactorSessionCache();
+            cache.put(key, oldSession, session, POMS, ReactorSessionCache.workingTree(repo));
+
+            write(path, "<project><changed/></project>");
+            assertNull(path, cache.get(key, oldSession, ReactorSessionCache.workingTree(repo)));
+
+            commitAll("changed " + path);
+            assertNull(path, cache.get(key, oldSession, ReactorSessionCache.committed(repo, head())));
+        }
+    }
+
+    @Test
+    public void checkoutKeepsChangedPoms() throws Exception
+    {
+        ObjectId develop = head();
+        git.checkout().setCreateBranch(true).setName("feature").call();
+        write("module/pom-extra.xml", "<project><feature/></project>");
+        commitAll("feature change");
+        ObjectId feature = head();
+        git.checkout().setName("master").call();
+
+        ReactorSessionCache cache = new ReactorSessionCache();
+        cache.put(key, oldSession, session, POMS, ReactorSessionCache.checkout(repo, develop, feature));
+        assertSame(session, cache.get(key, oldSession, ReactorSessionCache.committed(repo, feature)));
+
+        //an uncommitted change would be carried over by the checkout
+        write("pom.xml", "<project><changed/></project>");
+        assertNull(cache.get(key, oldSession, ReactorSessionCache.checkout(repo, develop, feature)));
+    }
+
+    @Test
+    public void autocrlfDoesNotHideBranchChanges() throws Exception
+    {
+        StoredConfig config = repo.getConfig();
+        config.setBoolean(ConfigConstants.CONFIG_CORE_SECTION, null, ConfigConstants.CONFIG_KEY_AUTOCRLF, true);
+        config.save();
+
+        //poms with windows line endings, committed with lf
+        for (String path : POMS)
+        {
+            write(path, "<project>\r\n<artifactId>" + path + "</artifactId>\r\n</project>\r\n");
+        }
+        commitAll("crlf poms");
+        ObjectId develop = head();
+
+        for (String path : POMS)
+        {
+            assertEquals(path, ReactorSessionCache.committed(repo, develop).idOf(path), ReactorSessionCache.workingTree(repo).idOf(path));
+        }
+
+        git.checkout().setCreateBranch(true).setName("feature").call();
+        git.checkout().setName("master").call();
+
+        ReactorSessionCache cache = new ReactorSessionCache();
+        cache.put(key, oldSession, session, POMS, ReactorSessionCache.checkout(repo, develop, develop));
+        assertSame(session, cache.get(key, oldSession, ReactorSessionCache.checkout(repo, develop, develop)));
+
+        //the branch moves on without the working tree being touched
+        git.checkout().setName("feature").call();
+        write("module/pom.xml", "<project>\r\n<changed/>\r\n</project>\r\n");
+        commitAll("feature change");
+        ObjectId feature = head();
+        git.checkout().setName("master").call();
+
+        assertNull(cache.get(key, oldSession, ReactorSessionCache.checkout(repo, develop, feature)));
+    }
+
+    @Test
+    public void changedPomsAreNotCachedForOtherBranches() throws Exception
+    {
+        ObjectId develop = head();
+        write("module/pom.xml", "<project><changed/></project>");
+
+        ReactorSessionCache cache = new ReactorSessionCache();
+        cache.put(key, oldSession, session, POMS, ReactorSessionCache.checkout(repo, develop, develop));
+
+        assertNull(cache.get(key, oldSession, ReactorSessionCache.checkout(repo, develop, develop)));
+    }
+
+    private MavenSession session()
+    {
+        return new MavenSession(null, new Settings(), null, null, null, null, tmp.getRoot().getAbsolutePath(), new Properties(), new Properties(), null);
+    }
+
+    private ObjectId head() throws Exception
+    {
+        return repo.resolve("HEAD");
+    }
+
+    private void write(String path, String content) throws Exception
+    {
+        File file = new File(tmp.getRoot(), path);
+        Files.createParentDirs(file);
+        Files.write(content, file, UTF8);
+    }
+
+    private void commitAll(String message) throws Exception
+    {
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage(message).call();
+    }
+}
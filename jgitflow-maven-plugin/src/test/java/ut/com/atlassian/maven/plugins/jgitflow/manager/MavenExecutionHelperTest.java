@@ -0,0 +1,113 @@
+package ut.com.atlassian.maven.plugins.jgitflow.manager;
+
+import java.io.File;
+import java.util.List;
+import java.util.Properties;
+
+import com.atlassian.jgitflow.core.JGitFlow;
+import com.atlassian.maven.plugins.jgitflow.ReleaseContext;
+import com.atlassian.maven.plugins.jgitflow.helper.MavenExecutionHelper;
+import com.atlassian.maven.plugins.jgitflow.provider.ContextProvider;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.settings.Settings;
+import org.apache.maven.shared.release.util.ReleaseUtil;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since version
+ */
+public class MavenExecutionHelperTest extends AbstractFlowManagerTest
+{
+    private static final String BRANCH = "feature/alternate-pom";
+
+    private JGitFlow flow;
+    private MavenProject rootProject;
+    private MavenSession session;
+
+    @Test
+    public void otherBranchIsReadWithoutCheckout() throws Exception
+    {
+        MavenExecutionHelper helper = setUpBranches();
+        int checkouts = flow.git().reflog().call().size();
+
+        MavenSession branchSession = helper.getSessionForBranch(BRANCH, rootProject, session);
+
+        assertEquals(checkouts, flow.git().reflog().call().size());
+        assertOnDevelop(flow);
+
+        //the module with the alternate pom name is part of the reactor, and can be rewritten from the working tree
+        MavenProject extra = findProject(branchSession.getSortedProjects(), "subproject1-extra");
+        assertEquals("3.0-SNAPSHOT", extra.getVersion());
+        assertEquals(new File(rootProject.getBasedir(), "subproject1/pom-extra.xml").getCanonicalFile(), extra.getFile().getCanonicalFile());
+    }
+
+    @Test
+    public void buildSessionIsLoadedFromWorkingTree() throws Exception
+    {
+        MavenExecutionHelper helper = setUpBranches();
+        int checkouts = flow.git().reflog().call().size();
+
+        MavenSession branchSession = helper.getBuildSessionForBranch(BRANCH, rootProject, session);
+
+        //the branch was checked out to load it, and we're back where we were
+        assertTrue(flow.git().reflog().call().size() > checkouts);
+        assertOnDevelop(flow);
+
+        String workTree = rootProject.getBasedir().getCanonicalPath() + File.separator;
+        for (MavenProject project : branchSession.getSortedProjects())
+        {
+            assertTrue(project.getFile().getPath(), project.getFile().getCanonicalPath().startsWith(workTree));
+            assertTrue(project.getFile().getPath(), project.getFile().isFile());
+        }
+
+        assertEquals("3.0-SNAPSHOT", findProject(branchSession.getSortedProjects(), "subproject1-extra").getVersion());
+    }
+
+    /**
+     * Commits the reactor on develop and a branch which changes the version of the module with the alternate pom name
+     */
+    private MavenExecutionHelper setUpBranches() throws Exception
+    {
+        List<MavenProject> projects = createReactorProjects("rewrite-for-release", "multimodule-with-alternate-pom");
+        rootProject = ReleaseUtil.getRootProject(projects);
+        File projectRoot = rootProject.getBasedir();
+
+        flow = JGitFlow.getOrInit(projectRoot);
+        flow.git().checkout().setName(flow.getDevelopBranchName()).call();
+        initialCommitAll(flow);
+
+        flow.git().checkout().setCreateBranch(true).setName(BRANCH).call();
+        File extraPom = new File(projectRoot, "subproject1/pom-extra.xml");
+        FileUtils.writeStringToFile(extraPom, FileUtils.readFileToString(extraPom).replace("2.0-SNAPSHOT", "3.0-SNAPSHOT"));
+        commitAll(flow, "changed alternate pom");
+        flow.git().checkout().setName(flow.getDevelopBranchName()).call();
+
+        ContextProvider contextProvider = (ContextProvider) lookup(ContextProvider.class.getName());
+        contextProvider.setContext(new ReleaseContext(projectRoot).setInteractive(false).setCheckoutFreeReactor(true));
+
+        session = new MavenSession(getContainer(), new Settings(), localRepository, null, null, null, projectRoot.getAbsolutePath(), new Properties(), new Properties(), null);
+
+        return (MavenExecutionHelper) lookup(MavenExecutionHelper.class.getName());
+    }
+
+    private MavenProject findProject(List<MavenProject> projects, String artifactId)
+    {
+        for (MavenProject project : projects)
+        {
+            if (artifactId.equals(project.getArtifactId()))
+            {
+                return project;
+            }
+        }
+
+        assertNotNull("no project " + artifactId, null);
+        return null;
+    }
+}